@@ -0,0 +1,204 @@
+package com.heal.doctor.benchmark;
+
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.models.DashboardStatistics;
+import com.heal.doctor.models.enums.AppointmentStatus;
+import com.heal.doctor.models.enums.AppointmentType;
+import com.heal.doctor.repositories.DoctorStatisticsRepository;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the six-query dashboard fan-out with the single $facet pipeline against a real
+ * MongoDB (override with {@code -Dbenchmark.mongo.uri}). Besides latency, the {@code mongoCommands}
+ * and {@code mongoServerMicros} counters report how many commands each dashboard load sends and
+ * how long the server spent on them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DashboardStatisticsBenchmark {
+
+    private static final String DOCTOR_ID = "benchmark-doctor";
+    private static final ZoneId ZONE = ZoneId.of("Asia/Kolkata");
+    private static final int OTHER_DOCTORS = 20;
+    private static final int DAYS = 60;
+    private static final AtomicLong COMMANDS = new AtomicLong();
+    private static final AtomicLong SERVER_MICROS = new AtomicLong();
+
+    @Param({"20", "200"})
+    public int appointmentsPerDay;
+
+    private MongoClient mongoClient;
+    private DoctorStatisticsRepository repository;
+    private ExecutorService fanOutPool;
+    private int today;
+    private Date startOfWeek;
+    private Date endOfYesterday;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class MongoLoad {
+        public long mongoCommands;
+        public long mongoServerMicros;
+
+        long commandsBefore;
+        long microsBefore;
+
+        void begin() {
+            commandsBefore = COMMANDS.get();
+            microsBefore = SERVER_MICROS.get();
+        }
+
+        void end() {
+            mongoCommands += COMMANDS.get() - commandsBefore;
+            mongoServerMicros += SERVER_MICROS.get() - microsBefore;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CommandListener listener = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                if ("aggregate".equals(event.getCommandName())) {
+                    COMMANDS.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void commandSucceeded(CommandSucceededEvent event) {
+                if ("aggregate".equals(event.getCommandName())) {
+                    SERVER_MICROS.addAndGet(event.getElapsedTime(TimeUnit.MICROSECONDS));
+                }
+            }
+        };
+        mongoClient = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(
+                        System.getProperty("benchmark.mongo.uri", "mongodb://localhost:27017")))
+                .addCommandListener(listener)
+                .build());
+        MongoTemplate mongoTemplate = new MongoTemplate(mongoClient, "heal_benchmark");
+        mongoTemplate.dropCollection(AppointmentEntity.class);
+        IndexOperations indexOperations = mongoTemplate.indexOps(AppointmentEntity.class);
+        IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(AppointmentEntity.class)
+                .forEach(indexOperations::ensureIndex);
+        seed(mongoTemplate);
+
+        repository = new MongoRepositoryFactory(mongoTemplate).getRepository(DoctorStatisticsRepository.class);
+        // Same size as the mail pool the fan-out used to run on.
+        fanOutPool = Executors.newFixedThreadPool(5);
+        today = (int) LocalDate.now(ZONE).toEpochDay();
+        startOfWeek = Date.from(LocalDate.ofEpochDay(today - 7L).atStartOfDay(ZONE).toInstant());
+        endOfYesterday = new Date(LocalDate.ofEpochDay(today).atStartOfDay(ZONE).toInstant().toEpochMilli() - 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fanOutPool.shutdownNow();
+        mongoClient.close();
+    }
+
+    @Benchmark
+    public Object fanOut(MongoLoad load) {
+        load.begin();
+        int startOfWeekDay = today - 7;
+        List<CompletableFuture<?>> futures = List.of(
+                CompletableFuture.supplyAsync(() -> repository.getTotalAppointmentsToday(today, DOCTOR_ID), fanOutPool),
+                CompletableFuture.supplyAsync(() -> repository.getTotalUntreatedAppointmentsTodayAndNotAvailable(today, DOCTOR_ID), fanOutPool),
+                CompletableFuture.supplyAsync(() -> repository.getTotalTreatedAppointmentsToday(today, DOCTOR_ID), fanOutPool),
+                CompletableFuture.supplyAsync(() -> repository.getTotalAvailableAtClinicToday(today, DOCTOR_ID), fanOutPool),
+                CompletableFuture.supplyAsync(() -> repository.getDailyTreatedPatientsLastWeek(startOfWeek, endOfYesterday, DOCTOR_ID, ZONE.getId()), fanOutPool),
+                CompletableFuture.supplyAsync(() -> repository.getLastActiveDayStats(DOCTOR_ID, startOfWeekDay, today - 1), fanOutPool));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        load.end();
+        return futures;
+    }
+
+    @Benchmark
+    public DashboardStatistics singlePipeline(MongoLoad load) {
+        load.begin();
+        DashboardStatistics statistics = repository.getDashboardStatistics(DOCTOR_ID, today - 7, today,
+                startOfWeek, endOfYesterday, ZONE.getId(), today - 1);
+        load.end();
+        return statistics;
+    }
+
+    private void seed(MongoTemplate mongoTemplate) {
+        Random random = new Random(42);
+        int firstDay = (int) LocalDate.now(ZONE).toEpochDay() - DAYS + 1;
+        List<AppointmentEntity> batch = new ArrayList<>();
+        for (int doctor = 0; doctor <= OTHER_DOCTORS; doctor++) {
+            String doctorId = doctor == 0 ? DOCTOR_ID : "doctor-" + doctor;
+            for (int day = firstDay; day < firstDay + DAYS; day++) {
+                for (int i = 0; i < appointmentsPerDay; i++) {
+                    Date appointmentTime = Date.from(LocalDate.ofEpochDay(day).atStartOfDay(ZONE)
+                            .plusMinutes(480 + random.nextInt(600)).toInstant());
+                    boolean treated = random.nextInt(10) < 6;
+                    batch.add(AppointmentEntity.builder()
+                            .appointmentId(doctorId + "-" + day + "-" + i)
+                            .doctorId(doctorId)
+                            .patientName("Patient " + i)
+                            .contact(String.format("9%09d", i))
+                            .appointmentDateTime(appointmentTime)
+                            .bookingDateTime(appointmentTime)
+                            .dayKey(day)
+                            .availableAtClinic(treated || random.nextBoolean())
+                            .treated(treated)
+                            .treatedDateTime(treated ? new Date(appointmentTime.getTime() + 1_800_000) : null)
+                            .status(random.nextInt(10) == 0 ? AppointmentStatus.CANCELLED : AppointmentStatus.ACCEPTED)
+                            .appointmentType(AppointmentType.IN_PERSON)
+                            .paymentStatus(treated)
+                            .isEmergency(random.nextInt(20) == 0)
+                            .build());
+                    if (batch.size() == 5000) {
+                        mongoTemplate.insertAll(batch);
+                        batch.clear();
+                    }
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insertAll(batch);
+        }
+    }
+}
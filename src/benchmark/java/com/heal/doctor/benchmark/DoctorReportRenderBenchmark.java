@@ -0,0 +1,120 @@
+package com.heal.doctor.benchmark;
+
+import com.heal.doctor.dto.AppointmentDTO;
+import com.heal.doctor.dto.ReportSummaryDTO;
+import com.heal.doctor.models.enums.AppointmentStatus;
+import com.heal.doctor.models.enums.AppointmentType;
+import com.heal.doctor.utils.DoctorReportRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders {@code doctor-report-template.html} at several row counts through a warmed, pooled
+ * renderer and through a fresh renderer per report, which is what every report paid before
+ * pooling. Run with the default {@code -prof gc} to also get the allocation rate per report
+ * ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DoctorReportRenderBenchmark {
+
+    private static final int ROWS_PER_CHUNK = 300;
+
+    @Param({"10", "100", "1000"})
+    public int rows;
+
+    private SpringTemplateEngine templateEngine;
+    private DoctorReportRenderer pooledRenderer;
+    private List<AppointmentDTO> appointments;
+    private Map<String, Object> header;
+    private ReportSummaryDTO summary;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setCacheable(true);
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        pooledRenderer = new DoctorReportRenderer(templateEngine, ROWS_PER_CHUNK, 1, 10_000);
+        pooledRenderer.warmUp();
+
+        header = Map.of(
+                "companyName", "HealNow",
+                "doctorName", "Benchmark Doctor",
+                "doctorId", "benchmark-doctor",
+                "specialization", "General Medicine",
+                "address", "1 Benchmark Road",
+                "reportFromDate", "01 Jan, 2026",
+                "reportToDate", "31 Jan, 2026",
+                "reportGeneratedOn", "01 Feb, 2026");
+        appointments = new ArrayList<>(rows);
+        Date appointmentTime = new Date();
+        for (int i = 0; i < rows; i++) {
+            AppointmentDTO appointment = new AppointmentDTO();
+            appointment.setAppointmentId("APT" + i);
+            appointment.setPatientName("Patient " + i);
+            appointment.setContact(String.format("9%09d", i));
+            appointment.setAppointmentDateTime(appointmentTime);
+            appointment.setStatus(i % 10 == 0 ? AppointmentStatus.CANCELLED : AppointmentStatus.BOOKED);
+            appointment.setAppointmentType(i % 3 == 0 ? AppointmentType.ONLINE : AppointmentType.IN_PERSON);
+            appointment.setTreated(i % 10 != 0 && i % 2 == 0);
+            appointments.add(appointment);
+        }
+        summary = new ReportSummaryDTO();
+        summary.setTotalAppointments((long) rows);
+        summary.setTreatedAppointments(appointments.stream().filter(AppointmentDTO::getTreated).count());
+        summary.setCancelledAppointments((long) (rows + 9) / 10);
+        summary.setPaidAppointments(0L);
+        summary.setEmergencyAppointments(0L);
+        summary.setDays(List.of());
+    }
+
+    @Benchmark
+    public int pooledRenderer() {
+        return render(pooledRenderer);
+    }
+
+    @Benchmark
+    public int freshRenderer() {
+        return render(new DoctorReportRenderer(templateEngine, ROWS_PER_CHUNK, 1, 10_000));
+    }
+
+    private int render(DoctorReportRenderer renderer) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(64 * 1024);
+        try (DoctorReportRenderer.ReportDocument document = renderer.open(header, outputStream)) {
+            appointments.forEach(document::add);
+            document.finish(summary);
+        }
+        return outputStream.size();
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.util.concurrent.Executor;
 
@@ -41,5 +42,94 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
 
+    @Bean(name = "maintenanceTaskExecutor")
+    public Executor maintenanceTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("maintenance-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Dashboard statistics queries get their own small pool so a burst of dashboard loads queues
+     * here instead of delaying outbound mail.
+     */
+    @Bean(name = "statisticsTaskExecutor")
+    public Executor statisticsTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("statistics-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs streamed report bodies. Each one holds a Mongo cursor and a PDF layout, so the pool is
+     * small and the queue bounded; requests past it are rejected rather than piling up.
+     */
+    @Bean(name = "reportStreamTaskExecutor")
+    public ThreadPoolTaskExecutor reportStreamTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("report-stream-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Background report renders. Fixed at two workers so large reports cannot crowd out request
+     * handling; submissions beyond the queue are refused with a retry hint.
+     */
+    @Bean(name = "reportJobTaskExecutor")
+    public ThreadPoolTaskExecutor reportJobTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("report-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Monthly report batch workers, kept apart from on-demand report jobs so the batch never
+     * delays a doctor's own request. The batch bounds its in-flight doctors itself.
+     */
+    @Bean(name = "reportBatchTaskExecutor")
+    public ThreadPoolTaskExecutor reportBatchTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("report-batch-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * The WebSocket broker registers its own heartbeat scheduler, which would otherwise also run
+     * every {@code @Scheduled} job. Spring picks the bean named {@code taskScheduler} when several exist.
+     */
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(4);
+        scheduler.setThreadNamePrefix("scheduled-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(false);
+        scheduler.initialize();
+        return scheduler;
+    }
+}
@@ -21,7 +21,7 @@ public class CorsConfig {
                 registry.addMapping("/**")
                         .allowedOrigins(frontendDomain)
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
-                        .allowedHeaders("Origin", "Content-Type", "Accept", "Authorization")
+                        .allowedHeaders("Origin", "Content-Type", "Accept", "Authorization", "Idempotency-Key")
                         .allowCredentials(true);
             }
         };
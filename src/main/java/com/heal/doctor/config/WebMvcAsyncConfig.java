@@ -0,0 +1,33 @@
+package com.heal.doctor.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming responses run on the report pool instead of Spring's fallback executor, which would
+ * start an unbounded thread per request.
+ */
+@Configuration
+public class WebMvcAsyncConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor reportStreamTaskExecutor;
+    private final long timeoutMillis;
+
+    public WebMvcAsyncConfig(@Qualifier("reportStreamTaskExecutor") ThreadPoolTaskExecutor reportStreamTaskExecutor,
+                             @Value("${reports.stream.timeout-seconds}") long timeoutSeconds) {
+        this.reportStreamTaskExecutor = reportStreamTaskExecutor;
+        this.timeoutMillis = TimeUnit.SECONDS.toMillis(timeoutSeconds);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(reportStreamTaskExecutor);
+        configurer.setDefaultTimeout(timeoutMillis);
+    }
+}
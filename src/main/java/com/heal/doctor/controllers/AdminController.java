@@ -1,6 +1,8 @@
 package com.heal.doctor.controllers;
 
+import com.heal.doctor.dto.AdminOverviewDTO;
 import com.heal.doctor.dto.DoctorDTO;
+import com.heal.doctor.services.IAdminOverviewService;
 import com.heal.doctor.services.IDoctorService;
 import com.heal.doctor.utils.ApiResponse;
 import lombok.AllArgsConstructor;
@@ -15,6 +17,7 @@ import java.util.List;
 public class AdminController {
 
     private final IDoctorService doctorService;
+    private final IAdminOverviewService adminOverviewService;
 
     @GetMapping
     public ResponseEntity<ApiResponse<List<DoctorDTO>>> getAllDoctors() {
@@ -22,6 +25,12 @@ public class AdminController {
         return ResponseEntity.ok(new ApiResponse<>(true, "Doctors retrieved successfully", doctors));
     }
 
+    @GetMapping("/overview")
+    public ResponseEntity<ApiResponse<AdminOverviewDTO>> getOverview(@RequestParam(required = false) Integer topK) {
+        AdminOverviewDTO overview = adminOverviewService.getOverview(topK);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Overview retrieved successfully", overview));
+    }
+
     @DeleteMapping("/{doctorId}")
     public ResponseEntity<ApiResponse<Void>> deleteDoctor(@PathVariable String doctorId) {
         doctorService.deleteDoctor(doctorId);
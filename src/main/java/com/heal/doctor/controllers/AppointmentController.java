@@ -1,17 +1,20 @@
 package com.heal.doctor.controllers;
 
+import com.heal.doctor.dto.AppointmentAuditDTO;
 import com.heal.doctor.dto.AppointmentDTO;
 import com.heal.doctor.dto.AppointmentRequestDTO;
+import com.heal.doctor.dto.CalendarDayDTO;
 import com.heal.doctor.dto.EmergencyStatusDTO;
 import com.heal.doctor.dto.UpdateAppointmentDetailsDTO;
+import com.heal.doctor.services.IAppointmentAuditService;
+import com.heal.doctor.services.IAppointmentCalendarService;
 import com.heal.doctor.services.IAppointmentService;
+import com.heal.doctor.services.IIdempotencyService;
 import com.heal.doctor.utils.ApiResponse;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -20,20 +23,34 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/v1/appointments")
 public class AppointmentController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final IAppointmentService appointmentService;
+    private final IIdempotencyService idempotencyService;
+    private final IAppointmentCalendarService appointmentCalendarService;
+    private final IAppointmentAuditService appointmentAuditService;
 
-    public AppointmentController(IAppointmentService appointmentService) {
+    public AppointmentController(IAppointmentService appointmentService, IIdempotencyService idempotencyService,
+                                 IAppointmentCalendarService appointmentCalendarService,
+                                 IAppointmentAuditService appointmentAuditService) {
         this.appointmentService = appointmentService;
+        this.idempotencyService = idempotencyService;
+        this.appointmentCalendarService = appointmentCalendarService;
+        this.appointmentAuditService = appointmentAuditService;
     }
 
     @PostMapping("/book")
-    public ResponseEntity<ApiResponse<AppointmentDTO>> bookAppointment(@Valid @RequestBody AppointmentRequestDTO requestDTO) {
-        AppointmentDTO appointment = appointmentService.bookAppointment(requestDTO);
-        return ResponseEntity.ok(ApiResponse.<AppointmentDTO>builder()
-                .success(true)
-                .message("Appointment booked successfully")
-                .data(appointment)
-                .build());
+    public ResponseEntity<ApiResponse<AppointmentDTO>> bookAppointment(
+            @Valid @RequestBody AppointmentRequestDTO requestDTO,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "book", requestDTO, AppointmentDTO.class, () -> {
+            AppointmentDTO appointment = appointmentService.bookAppointment(requestDTO);
+            return ResponseEntity.ok(ApiResponse.<AppointmentDTO>builder()
+                    .success(true)
+                    .message("Appointment booked successfully")
+                    .data(appointment)
+                    .build());
+        });
     }
 
     @GetMapping("/{appointmentId}")
@@ -46,12 +63,23 @@ public class AppointmentController {
                 .build());
     }
 
+    @GetMapping("/{appointmentId}/timeline")
+    public ResponseEntity<ApiResponse<List<AppointmentAuditDTO>>> getAppointmentTimeline(
+            @PathVariable String appointmentId,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        List<AppointmentAuditDTO> timeline = appointmentAuditService.getTimeline(appointmentId, limit);
+        return ResponseEntity.ok(ApiResponse.<List<AppointmentAuditDTO>>builder()
+                .success(true)
+                .message("Appointment timeline fetched successfully")
+                .data(timeline)
+                .build());
+    }
+
     @GetMapping("/by-doctor")
     public ResponseEntity<ApiResponse<List<AppointmentDTO>>> getAppointmentsByDoctorAndDate(@RequestParam(value = "date", required = false) String date) {
         List<AppointmentDTO> appointments;
         if (date == null || date.trim().isEmpty()) {
-            appointments = appointmentService
-                    .getAppointmentsByBookingDate(LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+            appointments = appointmentService.getAppointmentsByBookingDate(null);
             appointments = appointments.stream()
                     .sorted(
                             Comparator.comparing(AppointmentDTO::getIsEmergency, Comparator.reverseOrder())
@@ -68,11 +96,87 @@ public class AppointmentController {
                 .build());
     }
 
+    @GetMapping("/calendar")
+    public ResponseEntity<ApiResponse<List<CalendarDayDTO>>> getMonthCalendar(@RequestParam(value = "month", required = false) String month) {
+        List<CalendarDayDTO> calendar = appointmentCalendarService.getMonthCalendar(month);
+        return ResponseEntity.ok(ApiResponse.<List<CalendarDayDTO>>builder()
+                .success(true)
+                .message("Calendar fetched successfully")
+                .data(calendar)
+                .build());
+    }
+
     @PutMapping("/update/{appointmentId}")
     public ResponseEntity<ApiResponse<AppointmentDTO>> updateAppointment(
             @PathVariable String appointmentId,
-            @RequestBody UpdateAppointmentDetailsDTO updateDTO) {
+            @RequestBody UpdateAppointmentDetailsDTO updateDTO,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "update:" + appointmentId, updateDTO, AppointmentDTO.class,
+                () -> applyAppointmentUpdate(appointmentId, updateDTO));
+    }
 
+    @PatchMapping("/emergency/{appointmentId}")
+    public ResponseEntity<ApiResponse<AppointmentDTO>> updateEmergencyStatus(
+            @PathVariable String appointmentId,
+            @RequestBody EmergencyStatusDTO isEmergency,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
+        return idempotencyService.execute(idempotencyKey, "emergency:" + appointmentId, isEmergency, AppointmentDTO.class, () -> {
+            AppointmentDTO appointmentDTO = appointmentService.updateEmergencyStatus(appointmentId, isEmergency.getIsEmergency());
+            return ResponseEntity.ok(ApiResponse.<AppointmentDTO>builder()
+                    .success(true)
+                    .message("Appointment updated successfully")
+                    .data(appointmentDTO)
+                    .build());
+        });
+    }
+
+    @PatchMapping("/cancel/{appointmentId}")
+    public ResponseEntity<ApiResponse<AppointmentDTO>> cancelAppointment(
+            @PathVariable String appointmentId,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ){
+        return idempotencyService.execute(idempotencyKey, "cancel:" + appointmentId, appointmentId, AppointmentDTO.class, () -> {
+            AppointmentDTO appointmentDTO = appointmentService.cancelAppointment(appointmentId);
+            return ResponseEntity.ok(ApiResponse.<AppointmentDTO>builder()
+                    .success(true)
+                    .message("Appointment updated successfully")
+                    .data(appointmentDTO)
+                    .build());
+        });
+    }
+
+    @PatchMapping("/accept/{appointmentId}")
+    public ResponseEntity<ApiResponse<AppointmentDTO>> acceptBookingRequest(
+            @PathVariable String appointmentId,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
+        return idempotencyService.execute(idempotencyKey, "accept:" + appointmentId, appointmentId, AppointmentDTO.class, () -> {
+            AppointmentDTO appointmentDTO = appointmentService.acceptBookingRequest(appointmentId);
+            return ResponseEntity.ok(ApiResponse.<AppointmentDTO>builder()
+                    .success(true)
+                    .message("Booking request accepted")
+                    .data(appointmentDTO)
+                    .build());
+        });
+    }
+
+    @PatchMapping("/decline/{appointmentId}")
+    public ResponseEntity<ApiResponse<AppointmentDTO>> declineBookingRequest(
+            @PathVariable String appointmentId,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
+        return idempotencyService.execute(idempotencyKey, "decline:" + appointmentId, appointmentId, AppointmentDTO.class, () -> {
+            AppointmentDTO appointmentDTO = appointmentService.declineBookingRequest(appointmentId);
+            return ResponseEntity.ok(ApiResponse.<AppointmentDTO>builder()
+                    .success(true)
+                    .message("Booking request declined")
+                    .data(appointmentDTO)
+                    .build());
+        });
+    }
+
+    private ResponseEntity<ApiResponse<AppointmentDTO>> applyAppointmentUpdate(String appointmentId, UpdateAppointmentDetailsDTO updateDTO) {
         AppointmentDTO appointment = null;
 
         if (updateDTO.getAppointmentStatus() != null) {
@@ -94,32 +198,4 @@ public class AppointmentController {
                 .data(appointment)
                 .build());
     }
-
-
-    @PatchMapping("/emergency/{appointmentId}")
-    public ResponseEntity<ApiResponse<AppointmentDTO>> updateEmergencyStatus(
-            @PathVariable String appointmentId,
-            @RequestBody EmergencyStatusDTO isEmergency
-    ) {
-        AppointmentDTO appointmentDTO = appointmentService.updateEmergencyStatus(appointmentId, isEmergency.getIsEmergency());
-
-
-        return ResponseEntity.ok(ApiResponse.<AppointmentDTO>builder()
-                .success(true)
-                .message("Appointment updated successfully")
-                .data(appointmentDTO)
-                .build());
-    }
-
-    @PatchMapping("/cancel/{appointmentId}")
-    public ResponseEntity<ApiResponse<AppointmentDTO>> cancelAppointment(
-            @PathVariable String appointmentId
-    ){
-        AppointmentDTO appointmentDTO=appointmentService.cancelAppointment(appointmentId);
-        return ResponseEntity.ok(ApiResponse.<AppointmentDTO>builder()
-                .success(true)
-                .message("Appointment updated successfully")
-                .data(appointmentDTO)
-                .build());
-    }
-}
\ No newline at end of file
+}
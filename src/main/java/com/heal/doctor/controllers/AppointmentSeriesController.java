@@ -0,0 +1,50 @@
+package com.heal.doctor.controllers;
+
+import com.heal.doctor.dto.AppointmentSeriesDTO;
+import com.heal.doctor.dto.AppointmentSeriesRequestDTO;
+import com.heal.doctor.services.IAppointmentSeriesService;
+import com.heal.doctor.utils.ApiResponse;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/v1/appointment-series")
+public class AppointmentSeriesController {
+
+    private final IAppointmentSeriesService appointmentSeriesService;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<AppointmentSeriesDTO>> createSeries(@Valid @RequestBody AppointmentSeriesRequestDTO requestDTO) {
+        AppointmentSeriesDTO series = appointmentSeriesService.createSeries(requestDTO);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Appointment series created successfully", series));
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<AppointmentSeriesDTO>>> getSeries() {
+        List<AppointmentSeriesDTO> series = appointmentSeriesService.getSeriesForCurrentDoctor();
+        return ResponseEntity.ok(new ApiResponse<>(true, "Appointment series fetched successfully", series));
+    }
+
+    @GetMapping("/{seriesId}")
+    public ResponseEntity<ApiResponse<AppointmentSeriesDTO>> getSeriesById(@PathVariable String seriesId) {
+        AppointmentSeriesDTO series = appointmentSeriesService.getSeries(seriesId);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Appointment series fetched successfully", series));
+    }
+
+    @PatchMapping("/cancel/{seriesId}")
+    public ResponseEntity<ApiResponse<AppointmentSeriesDTO>> cancelSeries(@PathVariable String seriesId) {
+        AppointmentSeriesDTO series = appointmentSeriesService.cancelSeries(seriesId);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Appointment series cancelled successfully", series));
+    }
+}
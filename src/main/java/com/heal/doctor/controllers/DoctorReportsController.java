@@ -1,11 +1,21 @@
 package com.heal.doctor.controllers;
 
+import com.heal.doctor.dto.ReportJobDTO;
+import com.heal.doctor.services.IAppointmentExportService;
 import com.heal.doctor.services.IDoctorReports;
+import com.heal.doctor.services.IReportJobService;
+import com.heal.doctor.utils.ApiResponse;
+import com.heal.doctor.utils.FileDownloads;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 
@@ -14,30 +24,113 @@ import java.nio.charset.StandardCharsets;
 @RequestMapping("/api/v1/reports")
 public class DoctorReportsController {
 
+    private static final String XLSX_MEDIA_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
     private final IDoctorReports doctorReports;
+    private final IReportJobService reportJobService;
+    private final IAppointmentExportService appointmentExportService;
 
-    public DoctorReportsController(IDoctorReports doctorReports) {
+    public DoctorReportsController(IDoctorReports doctorReports,
+                                   IReportJobService reportJobService,
+                                   IAppointmentExportService appointmentExportService) {
         this.doctorReports = doctorReports;
+        this.reportJobService = reportJobService;
+        this.appointmentExportService = appointmentExportService;
     }
 
     @GetMapping(value = "/doctor", produces = MediaType.APPLICATION_PDF_VALUE)
     public ResponseEntity<byte[]> generateDoctorReport(
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate,
+            @RequestParam(defaultValue = "false") boolean summaryOnly
+    ) {
+        byte[] pdfBytes = doctorReports.generateDoctorReport(fromDate, toDate, summaryOnly);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(fromDate, toDate))
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(pdfBytes);
+    }
+
+    @GetMapping(value = "/doctor/stream", produces = MediaType.APPLICATION_PDF_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamDoctorReport(
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate,
+            @RequestParam(defaultValue = "false") boolean summaryOnly
+    ) {
+        StreamingResponseBody body = doctorReports.streamDoctorReport(fromDate, toDate, summaryOnly);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(fromDate, toDate))
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(body);
+    }
+
+    @GetMapping("/doctor/export/csv")
+    public ResponseEntity<StreamingResponseBody> exportAppointmentsCsv(
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        StreamingResponseBody body = appointmentExportService.exportCsv(fromDate, toDate, gzip);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition("appointments", fromDate, toDate, gzip ? "csv.gz" : "csv"))
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    @GetMapping("/doctor/export/xlsx")
+    public ResponseEntity<StreamingResponseBody> exportAppointmentsXlsx(
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate
+    ) {
+        StreamingResponseBody body = appointmentExportService.exportXlsx(fromDate, toDate);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition("appointments", fromDate, toDate, "xlsx"))
+                .contentType(MediaType.parseMediaType(XLSX_MEDIA_TYPE))
+                .body(body);
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<ApiResponse<ReportJobDTO>> submitReportJob(
             @RequestParam(required = false) String fromDate,
             @RequestParam(required = false) String toDate
     ) {
-        byte[] pdfBytes = doctorReports.generateDoctorReport(fromDate, toDate);
+        ReportJobDTO job = reportJobService.submit(fromDate, toDate);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new ApiResponse<>(true, "Report job accepted", job));
+    }
 
-        String fileName = String.format("doctor_report_%s_to_%s.pdf",
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<ReportJobDTO>> getReportJob(@PathVariable String jobId) {
+        ReportJobDTO job = reportJobService.getJob(jobId);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Report job fetched successfully", job));
+    }
+
+    @GetMapping("/jobs/{jobId}/download")
+    public void downloadReportJob(@PathVariable String jobId,
+                                  HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        ReportJobDTO job = reportJobService.getJob(jobId);
+        FileDownloads.send(request, response, reportJobService.getReportFile(jobId),
+                MediaType.APPLICATION_PDF_VALUE, contentDisposition(job.getFromDate(), job.getToDate()));
+    }
+
+    private String contentDisposition(String fromDate, String toDate) {
+        return contentDisposition("doctor_report", fromDate, toDate, "pdf");
+    }
+
+    private String contentDisposition(String prefix, String fromDate, String toDate, String extension) {
+        String fileName = String.format("%s_%s_to_%s.%s", prefix,
                 (fromDate != null && !fromDate.isBlank() ? fromDate : "start"),
-                (toDate != null && !toDate.isBlank() ? toDate : "today")
+                (toDate != null && !toDate.isBlank() ? toDate : "today"),
+                extension
         );
 
         String safeFileName = URLEncoder.encode(fileName, StandardCharsets.UTF_8)
                 .replaceAll("\\+", "%20");
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename*=UTF-8''" + safeFileName)
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdfBytes);
+        return "attachment; filename*=UTF-8''" + safeFileName;
     }
 }
@@ -1,21 +1,33 @@
 package com.heal.doctor.controllers;
 
+import com.heal.doctor.dto.AnalyticsBucketDTO;
 import com.heal.doctor.dto.DoctorStatisticsDTO;
+import com.heal.doctor.dto.LatencySummaryDTO;
+import com.heal.doctor.dto.UniquePatientsDTO;
 import com.heal.doctor.services.IDoctorStatisticsService;
+import com.heal.doctor.services.ILatencyHistogramService;
+import com.heal.doctor.services.IPracticeAnalyticsService;
+import com.heal.doctor.services.IUniquePatientService;
 import com.heal.doctor.services.impl.DoctorStatisticsServiceImpl;
 import com.heal.doctor.utils.ApiResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @AllArgsConstructor
 @RestController
 @RequestMapping("/api/v1/doctor/statistics")
 public class DoctorStatisticsController {
 
     private final IDoctorStatisticsService appointmentStatisticsService;
+    private final IPracticeAnalyticsService practiceAnalyticsService;
+    private final IUniquePatientService uniquePatientService;
+    private final ILatencyHistogramService latencyHistogramService;
 
 
 
@@ -24,4 +36,29 @@ public class DoctorStatisticsController {
         DoctorStatisticsDTO doctorStatisticsDTO= appointmentStatisticsService.fetchStatistics();
         return ResponseEntity.ok(new ApiResponse<>(true, "Doctor Statistics fetched Successfully", doctorStatisticsDTO));
     }
+
+    @GetMapping("/analytics")
+    public ResponseEntity<ApiResponse<List<AnalyticsBucketDTO>>> getPracticeAnalytics(
+            @RequestParam(required = false) String granularity,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        List<AnalyticsBucketDTO> buckets = practiceAnalyticsService.getBuckets(granularity, from, to);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Practice analytics fetched successfully", buckets));
+    }
+
+    @GetMapping("/unique-patients")
+    public ResponseEntity<ApiResponse<UniquePatientsDTO>> getUniquePatients(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        UniquePatientsDTO uniquePatients = uniquePatientService.countUniquePatients(from, to);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Unique patients fetched successfully", uniquePatients));
+    }
+
+    @GetMapping("/latency")
+    public ResponseEntity<ApiResponse<List<LatencySummaryDTO>>> getLatencySummary(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        List<LatencySummaryDTO> summaries = latencyHistogramService.getLatencySummary(from, to);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Latency statistics fetched successfully", summaries));
+    }
 }
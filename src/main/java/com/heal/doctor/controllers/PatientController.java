@@ -0,0 +1,38 @@
+package com.heal.doctor.controllers;
+
+import com.heal.doctor.dto.AppointmentDTO;
+import com.heal.doctor.dto.PatientSummaryDTO;
+import com.heal.doctor.services.IPatientService;
+import com.heal.doctor.utils.ApiResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/v1/patients")
+public class PatientController {
+
+    private final IPatientService patientService;
+
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<List<PatientSummaryDTO>>> searchPatients(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        List<PatientSummaryDTO> patients = patientService.searchPatients(query, limit);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Patients fetched successfully", patients));
+    }
+
+    @GetMapping("/history")
+    public ResponseEntity<ApiResponse<List<AppointmentDTO>>> getVisitHistory(
+            @RequestParam("contact") String contact,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        List<AppointmentDTO> visits = patientService.getVisitHistory(contact, limit);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Visit history fetched successfully", visits));
+    }
+}
@@ -0,0 +1,53 @@
+package com.heal.doctor.controllers;
+
+import com.heal.doctor.dto.SlotAvailabilityDTO;
+import com.heal.doctor.dto.SlotHoldDTO;
+import com.heal.doctor.dto.SlotHoldRequestDTO;
+import com.heal.doctor.services.ISlotHoldService;
+import com.heal.doctor.utils.ApiResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/public/booking")
+@RequiredArgsConstructor
+public class PublicBookingController {
+
+    private final ISlotHoldService slotHoldService;
+
+    @GetMapping("/{doctorId}/slots")
+    public ResponseEntity<ApiResponse<List<SlotAvailabilityDTO>>> getAvailability(
+            @PathVariable String doctorId,
+            @RequestParam String date) {
+        List<SlotAvailabilityDTO> slots = slotHoldService.getAvailability(doctorId, date);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Slots retrieved successfully", slots));
+    }
+
+    @PostMapping("/holds")
+    public ResponseEntity<ApiResponse<SlotHoldDTO>> createHold(@Valid @RequestBody SlotHoldRequestDTO requestDTO) {
+        SlotHoldDTO hold = slotHoldService.createHold(requestDTO);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Slot held successfully", hold));
+    }
+
+    @PostMapping("/holds/{holdId}/confirm")
+    public ResponseEntity<ApiResponse<SlotHoldDTO>> confirmHold(@PathVariable String holdId) {
+        SlotHoldDTO hold = slotHoldService.confirmHold(holdId);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Booking requested successfully", hold));
+    }
+
+    @PostMapping("/holds/{holdId}/release")
+    public ResponseEntity<ApiResponse<SlotHoldDTO>> releaseHold(@PathVariable String holdId) {
+        SlotHoldDTO hold = slotHoldService.releaseHold(holdId);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Slot hold released", hold));
+    }
+}
@@ -0,0 +1,53 @@
+package com.heal.doctor.controllers;
+
+import com.heal.doctor.dto.WaitlistEntryDTO;
+import com.heal.doctor.dto.WaitlistRequestDTO;
+import com.heal.doctor.services.IWaitlistService;
+import com.heal.doctor.utils.ApiResponse;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/v1/waitlist")
+public class WaitlistController {
+
+    private final IWaitlistService waitlistService;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<WaitlistEntryDTO>> addToWaitlist(@Valid @RequestBody WaitlistRequestDTO requestDTO) {
+        WaitlistEntryDTO entry = waitlistService.addToWaitlist(requestDTO);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Patient added to waitlist successfully", entry));
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<WaitlistEntryDTO>>> getWaitlist(@RequestParam(value = "date", required = false) String date) {
+        List<WaitlistEntryDTO> entries = waitlistService.getWaitlist(date);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Waitlist fetched successfully", entries));
+    }
+
+    @PatchMapping("/priority/{entryId}")
+    public ResponseEntity<ApiResponse<WaitlistEntryDTO>> updatePriority(
+            @PathVariable String entryId,
+            @RequestParam("priority") Integer priority) {
+        WaitlistEntryDTO entry = waitlistService.updatePriority(entryId, priority);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Waitlist priority updated successfully", entry));
+    }
+
+    @PatchMapping("/remove/{entryId}")
+    public ResponseEntity<ApiResponse<WaitlistEntryDTO>> removeFromWaitlist(@PathVariable String entryId) {
+        WaitlistEntryDTO entry = waitlistService.removeFromWaitlist(entryId);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Patient removed from waitlist successfully", entry));
+    }
+}
@@ -0,0 +1,23 @@
+package com.heal.doctor.dto;
+
+import lombok.Data;
+
+import java.util.Date;
+import java.util.List;
+
+@Data
+public class AdminOverviewDTO {
+    private String date;
+    private Long registeredDoctors;
+    private Integer activeDoctors;
+    private Long totalAppointments;
+    private Long treatedAppointments;
+    private Long waitingAppointments;
+    private Long cancelledAppointments;
+    private Long emergencyAppointments;
+    private Long paidAppointments;
+    private List<DoctorLoadDTO> topByVolume;
+    private List<DoctorLoadDTO> topByTreated;
+    private List<DoctorLoadDTO> topByEmergency;
+    private Date generatedAt;
+}
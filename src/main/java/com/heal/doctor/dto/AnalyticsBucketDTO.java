@@ -0,0 +1,25 @@
+package com.heal.doctor.dto;
+
+import com.heal.doctor.models.enums.AnalyticsGranularity;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AnalyticsBucketDTO {
+    private AnalyticsGranularity granularity;
+    private String label;
+    private String startDate;
+    private String endDate;
+    private Integer total;
+    private Integer visits;
+    private Integer cancelled;
+    private Integer treated;
+    private Integer emergency;
+    private Integer paid;
+    private Integer unpaid;
+    private Double cancellationRate;
+    private Double emergencyShare;
+    private List<Integer> weekdayVisits;
+    private String busiestWeekday;
+}
@@ -0,0 +1,17 @@
+package com.heal.doctor.dto;
+
+import com.heal.doctor.models.AppointmentAuditEntity;
+import com.heal.doctor.models.enums.AppointmentChangeType;
+import lombok.Data;
+
+import java.util.Date;
+import java.util.List;
+
+@Data
+public class AppointmentAuditDTO {
+    private String appointmentId;
+    private String actor;
+    private AppointmentChangeType changeType;
+    private List<AppointmentAuditEntity.FieldChange> changes;
+    private Date createdAt;
+}
@@ -14,12 +14,17 @@ public class AppointmentDTO {
     private String contact;
     private String description;
     private Date appointmentDateTime;
+    private Integer dayKey;
     private Date bookingDateTime;
     private Boolean availableAtClinic;
     private Boolean treated;
     private Date treatedDateTime;
+    private Date arrivedDateTime;
     private AppointmentStatus status;
     private AppointmentType appointmentType;
     private Boolean paymentStatus;
     private Boolean isEmergency;
+    private Long version;
+    private String seriesId;
+    private Boolean virtualOccurrence;
 }
@@ -0,0 +1,26 @@
+package com.heal.doctor.dto;
+
+import com.heal.doctor.models.enums.RecurrenceFrequency;
+import com.heal.doctor.models.enums.SeriesStatus;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class AppointmentSeriesDTO {
+    private String seriesId;
+    private String doctorId;
+    private String patientName;
+    private String contact;
+    private String description;
+    private RecurrenceFrequency frequency;
+    private Integer interval;
+    private Integer occurrenceCount;
+    private Integer untilDayKey;
+    private Integer firstDayKey;
+    private Integer minuteOfDay;
+    private Integer materializedThroughDayKey;
+    private SeriesStatus status;
+    private Date createdAt;
+    private Date nextOccurrence;
+}
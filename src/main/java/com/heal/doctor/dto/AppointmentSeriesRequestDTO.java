@@ -0,0 +1,51 @@
+package com.heal.doctor.dto;
+
+import com.heal.doctor.models.enums.RecurrenceFrequency;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSeriesRequestDTO {
+
+    private static final int CONTACT_LENGTH = 10;
+    private static final String CONTACT_PATTERN = "^\\d{10}$";
+
+    @NotBlank(message = "Patient name is required")
+    private String patientName;
+
+    @NotBlank(message = "Contact number is required")
+    @Size(min = CONTACT_LENGTH, max = CONTACT_LENGTH, message = "Contact number must be exactly " + CONTACT_LENGTH + " digits")
+    @Pattern(regexp = CONTACT_PATTERN, message = "Contact number must be exactly " + CONTACT_LENGTH + " digits")
+    private String contact;
+
+    private String email;
+
+    private String description;
+
+    @NotNull(message = "First appointment date and time is required")
+    private Date firstAppointmentDateTime;
+
+    @NotNull(message = "Recurrence frequency is required")
+    private RecurrenceFrequency frequency;
+
+    @Min(value = 1, message = "Recurrence interval must be at least 1")
+    @Max(value = 52, message = "Recurrence interval must not exceed 52")
+    private Integer interval = 1;
+
+    @Min(value = 2, message = "A series must have at least 2 occurrences")
+    @Max(value = 260, message = "A series must not exceed 260 occurrences")
+    private Integer occurrences;
+
+    private String endDate;
+}
@@ -0,0 +1,32 @@
+package com.heal.doctor.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class CalendarDayDTO {
+    private Integer dayKey;
+    private String date;
+    private long total;
+    private long accepted;
+    private long booked;
+    private long cancelled;
+    private long treated;
+    private long emergency;
+    private long paid;
+
+    public CalendarDayDTO(int dayKey) {
+        this.dayKey = dayKey;
+    }
+
+    public void add(CalendarDayDTO other) {
+        total += other.total;
+        accepted += other.accepted;
+        booked += other.booked;
+        cancelled += other.cancelled;
+        treated += other.treated;
+        emergency += other.emergency;
+        paid += other.paid;
+    }
+}
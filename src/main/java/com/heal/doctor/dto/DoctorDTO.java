@@ -25,6 +25,7 @@ public class DoctorDTO {
     private List<AvailableDayEnum> availableDays;
     private List<TimeSlot> availableTimeSlots;
     private String clinicAddress;
+    private String timeZone;
     private Address address;
     private List<String> education;
     private List<String> achievementsAndAwards;
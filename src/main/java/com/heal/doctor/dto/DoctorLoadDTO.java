@@ -0,0 +1,16 @@
+package com.heal.doctor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorLoadDTO {
+    private String doctorId;
+    private String doctorName;
+    private Integer totalAppointments;
+    private Integer treatedAppointments;
+    private Integer emergencyAppointments;
+}
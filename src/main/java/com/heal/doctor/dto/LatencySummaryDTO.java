@@ -0,0 +1,17 @@
+package com.heal.doctor.dto;
+
+import com.heal.doctor.models.enums.LatencyMetric;
+import lombok.Data;
+
+@Data
+public class LatencySummaryDTO {
+    private LatencyMetric metric;
+    private String fromDate;
+    private String toDate;
+    private Long count;
+    private Double meanSeconds;
+    private Long p50Seconds;
+    private Long p90Seconds;
+    private Long p99Seconds;
+    private Long maxSeconds;
+}
@@ -0,0 +1,16 @@
+package com.heal.doctor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveStatisticsDTO {
+    private String date;
+    private Integer totalAppointment;
+    private Integer totalUntreatedAppointmentAndNotAvailable;
+    private Integer totalTreatedAppointment;
+    private Integer totalAvailableAtClinic;
+}
@@ -0,0 +1,17 @@
+package com.heal.doctor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSummaryDTO {
+    private String patientName;
+    private String contact;
+    private Date lastVisit;
+    private Integer visitCount;
+}
@@ -0,0 +1,17 @@
+package com.heal.doctor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportDaySummaryDTO {
+    private String date;
+    private Long totalAppointments;
+    private Long treatedAppointments;
+    private Long cancelledAppointments;
+    private Long paidAppointments;
+    private Long emergencyAppointments;
+}
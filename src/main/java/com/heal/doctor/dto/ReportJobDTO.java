@@ -0,0 +1,19 @@
+package com.heal.doctor.dto;
+
+import com.heal.doctor.models.enums.ReportJobStatus;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class ReportJobDTO {
+    private String jobId;
+    private ReportJobStatus status;
+    private String fromDate;
+    private String toDate;
+    private Long sizeBytes;
+    private Long rows;
+    private String error;
+    private Date createdAt;
+    private Date completedAt;
+}
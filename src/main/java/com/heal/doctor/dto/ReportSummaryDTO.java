@@ -0,0 +1,17 @@
+package com.heal.doctor.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ReportSummaryDTO {
+    private String fromDate;
+    private String toDate;
+    private Long totalAppointments;
+    private Long treatedAppointments;
+    private Long cancelledAppointments;
+    private Long paidAppointments;
+    private Long emergencyAppointments;
+    private List<ReportDaySummaryDTO> days;
+}
@@ -0,0 +1,16 @@
+package com.heal.doctor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotAvailabilityDTO {
+    private Integer slotIndex;
+    private String startTime;
+    private String endTime;
+    private Integer capacity;
+    private Integer remaining;
+}
@@ -0,0 +1,17 @@
+package com.heal.doctor.dto;
+
+import com.heal.doctor.models.enums.HoldStatus;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class SlotHoldDTO {
+    private String holdId;
+    private String doctorId;
+    private String date;
+    private Integer slotIndex;
+    private HoldStatus status;
+    private Date expireAt;
+    private String appointmentId;
+}
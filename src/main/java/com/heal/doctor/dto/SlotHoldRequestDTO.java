@@ -0,0 +1,44 @@
+package com.heal.doctor.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotHoldRequestDTO {
+
+    private static final int CONTACT_LENGTH = 10;
+    private static final String CONTACT_PATTERN = "^\\d{10}$";
+
+    @NotBlank(message = "Doctor ID is required")
+    private String doctorId;
+
+    @NotBlank(message = "Date is required")
+    private String date;
+
+    @NotNull(message = "Slot is required")
+    private Integer slotIndex;
+
+    @NotBlank(message = "Patient name is required")
+    @Size(min = 2, max = 100, message = "Patient name must be between 2 and 100 characters")
+    @Pattern(regexp = "^[a-zA-Z\\s\\-']+$", message = "Patient name can only contain letters, spaces, hyphens, and apostrophes")
+    private String patientName;
+
+    @NotBlank(message = "Contact number is required")
+    @Size(min = CONTACT_LENGTH, max = CONTACT_LENGTH, message = "Contact number must be exactly " + CONTACT_LENGTH + " digits")
+    @Pattern(regexp = CONTACT_PATTERN, message = "Contact number must be exactly " + CONTACT_LENGTH + " digits")
+    private String contact;
+
+    @Email(message = "Email must be a valid email address")
+    private String email;
+
+    @Size(max = 1000, message = "Description must not exceed 1000 characters")
+    private String description;
+}
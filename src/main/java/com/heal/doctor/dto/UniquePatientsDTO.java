@@ -0,0 +1,15 @@
+package com.heal.doctor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UniquePatientsDTO {
+    private String fromDate;
+    private String toDate;
+    private Long uniquePatients;
+    private Double standardErrorPercent;
+}
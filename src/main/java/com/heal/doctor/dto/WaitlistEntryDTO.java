@@ -0,0 +1,21 @@
+package com.heal.doctor.dto;
+
+import com.heal.doctor.models.enums.WaitlistStatus;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class WaitlistEntryDTO {
+    private String id;
+    private String doctorId;
+    private Integer dayKey;
+    private String patientName;
+    private String contact;
+    private String description;
+    private Integer priority;
+    private WaitlistStatus status;
+    private Date createdAt;
+    private Date promotedAt;
+    private String promotedAppointmentId;
+}
@@ -0,0 +1,38 @@
+package com.heal.doctor.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistRequestDTO {
+
+    private static final int CONTACT_LENGTH = 10;
+    private static final String CONTACT_PATTERN = "^\\d{10}$";
+
+    @NotBlank(message = "Patient name is required")
+    private String patientName;
+
+    @NotBlank(message = "Contact number is required")
+    @Size(min = CONTACT_LENGTH, max = CONTACT_LENGTH, message = "Contact number must be exactly " + CONTACT_LENGTH + " digits")
+    @Pattern(regexp = CONTACT_PATTERN, message = "Contact number must be exactly " + CONTACT_LENGTH + " digits")
+    private String contact;
+
+    private String email;
+
+    private String description;
+
+    @NotBlank(message = "Date is required")
+    private String date;
+
+    @Min(value = 0, message = "Priority must not be negative")
+    @Max(value = 100, message = "Priority must not exceed 100")
+    private Integer priority = 0;
+}
@@ -2,5 +2,7 @@ package com.heal.doctor.dto;
 
 public enum WebSocketResponseType {
     NOTIFICATION,
-    APPOINTMENT
+    APPOINTMENT,
+    WAITLIST,
+    STATISTICS
 }
\ No newline at end of file
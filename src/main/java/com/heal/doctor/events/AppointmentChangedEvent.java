@@ -0,0 +1,24 @@
+package com.heal.doctor.events;
+
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.models.enums.AppointmentChangeType;
+
+/**
+ * Published after an appointment write has been persisted. {@code before} is a snapshot of the
+ * document as it was read for the update and is {@code null} for newly booked appointments.
+ */
+public record AppointmentChangedEvent(
+        AppointmentChangeType changeType,
+        AppointmentEntity before,
+        AppointmentEntity after,
+        String actor
+) {
+
+    public String doctorId() {
+        return after.getDoctorId();
+    }
+
+    public boolean isNew() {
+        return before == null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.heal.doctor.events;
+
+import com.heal.doctor.models.enums.AppointmentStatus;
+import com.heal.doctor.services.IWaitlistService;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands every freshly cancelled appointment to the waitlist off the request thread. A cancelled
+ * public booking is skipped: its seat goes back to the public slot pool, and promoting a
+ * waitlisted patient into the same time as well would book the slot twice.
+ */
+@Component
+public class WaitlistPromotionListener {
+
+    private final IWaitlistService waitlistService;
+
+    public WaitlistPromotionListener(IWaitlistService waitlistService) {
+        this.waitlistService = waitlistService;
+    }
+
+    @Async("notificationTaskExecutor")
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (event.isNew()
+                || event.before().getSlotKey() != null
+                || event.before().getStatus() == AppointmentStatus.CANCELLED
+                || event.after().getStatus() != AppointmentStatus.CANCELLED) {
+            return;
+        }
+        waitlistService.promoteNext(event.after());
+    }
+}
@@ -0,0 +1,22 @@
+package com.heal.doctor.exception;
+
+import com.heal.doctor.dto.AppointmentDTO;
+import org.springframework.http.HttpStatus;
+
+public class AppointmentConflictException extends BaseException {
+    private final AppointmentDTO currentState;
+
+    public AppointmentConflictException(AppointmentDTO currentState) {
+        super(
+            String.format("Appointment %s was modified concurrently. Please review the latest state and retry.",
+                    currentState.getAppointmentId()),
+            "CONCURRENT_MODIFICATION",
+            HttpStatus.CONFLICT
+        );
+        this.currentState = currentState;
+    }
+
+    public AppointmentDTO getCurrentState() {
+        return currentState;
+    }
+}
@@ -0,0 +1,108 @@
+package com.heal.doctor.jobs;
+
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.repositories.AppointmentArchiveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves appointments older than the archive horizon from the hot collection into
+ * {@link AppointmentArchiveRepository#ARCHIVE_COLLECTION}. Works doctor by doctor on the
+ * (doctorId, dayKey) index, copying each batch before deleting it and pausing between
+ * batches so the move never competes with clinic traffic.
+ * <p>
+ * Each hot document is deleted only if its version still matches the copy, so an appointment
+ * edited between copy and delete stays in the hot collection and is copied again by the next
+ * batch instead of losing the edit.
+ */
+@Component
+public class AppointmentArchivalJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentArchivalJob.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final AppointmentArchiveRepository archiveRepository;
+    private final int batchSize;
+    private final long batchPauseMillis;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public AppointmentArchivalJob(MongoTemplate mongoTemplate,
+                                  AppointmentArchiveRepository archiveRepository,
+                                  @Value("${appointments.archive.batch-size}") int batchSize,
+                                  @Value("${appointments.archive.batch-pause-ms}") long batchPauseMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.archiveRepository = archiveRepository;
+        this.batchSize = batchSize;
+        this.batchPauseMillis = batchPauseMillis;
+    }
+
+    @Scheduled(cron = "${appointments.archive.cron}")
+    public void archive() {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Appointment archival already running, skipping this trigger");
+            return;
+        }
+        try {
+            archiveRepository.ensureIndexes();
+            List<String> doctorIds = mongoTemplate.findDistinct(new Query(), "doctorId", AppointmentEntity.class, String.class);
+            long total = 0;
+            for (String doctorId : doctorIds) {
+                total += archiveDoctor(doctorId);
+            }
+            logger.info("Appointment archival completed: doctors: {}, archived: {}", doctorIds.size(), total);
+        } catch (DataAccessException e) {
+            logger.error("Appointment archival failed: error: {}", e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Appointment archival interrupted");
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long archiveDoctor(String doctorId) throws InterruptedException {
+        int horizonDayKey = archiveRepository.horizonDayKey(doctorId);
+        long archived = 0;
+        long skipped = 0;
+        while (true) {
+            Query query = Query.query(Criteria.where("doctorId").is(doctorId).and("dayKey").lt(horizonDayKey))
+                    .with(Sort.by(Sort.Direction.ASC, "dayKey"))
+                    .limit(batchSize);
+            List<AppointmentEntity> batch = mongoTemplate.find(query, AppointmentEntity.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+            archiveRepository.saveAll(batch);
+            BulkOperations removals = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AppointmentEntity.class);
+            for (AppointmentEntity appointment : batch) {
+                removals.remove(Query.query(Criteria.where("_id").is(appointment.getId())
+                        .and("version").is(appointment.getVersion())));
+            }
+            int removed = removals.execute().getDeletedCount();
+            archived += removed;
+            skipped += batch.size() - removed;
+            if (removed == 0) {
+                // Every document in the batch changed under us; leave them for the next run.
+                break;
+            }
+            Thread.sleep(batchPauseMillis);
+        }
+        if (archived > 0 || skipped > 0) {
+            logger.info("Archived appointments: doctorId: {}, beforeDayKey: {}, count: {}, changedDuringCopy: {}",
+                    doctorId, horizonDayKey, archived, skipped);
+        }
+        return archived;
+    }
+}
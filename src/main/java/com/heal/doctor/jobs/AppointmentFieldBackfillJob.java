@@ -0,0 +1,116 @@
+package com.heal.doctor.jobs;
+
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.utils.ClinicCalendar;
+import com.heal.doctor.utils.PatientNames;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Populates fields derived from existing appointment data on documents written before those
+ * fields existed. Runs once per startup in small batches so it never competes with live traffic.
+ * <p>
+ * {@code dayKey} is the exception: every per-day query reads it, so an appointment without one
+ * would be missing from calendars, dashboards and reports. It is filled in while the context is
+ * still starting, before the web server accepts requests, and retried in the background if Mongo
+ * was unavailable then.
+ */
+@Component
+public class AppointmentFieldBackfillJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentFieldBackfillJob.class);
+    private static final String[] DAY_KEY_SOURCE_FIELDS = {"doctorId", "appointmentDateTime", "bookingDateTime"};
+
+    private final MongoTemplate mongoTemplate;
+    private final ClinicCalendar clinicCalendar;
+    private final int batchSize;
+    private final long batchPauseMillis;
+
+    public AppointmentFieldBackfillJob(MongoTemplate mongoTemplate,
+                                       ClinicCalendar clinicCalendar,
+                                       @Value("${appointments.backfill.batch-size}") int batchSize,
+                                       @Value("${appointments.backfill.batch-pause-ms}") long batchPauseMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.clinicCalendar = clinicCalendar;
+        this.batchSize = batchSize;
+        this.batchPauseMillis = batchPauseMillis;
+    }
+
+    @PostConstruct
+    public void backfillDayKeysBeforeStartup() {
+        try {
+            backfillField("dayKey", this::computeDayKey, 0, DAY_KEY_SOURCE_FIELDS);
+        } catch (DataAccessException e) {
+            logger.error("Day key backfill before startup failed, retrying in the background: error: {}", e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Day key backfill before startup interrupted");
+        }
+    }
+
+    @Async("maintenanceTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            backfillField("dayKey", this::computeDayKey, batchPauseMillis, DAY_KEY_SOURCE_FIELDS);
+            backfillField("normalizedPatientName", appointment -> PatientNames.normalize(appointment.getPatientName()),
+                    batchPauseMillis, "patientName");
+        } catch (DataAccessException e) {
+            logger.error("Appointment field backfill failed: error: {}", e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Appointment field backfill interrupted");
+        }
+    }
+
+    private void backfillField(String field, Function<AppointmentEntity, Object> valueFunction, long pauseMillis,
+                               String... sourceFields) throws InterruptedException {
+        long total = 0;
+        while (true) {
+            Query query = Query.query(Criteria.where(field).exists(false)).limit(batchSize);
+            query.fields().include(sourceFields);
+            List<AppointmentEntity> batch = mongoTemplate.find(query, AppointmentEntity.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AppointmentEntity.class);
+            for (AppointmentEntity appointment : batch) {
+                bulkOperations.updateOne(
+                        Query.query(Criteria.where("_id").is(appointment.getId())),
+                        Update.update(field, valueFunction.apply(appointment)));
+            }
+            bulkOperations.execute();
+            total += batch.size();
+            Thread.sleep(pauseMillis);
+        }
+        if (total > 0) {
+            logger.info("Backfilled appointment field: field: {}, modified: {}", field, total);
+        }
+    }
+
+    private Object computeDayKey(AppointmentEntity appointment) {
+        Date reference = appointment.getAppointmentDateTime() != null
+                ? appointment.getAppointmentDateTime()
+                : appointment.getBookingDateTime();
+        if (reference == null || appointment.getDoctorId() == null) {
+            return null;
+        }
+        return clinicCalendar.dayKey(appointment.getDoctorId(), reference);
+    }
+}
@@ -0,0 +1,34 @@
+package com.heal.doctor.jobs;
+
+import com.heal.doctor.services.IAppointmentSeriesService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rolls every active appointment series forward so its occurrences exist in {@code appointments}
+ * up to the materialization horizon.
+ */
+@Component
+public class AppointmentSeriesMaterializationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentSeriesMaterializationJob.class);
+
+    private final IAppointmentSeriesService appointmentSeriesService;
+
+    public AppointmentSeriesMaterializationJob(IAppointmentSeriesService appointmentSeriesService) {
+        this.appointmentSeriesService = appointmentSeriesService;
+    }
+
+    @Scheduled(cron = "${appointments.series.materialize-cron}")
+    public void materialize() {
+        try {
+            int inserted = appointmentSeriesService.materializeDueSeries();
+            logger.info("Appointment series materialization completed: inserted: {}", inserted);
+        } catch (DataAccessException e) {
+            logger.error("Appointment series materialization failed: error: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.heal.doctor.jobs;
+
+import com.heal.doctor.models.AppointmentEntity;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Appointments written before optimistic locking was introduced carry no version.
+ * Spring Data treats a null version as a new document and would attempt an insert,
+ * so those documents are stamped with version 0 once at startup. The stamp runs while the
+ * context is still starting, before the web server accepts updates, and is retried in the
+ * background if Mongo was unavailable then.
+ */
+@Component
+public class AppointmentVersionBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentVersionBackfill.class);
+    private static final String VERSION_FIELD = "version";
+
+    private final MongoTemplate mongoTemplate;
+
+    public AppointmentVersionBackfill(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    public void backfillBeforeStartup() {
+        try {
+            stampMissingVersions();
+        } catch (DataAccessException e) {
+            logger.error("Appointment version backfill before startup failed, retrying in the background: error: {}", e.getMessage(), e);
+        }
+    }
+
+    @Async("maintenanceTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissingVersions() {
+        try {
+            stampMissingVersions();
+        } catch (DataAccessException e) {
+            logger.error("Failed to backfill appointment versions: error: {}", e.getMessage(), e);
+        }
+    }
+
+    private void stampMissingVersions() {
+        Query query = Query.query(Criteria.where(VERSION_FIELD).exists(false));
+        UpdateResult result = mongoTemplate.updateMulti(query, Update.update(VERSION_FIELD, 0L), AppointmentEntity.class);
+        if (result.getModifiedCount() > 0) {
+            logger.info("Backfilled appointment versions: modified: {}", result.getModifiedCount());
+        }
+    }
+}
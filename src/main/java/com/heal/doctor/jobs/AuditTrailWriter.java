@@ -0,0 +1,114 @@
+package com.heal.doctor.jobs;
+
+import com.heal.doctor.models.AppointmentAuditEntity;
+import com.heal.doctor.utils.BoundedLockFreeQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single background thread that drains queued audit records into Mongo with one insertMany per
+ * batch. Producers only touch the lock-free queue, so auditing adds no write latency to the
+ * request path. Records still queued at shutdown are flushed before the Mongo client closes.
+ * <p>
+ * The writer runs in a phase below the embedded web server's, so it starts before the server
+ * takes requests and stops only after graceful shutdown has let in-flight requests finish and
+ * the server has stopped, leaving nothing to enqueue behind the final drain.
+ */
+@Component
+public class AuditTrailWriter implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditTrailWriter.class);
+    private static final long DROP_LOG_INTERVAL = 1000;
+    private static final long SHUTDOWN_WAIT_MILLIS = 5000;
+    // Graceful shutdown runs at SMART_LIFECYCLE_PHASE and the web server stops 1024 below it.
+    private static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 4096;
+
+    private final MongoTemplate mongoTemplate;
+    private final BoundedLockFreeQueue<AppointmentAuditEntity> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AuditTrailWriter(MongoTemplate mongoTemplate,
+                            @Value("${audit.queue.capacity}") int queueCapacity,
+                            @Value("${audit.batch-size}") int batchSize,
+                            @Value("${audit.flush-interval-ms}") long flushIntervalMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.queue = new BoundedLockFreeQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+    }
+
+    public void enqueue(AppointmentAuditEntity record) {
+        if (!queue.offer(record) && queue.droppedCount() % DROP_LOG_INTERVAL == 1) {
+            logger.warn("Audit queue full, dropping records: dropped: {}, queued: {}", queue.droppedCount(), queue.size());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::drainLoop, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(SHUTDOWN_WAIT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (queue.size() > 0) {
+            logger.warn("Audit writer stopped with records still queued: queued: {}", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void drainLoop() {
+        List<AppointmentAuditEntity> batch = new ArrayList<>(batchSize);
+        while (running || queue.size() > 0) {
+            batch.clear();
+            int drained = queue.drainTo(batch, batchSize);
+            if (drained > 0) {
+                write(batch);
+            }
+            if (drained < batchSize && running) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+    }
+
+    private void write(List<AppointmentAuditEntity> batch) {
+        try {
+            mongoTemplate.insert(new ArrayList<>(batch), AppointmentAuditEntity.class);
+            logger.debug("Audit records written: count: {}", batch.size());
+        } catch (DataAccessException e) {
+            logger.error("Failed to write audit records, batch dropped: count: {}, error: {}", batch.size(), e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.heal.doctor.jobs;
+
+import com.heal.doctor.services.IDoctorDailyStatsService;
+import com.heal.doctor.utils.ClinicCalendar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes the recent window of {@code doctor_daily_stats} from appointments. Runs once at
+ * startup, which also seeds the rollups on a fresh deployment, and then on a schedule.
+ */
+@Component
+public class DoctorDailyStatsRepairJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(DoctorDailyStatsRepairJob.class);
+
+    private final IDoctorDailyStatsService dailyStatsService;
+    private final ClinicCalendar clinicCalendar;
+    private final int repairDays;
+
+    public DoctorDailyStatsRepairJob(IDoctorDailyStatsService dailyStatsService,
+                                     ClinicCalendar clinicCalendar,
+                                     @Value("${statistics.rollup.repair-days}") int repairDays) {
+        this.dailyStatsService = dailyStatsService;
+        this.clinicCalendar = clinicCalendar;
+        this.repairDays = repairDays;
+    }
+
+    @Async("maintenanceTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void repairOnStartup() {
+        repair();
+    }
+
+    @Scheduled(cron = "${statistics.rollup.repair-cron}")
+    public void repair() {
+        try {
+            // One extra day so the window still covers every doctor whose zone is ahead of the default.
+            int fromDayKey = clinicCalendar.today(clinicCalendar.defaultZone()) - repairDays - 1;
+            dailyStatsService.reconcile(fromDayKey);
+        } catch (DataAccessException e) {
+            logger.error("Daily stats repair failed: error: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.heal.doctor.jobs;
+
+import com.heal.doctor.services.ILatencyHistogramService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Merges latency samples recorded since the last run into the stored per-day histograms, and
+ * once more on shutdown so samples recorded after the last scheduled run are not lost.
+ */
+@Component
+public class LatencyHistogramFlushJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencyHistogramFlushJob.class);
+
+    private final ILatencyHistogramService latencyHistogramService;
+
+    public LatencyHistogramFlushJob(ILatencyHistogramService latencyHistogramService) {
+        this.latencyHistogramService = latencyHistogramService;
+    }
+
+    @Scheduled(fixedDelayString = "${latency.histogram.flush-interval-ms}")
+    public void flush() {
+        int flushed = latencyHistogramService.flush();
+        if (flushed > 0) {
+            logger.debug("Latency histograms flushed: histograms: {}", flushed);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int flushed = latencyHistogramService.flush();
+        logger.info("Latency histograms flushed on shutdown: histograms: {}", flushed);
+    }
+}
@@ -0,0 +1,44 @@
+package com.heal.doctor.jobs;
+
+import com.heal.doctor.services.IMonthlyReportBatchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pre-renders and emails last month's reports. The cron fires every hour: doctors whose clinic
+ * zone rolls into the new month later than the default zone are deferred until a later trigger,
+ * each trigger resumes where the previous one stopped, and once the month is done a trigger
+ * costs a single watermark read.
+ */
+@Component
+public class MonthlyReportBatchJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonthlyReportBatchJob.class);
+
+    private final IMonthlyReportBatchService monthlyReportBatchService;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public MonthlyReportBatchJob(IMonthlyReportBatchService monthlyReportBatchService) {
+        this.monthlyReportBatchService = monthlyReportBatchService;
+    }
+
+    @Scheduled(cron = "${reports.monthly.cron}", zone = "${clinic.default-time-zone}")
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Monthly report batch already running, skipping this trigger");
+            return;
+        }
+        try {
+            monthlyReportBatchService.runMonthlyBatch();
+        } catch (DataAccessException e) {
+            logger.error("Monthly report batch failed: error: {}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.heal.doctor.jobs;
+
+import com.heal.doctor.services.IUniquePatientService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds the per-day patient sketches from existing appointments the first time the application
+ * starts with them; bookings keep them current from then on.
+ */
+@Component
+public class PatientSketchBackfillJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientSketchBackfillJob.class);
+
+    private final IUniquePatientService uniquePatientService;
+
+    public PatientSketchBackfillJob(IUniquePatientService uniquePatientService) {
+        this.uniquePatientService = uniquePatientService;
+    }
+
+    @Async("maintenanceTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            long recorded = uniquePatientService.backfill();
+            if (recorded > 0) {
+                logger.info("Patient sketches backfilled: appointments: {}", recorded);
+            }
+        } catch (DataAccessException e) {
+            logger.error("Patient sketch backfill failed: error: {}", e.getMessage(), e);
+        }
+    }
+}
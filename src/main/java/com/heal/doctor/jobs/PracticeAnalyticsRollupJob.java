@@ -0,0 +1,43 @@
+package com.heal.doctor.jobs;
+
+import com.heal.doctor.services.IPracticeAnalyticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Brings the weekly and monthly analytics buckets up to date with appointments changed since
+ * the last run.
+ */
+@Component
+public class PracticeAnalyticsRollupJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PracticeAnalyticsRollupJob.class);
+
+    private final IPracticeAnalyticsService practiceAnalyticsService;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public PracticeAnalyticsRollupJob(IPracticeAnalyticsService practiceAnalyticsService) {
+        this.practiceAnalyticsService = practiceAnalyticsService;
+    }
+
+    @Scheduled(cron = "${analytics.rollup.cron}")
+    public void rollup() {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Practice analytics rollup already running, skipping this trigger");
+            return;
+        }
+        try {
+            int buckets = practiceAnalyticsService.rollup();
+            logger.info("Practice analytics rollup completed: bucketsWritten: {}", buckets);
+        } catch (DataAccessException e) {
+            logger.error("Practice analytics rollup failed: error: {}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.heal.doctor.jobs;
+
+import com.heal.doctor.services.IReportJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fails report jobs that never finished and deletes stored reports past their retention.
+ */
+@Component
+public class ReportJobSweepJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobSweepJob.class);
+
+    private final IReportJobService reportJobService;
+
+    public ReportJobSweepJob(IReportJobService reportJobService) {
+        this.reportJobService = reportJobService;
+    }
+
+    @Scheduled(fixedDelayString = "${reports.jobs.sweep-interval-ms}")
+    public void sweep() {
+        try {
+            reportJobService.sweep();
+        } catch (DataAccessException e) {
+            logger.error("Report job sweep failed: error: {}", e.getMessage(), e);
+        }
+    }
+}
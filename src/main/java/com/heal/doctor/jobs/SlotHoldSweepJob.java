@@ -0,0 +1,35 @@
+package com.heal.doctor.jobs;
+
+import com.heal.doctor.services.ISlotHoldService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Returns the seats of holds that were neither confirmed nor released before they expired.
+ */
+@Component
+public class SlotHoldSweepJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotHoldSweepJob.class);
+
+    private final ISlotHoldService slotHoldService;
+
+    public SlotHoldSweepJob(ISlotHoldService slotHoldService) {
+        this.slotHoldService = slotHoldService;
+    }
+
+    @Scheduled(fixedDelayString = "${public-booking.sweep-interval-ms}")
+    public void sweep() {
+        try {
+            int released = slotHoldService.releaseExpiredHolds();
+            if (released > 0) {
+                logger.info("Expired slot holds released: released: {}", released);
+            }
+        } catch (DataAccessException e) {
+            logger.error("Slot hold sweep failed: error: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.heal.doctor.models;
+
+import com.heal.doctor.models.enums.AnalyticsGranularity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Appointment totals for one doctor over one calendar week (Monday to Sunday) or month. The id
+ * is {@code doctorId:granularity:startDayKey}, so recomputing a bucket replaces it in place.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "analytics_buckets")
+@CompoundIndexes({
+    @CompoundIndex(name = "doctor_granularity_start_idx", def = "{'doctorId': 1, 'granularity': 1, 'startDayKey': 1}")
+})
+public class AnalyticsBucketEntity {
+
+    @Id
+    private String id;
+
+    private String doctorId;
+
+    private AnalyticsGranularity granularity;
+
+    private Integer startDayKey;
+
+    private Integer endDayKey;
+
+    private String label;
+
+    private Integer total;
+
+    private Integer cancelled;
+
+    private Integer treated;
+
+    private Integer emergency;
+
+    private Integer paid;
+
+    /**
+     * Non-cancelled appointments per weekday, Monday first.
+     */
+    private List<Integer> weekdayVisits;
+
+    private Date updatedAt;
+
+    public static String idFor(String doctorId, AnalyticsGranularity granularity, int startDayKey) {
+        return doctorId + ":" + granularity + ":" + startDayKey;
+    }
+}
@@ -0,0 +1,53 @@
+package com.heal.doctor.models;
+
+import com.heal.doctor.models.enums.AppointmentChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "appointment_audit")
+@CompoundIndexes({
+    @CompoundIndex(name = "appointment_created_idx", def = "{'appointmentId': 1, 'createdAt': 1}")
+})
+public class AppointmentAuditEntity {
+
+    @Id
+    private String id;
+
+    private String appointmentId;
+
+    private String doctorId;
+
+    private String actor;
+
+    private AppointmentChangeType changeType;
+
+    private List<FieldChange> changes;
+
+    private Date createdAt;
+
+    @Indexed(name = "expiration_time_index", expireAfter = "0s")
+    private Date expireAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FieldChange {
+        private String field;
+        private Object from;
+        private Object to;
+    }
+}
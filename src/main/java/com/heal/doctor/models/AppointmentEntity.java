@@ -12,6 +12,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
@@ -22,7 +24,7 @@ import java.util.Date;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Document(collection = "appointments")
 @CompoundIndexes({
     @CompoundIndex(name = "doctor_appt_date_idx", def = "{'doctorId': 1, 'appointmentDateTime': 1}"),
@@ -30,7 +32,12 @@ import java.util.Date;
     @CompoundIndex(name = "doctor_treated_date_idx", def = "{'doctorId': 1, 'treatedDateTime': 1}"),
     @CompoundIndex(name = "doctor_status_treated_idx", def = "{'doctorId': 1, 'status': 1, 'treated': 1}"),
     @CompoundIndex(name = "doctor_clinic_treated_idx", def = "{'doctorId': 1, 'availableAtClinic': 1, 'treated': 1}"),
-    @CompoundIndex(name = "doctor_patient_contact_date_status_idx", def = "{'doctorId': 1, 'patientName': 1, 'contact': 1, 'appointmentDateTime': 1, 'status': 1}")
+    @CompoundIndex(name = "doctor_patient_contact_day_status_idx", def = "{'doctorId': 1, 'patientName': 1, 'contact': 1, 'dayKey': 1, 'status': 1}"),
+    @CompoundIndex(name = "doctor_day_idx", def = "{'doctorId': 1, 'dayKey': 1}"),
+    @CompoundIndex(name = "doctor_contact_date_idx", def = "{'doctorId': 1, 'contact': 1, 'appointmentDateTime': -1}"),
+    @CompoundIndex(name = "doctor_normalized_name_date_idx", def = "{'doctorId': 1, 'normalizedPatientName': 1, 'appointmentDateTime': -1}"),
+    @CompoundIndex(name = "series_day_idx", def = "{'seriesId': 1, 'dayKey': 1}", unique = true,
+            partialFilter = "{'seriesId': {$exists: true}}")
 })
 public class AppointmentEntity {
 
@@ -55,6 +62,9 @@ public class AppointmentEntity {
     @Pattern(regexp = "^[a-zA-Z\\s\\-']+$", message = "Patient name can only contain letters, spaces, hyphens, and apostrophes")
     private String patientName;
 
+    @Size(max = 100, message = "Normalized patient name must not exceed 100 characters")
+    private String normalizedPatientName;
+
     @NotBlank(message = "Contact number is required")
     @Size(min = VALID_CONTACT_LENGTH, max = VALID_CONTACT_LENGTH, message = "Contact number must be exactly " + VALID_CONTACT_LENGTH + " digits")
     @Pattern(regexp = CONTACT_PATTERN, message = "Contact number must be exactly " + VALID_CONTACT_LENGTH + " digits")
@@ -70,12 +80,17 @@ public class AppointmentEntity {
     @Indexed(name = "appointment_date_idx")
     private Date appointmentDateTime;
 
+    @Indexed(name = "day_key_idx")
+    private Integer dayKey;
+
     @Indexed(name = "booking_date_idx")
     private Date bookingDateTime;
 
     @NotNull(message = "Available at clinic status is required")
     private Boolean availableAtClinic;
 
+    private Date arrivedDateTime;
+
     @NotNull(message = "Treated status is required")
     private Boolean treated;
 
@@ -92,5 +107,18 @@ public class AppointmentEntity {
 
     @NotNull(message = "Emergency status is required")
     private Boolean isEmergency;
+
+    private Date reminderSentAt;
+
+    private String seriesId;
+
+    private String slotKey;
+
+    @LastModifiedDate
+    @Indexed(name = "last_modified_idx")
+    private Date lastModifiedAt;
+
+    @Version
+    private Long version;
 }
 
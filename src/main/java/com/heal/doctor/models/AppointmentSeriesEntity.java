@@ -0,0 +1,81 @@
+package com.heal.doctor.models;
+
+import com.heal.doctor.models.enums.RecurrenceFrequency;
+import com.heal.doctor.models.enums.SeriesStatus;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Recurrence rule for a patient's follow-up visits. Occurrences are stored in {@code appointments}
+ * only up to {@code materializedThroughDayKey}; later ones are computed from the rule on read.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "appointment_series")
+@CompoundIndexes({
+    @CompoundIndex(name = "doctor_status_idx", def = "{'doctorId': 1, 'status': 1}"),
+    @CompoundIndex(name = "status_materialized_idx", def = "{'status': 1, 'materializedThroughDayKey': 1}")
+})
+public class AppointmentSeriesEntity {
+
+    @Id
+    private String id;
+
+    @Indexed(unique = true, name = "series_id_idx")
+    @NotBlank(message = "Series ID is required")
+    private String seriesId;
+
+    @NotBlank(message = "Doctor ID is required")
+    @Size(max = 50, message = "Doctor ID must not exceed 50 characters")
+    private String doctorId;
+
+    @NotBlank(message = "Patient name is required")
+    @Size(min = 2, max = 100, message = "Patient name must be between 2 and 100 characters")
+    private String patientName;
+
+    @NotBlank(message = "Contact number is required")
+    private String contact;
+
+    private String email;
+
+    @Size(max = 1000, message = "Description must not exceed 1000 characters")
+    private String description;
+
+    @NotNull(message = "Recurrence frequency is required")
+    private RecurrenceFrequency frequency;
+
+    @NotNull(message = "Recurrence interval is required")
+    private Integer interval;
+
+    private Integer occurrenceCount;
+
+    private Integer untilDayKey;
+
+    @NotNull(message = "First occurrence day is required")
+    private Integer firstDayKey;
+
+    @NotNull(message = "Occurrence time is required")
+    private Integer minuteOfDay;
+
+    private Integer materializedThroughDayKey;
+
+    private SeriesStatus status;
+
+    private Date createdAt;
+
+    private Date cancelledAt;
+}
@@ -0,0 +1,35 @@
+package com.heal.doctor.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of the single dashboard statistics pipeline: one document holding today's headline
+ * counts, the treated-per-day series for the past week and the last active day's totals.
+ */
+@Data
+@NoArgsConstructor
+public class DashboardStatistics {
+
+    private TodayCounts today;
+    private List<DailyTreatedPatients> lastWeekTreated;
+    private LastActiveDay lastActiveDay;
+
+    @Data
+    @NoArgsConstructor
+    public static class TodayCounts {
+        private Integer totalAppointments;
+        private Integer treatedAppointments;
+        private Integer untreatedNotAvailable;
+        private Integer availableAtClinic;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class LastActiveDay {
+        private Integer totalCount;
+        private Integer treatedCount;
+    }
+}
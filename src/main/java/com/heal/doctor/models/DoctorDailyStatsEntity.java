@@ -0,0 +1,64 @@
+package com.heal.doctor.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Appointment counters for one doctor on one clinic day. The id is {@code doctorId:dayKey} and
+ * the counters are only ever moved with $inc, so concurrent mutations never lose an update.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "doctor_daily_stats")
+@CompoundIndexes({
+    @CompoundIndex(name = "doctor_day_idx", def = "{'doctorId': 1, 'dayKey': 1}")
+})
+public class DoctorDailyStatsEntity {
+
+    @Id
+    private String id;
+
+    private String doctorId;
+
+    @Indexed(name = "day_key_idx")
+    private Integer dayKey;
+
+    private Integer total;
+
+    private Integer treated;
+
+    private Integer arrived;
+
+    private Integer waiting;
+
+    private Integer cancelled;
+
+    private Integer paid;
+
+    private Integer emergency;
+
+    private Date reconciledAt;
+
+    public static String idFor(String doctorId, int dayKey) {
+        return doctorId + ":" + dayKey;
+    }
+
+    public int untreatedNotArrived() {
+        return valueOf(total) - valueOf(treated) - valueOf(waiting);
+    }
+
+    private static int valueOf(Integer counter) {
+        return counter == null ? 0 : counter;
+    }
+}
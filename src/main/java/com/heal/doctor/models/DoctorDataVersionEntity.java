@@ -0,0 +1,31 @@
+package com.heal.doctor.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Per-doctor appointment change counters, one per clinic month ({@code yyyy-MM}). The id is the
+ * doctorId. A report's data version is the counters of the months it covers, so edits to this
+ * month's appointments leave last month's rendered reports valid.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "doctor_data_versions")
+public class DoctorDataVersionEntity {
+
+    @Id
+    private String id;
+
+    private Map<String, Long> months;
+
+    private Date updatedAt;
+}
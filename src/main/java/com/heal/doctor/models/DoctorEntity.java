@@ -80,6 +80,9 @@ public class DoctorEntity {
     @Size(max = 500, message = "Clinic address must not exceed 500 characters")
     private String clinicAddress;
 
+    @Size(max = 50, message = "Time zone must not exceed 50 characters")
+    private String timeZone;
+
     @Valid
     private Address address;
 
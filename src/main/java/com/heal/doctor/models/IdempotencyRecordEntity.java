@@ -0,0 +1,38 @@
+package com.heal.doctor.models;
+
+import com.heal.doctor.models.enums.IdempotencyStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecordEntity {
+
+    @Id
+    private String id;
+
+    private String requestHash;
+
+    private IdempotencyStatus status;
+
+    private Integer responseStatus;
+
+    private String responseBody;
+
+    private Date createdAt;
+
+    private Date claimedAt;
+
+    @Indexed(name = "expiration_time_index", expireAfter = "0s")
+    private Date expireAt;
+}
@@ -0,0 +1,28 @@
+package com.heal.doctor.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * How far an incremental background job has processed. The id is the job name.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "job_watermarks")
+public class JobWatermarkEntity {
+
+    @Id
+    private String id;
+
+    private Date watermark;
+
+    private Date updatedAt;
+}
@@ -0,0 +1,51 @@
+package com.heal.doctor.models;
+
+import com.heal.doctor.models.enums.LatencyMetric;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * One doctor's latency distribution for one metric on one clinic day, stored as an encoded
+ * {@link com.heal.doctor.utils.LogHistogram}. The id is {@code doctorId:dayKey:metric}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "latency_histograms")
+@CompoundIndexes({
+    @CompoundIndex(name = "doctor_metric_day_idx", def = "{'doctorId': 1, 'metric': 1, 'dayKey': 1}")
+})
+public class LatencyHistogramEntity {
+
+    @Id
+    private String id;
+
+    private String doctorId;
+
+    private Integer dayKey;
+
+    private LatencyMetric metric;
+
+    private byte[] histogram;
+
+    private Long count;
+
+    private Date updatedAt;
+
+    @Version
+    private Long version;
+
+    public static String idFor(String doctorId, int dayKey, LatencyMetric metric) {
+        return doctorId + ":" + dayKey + ":" + metric;
+    }
+}
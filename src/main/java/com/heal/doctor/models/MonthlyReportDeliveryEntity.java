@@ -0,0 +1,54 @@
+package com.heal.doctor.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Checkpoint of the monthly report batch: one document per doctor and month. The id is
+ * {@code yyyy-MM:doctorId}. A document with {@code deliveredAt} set means the report was
+ * rendered and emailed; otherwise it counts the failed attempts, holds the doctor back until
+ * {@code nextAttemptAt}, and once {@code failedAt} is set the batch has given up on the doctor.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "monthly_report_deliveries")
+public class MonthlyReportDeliveryEntity {
+
+    @Id
+    private String id;
+
+    @Indexed(name = "month_idx")
+    private String month;
+
+    private String doctorId;
+
+    private Long rows;
+
+    private Boolean cached;
+
+    private Date deliveredAt;
+
+    private Integer attempts;
+
+    private Date nextAttemptAt;
+
+    private Date failedAt;
+
+    private String lastError;
+
+    @Indexed(name = "expiration_time_index", expireAfter = "0s")
+    private Date expireAt;
+
+    public static String idFor(String month, String doctorId) {
+        return month + ":" + doctorId;
+    }
+}
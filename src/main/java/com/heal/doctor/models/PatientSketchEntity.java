@@ -0,0 +1,41 @@
+package com.heal.doctor.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Map;
+
+/**
+ * HyperLogLog registers of the patients booked with one doctor on one clinic day. Only registers
+ * that have been raised are stored, keyed by register index, so a typical day holds a few dozen
+ * small integers; each booking raises at most one of them with $max.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "patient_sketches")
+@CompoundIndexes({
+    @CompoundIndex(name = "doctor_day_idx", def = "{'doctorId': 1, 'dayKey': 1}")
+})
+public class PatientSketchEntity {
+
+    @Id
+    private String id;
+
+    private String doctorId;
+
+    private Integer dayKey;
+
+    private Map<String, Integer> registers;
+
+    public static String idFor(String doctorId, int dayKey) {
+        return doctorId + ":" + dayKey;
+    }
+}
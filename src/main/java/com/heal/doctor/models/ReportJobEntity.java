@@ -0,0 +1,58 @@
+package com.heal.doctor.models;
+
+import com.heal.doctor.models.enums.ReportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A queued or finished report render. {@code activeKey} is only set while the job is queued or
+ * running; its unique index is what folds identical concurrent submissions onto one job.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "report_jobs")
+@CompoundIndexes({
+    @CompoundIndex(name = "status_created_idx", def = "{'status': 1, 'createdAt': 1}"),
+    @CompoundIndex(name = "status_started_idx", def = "{'status': 1, 'startedAt': 1}")
+})
+public class ReportJobEntity {
+
+    @Id
+    private String id;
+
+    private String doctorId;
+
+    private String fromDate;
+
+    private String toDate;
+
+    private ReportJobStatus status;
+
+    @Indexed(name = "active_key_idx", unique = true, sparse = true)
+    private String activeKey;
+
+    private String filePath;
+
+    private Long sizeBytes;
+
+    private Long rows;
+
+    private String error;
+
+    private Date createdAt;
+
+    private Date startedAt;
+
+    private Date completedAt;
+}
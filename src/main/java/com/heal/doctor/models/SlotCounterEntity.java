@@ -0,0 +1,33 @@
+package com.heal.doctor.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Seats taken in one clinic time slot, counting live holds and booked appointments.
+ * The id is {@code doctorId:dayKey:slotIndex}; it is only ever changed with a conditional $inc.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "slot_counters")
+public class SlotCounterEntity {
+
+    @Id
+    private String id;
+
+    private Integer taken;
+
+    private Integer capacity;
+
+    @Indexed(name = "expiration_time_index", expireAfter = "0s")
+    private Date expireAt;
+}
@@ -0,0 +1,55 @@
+package com.heal.doctor.models;
+
+import com.heal.doctor.models.enums.HoldStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "slot_holds")
+@CompoundIndexes({
+    @CompoundIndex(name = "status_expire_idx", def = "{'status': 1, 'expireAt': 1}")
+})
+public class SlotHoldEntity {
+
+    @Id
+    private String id;
+
+    private String doctorId;
+
+    private Integer dayKey;
+
+    private Integer slotIndex;
+
+    private String slotKey;
+
+    private String patientName;
+
+    private String contact;
+
+    private String email;
+
+    private String description;
+
+    private HoldStatus status;
+
+    private Date createdAt;
+
+    private Date expireAt;
+
+    private String appointmentId;
+
+    @Indexed(name = "purge_time_index", expireAfter = "0s")
+    private Date purgeAt;
+}
@@ -0,0 +1,60 @@
+package com.heal.doctor.models;
+
+import com.heal.doctor.models.enums.WaitlistStatus;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "waitlist")
+@CompoundIndexes({
+    @CompoundIndex(name = "doctor_day_status_priority_idx",
+            def = "{'doctorId': 1, 'dayKey': 1, 'status': 1, 'priority': -1, 'createdAt': 1}")
+})
+public class WaitlistEntryEntity {
+
+    @Id
+    private String id;
+
+    @NotBlank(message = "Doctor ID is required")
+    @Size(max = 50, message = "Doctor ID must not exceed 50 characters")
+    private String doctorId;
+
+    @NotNull(message = "Day is required")
+    private Integer dayKey;
+
+    @NotBlank(message = "Patient name is required")
+    @Size(min = 2, max = 100, message = "Patient name must be between 2 and 100 characters")
+    private String patientName;
+
+    @NotBlank(message = "Contact number is required")
+    private String contact;
+
+    private String email;
+
+    @Size(max = 1000, message = "Description must not exceed 1000 characters")
+    private String description;
+
+    private Integer priority;
+
+    private WaitlistStatus status;
+
+    private Date createdAt;
+
+    private Date promotedAt;
+
+    private String promotedAppointmentId;
+}
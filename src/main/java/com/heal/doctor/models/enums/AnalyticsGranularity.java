@@ -0,0 +1,6 @@
+package com.heal.doctor.models.enums;
+
+public enum AnalyticsGranularity {
+    WEEK,
+    MONTH
+}
@@ -0,0 +1,11 @@
+package com.heal.doctor.models.enums;
+
+public enum AppointmentChangeType {
+    BOOKED,
+    STATUS,
+    PAYMENT,
+    TREATED,
+    AVAILABLE_AT_CLINIC,
+    EMERGENCY,
+    CANCELLED
+}
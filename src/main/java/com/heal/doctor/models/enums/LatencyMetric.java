@@ -0,0 +1,6 @@
+package com.heal.doctor.models.enums;
+
+public enum LatencyMetric {
+    ARRIVAL_DELAY,
+    WAIT_TO_TREATMENT
+}
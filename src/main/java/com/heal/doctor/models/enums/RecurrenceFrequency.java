@@ -0,0 +1,7 @@
+package com.heal.doctor.models.enums;
+
+public enum RecurrenceFrequency {
+    DAILY,
+    WEEKLY,
+    MONTHLY
+}
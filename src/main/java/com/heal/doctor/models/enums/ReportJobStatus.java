@@ -0,0 +1,8 @@
+package com.heal.doctor.models.enums;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,18 @@
+package com.heal.doctor.repositories;
+
+import com.heal.doctor.models.AnalyticsBucketEntity;
+import com.heal.doctor.models.enums.AnalyticsGranularity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AnalyticsBucketRepository extends MongoRepository<AnalyticsBucketEntity, String> {
+
+    @Query(value = "{ 'doctorId': ?0, 'granularity': ?1, 'startDayKey': { $lte: ?3 }, 'endDayKey': { $gte: ?2 } }",
+            sort = "{ 'startDayKey': 1 }")
+    List<AnalyticsBucketEntity> findOverlapping(String doctorId, AnalyticsGranularity granularity,
+                                                Integer fromDayKey, Integer toDayKey);
+}
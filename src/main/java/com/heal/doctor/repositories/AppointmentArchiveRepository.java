@@ -0,0 +1,173 @@
+package com.heal.doctor.repositories;
+
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.utils.ClinicCalendar;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Cold tier for appointments older than the archive horizon. Documents keep the
+ * {@link AppointmentEntity} shape but live in their own collection, so the hot
+ * collection and its indexes only cover the recent working set.
+ */
+@Repository
+public class AppointmentArchiveRepository {
+
+    public static final String ARCHIVE_COLLECTION = "appointments_archive";
+    private static final int OVERLAP_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final ClinicCalendar clinicCalendar;
+    private final int horizonDays;
+
+    public AppointmentArchiveRepository(MongoTemplate mongoTemplate,
+                                        ClinicCalendar clinicCalendar,
+                                        @Value("${appointments.archive.horizon-days}") int horizonDays) {
+        this.mongoTemplate = mongoTemplate;
+        this.clinicCalendar = clinicCalendar;
+        this.horizonDays = horizonDays;
+    }
+
+    /**
+     * First day key that is guaranteed to still be in the hot collection for the doctor.
+     */
+    public int horizonDayKey(String doctorId) {
+        return clinicCalendar.today(doctorId) - horizonDays;
+    }
+
+    public boolean mayContain(String doctorId, int fromDayKey) {
+        return fromDayKey < horizonDayKey(doctorId);
+    }
+
+    public boolean existsByDoctorId(String doctorId) {
+        return mongoTemplate.exists(Query.query(Criteria.where("doctorId").is(doctorId)), ARCHIVE_COLLECTION);
+    }
+
+    public List<AppointmentEntity> findByDoctorIdAndDayKeyRange(String doctorId, int fromDayKey, int toDayKey) {
+        Query query = Query.query(Criteria.where("doctorId").is(doctorId).and("dayKey").gte(fromDayKey).lte(toDayKey));
+        return mongoTemplate.find(query, AppointmentEntity.class, ARCHIVE_COLLECTION);
+    }
+
+    public Stream<AppointmentEntity> streamByDoctorIdAndDayKeyRange(String doctorId, int fromDayKey, int toDayKey) {
+        Query query = Query.query(Criteria.where("doctorId").is(doctorId).and("dayKey").gte(fromDayKey).lte(toDayKey))
+                .with(Sort.by(Sort.Direction.ASC, "dayKey"));
+        return mongoTemplate.stream(query, AppointmentEntity.class, ARCHIVE_COLLECTION);
+    }
+
+    public Stream<AppointmentEntity> streamByDoctorIdAndAppointmentDateTimeRange(String doctorId, Date from, Date to) {
+        Query query = Query.query(Criteria.where("doctorId").is(doctorId).and("appointmentDateTime").gte(from).lt(to))
+                .with(Sort.by(Sort.Direction.ASC, "appointmentDateTime"));
+        return mongoTemplate.stream(query, AppointmentEntity.class, ARCHIVE_COLLECTION);
+    }
+
+    /**
+     * Drops archived rows that still have a hot copy, as a batch being archived is briefly in both
+     * collections and the hot copy wins. The overlap is looked up per batch of archived rows, so
+     * only one batch of ids is held, however many hot rows the range has. Order is preserved and
+     * closing the returned stream closes {@code archived}.
+     */
+    public Stream<AppointmentEntity> withoutHotCopies(Stream<AppointmentEntity> archived) {
+        Iterator<AppointmentEntity> source = archived.iterator();
+        Iterator<AppointmentEntity> filtered = new Iterator<>() {
+            private Iterator<AppointmentEntity> batch = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!batch.hasNext() && source.hasNext()) {
+                    batch = nextBatch(source).iterator();
+                }
+                return batch.hasNext();
+            }
+
+            @Override
+            public AppointmentEntity next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(filtered, Spliterator.ORDERED), false)
+                .onClose(archived::close);
+    }
+
+    private List<AppointmentEntity> nextBatch(Iterator<AppointmentEntity> source) {
+        List<AppointmentEntity> batch = new ArrayList<>(OVERLAP_BATCH_SIZE);
+        List<String> ids = new ArrayList<>(OVERLAP_BATCH_SIZE);
+        while (batch.size() < OVERLAP_BATCH_SIZE && source.hasNext()) {
+            AppointmentEntity appointment = source.next();
+            batch.add(appointment);
+            ids.add(appointment.getId());
+        }
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include("_id");
+        Set<String> hotIds = new HashSet<>();
+        mongoTemplate.find(query, AppointmentEntity.class).forEach(appointment -> hotIds.add(appointment.getId()));
+        if (!hotIds.isEmpty()) {
+            batch.removeIf(appointment -> hotIds.contains(appointment.getId()));
+        }
+        return batch;
+    }
+
+    public Optional<AppointmentEntity> findByAppointmentId(String appointmentId) {
+        Query query = Query.query(Criteria.where("appointmentId").is(appointmentId));
+        return Optional.ofNullable(mongoTemplate.findOne(query, AppointmentEntity.class, ARCHIVE_COLLECTION));
+    }
+
+    public List<AppointmentEntity> findByDoctorIdAndContact(String doctorId, String contact, int limit) {
+        Query query = Query.query(Criteria.where("doctorId").is(doctorId).and("contact").is(contact))
+                .with(Sort.by(Sort.Direction.DESC, "appointmentDateTime"))
+                .limit(limit);
+        return mongoTemplate.find(query, AppointmentEntity.class, ARCHIVE_COLLECTION);
+    }
+
+    /**
+     * Upserts by _id so a batch interrupted between copy and delete can be replayed safely.
+     */
+    public void saveAll(List<AppointmentEntity> appointments) {
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED, AppointmentEntity.class, ARCHIVE_COLLECTION);
+        for (AppointmentEntity appointment : appointments) {
+            bulkOperations.replaceOne(
+                    Query.query(Criteria.where("_id").is(appointment.getId())),
+                    appointment,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulkOperations.execute();
+    }
+
+    public void ensureIndexes() {
+        IndexOperations indexOperations = mongoTemplate.indexOps(ARCHIVE_COLLECTION);
+        indexOperations.ensureIndex(new Index().on("appointmentId", Sort.Direction.ASC).unique()
+                .named("archive_appointment_id_idx"));
+        indexOperations.ensureIndex(new Index().on("doctorId", Sort.Direction.ASC).on("dayKey", Sort.Direction.ASC)
+                .named("archive_doctor_day_idx"));
+        indexOperations.ensureIndex(new Index().on("dayKey", Sort.Direction.ASC).named("archive_day_key_idx"));
+        indexOperations.ensureIndex(new Index().on("doctorId", Sort.Direction.ASC).on("appointmentDateTime", Sort.Direction.ASC)
+                .named("archive_doctor_appt_date_idx"));
+        indexOperations.ensureIndex(new Index().on("doctorId", Sort.Direction.ASC).on("contact", Sort.Direction.ASC)
+                .on("appointmentDateTime", Sort.Direction.DESC).named("archive_doctor_contact_date_idx"));
+    }
+}
@@ -2,6 +2,7 @@ package com.heal.doctor.repositories;
 
 import com.heal.doctor.models.AppointmentEntity;
 import com.heal.doctor.models.enums.AppointmentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,19 +11,19 @@ import org.springframework.stereotype.Repository;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AppointmentRepository extends MongoRepository<AppointmentEntity, String> {
     Optional<AppointmentEntity> findByAppointmentId(String appointmentId);
 
-    List<AppointmentEntity> findByDoctorIdAndBookingDateTimeBetween(String doctorId, Date startDate, Date endDate);
+    boolean existsByDoctorId(String doctorId);
 
-    Boolean existsByDoctorIdAndPatientNameAndContactAndAppointmentDateTimeBetweenAndStatus(
+    Boolean existsByDoctorIdAndPatientNameAndContactAndDayKeyAndStatus(
             String doctorId,
             String patientName,
             String contact,
-            Date startDate,
-            Date endDate,
+            Integer dayKey,
             AppointmentStatus status
     );
 
@@ -31,4 +32,19 @@ public interface AppointmentRepository extends MongoRepository<AppointmentEntity
             String doctorId, Date fromDate, Date toDate
     );
 
+    List<AppointmentEntity> findByDoctorIdAndDayKey(String doctorId, Integer dayKey);
+
+    @Query("{ 'doctorId': ?0, 'dayKey': { $gte: ?1, $lte: ?2 } }")
+    List<AppointmentEntity> findByDoctorIdAndDayKeyRange(String doctorId, Integer fromDayKey, Integer toDayKey);
+
+    @Query(value = "{ 'doctorId': ?0, 'dayKey': { $gte: ?1, $lte: ?2 } }", sort = "{ 'dayKey': 1 }")
+    Stream<AppointmentEntity> streamByDoctorIdAndDayKeyRange(String doctorId, Integer fromDayKey, Integer toDayKey);
+
+    @Query(value = "{ 'doctorId': ?0, 'appointmentDateTime': { $gte: ?1, $lt: ?2 } }", sort = "{ 'appointmentDateTime': 1 }")
+    Stream<AppointmentEntity> streamByDoctorIdAndAppointmentDateTimeRange(String doctorId, Date from, Date to);
+
+    List<AppointmentEntity> findByDoctorIdAndContactOrderByAppointmentDateTimeDesc(
+            String doctorId, String contact, Pageable pageable
+    );
+
 }
@@ -0,0 +1,18 @@
+package com.heal.doctor.repositories;
+
+import com.heal.doctor.models.AppointmentSeriesEntity;
+import com.heal.doctor.models.enums.SeriesStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AppointmentSeriesRepository extends MongoRepository<AppointmentSeriesEntity, String> {
+    Optional<AppointmentSeriesEntity> findBySeriesId(String seriesId);
+
+    List<AppointmentSeriesEntity> findByDoctorIdOrderByCreatedAtDesc(String doctorId);
+
+    List<AppointmentSeriesEntity> findByDoctorIdAndStatus(String doctorId, SeriesStatus status);
+}
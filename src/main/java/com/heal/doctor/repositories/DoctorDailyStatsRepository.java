@@ -0,0 +1,15 @@
+package com.heal.doctor.repositories;
+
+import com.heal.doctor.models.DoctorDailyStatsEntity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DoctorDailyStatsRepository extends MongoRepository<DoctorDailyStatsEntity, String> {
+
+    @Query(value = "{ 'doctorId': ?0, 'dayKey': { $gte: ?1, $lte: ?2 } }", sort = "{ 'dayKey': 1 }")
+    List<DoctorDailyStatsEntity> findByDoctorIdAndDayKeyRange(String doctorId, Integer fromDayKey, Integer toDayKey);
+}
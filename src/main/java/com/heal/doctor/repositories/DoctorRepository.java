@@ -2,10 +2,16 @@ package com.heal.doctor.repositories;
 
 import com.heal.doctor.models.DoctorEntity;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface DoctorRepository extends MongoRepository<DoctorEntity, String> {
     Optional<DoctorEntity> findByDoctorId(String doctorId);
     Optional<DoctorEntity> findByEmail(String email);
+
+    @Query(value = "{ 'doctorId': { $in: ?0 } }", fields = "{ 'doctorId': 1, 'firstName': 1, 'lastName': 1 }")
+    List<DoctorEntity> findNamesByDoctorIdIn(Collection<String> doctorIds);
 }
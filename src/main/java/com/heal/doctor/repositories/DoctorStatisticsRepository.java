@@ -2,6 +2,7 @@ package com.heal.doctor.repositories;
 
 import com.heal.doctor.models.AppointmentEntity;
 import com.heal.doctor.models.DailyTreatedPatients;
+import com.heal.doctor.models.DashboardStatistics;
 import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
@@ -14,45 +15,45 @@ import java.util.Optional;
 public interface DoctorStatisticsRepository extends MongoRepository<AppointmentEntity, String> {
 
     @Aggregation(pipeline = {
-            "{ $match: { doctorId: ?2, appointmentDateTime: { $gte: ?0, $lte: ?1 } } }",
+            "{ $match: { doctorId: ?1, dayKey: ?0 } }",
             "{ $count: 'count' }"
     })
-    Integer getTotalAppointmentsToday(Date startOfDay, Date endOfDay, String doctorId);
+    Integer getTotalAppointmentsToday(Integer dayKey, String doctorId);
 
     @Aggregation(pipeline = {
-            "{ $match: { doctorId: ?2, appointmentDateTime: { $gte: ?0, $lte: ?1 }, availableAtClinic: false, treated: false } }",
+            "{ $match: { doctorId: ?1, dayKey: ?0, availableAtClinic: false, treated: false } }",
             "{ $count: 'count' }"
     })
-    Integer getTotalUntreatedAppointmentsTodayAndNotAvailable(Date startOfDay, Date endOfDay, String doctorId);
+    Integer getTotalUntreatedAppointmentsTodayAndNotAvailable(Integer dayKey, String doctorId);
 
     @Aggregation(pipeline = {
-            "{ $match: { doctorId: ?2, appointmentDateTime: { $gte: ?0, $lte: ?1 }, treated: true } }",
+            "{ $match: { doctorId: ?1, dayKey: ?0, treated: true } }",
             "{ $count: 'count' }"
     })
-    Integer getTotalTreatedAppointmentsToday(Date startOfDay, Date endOfDay, String doctorId);
+    Integer getTotalTreatedAppointmentsToday(Integer dayKey, String doctorId);
 
     @Aggregation(pipeline = {
-            "{ $match: { doctorId: ?2, appointmentDateTime: { $gte: ?0, $lte: ?1 }, availableAtClinic: true, treated: false } }",
+            "{ $match: { doctorId: ?1, dayKey: ?0, availableAtClinic: true, treated: false } }",
             "{ $count: 'count' }"
     })
-    Integer getTotalAvailableAtClinicToday(Date startOfDay, Date endOfDay, String doctorId);
+    Integer getTotalAvailableAtClinicToday(Integer dayKey, String doctorId);
 
     @Aggregation(pipeline = {
-            "{ $match: { doctorId: ?0, appointmentDateTime: { $gte: ?1, $lte: ?2 } } }",
-            "{ $facet: {",
-            "  totalAppointments: [{ $count: 'count' }],",
-            "  treatedAppointments: [{ $match: { treated: true } }, { $count: 'count' }],",
-            "  untreatedNotAvailable: [{ $match: { treated: false, availableAtClinic: false } }, { $count: 'count' }],",
-            "  availableAtClinic: [{ $match: { treated: false, availableAtClinic: true } }, { $count: 'count' }]",
-            "}}",
-            "{ $project: {",
-            "  totalAppointments: { $ifNull: [{ $arrayElemAt: ['$totalAppointments.count', 0] }, 0] },",
-            "  treatedAppointments: { $ifNull: [{ $arrayElemAt: ['$treatedAppointments.count', 0] }, 0] },",
-            "  untreatedNotAvailable: { $ifNull: [{ $arrayElemAt: ['$untreatedNotAvailable.count', 0] }, 0] },",
-            "  availableAtClinic: { $ifNull: [{ $arrayElemAt: ['$availableAtClinic.count', 0] }, 0] }",
-            "}}"
+            "{ $match: { doctorId: ?0, dayKey: ?1 } }",
+            "{ $facet: { " +
+                      "totalAppointments: [{ $count: 'count' }], " +
+                      "treatedAppointments: [{ $match: { treated: true } }, { $count: 'count' }], " +
+                      "untreatedNotAvailable: [{ $match: { treated: false, availableAtClinic: false } }, { $count: 'count' }], " +
+                      "availableAtClinic: [{ $match: { treated: false, availableAtClinic: true } }, { $count: 'count' }] " +
+                    "}}",
+            "{ $project: { " +
+                      "totalAppointments: { $ifNull: [{ $arrayElemAt: ['$totalAppointments.count', 0] }, 0] }, " +
+                      "treatedAppointments: { $ifNull: [{ $arrayElemAt: ['$treatedAppointments.count', 0] }, 0] }, " +
+                      "untreatedNotAvailable: { $ifNull: [{ $arrayElemAt: ['$untreatedNotAvailable.count', 0] }, 0] }, " +
+                      "availableAtClinic: { $ifNull: [{ $arrayElemAt: ['$availableAtClinic.count', 0] }, 0] } " +
+                    "}}"
     })
-    StatisticsResult getTodayStatisticsOptimized(Date startOfDay, Date endOfDay, String doctorId);
+    StatisticsResult getTodayStatisticsOptimized(String doctorId, Integer dayKey);
 
     interface StatisticsResult {
         Integer getTotalAppointments();
@@ -63,25 +64,60 @@ public interface DoctorStatisticsRepository extends MongoRepository<AppointmentE
 
     @Aggregation(pipeline = {
             "{ $match: { doctorId: ?2, treatedDateTime: { $gte: ?0, $lte: ?1 }, treated: true } }",
-            "{ $group: { _id: { $dateToString: { format: '%Y-%m-%d', date: '$treatedDateTime' } }, count: { $sum: 1 } } }",
+            "{ $group: { _id: { $dateToString: { format: '%Y-%m-%d', date: '$treatedDateTime', timezone: ?3 } }, count: { $sum: 1 } } }",
             "{ $project: { _id: 0, date: '$_id', count: 1 } }",
             "{ $sort: { date: 1 } }"
     })
-    List<DailyTreatedPatients> getDailyTreatedPatientsLastWeek(Date startOfWeek, Date endOfYesterday, String doctorId);
+    List<DailyTreatedPatients> getDailyTreatedPatientsLastWeek(Date startOfWeek, Date endOfYesterday, String doctorId, String timezone);
 
     @Aggregation(pipeline = {
-            "{ $match: { doctorId: ?0, appointmentDateTime: { $gte: ?1, $lte: ?2 } } }",
-            "{ $group: { _id: { $dateToString: { format: '%Y-%m-%d', date: '$appointmentDateTime' } }, totalCount: { $sum: 1 }, treatedCount: { $sum: { $cond: [{ $eq: ['$treated', true] }, 1, 0] } } } }",
+            "{ $match: { doctorId: ?0, dayKey: { $gte: ?1, $lte: ?2 } } }",
+            "{ $group: { _id: '$dayKey', totalCount: { $sum: 1 }, treatedCount: { $sum: { $cond: [{ $eq: ['$treated', true] }, 1, 0] } } } }",
             "{ $sort: { _id: -1 } }",
             "{ $limit: 1 }",
             "{ $project: { _id: 0, totalCount: { $ifNull: ['$totalCount', 0] }, treatedCount: { $ifNull: ['$treatedCount', 0] } } }"
     })
-    Optional<LastActiveDayStats> getLastActiveDayStats(String doctorId, Date startOfLast7Days, Date endOfYesterday);
+    Optional<LastActiveDayStats> getLastActiveDayStats(String doctorId, Integer fromDayKey, Integer toDayKey);
 
     interface LastActiveDayStats {
         Integer getTotalCount();
         Integer getTreatedCount();
     }
 
-
+    /**
+     * Everything the dashboard shows in one round trip. The leading $match covers the union of the
+     * week's day keys and the week's treatment times so both compound indexes can serve it, and
+     * each facet then narrows to its own slice.
+     */
+    @Aggregation(pipeline = {
+            "{ $match: { doctorId: ?0, $or: [ { dayKey: { $gte: ?1, $lte: ?2 } }, { treated: true, treatedDateTime: { $gte: ?3, $lte: ?4 } } ] } }",
+            "{ $facet: { " +
+                      "today: [ " +
+                        "{ $match: { dayKey: ?2 } }, " +
+                        "{ $group: { _id: null, " +
+                          "totalAppointments: { $sum: 1 }, " +
+                          "treatedAppointments: { $sum: { $cond: [{ $eq: ['$treated', true] }, 1, 0] } }, " +
+                          "untreatedNotAvailable: { $sum: { $cond: [{ $and: [{ $eq: ['$treated', false] }, { $eq: ['$availableAtClinic', false] }] }, 1, 0] } }, " +
+                          "availableAtClinic: { $sum: { $cond: [{ $and: [{ $eq: ['$treated', false] }, { $eq: ['$availableAtClinic', true] }] }, 1, 0] } } " +
+                        "} } " +
+                      "], " +
+                      "lastWeekTreated: [ " +
+                        "{ $match: { treated: true, treatedDateTime: { $gte: ?3, $lte: ?4 } } }, " +
+                        "{ $group: { _id: { $dateToString: { format: '%Y-%m-%d', date: '$treatedDateTime', timezone: ?5 } }, count: { $sum: 1 } } }, " +
+                        "{ $project: { _id: 0, date: '$_id', count: 1 } }, " +
+                        "{ $sort: { date: 1 } } " +
+                      "], " +
+                      "lastActiveDay: [ " +
+                        "{ $match: { dayKey: { $gte: ?1, $lte: ?6 } } }, " +
+                        "{ $group: { _id: '$dayKey', totalCount: { $sum: 1 }, treatedCount: { $sum: { $cond: [{ $eq: ['$treated', true] }, 1, 0] } } } }, " +
+                        "{ $sort: { _id: -1 } }, " +
+                        "{ $limit: 1 } " +
+                      "] " +
+                    "}}",
+            "{ $project: { today: { $arrayElemAt: ['$today', 0] }, lastWeekTreated: 1, lastActiveDay: { $arrayElemAt: ['$lastActiveDay', 0] } } }"
+    })
+    DashboardStatistics getDashboardStatistics(String doctorId, Integer fromDayKey, Integer todayDayKey,
+                                               Date startOfWeek, Date endOfYesterday, String timezone,
+                                               Integer yesterdayDayKey);
 }
+
@@ -0,0 +1,9 @@
+package com.heal.doctor.repositories;
+
+import com.heal.doctor.models.IdempotencyRecordEntity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyRecordRepository extends MongoRepository<IdempotencyRecordEntity, String> {
+}
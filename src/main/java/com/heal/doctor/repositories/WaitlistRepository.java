@@ -0,0 +1,14 @@
+package com.heal.doctor.repositories;
+
+import com.heal.doctor.models.WaitlistEntryEntity;
+import com.heal.doctor.models.enums.WaitlistStatus;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WaitlistRepository extends MongoRepository<WaitlistEntryEntity, String> {
+    List<WaitlistEntryEntity> findByDoctorIdAndDayKeyAndStatus(String doctorId, Integer dayKey, WaitlistStatus status, Sort sort);
+}
@@ -0,0 +1,7 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.dto.AdminOverviewDTO;
+
+public interface IAdminOverviewService {
+    AdminOverviewDTO getOverview(Integer topK);
+}
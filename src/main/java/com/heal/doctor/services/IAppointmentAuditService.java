@@ -0,0 +1,9 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.dto.AppointmentAuditDTO;
+
+import java.util.List;
+
+public interface IAppointmentAuditService {
+    List<AppointmentAuditDTO> getTimeline(String appointmentId, int limit);
+}
@@ -0,0 +1,9 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.dto.CalendarDayDTO;
+
+import java.util.List;
+
+public interface IAppointmentCalendarService {
+    List<CalendarDayDTO> getMonthCalendar(String month);
+}
@@ -0,0 +1,9 @@
+package com.heal.doctor.services;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+public interface IAppointmentExportService {
+    StreamingResponseBody exportCsv(String fromDate, String toDate, boolean gzip);
+
+    StreamingResponseBody exportXlsx(String fromDate, String toDate);
+}
@@ -0,0 +1,11 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.models.AppointmentEntity;
+
+public interface IAppointmentReminderService {
+    void schedule(AppointmentEntity appointment);
+
+    void cancel(String appointmentId);
+
+    int pendingReminders();
+}
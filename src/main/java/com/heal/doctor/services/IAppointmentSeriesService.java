@@ -0,0 +1,21 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.dto.AppointmentDTO;
+import com.heal.doctor.dto.AppointmentSeriesDTO;
+import com.heal.doctor.dto.AppointmentSeriesRequestDTO;
+
+import java.util.List;
+
+public interface IAppointmentSeriesService {
+    AppointmentSeriesDTO createSeries(AppointmentSeriesRequestDTO requestDTO);
+
+    AppointmentSeriesDTO getSeries(String seriesId);
+
+    List<AppointmentSeriesDTO> getSeriesForCurrentDoctor();
+
+    AppointmentSeriesDTO cancelSeries(String seriesId);
+
+    List<AppointmentDTO> getVirtualOccurrences(String doctorId, int fromDayKey, int toDayKey);
+
+    int materializeDueSeries();
+}
@@ -8,6 +8,7 @@ import com.heal.doctor.models.enums.AppointmentStatus;
 
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IAppointmentService {
     AppointmentDTO bookAppointment(AppointmentRequestDTO requestDTO);
@@ -21,5 +22,8 @@ public interface IAppointmentService {
     AppointmentDTO updateAvailableAtClinic(String appointmentId, Boolean availableAtClinicStatus);
     AppointmentDTO updateEmergencyStatus(String appointmentId, Boolean isEmergency);
     AppointmentDTO cancelAppointment(String appointmentId);
+    AppointmentDTO acceptBookingRequest(String appointmentId);
+    AppointmentDTO declineBookingRequest(String appointmentId);
     List<AppointmentDTO> getAppointmentsByDoctorAndDateRange(String doctorId, String  fromDate, String toDate);
+    long streamAppointmentsByDoctorAndDateRange(String doctorId, String fromDate, String toDate, Consumer<AppointmentDTO> consumer);
 }
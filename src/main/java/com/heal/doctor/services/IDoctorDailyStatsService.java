@@ -0,0 +1,11 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.models.DoctorDailyStatsEntity;
+
+import java.util.List;
+
+public interface IDoctorDailyStatsService {
+    List<DoctorDailyStatsEntity> getDays(String doctorId, int fromDayKey, int toDayKey);
+
+    int reconcile(int fromDayKey);
+}
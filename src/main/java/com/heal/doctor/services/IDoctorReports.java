@@ -1,14 +1,27 @@
 package com.heal.doctor.services;
 
-import com.heal.doctor.models.AppointmentEntity;
-import com.heal.doctor.models.DoctorEntity;
+import com.heal.doctor.utils.ReportDateRange;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.OutputStream;
 
 public interface IDoctorReports {
 
      byte[] generateDoctorReport(
             String fromDate,
-            String toDate
+            String toDate,
+            boolean summaryOnly
+    );
+
+     StreamingResponseBody streamDoctorReport(
+            String fromDate,
+            String toDate,
+            boolean summaryOnly
+    );
+
+     long writeDoctorReport(
+            String doctorId,
+            ReportDateRange range,
+            OutputStream outputStream
     );
 }
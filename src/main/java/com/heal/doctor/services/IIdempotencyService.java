@@ -0,0 +1,11 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.utils.ApiResponse;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface IIdempotencyService {
+    <T> ResponseEntity<ApiResponse<T>> execute(String idempotencyKey, String operation, Object request,
+                                               Class<T> dataType, Supplier<ResponseEntity<ApiResponse<T>>> action);
+}
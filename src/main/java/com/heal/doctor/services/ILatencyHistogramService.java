@@ -0,0 +1,11 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.dto.LatencySummaryDTO;
+
+import java.util.List;
+
+public interface ILatencyHistogramService {
+    List<LatencySummaryDTO> getLatencySummary(String fromDate, String toDate);
+
+    int flush();
+}
@@ -0,0 +1,9 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.dto.DoctorStatisticsDTO;
+
+public interface ILiveStatisticsService {
+    long beginSeed(String doctorId);
+
+    boolean seed(String doctorId, int dayKey, DoctorStatisticsDTO statistics, long changesBefore);
+}
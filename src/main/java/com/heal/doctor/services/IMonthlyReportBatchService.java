@@ -0,0 +1,5 @@
+package com.heal.doctor.services;
+
+public interface IMonthlyReportBatchService {
+    int runMonthlyBatch();
+}
@@ -0,0 +1,15 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.dto.AppointmentDTO;
+import com.heal.doctor.dto.PatientSummaryDTO;
+import com.heal.doctor.models.AppointmentEntity;
+
+import java.util.List;
+
+public interface IPatientService {
+    List<PatientSummaryDTO> searchPatients(String query, int limit);
+
+    List<AppointmentDTO> getVisitHistory(String contact, int limit);
+
+    void recordVisit(AppointmentEntity appointment);
+}
@@ -0,0 +1,11 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.dto.AnalyticsBucketDTO;
+
+import java.util.List;
+
+public interface IPracticeAnalyticsService {
+    List<AnalyticsBucketDTO> getBuckets(String granularity, String fromDate, String toDate);
+
+    int rollup();
+}
@@ -0,0 +1,14 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.utils.ReportDateRange;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+public interface IReportCacheService {
+    Optional<String> cacheKey(String doctorId, ReportDateRange range);
+
+    Optional<Path> find(String cacheKey);
+
+    void store(String cacheKey, Path renderedReport);
+}
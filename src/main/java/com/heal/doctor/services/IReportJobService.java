@@ -0,0 +1,15 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.dto.ReportJobDTO;
+
+import java.nio.file.Path;
+
+public interface IReportJobService {
+    ReportJobDTO submit(String fromDate, String toDate);
+
+    ReportJobDTO getJob(String jobId);
+
+    Path getReportFile(String jobId);
+
+    int sweep();
+}
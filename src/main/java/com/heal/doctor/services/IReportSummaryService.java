@@ -0,0 +1,8 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.dto.ReportSummaryDTO;
+import com.heal.doctor.utils.ReportDateRange;
+
+public interface IReportSummaryService {
+    ReportSummaryDTO summarize(String doctorId, ReportDateRange range);
+}
@@ -0,0 +1,24 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.dto.SlotAvailabilityDTO;
+import com.heal.doctor.dto.SlotHoldDTO;
+import com.heal.doctor.dto.SlotHoldRequestDTO;
+import com.heal.doctor.models.AppointmentEntity;
+
+import java.util.List;
+
+public interface ISlotHoldService {
+    List<SlotAvailabilityDTO> getAvailability(String doctorId, String date);
+
+    SlotHoldDTO createHold(SlotHoldRequestDTO requestDTO);
+
+    SlotHoldDTO confirmHold(String holdId);
+
+    SlotHoldDTO releaseHold(String holdId);
+
+    int releaseExpiredHolds();
+
+    void reclaimSeat(AppointmentEntity appointment);
+
+    void returnSeat(String slotKey);
+}
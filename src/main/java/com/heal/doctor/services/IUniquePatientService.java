@@ -0,0 +1,9 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.dto.UniquePatientsDTO;
+
+public interface IUniquePatientService {
+    UniquePatientsDTO countUniquePatients(String fromDate, String toDate);
+
+    long backfill();
+}
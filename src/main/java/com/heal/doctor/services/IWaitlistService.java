@@ -0,0 +1,19 @@
+package com.heal.doctor.services;
+
+import com.heal.doctor.dto.WaitlistEntryDTO;
+import com.heal.doctor.dto.WaitlistRequestDTO;
+import com.heal.doctor.models.AppointmentEntity;
+
+import java.util.List;
+
+public interface IWaitlistService {
+    WaitlistEntryDTO addToWaitlist(WaitlistRequestDTO requestDTO);
+
+    List<WaitlistEntryDTO> getWaitlist(String date);
+
+    WaitlistEntryDTO updatePriority(String entryId, Integer priority);
+
+    WaitlistEntryDTO removeFromWaitlist(String entryId);
+
+    void promoteNext(AppointmentEntity freedAppointment);
+}
@@ -0,0 +1,191 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.dto.AdminOverviewDTO;
+import com.heal.doctor.dto.DoctorLoadDTO;
+import com.heal.doctor.exception.ValidationException;
+import com.heal.doctor.models.DoctorDailyStatsEntity;
+import com.heal.doctor.models.DoctorEntity;
+import com.heal.doctor.repositories.DoctorRepository;
+import com.heal.doctor.services.IAdminOverviewService;
+import com.heal.doctor.utils.ClinicCalendar;
+import com.heal.doctor.utils.LruTtlCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Platform-wide view of today's load, built only from {@code doctor_daily_stats}. Each doctor's
+ * "today" is their own clinic day, which is always within one day of the default zone's, so the
+ * rollups for those three days are streamed once and filtered per doctor. Rankings keep a
+ * min-heap of size K per metric, so memory stays O(K) however many doctors are on the platform.
+ * Results are cached for a few seconds since admins poll this page.
+ */
+@Service
+public class AdminOverviewServiceImpl implements IAdminOverviewService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminOverviewServiceImpl.class);
+    private static final int DEFAULT_TOP_K = 10;
+
+    private final MongoTemplate mongoTemplate;
+    private final DoctorRepository doctorRepository;
+    private final ClinicCalendar clinicCalendar;
+    private final int maxTopK;
+    private final LruTtlCache<Integer, AdminOverviewDTO> overviews;
+
+    public AdminOverviewServiceImpl(MongoTemplate mongoTemplate,
+                                    DoctorRepository doctorRepository,
+                                    ClinicCalendar clinicCalendar,
+                                    @Value("${admin.overview.cache-ttl-seconds}") long cacheTtlSeconds,
+                                    @Value("${admin.overview.max-top-k}") int maxTopK) {
+        this.mongoTemplate = mongoTemplate;
+        this.doctorRepository = doctorRepository;
+        this.clinicCalendar = clinicCalendar;
+        this.maxTopK = maxTopK;
+        this.overviews = new LruTtlCache<>(maxTopK, TimeUnit.SECONDS.toMillis(cacheTtlSeconds));
+    }
+
+    @Override
+    public AdminOverviewDTO getOverview(Integer topK) {
+        int k = topK == null ? DEFAULT_TOP_K : topK;
+        if (k < 1 || k > maxTopK) {
+            throw new ValidationException("topK must be between 1 and " + maxTopK + ".");
+        }
+        AdminOverviewDTO cached = overviews.get(k);
+        if (cached != null) {
+            return cached;
+        }
+        AdminOverviewDTO overview = buildOverview(k);
+        overviews.put(k, overview);
+        return overview;
+    }
+
+    private AdminOverviewDTO buildOverview(int k) {
+        int referenceDay = clinicCalendar.today(clinicCalendar.defaultZone());
+        PriorityQueue<DoctorDailyStatsEntity> byVolume = minHeap(DoctorDailyStatsEntity::getTotal);
+        PriorityQueue<DoctorDailyStatsEntity> byTreated = minHeap(DoctorDailyStatsEntity::getTreated);
+        PriorityQueue<DoctorDailyStatsEntity> byEmergency = minHeap(DoctorDailyStatsEntity::getEmergency);
+        long total = 0;
+        long treated = 0;
+        long waiting = 0;
+        long cancelled = 0;
+        long emergency = 0;
+        long paid = 0;
+        int activeDoctors = 0;
+
+        Query query = Query.query(Criteria.where("dayKey").gte(referenceDay - 1).lte(referenceDay + 1));
+        try (Stream<DoctorDailyStatsEntity> days = mongoTemplate.stream(query, DoctorDailyStatsEntity.class)) {
+            for (DoctorDailyStatsEntity day : (Iterable<DoctorDailyStatsEntity>) days::iterator) {
+                if (day.getDayKey() != clinicCalendar.today(day.getDoctorId()) || valueOf(day.getTotal()) == 0) {
+                    continue;
+                }
+                activeDoctors++;
+                total += valueOf(day.getTotal());
+                treated += valueOf(day.getTreated());
+                waiting += valueOf(day.getWaiting());
+                cancelled += valueOf(day.getCancelled());
+                emergency += valueOf(day.getEmergency());
+                paid += valueOf(day.getPaid());
+                offer(byVolume, day, k);
+                if (valueOf(day.getTreated()) > 0) {
+                    offer(byTreated, day, k);
+                }
+                if (valueOf(day.getEmergency()) > 0) {
+                    offer(byEmergency, day, k);
+                }
+            }
+        }
+
+        List<DoctorDailyStatsEntity> volumeLeaders = drainDescending(byVolume);
+        List<DoctorDailyStatsEntity> treatedLeaders = drainDescending(byTreated);
+        List<DoctorDailyStatsEntity> emergencyLeaders = drainDescending(byEmergency);
+        Map<String, String> names = doctorNames(volumeLeaders, treatedLeaders, emergencyLeaders);
+
+        AdminOverviewDTO overview = new AdminOverviewDTO();
+        overview.setDate(ClinicCalendar.formatDayKey(referenceDay));
+        overview.setRegisteredDoctors(doctorRepository.count());
+        overview.setActiveDoctors(activeDoctors);
+        overview.setTotalAppointments(total);
+        overview.setTreatedAppointments(treated);
+        overview.setWaitingAppointments(waiting);
+        overview.setCancelledAppointments(cancelled);
+        overview.setEmergencyAppointments(emergency);
+        overview.setPaidAppointments(paid);
+        overview.setTopByVolume(toLoad(volumeLeaders, names));
+        overview.setTopByTreated(toLoad(treatedLeaders, names));
+        overview.setTopByEmergency(toLoad(emergencyLeaders, names));
+        overview.setGeneratedAt(new Date());
+        logger.info("Admin overview computed: activeDoctors: {}, totalAppointments: {}, topK: {}", activeDoctors, total, k);
+        return overview;
+    }
+
+    private static PriorityQueue<DoctorDailyStatsEntity> minHeap(Function<DoctorDailyStatsEntity, Integer> counter) {
+        Comparator<DoctorDailyStatsEntity> comparator = Comparator
+                .comparingInt((DoctorDailyStatsEntity day) -> valueOf(counter.apply(day)))
+                .thenComparing(DoctorDailyStatsEntity::getDoctorId, Comparator.reverseOrder());
+        return new PriorityQueue<>(comparator);
+    }
+
+    private static void offer(PriorityQueue<DoctorDailyStatsEntity> heap, DoctorDailyStatsEntity day, int k) {
+        if (heap.size() < k) {
+            heap.add(day);
+        } else if (heap.comparator().compare(day, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(day);
+        }
+    }
+
+    private static List<DoctorDailyStatsEntity> drainDescending(PriorityQueue<DoctorDailyStatsEntity> heap) {
+        List<DoctorDailyStatsEntity> leaders = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            leaders.add(heap.poll());
+        }
+        Collections.reverse(leaders);
+        return leaders;
+    }
+
+    @SafeVarargs
+    private Map<String, String> doctorNames(List<DoctorDailyStatsEntity>... rankings) {
+        Set<String> doctorIds = new HashSet<>();
+        for (List<DoctorDailyStatsEntity> ranking : rankings) {
+            ranking.forEach(day -> doctorIds.add(day.getDoctorId()));
+        }
+        Map<String, String> names = new HashMap<>();
+        if (doctorIds.isEmpty()) {
+            return names;
+        }
+        for (DoctorEntity doctor : doctorRepository.findNamesByDoctorIdIn(doctorIds)) {
+            String lastName = doctor.getLastName() == null ? "" : " " + doctor.getLastName();
+            names.put(doctor.getDoctorId(), doctor.getFirstName() + lastName);
+        }
+        return names;
+    }
+
+    private static List<DoctorLoadDTO> toLoad(List<DoctorDailyStatsEntity> leaders, Map<String, String> names) {
+        return leaders.stream()
+                .map(day -> new DoctorLoadDTO(day.getDoctorId(), names.get(day.getDoctorId()),
+                        valueOf(day.getTotal()), valueOf(day.getTreated()), valueOf(day.getEmergency())))
+                .toList();
+    }
+
+    private static int valueOf(Integer counter) {
+        return counter == null ? 0 : counter;
+    }
+}
@@ -0,0 +1,99 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.dto.AppointmentAuditDTO;
+import com.heal.doctor.events.AppointmentChangedEvent;
+import com.heal.doctor.jobs.AuditTrailWriter;
+import com.heal.doctor.models.AppointmentAuditEntity;
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.services.IAppointmentAuditService;
+import com.heal.doctor.utils.CurrentUserName;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class AppointmentAuditServiceImpl implements IAppointmentAuditService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentAuditServiceImpl.class);
+    private static final int MAX_TIMELINE_RESULTS = 500;
+    private static final Map<String, Function<AppointmentEntity, Object>> AUDITED_FIELDS = Map.of(
+            "status", AppointmentEntity::getStatus,
+            "paymentStatus", AppointmentEntity::getPaymentStatus,
+            "treated", AppointmentEntity::getTreated,
+            "availableAtClinic", AppointmentEntity::getAvailableAtClinic,
+            "isEmergency", AppointmentEntity::getIsEmergency,
+            "appointmentDateTime", AppointmentEntity::getAppointmentDateTime
+    );
+
+    private final AuditTrailWriter auditTrailWriter;
+    private final MongoTemplate mongoTemplate;
+    private final ModelMapper modelMapper;
+    private final long retentionMillis;
+
+    public AppointmentAuditServiceImpl(AuditTrailWriter auditTrailWriter,
+                                       MongoTemplate mongoTemplate,
+                                       ModelMapper modelMapper,
+                                       @Value("${audit.retention-days}") long retentionDays) {
+        this.auditTrailWriter = auditTrailWriter;
+        this.mongoTemplate = mongoTemplate;
+        this.modelMapper = modelMapper;
+        this.retentionMillis = TimeUnit.DAYS.toMillis(retentionDays);
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        List<AppointmentAuditEntity.FieldChange> changes = new ArrayList<>();
+        AUDITED_FIELDS.forEach((field, getter) -> {
+            Object from = event.isNew() ? null : getter.apply(event.before());
+            Object to = getter.apply(event.after());
+            if (!Objects.equals(from, to)) {
+                changes.add(new AppointmentAuditEntity.FieldChange(field, from, to));
+            }
+        });
+        if (changes.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        auditTrailWriter.enqueue(AppointmentAuditEntity.builder()
+                .appointmentId(event.after().getAppointmentId())
+                .doctorId(event.doctorId())
+                .actor(event.actor())
+                .changeType(event.changeType())
+                .changes(changes)
+                .createdAt(now)
+                .expireAt(new Date(now.getTime() + retentionMillis))
+                .build());
+    }
+
+    /**
+     * Newest changes first, so a capped timeline drops the oldest entries rather than the latest.
+     */
+    @Override
+    public List<AppointmentAuditDTO> getTimeline(String appointmentId, int limit) {
+        String doctorId = CurrentUserName.getCurrentDoctorId();
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_TIMELINE_RESULTS));
+        logger.debug("Fetching appointment timeline: appointmentId: {}, doctorId: {}, limit: {}", appointmentId, doctorId, boundedLimit);
+        Query query = Query.query(Criteria.where("appointmentId").is(appointmentId).and("doctorId").is(doctorId))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+                .limit(boundedLimit);
+        return mongoTemplate.find(query, AppointmentAuditEntity.class).stream()
+                .map(record -> modelMapper.map(record, AppointmentAuditDTO.class))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,185 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.dto.AppointmentDTO;
+import com.heal.doctor.dto.CalendarDayDTO;
+import com.heal.doctor.events.AppointmentChangedEvent;
+import com.heal.doctor.exception.ValidationException;
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.models.enums.AppointmentStatus;
+import com.heal.doctor.repositories.AppointmentArchiveRepository;
+import com.heal.doctor.services.IAppointmentCalendarService;
+import com.heal.doctor.services.IAppointmentSeriesService;
+import com.heal.doctor.utils.ClinicCalendar;
+import com.heal.doctor.utils.CurrentUserName;
+import com.heal.doctor.utils.LruTtlCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Month view counts from one $group over (doctorId, dayKey). Months that have fully ended are
+ * cached; an appointment change evicts the month it falls in, so late payments or corrections
+ * still show up.
+ */
+@Service
+public class AppointmentCalendarServiceImpl implements IAppointmentCalendarService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentCalendarServiceImpl.class);
+    private static final String APPOINTMENTS_COLLECTION = "appointments";
+
+    private final MongoTemplate mongoTemplate;
+    private final ClinicCalendar clinicCalendar;
+    private final AppointmentArchiveRepository appointmentArchiveRepository;
+    private final IAppointmentSeriesService appointmentSeriesService;
+    private final LruTtlCache<String, List<CalendarDayDTO>> closedMonths;
+
+    public AppointmentCalendarServiceImpl(MongoTemplate mongoTemplate,
+                                          ClinicCalendar clinicCalendar,
+                                          AppointmentArchiveRepository appointmentArchiveRepository,
+                                          IAppointmentSeriesService appointmentSeriesService,
+                                          @Value("${calendar.cache.max-entries}") int cacheMaxEntries,
+                                          @Value("${calendar.cache.ttl-hours}") long cacheTtlHours) {
+        this.mongoTemplate = mongoTemplate;
+        this.clinicCalendar = clinicCalendar;
+        this.appointmentArchiveRepository = appointmentArchiveRepository;
+        this.appointmentSeriesService = appointmentSeriesService;
+        this.closedMonths = new LruTtlCache<>(cacheMaxEntries, TimeUnit.HOURS.toMillis(cacheTtlHours));
+    }
+
+    @Override
+    public List<CalendarDayDTO> getMonthCalendar(String month) {
+        String doctorId = CurrentUserName.getCurrentDoctorId();
+        int today = clinicCalendar.today(doctorId);
+        YearMonth yearMonth = parseMonth(month, today);
+        int fromDayKey = (int) yearMonth.atDay(1).toEpochDay();
+        int toDayKey = (int) yearMonth.atEndOfMonth().toEpochDay();
+        boolean closed = toDayKey < today;
+        String cacheKey = cacheKey(doctorId, yearMonth);
+
+        if (closed) {
+            List<CalendarDayDTO> cached = closedMonths.get(cacheKey);
+            if (cached != null) {
+                logger.debug("Calendar served from cache: doctorId: {}, month: {}", doctorId, yearMonth);
+                return cached;
+            }
+        }
+
+        Map<Integer, CalendarDayDTO> days = new TreeMap<>();
+        for (int dayKey = fromDayKey; dayKey <= toDayKey; dayKey++) {
+            CalendarDayDTO day = new CalendarDayDTO(dayKey);
+            day.setDate(ClinicCalendar.formatDayKey(dayKey));
+            days.put(dayKey, day);
+        }
+        mergeCounts(days, countByDay(doctorId, fromDayKey, toDayKey, appointmentArchiveRepository.mayContain(doctorId, fromDayKey)));
+        if (!closed) {
+            for (AppointmentDTO occurrence : appointmentSeriesService.getVirtualOccurrences(doctorId, fromDayKey, toDayKey)) {
+                CalendarDayDTO day = days.get(occurrence.getDayKey());
+                day.setTotal(day.getTotal() + 1);
+                day.setAccepted(day.getAccepted() + 1);
+            }
+        }
+
+        List<CalendarDayDTO> calendar = new ArrayList<>(days.values());
+        if (closed) {
+            closedMonths.put(cacheKey, calendar);
+        }
+        logger.debug("Calendar computed: doctorId: {}, month: {}, cached: {}", doctorId, yearMonth, closed);
+        return calendar;
+    }
+
+    /**
+     * Evicts the month the appointment is in now and, when it was moved, the month it left.
+     */
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        evictMonth(event.doctorId(), event.after().getDayKey());
+        if (!event.isNew() && !Objects.equals(event.before().getDayKey(), event.after().getDayKey())) {
+            evictMonth(event.doctorId(), event.before().getDayKey());
+        }
+    }
+
+    private void evictMonth(String doctorId, Integer dayKey) {
+        if (dayKey != null) {
+            closedMonths.remove(cacheKey(doctorId, YearMonth.from(LocalDate.ofEpochDay(dayKey))));
+        }
+    }
+
+    /**
+     * When the month reaches past the archive horizon the archive is unioned in and rows are
+     * collapsed by _id first, so a batch caught mid-archival, present in both collections, is
+     * counted once; the hot copy comes first in the union and wins.
+     */
+    private List<CalendarDayDTO> countByDay(String doctorId, int fromDayKey, int toDayKey, boolean includeArchive) {
+        Criteria criteria = Criteria.where("doctorId").is(doctorId).and("dayKey").gte(fromDayKey).lte(toDayKey);
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(criteria));
+        if (includeArchive) {
+            stages.add(UnionWithOperation.unionWith(AppointmentArchiveRepository.ARCHIVE_COLLECTION)
+                    .pipeline(Aggregation.match(criteria)));
+            stages.add(Aggregation.group("_id")
+                    .first("dayKey").as("dayKey")
+                    .first("status").as("status")
+                    .first("treated").as("treated")
+                    .first("isEmergency").as("isEmergency")
+                    .first("paymentStatus").as("paymentStatus"));
+        }
+        stages.add(Aggregation.group("dayKey")
+                .count().as("total")
+                .sum(countWhen(Criteria.where("status").is(AppointmentStatus.ACCEPTED.name()))).as("accepted")
+                .sum(countWhen(Criteria.where("status").is(AppointmentStatus.BOOKED.name()))).as("booked")
+                .sum(countWhen(Criteria.where("status").is(AppointmentStatus.CANCELLED.name()))).as("cancelled")
+                .sum(countWhen(Criteria.where("treated").is(true))).as("treated")
+                .sum(countWhen(Criteria.where("isEmergency").is(true))).as("emergency")
+                .sum(countWhen(Criteria.where("paymentStatus").is(true))).as("paid"));
+        stages.add(Aggregation.project("total", "accepted", "booked", "cancelled", "treated", "emergency", "paid")
+                .and("dayKey").previousOperation());
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages), APPOINTMENTS_COLLECTION, CalendarDayDTO.class)
+                .getMappedResults();
+    }
+
+    private ConditionalOperators.Cond countWhen(Criteria criteria) {
+        return ConditionalOperators.when(criteria).then(1).otherwise(0);
+    }
+
+    private void mergeCounts(Map<Integer, CalendarDayDTO> days, List<CalendarDayDTO> counts) {
+        for (CalendarDayDTO count : counts) {
+            CalendarDayDTO day = days.get(count.getDayKey());
+            if (day != null) {
+                day.add(count);
+            }
+        }
+    }
+
+    private YearMonth parseMonth(String month, int today) {
+        if (month == null || month.isBlank()) {
+            return YearMonth.from(LocalDate.ofEpochDay(today));
+        }
+        try {
+            return YearMonth.parse(month.trim());
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Invalid month format. Please use 'yyyy-MM'.");
+        }
+    }
+
+    private String cacheKey(String doctorId, YearMonth month) {
+        return doctorId + ":" + month;
+    }
+}
@@ -0,0 +1,156 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.exception.ValidationException;
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.repositories.AppointmentArchiveRepository;
+import com.heal.doctor.repositories.AppointmentRepository;
+import com.heal.doctor.services.IAppointmentExportService;
+import com.heal.doctor.utils.ClinicCalendar;
+import com.heal.doctor.utils.CsvRowWriter;
+import com.heal.doctor.utils.CurrentUserName;
+import com.heal.doctor.utils.ExportRowWriter;
+import com.heal.doctor.utils.ReportDateRange;
+import com.heal.doctor.utils.XlsxRowWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Raw appointment exports for accounting. Rows are read from an ordered cursor on
+ * (doctorId, appointmentDateTime), first from the archive and then from the hot collection,
+ * and each row is written to the response as soon as it arrives, so memory stays flat however
+ * large the range. Only stored appointments are exported; projected series occurrences are not.
+ */
+@Service
+public class AppointmentExportServiceImpl implements IAppointmentExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentExportServiceImpl.class);
+    private static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm";
+    private static final String[] HEADER = {
+            "Appointment ID", "Patient Name", "Contact", "Email", "Appointment Time", "Booked At",
+            "Status", "Type", "Arrived At", "Treated", "Treated At", "Paid", "Emergency", "Description"
+    };
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentArchiveRepository appointmentArchiveRepository;
+    private final ClinicCalendar clinicCalendar;
+
+    public AppointmentExportServiceImpl(AppointmentRepository appointmentRepository,
+                                        AppointmentArchiveRepository appointmentArchiveRepository,
+                                        ClinicCalendar clinicCalendar) {
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentArchiveRepository = appointmentArchiveRepository;
+        this.clinicCalendar = clinicCalendar;
+    }
+
+    @Override
+    public StreamingResponseBody exportCsv(String fromDate, String toDate, boolean gzip) {
+        ExportRequest request = resolve(fromDate, toDate);
+        return outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 64 * 1024);
+                export(request, new CsvRowWriter(gzipStream), "csv.gz");
+                gzipStream.finish();
+            } else {
+                export(request, new CsvRowWriter(outputStream), "csv");
+            }
+            outputStream.flush();
+        };
+    }
+
+    @Override
+    public StreamingResponseBody exportXlsx(String fromDate, String toDate) {
+        ExportRequest request = resolve(fromDate, toDate);
+        return outputStream -> {
+            export(request, new XlsxRowWriter(outputStream, "Appointments"), "xlsx");
+            outputStream.flush();
+        };
+    }
+
+    /**
+     * Resolved on the request thread: the body runs later on an async thread without the security context.
+     */
+    private ExportRequest resolve(String fromDate, String toDate) {
+        ReportDateRange range = ReportDateRange.resolve(fromDate, toDate);
+        int fromDayKey = ClinicCalendar.parseDayKey(range.fromDate());
+        int toDayKey = ClinicCalendar.parseDayKey(range.toDate());
+        if (fromDayKey > toDayKey) {
+            throw new ValidationException("fromDate must not be after toDate.");
+        }
+        String doctorId = CurrentUserName.getCurrentDoctorId();
+        ZoneId zone = clinicCalendar.zoneFor(doctorId);
+        return new ExportRequest(doctorId, zone, fromDayKey, toDayKey, appointmentArchiveRepository.horizonDayKey(doctorId));
+    }
+
+    private void export(ExportRequest request, ExportRowWriter writer, String format) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_TIME_PATTERN).withZone(request.zone());
+        Date from = clinicCalendar.startOfDay(request.zone(), request.fromDayKey());
+        Date to = clinicCalendar.startOfDay(request.zone(), request.toDayKey() + 1);
+        long rows = 0;
+        writer.writeRow(HEADER);
+
+        if (request.fromDayKey() < request.horizonDayKey()) {
+            int archiveToDayKey = Math.min(request.toDayKey(), request.horizonDayKey() - 1);
+            Date archiveTo = clinicCalendar.startOfDay(request.zone(), archiveToDayKey + 1);
+            // A batch being archived is briefly in both collections; the hot copy is written below.
+            try (Stream<AppointmentEntity> archived = appointmentArchiveRepository.withoutHotCopies(appointmentArchiveRepository
+                    .streamByDoctorIdAndAppointmentDateTimeRange(request.doctorId(), from, archiveTo))) {
+                for (AppointmentEntity appointment : (Iterable<AppointmentEntity>) archived::iterator) {
+                    writer.writeRow(cells(appointment, formatter));
+                    rows++;
+                }
+            }
+        }
+        try (Stream<AppointmentEntity> hot = appointmentRepository
+                .streamByDoctorIdAndAppointmentDateTimeRange(request.doctorId(), from, to)) {
+            for (AppointmentEntity appointment : (Iterable<AppointmentEntity>) hot::iterator) {
+                writer.writeRow(cells(appointment, formatter));
+                rows++;
+            }
+        }
+        writer.finish();
+        logger.info("Appointment export written: doctorId: {}, format: {}, dateRange: {} to {}, rows: {}, durationMs: {}",
+                request.doctorId(), format, ClinicCalendar.formatDayKey(request.fromDayKey()),
+                ClinicCalendar.formatDayKey(request.toDayKey()), rows, System.currentTimeMillis() - startedAt);
+    }
+
+    private static String[] cells(AppointmentEntity appointment, DateTimeFormatter formatter) {
+        return new String[]{
+                appointment.getAppointmentId(),
+                appointment.getPatientName(),
+                appointment.getContact(),
+                appointment.getEmail(),
+                format(appointment.getAppointmentDateTime(), formatter),
+                format(appointment.getBookingDateTime(), formatter),
+                appointment.getStatus() == null ? null : appointment.getStatus().name(),
+                appointment.getAppointmentType() == null ? null : appointment.getAppointmentType().name(),
+                format(appointment.getArrivedDateTime(), formatter),
+                yesNo(appointment.getTreated()),
+                format(appointment.getTreatedDateTime(), formatter),
+                yesNo(appointment.getPaymentStatus()),
+                yesNo(appointment.getIsEmergency()),
+                appointment.getDescription()
+        };
+    }
+
+    private static String format(Date date, DateTimeFormatter formatter) {
+        return date == null ? null : formatter.format(date.toInstant());
+    }
+
+    private static String yesNo(Boolean value) {
+        return Boolean.TRUE.equals(value) ? "Yes" : "No";
+    }
+
+    private record ExportRequest(String doctorId, ZoneId zone, int fromDayKey, int toDayKey, int horizonDayKey) {
+    }
+}
@@ -0,0 +1,220 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.events.AppointmentChangedEvent;
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.models.NotificationEntity;
+import com.heal.doctor.models.enums.AppointmentStatus;
+import com.heal.doctor.models.enums.NotificationType;
+import com.heal.doctor.repositories.DoctorRepository;
+import com.heal.doctor.services.IAppointmentReminderService;
+import com.heal.doctor.services.IEmailService;
+import com.heal.doctor.services.INotificationService;
+import com.heal.doctor.utils.ClinicCalendar;
+import com.heal.doctor.utils.HashedTimingWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Sends patient reminder emails and a doctor notification {@code reminders.lead-hours} before each
+ * accepted appointment. Only reminders due within the next refill window are held in memory, in a
+ * hashed timing wheel; the window is topped up periodically from the appointment date index and
+ * bookings or cancellations inside the window update the wheel directly. A reminder is claimed in
+ * Mongo by stamping {@code reminderSentAt} before anything is sent, so it goes out at most once.
+ */
+@Service
+public class AppointmentReminderServiceImpl implements IAppointmentReminderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentReminderServiceImpl.class);
+    private static final int MAX_NOTIFICATION_MESSAGE_LENGTH = 2000;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd MMM yyyy");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("hh:mm a");
+
+    private final MongoTemplate mongoTemplate;
+    private final DoctorRepository doctorRepository;
+    private final INotificationService notificationService;
+    private final IEmailService emailService;
+    private final ClinicCalendar clinicCalendar;
+    private final HashedTimingWheel<String> reminderWheel;
+    private final long leadMillis;
+    private final long windowMillis;
+    private final int batchSize;
+
+    @Value("${company.name}")
+    private String companyName;
+
+    public AppointmentReminderServiceImpl(MongoTemplate mongoTemplate,
+                                          DoctorRepository doctorRepository,
+                                          INotificationService notificationService,
+                                          IEmailService emailService,
+                                          ClinicCalendar clinicCalendar,
+                                          @Value("${reminders.lead-hours}") long leadHours,
+                                          @Value("${reminders.window-minutes}") long windowMinutes,
+                                          @Value("${reminders.batch-size}") int batchSize,
+                                          @Value("${reminders.wheel.size}") int wheelSize,
+                                          @Value("${reminders.wheel.tick-ms}") long tickMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.doctorRepository = doctorRepository;
+        this.notificationService = notificationService;
+        this.emailService = emailService;
+        this.clinicCalendar = clinicCalendar;
+        this.leadMillis = TimeUnit.HOURS.toMillis(leadHours);
+        this.windowMillis = TimeUnit.MINUTES.toMillis(windowMinutes);
+        this.batchSize = batchSize;
+        this.reminderWheel = new HashedTimingWheel<>(wheelSize, tickMillis);
+    }
+
+    @Override
+    public void schedule(AppointmentEntity appointment) {
+        if (!isEligible(appointment)) {
+            cancel(appointment.getAppointmentId());
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long appointmentMillis = appointment.getAppointmentDateTime().getTime();
+        long deadline = appointmentMillis - leadMillis;
+        if (appointmentMillis <= now || deadline > now + windowMillis) {
+            reminderWheel.cancel(appointment.getAppointmentId());
+            return;
+        }
+        reminderWheel.schedule(appointment.getAppointmentId(), deadline, appointment.getAppointmentId());
+    }
+
+    @Override
+    public void cancel(String appointmentId) {
+        if (reminderWheel.cancel(appointmentId)) {
+            logger.debug("Reminder cancelled: appointmentId: {}", appointmentId);
+        }
+    }
+
+    @Override
+    public int pendingReminders() {
+        return reminderWheel.size();
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        schedule(event.after());
+    }
+
+    @Scheduled(fixedDelayString = "${reminders.refill-interval-ms}")
+    public void refill() {
+        long now = System.currentTimeMillis();
+        Query query = Query.query(Criteria.where("appointmentDateTime").gt(new Date(now)).lte(new Date(now + leadMillis + windowMillis))
+                .and("status").is(AppointmentStatus.ACCEPTED)
+                .and("treated").is(false)
+                .and("reminderSentAt").exists(false));
+        query.fields().include("appointmentId", "appointmentDateTime", "status", "treated");
+        try {
+            List<AppointmentEntity> upcoming = mongoTemplate.find(query, AppointmentEntity.class);
+            upcoming.forEach(this::schedule);
+            logger.debug("Reminder window refilled: loaded: {}, pending: {}", upcoming.size(), reminderWheel.size());
+        } catch (DataAccessException e) {
+            logger.error("Reminder refill failed: error: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${reminders.wheel.tick-ms}")
+    public void fireDueReminders() {
+        List<String> due = reminderWheel.advance(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            dispatch(due.subList(from, Math.min(from + batchSize, due.size())));
+        }
+    }
+
+    private void dispatch(List<String> appointmentIds) {
+        Date sentAt = new Date();
+        List<AppointmentEntity> claimed;
+        try {
+            Query claimQuery = Query.query(Criteria.where("appointmentId").in(appointmentIds)
+                    .and("status").is(AppointmentStatus.ACCEPTED)
+                    .and("treated").is(false)
+                    .and("reminderSentAt").exists(false));
+            mongoTemplate.updateMulti(claimQuery, new Update().set("reminderSentAt", sentAt).inc("version", 1),
+                    AppointmentEntity.class);
+            claimed = mongoTemplate.find(Query.query(Criteria.where("appointmentId").in(appointmentIds)
+                    .and("reminderSentAt").is(sentAt)), AppointmentEntity.class);
+        } catch (DataAccessException e) {
+            logger.error("Reminder claim failed, batch will be retried on next refill: size: {}, error: {}",
+                    appointmentIds.size(), e.getMessage(), e);
+            return;
+        }
+
+        Map<String, List<AppointmentEntity>> byDoctor = claimed.stream()
+                .collect(Collectors.groupingBy(AppointmentEntity::getDoctorId));
+        byDoctor.forEach(this::sendReminders);
+        logger.info("Appointment reminders dispatched: due: {}, sent: {}, doctors: {}",
+                appointmentIds.size(), claimed.size(), byDoctor.size());
+    }
+
+    private void sendReminders(String doctorId, List<AppointmentEntity> appointments) {
+        String patientNames = appointments.stream()
+                .map(AppointmentEntity::getPatientName)
+                .collect(Collectors.joining(", "));
+        String message = "Upcoming appointments: " + patientNames;
+        if (message.length() > MAX_NOTIFICATION_MESSAGE_LENGTH) {
+            message = message.substring(0, MAX_NOTIFICATION_MESSAGE_LENGTH - 3) + "...";
+        }
+        NotificationEntity notification = NotificationEntity.builder()
+                .doctorId(doctorId)
+                .type(NotificationType.INFO)
+                .title(appointments.size() + " appointment(s) starting soon")
+                .message(message)
+                .build();
+        notificationService.createNotificationAsync(notification).exceptionally(ex -> {
+            logger.error("Failed to create reminder notification: doctorId: {}, error: {}", doctorId, ex.getMessage(), ex);
+            return null;
+        });
+
+        String doctorName = doctorRepository.findByDoctorId(doctorId)
+                .map(doctor -> "Dr. " + doctor.getFirstName() + " " + doctor.getLastName())
+                .orElse("your doctor");
+        ZoneId zone = clinicCalendar.zoneFor(doctorId);
+        for (AppointmentEntity appointment : appointments) {
+            if (appointment.getEmail() == null || appointment.getEmail().isBlank()) {
+                continue;
+            }
+            ZonedDateTime localDateTime = appointment.getAppointmentDateTime().toInstant().atZone(zone);
+            emailService.sendHtmlEmail(
+                    appointment.getEmail(),
+                    "Appointment Reminder - " + companyName,
+                    "appointment-reminder.template.html",
+                    Map.of(
+                            "companyName", companyName,
+                            "patientName", appointment.getPatientName(),
+                            "doctorName", doctorName,
+                            "appointmentDate", localDateTime.format(DATE_FORMATTER),
+                            "appointmentTime", localDateTime.format(TIME_FORMATTER)
+                    )
+            ).exceptionally(ex -> {
+                logger.error("Failed to send reminder email: appointmentId: {}, error: {}",
+                        appointment.getAppointmentId(), ex.getMessage(), ex);
+                return null;
+            });
+        }
+    }
+
+    private boolean isEligible(AppointmentEntity appointment) {
+        return appointment.getAppointmentDateTime() != null
+                && appointment.getStatus() == AppointmentStatus.ACCEPTED
+                && !Boolean.TRUE.equals(appointment.getTreated())
+                && appointment.getReminderSentAt() == null;
+    }
+}
@@ -0,0 +1,356 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.dto.AppointmentDTO;
+import com.heal.doctor.dto.AppointmentSeriesDTO;
+import com.heal.doctor.dto.AppointmentSeriesRequestDTO;
+import com.heal.doctor.events.AppointmentChangedEvent;
+import com.heal.doctor.exception.ForbiddenException;
+import com.heal.doctor.exception.ResourceNotFoundException;
+import com.heal.doctor.exception.ValidationException;
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.models.AppointmentSeriesEntity;
+import com.heal.doctor.models.enums.AppointmentChangeType;
+import com.heal.doctor.models.enums.AppointmentStatus;
+import com.heal.doctor.models.enums.AppointmentType;
+import com.heal.doctor.models.enums.SeriesStatus;
+import com.heal.doctor.repositories.AppointmentSeriesRepository;
+import com.heal.doctor.services.IAppointmentSeriesService;
+import com.heal.doctor.utils.AppointmentId;
+import com.heal.doctor.utils.ClinicCalendar;
+import com.heal.doctor.utils.CurrentUserName;
+import com.heal.doctor.utils.PatientNames;
+import com.heal.doctor.utils.SeriesOccurrences;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+public class AppointmentSeriesServiceImpl implements IAppointmentSeriesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentSeriesServiceImpl.class);
+    private static final String SERIES_ID_PREFIX = "SER-";
+    private static final String SYSTEM_ACTOR = "system";
+    private static final int MAX_SERIES_YEARS = 5;
+    private static final int MAX_ID_ATTEMPTS = 3;
+
+    private final AppointmentSeriesRepository seriesRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ModelMapper modelMapper;
+    private final ClinicCalendar clinicCalendar;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int horizonDays;
+    private final int batchSize;
+
+    public AppointmentSeriesServiceImpl(AppointmentSeriesRepository seriesRepository,
+                                        MongoTemplate mongoTemplate,
+                                        ModelMapper modelMapper,
+                                        ClinicCalendar clinicCalendar,
+                                        ApplicationEventPublisher eventPublisher,
+                                        @Value("${appointments.series.horizon-days}") int horizonDays,
+                                        @Value("${appointments.series.batch-size}") int batchSize) {
+        this.seriesRepository = seriesRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.modelMapper = modelMapper;
+        this.clinicCalendar = clinicCalendar;
+        this.eventPublisher = eventPublisher;
+        this.horizonDays = horizonDays;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public AppointmentSeriesDTO createSeries(AppointmentSeriesRequestDTO requestDTO) {
+        String doctorId = CurrentUserName.getCurrentDoctorId();
+        logger.info("Creating appointment series: doctorId: {}, patientName: {}, frequency: {}",
+                doctorId, requestDTO.getPatientName(), requestDTO.getFrequency());
+
+        if (requestDTO.getOccurrences() == null && (requestDTO.getEndDate() == null || requestDTO.getEndDate().isBlank())) {
+            throw new ValidationException("Either the number of occurrences or an end date is required.");
+        }
+        if (requestDTO.getFirstAppointmentDateTime().before(new Date())) {
+            throw new ValidationException("The first appointment must be in the future.");
+        }
+
+        ZoneId zone = clinicCalendar.zoneFor(doctorId);
+        ZonedDateTime first = requestDTO.getFirstAppointmentDateTime().toInstant().atZone(zone);
+        int firstDayKey = (int) first.toLocalDate().toEpochDay();
+        Integer untilDayKey = null;
+        if (requestDTO.getEndDate() != null && !requestDTO.getEndDate().isBlank()) {
+            try {
+                untilDayKey = ClinicCalendar.parseDayKey(requestDTO.getEndDate());
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException(e.getMessage());
+            }
+            if (untilDayKey < firstDayKey) {
+                throw new ValidationException("End date must not be before the first appointment.");
+            }
+            if (untilDayKey > first.toLocalDate().plusYears(MAX_SERIES_YEARS).toEpochDay()) {
+                throw new ValidationException("A series must not span more than " + MAX_SERIES_YEARS + " years.");
+            }
+        }
+
+        Date now = new Date();
+        AppointmentSeriesEntity series = AppointmentSeriesEntity.builder()
+                .seriesId(SERIES_ID_PREFIX + UUID.randomUUID())
+                .doctorId(doctorId)
+                .patientName(requestDTO.getPatientName().trim())
+                .contact(requestDTO.getContact())
+                .email(requestDTO.getEmail())
+                .description(requestDTO.getDescription())
+                .frequency(requestDTO.getFrequency())
+                .interval(requestDTO.getInterval() == null ? 1 : requestDTO.getInterval())
+                .occurrenceCount(requestDTO.getOccurrences())
+                .untilDayKey(untilDayKey)
+                .firstDayKey(firstDayKey)
+                .minuteOfDay(first.getHour() * 60 + first.getMinute())
+                .materializedThroughDayKey(firstDayKey - 1)
+                .status(SeriesStatus.ACTIVE)
+                .createdAt(now)
+                .build();
+        AppointmentSeriesEntity saved = seriesRepository.save(series);
+        int materialized = materialize(saved, doctorId);
+
+        logger.info("Appointment series created: seriesId: {}, doctorId: {}, materialized: {}",
+                saved.getSeriesId(), doctorId, materialized);
+        return toDTO(saved);
+    }
+
+    @Override
+    public AppointmentSeriesDTO getSeries(String seriesId) {
+        return toDTO(findOwnedSeries(seriesId, "view"));
+    }
+
+    @Override
+    public List<AppointmentSeriesDTO> getSeriesForCurrentDoctor() {
+        String doctorId = CurrentUserName.getCurrentDoctorId();
+        return seriesRepository.findByDoctorIdOrderByCreatedAtDesc(doctorId).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public AppointmentSeriesDTO cancelSeries(String seriesId) {
+        AppointmentSeriesEntity series = findOwnedSeries(seriesId, "cancel");
+        logger.info("Cancelling appointment series: seriesId: {}, doctorId: {}", seriesId, series.getDoctorId());
+        if (series.getStatus() == SeriesStatus.CANCELLED) {
+            return toDTO(series);
+        }
+        series.setStatus(SeriesStatus.CANCELLED);
+        series.setCancelledAt(new Date());
+        AppointmentSeriesEntity saved = seriesRepository.save(series);
+
+        Query upcoming = Query.query(Criteria.where("seriesId").is(seriesId)
+                .and("dayKey").gte(clinicCalendar.today(series.getDoctorId()))
+                .and("status").is(AppointmentStatus.ACCEPTED)
+                .and("treated").is(false)
+                .and("paymentStatus").is(false));
+        int cancelled = 0;
+        for (AppointmentEntity appointment : mongoTemplate.find(upcoming, AppointmentEntity.class)) {
+            AppointmentEntity before = appointment.toBuilder().build();
+            appointment.setStatus(AppointmentStatus.CANCELLED);
+            try {
+                AppointmentEntity updated = mongoTemplate.save(appointment);
+                eventPublisher.publishEvent(new AppointmentChangedEvent(
+                        AppointmentChangeType.CANCELLED, before, updated, series.getDoctorId()));
+                cancelled++;
+            } catch (OptimisticLockingFailureException e) {
+                logger.warn("Series occurrence changed concurrently, left as is: seriesId: {}, appointmentId: {}",
+                        seriesId, appointment.getAppointmentId());
+            }
+        }
+        logger.info("Appointment series cancelled: seriesId: {}, cancelledOccurrences: {}", seriesId, cancelled);
+        return toDTO(saved);
+    }
+
+    @Override
+    public List<AppointmentDTO> getVirtualOccurrences(String doctorId, int fromDayKey, int toDayKey) {
+        Query query = Query.query(Criteria.where("doctorId").is(doctorId)
+                .and("status").is(SeriesStatus.ACTIVE)
+                .and("materializedThroughDayKey").lt(toDayKey)
+                .and("firstDayKey").lte(toDayKey));
+        List<AppointmentDTO> occurrences = new ArrayList<>();
+        for (AppointmentSeriesEntity series : mongoTemplate.find(query, AppointmentSeriesEntity.class)) {
+            int from = Math.max(fromDayKey, series.getMaterializedThroughDayKey() + 1);
+            ZoneId zone = clinicCalendar.zoneFor(doctorId);
+            for (int dayKey : SeriesOccurrences.dayKeysBetween(series, from, toDayKey)) {
+                occurrences.add(toVirtualOccurrence(series, dayKey, zone));
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Candidates are picked against the day in the easternmost offset, which no clinic zone is
+     * ahead of; each series is then materialized up to its own doctor's horizon.
+     */
+    @Override
+    public int materializeDueSeries() {
+        int target = clinicCalendar.today(ZoneOffset.MAX) + horizonDays + 1;
+        int total = 0;
+        String lastId = null;
+        while (true) {
+            Criteria criteria = Criteria.where("status").is(SeriesStatus.ACTIVE).and("materializedThroughDayKey").lt(target);
+            if (lastId != null) {
+                criteria = criteria.and("_id").gt(lastId);
+            }
+            List<AppointmentSeriesEntity> batch = mongoTemplate.find(
+                    Query.query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize),
+                    AppointmentSeriesEntity.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (AppointmentSeriesEntity series : batch) {
+                total += materialize(series, SYSTEM_ACTOR);
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        return total;
+    }
+
+    /**
+     * Writes occurrences up to the doctor's horizon and advances the watermark. The watermark is moved
+     * with a compare-and-set, and the unique (seriesId, dayKey) index stops a concurrent run from
+     * inserting the same occurrence twice.
+     */
+    private int materialize(AppointmentSeriesEntity series, String actor) {
+        int from = series.getMaterializedThroughDayKey() + 1;
+        int through = clinicCalendar.today(series.getDoctorId()) + horizonDays;
+        if (through < from) {
+            return 0;
+        }
+        List<Integer> dayKeys = SeriesOccurrences.dayKeysBetween(series, from, through);
+        Set<Integer> existing = new HashSet<>();
+        if (!dayKeys.isEmpty()) {
+            Query existingQuery = Query.query(Criteria.where("seriesId").is(series.getSeriesId()).and("dayKey").in(dayKeys));
+            existingQuery.fields().include("dayKey");
+            mongoTemplate.find(existingQuery, AppointmentEntity.class).forEach(appointment -> existing.add(appointment.getDayKey()));
+        }
+
+        ZoneId zone = clinicCalendar.zoneFor(series.getDoctorId());
+        int inserted = 0;
+        for (int dayKey : dayKeys) {
+            if (!existing.contains(dayKey) && insertOccurrence(series, dayKey, zone, actor)) {
+                inserted++;
+            }
+        }
+
+        Update update = Update.update("materializedThroughDayKey", through);
+        if (!SeriesOccurrences.hasOccurrenceAfter(series, through)) {
+            update.set("status", SeriesStatus.COMPLETED);
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(series.getId())
+                        .and("materializedThroughDayKey").is(series.getMaterializedThroughDayKey())),
+                update, AppointmentSeriesEntity.class);
+        series.setMaterializedThroughDayKey(through);
+        if (inserted > 0) {
+            logger.info("Series occurrences materialized: seriesId: {}, throughDayKey: {}, inserted: {}",
+                    series.getSeriesId(), through, inserted);
+        }
+        return inserted;
+    }
+
+    private boolean insertOccurrence(AppointmentSeriesEntity series, int dayKey, ZoneId zone, String actor) {
+        Date appointmentDateTime = SeriesOccurrences.occurrenceTime(series, dayKey, zone);
+        for (int attempt = 1; attempt <= MAX_ID_ATTEMPTS; attempt++) {
+            AppointmentEntity occurrence = AppointmentEntity.builder()
+                    .appointmentId(AppointmentId.generateAppointmentId(series.getDoctorId(), appointmentDateTime))
+                    .doctorId(series.getDoctorId())
+                    .patientName(series.getPatientName())
+                    .normalizedPatientName(PatientNames.normalize(series.getPatientName()))
+                    .contact(series.getContact())
+                    .email(series.getEmail())
+                    .description(series.getDescription())
+                    .appointmentDateTime(appointmentDateTime)
+                    .dayKey(dayKey)
+                    // Same as the virtual row it replaces, so the occurrence stays on its own day.
+                    .bookingDateTime(appointmentDateTime)
+                    .availableAtClinic(false)
+                    .treated(false)
+                    .status(AppointmentStatus.ACCEPTED)
+                    .appointmentType(AppointmentType.IN_PERSON)
+                    .paymentStatus(false)
+                    .isEmergency(false)
+                    .seriesId(series.getSeriesId())
+                    .build();
+            try {
+                AppointmentEntity saved = mongoTemplate.insert(occurrence);
+                eventPublisher.publishEvent(new AppointmentChangedEvent(AppointmentChangeType.BOOKED, null, saved, actor));
+                return true;
+            } catch (DuplicateKeyException e) {
+                boolean alreadyMaterialized = mongoTemplate.exists(Query.query(Criteria.where("seriesId").is(series.getSeriesId())
+                        .and("dayKey").is(dayKey)), AppointmentEntity.class);
+                if (alreadyMaterialized) {
+                    return false;
+                }
+                logger.debug("Appointment id collision while materializing, retrying: seriesId: {}, dayKey: {}, attempt: {}",
+                        series.getSeriesId(), dayKey, attempt);
+            }
+        }
+        logger.warn("Series occurrence could not be materialized: seriesId: {}, dayKey: {}", series.getSeriesId(), dayKey);
+        return false;
+    }
+
+    private AppointmentDTO toVirtualOccurrence(AppointmentSeriesEntity series, int dayKey, ZoneId zone) {
+        AppointmentDTO occurrence = new AppointmentDTO();
+        occurrence.setDoctorId(series.getDoctorId());
+        occurrence.setPatientName(series.getPatientName());
+        occurrence.setContact(series.getContact());
+        occurrence.setDescription(series.getDescription());
+        Date appointmentDateTime = SeriesOccurrences.occurrenceTime(series, dayKey, zone);
+        occurrence.setAppointmentDateTime(appointmentDateTime);
+        occurrence.setBookingDateTime(appointmentDateTime);
+        occurrence.setDayKey(dayKey);
+        occurrence.setAvailableAtClinic(false);
+        occurrence.setTreated(false);
+        occurrence.setStatus(AppointmentStatus.ACCEPTED);
+        occurrence.setAppointmentType(AppointmentType.IN_PERSON);
+        occurrence.setPaymentStatus(false);
+        occurrence.setIsEmergency(false);
+        occurrence.setSeriesId(series.getSeriesId());
+        occurrence.setVirtualOccurrence(true);
+        return occurrence;
+    }
+
+    private AppointmentSeriesEntity findOwnedSeries(String seriesId, String action) {
+        AppointmentSeriesEntity series = seriesRepository.findBySeriesId(seriesId)
+                .orElseThrow(() -> new ResourceNotFoundException("Appointment series", seriesId));
+        String requestingDoctorId = CurrentUserName.getCurrentDoctorId();
+        if (!series.getDoctorId().equals(requestingDoctorId)) {
+            logger.warn("Unauthorized appointment series {} attempt: seriesId: {}, owner: {}, requester: {}",
+                    action, seriesId, series.getDoctorId(), requestingDoctorId);
+            throw new ForbiddenException("appointment series", action);
+        }
+        return series;
+    }
+
+    private AppointmentSeriesDTO toDTO(AppointmentSeriesEntity series) {
+        AppointmentSeriesDTO dto = modelMapper.map(series, AppointmentSeriesDTO.class);
+        if (series.getStatus() == SeriesStatus.ACTIVE) {
+            int today = clinicCalendar.today(series.getDoctorId());
+            SeriesOccurrences.dayKeysBetween(series, today, today + 366).stream().findFirst()
+                    .map(dayKey -> SeriesOccurrences.occurrenceTime(series, dayKey, clinicCalendar.zoneFor(series.getDoctorId())))
+                    .ifPresent(dto::setNextOccurrence);
+        }
+        return dto;
+    }
+}
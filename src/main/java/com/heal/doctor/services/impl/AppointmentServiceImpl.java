@@ -4,34 +4,49 @@ import com.heal.doctor.dto.AppointmentDTO;
 import com.heal.doctor.dto.AppointmentRequestDTO;
 import com.heal.doctor.dto.WebSocketResponseType;
 import com.heal.doctor.dto.WebsocketResponseDTO;
+import com.heal.doctor.events.AppointmentChangedEvent;
 import com.heal.doctor.models.AppointmentEntity;
 import com.heal.doctor.models.NotificationEntity;
+import com.heal.doctor.models.enums.AppointmentChangeType;
 import com.heal.doctor.models.enums.AppointmentStatus;
 import com.heal.doctor.models.enums.AppointmentType;
 import com.heal.doctor.models.enums.NotificationType;
+import com.heal.doctor.repositories.AppointmentArchiveRepository;
 import com.heal.doctor.repositories.AppointmentRepository;
+import com.heal.doctor.services.IAppointmentSeriesService;
 import com.heal.doctor.services.IAppointmentService;
 import com.heal.doctor.services.INotificationService;
+import com.heal.doctor.services.ISlotHoldService;
+import com.heal.doctor.exception.AppointmentConflictException;
 import com.heal.doctor.exception.BusinessRuleException;
 import com.heal.doctor.exception.ConflictException;
 import com.heal.doctor.exception.ForbiddenException;
 import com.heal.doctor.exception.ResourceNotFoundException;
 import com.heal.doctor.exception.ValidationException;
 import com.heal.doctor.utils.AppointmentId;
+import com.heal.doctor.utils.ClinicCalendar;
 import com.heal.doctor.utils.CurrentUserName;
-import com.heal.doctor.utils.DateUtils;
+import com.heal.doctor.utils.PatientNames;
 import lombok.AllArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Calendar;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @AllArgsConstructor
 @Service
@@ -39,11 +54,17 @@ public class AppointmentServiceImpl implements IAppointmentService {
 
     private static final Logger logger = LoggerFactory.getLogger(AppointmentServiceImpl.class);
     private static final int VALID_CONTACT_LENGTH = 10;
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
 
     private final AppointmentRepository appointmentRepository;
     private final ModelMapper modelMapper;
     private final SimpMessagingTemplate messagingTemplate;
     private final INotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClinicCalendar clinicCalendar;
+    private final AppointmentArchiveRepository appointmentArchiveRepository;
+    private final IAppointmentSeriesService appointmentSeriesService;
+    private final ISlotHoldService slotHoldService;
 
 
     @Transactional
@@ -78,14 +99,13 @@ public class AppointmentServiceImpl implements IAppointmentService {
         }
 
         Date appointmentDate = requestDTO.getAppointmentDateTime() != null ? requestDTO.getAppointmentDateTime() : new Date();
-        Date[] date = DateUtils.getStartAndEndOfDay(new Date());
+        int dayKey = clinicCalendar.dayKey(doctorId, appointmentDate);
 
-        boolean exists = appointmentRepository.existsByDoctorIdAndPatientNameAndContactAndAppointmentDateTimeBetweenAndStatus(
+        boolean exists = appointmentRepository.existsByDoctorIdAndPatientNameAndContactAndDayKeyAndStatus(
                 doctorId,
                 requestDTO.getPatientName(),
                 requestDTO.getContact(),
-                date[0],
-                date[1],
+                dayKey,
                 AppointmentStatus.ACCEPTED);
 
         if (exists) {
@@ -97,28 +117,23 @@ public class AppointmentServiceImpl implements IAppointmentService {
         AppointmentEntity appointmentEntity = modelMapper.map(requestDTO, AppointmentEntity.class);
         appointmentEntity.setStatus(AppointmentStatus.ACCEPTED);
         appointmentEntity.setAppointmentDateTime(appointmentDate);
+        appointmentEntity.setDayKey(dayKey);
         appointmentEntity.setBookingDateTime(new Date());
         appointmentEntity.setDoctorId(doctorId);
         appointmentEntity.setAppointmentId(AppointmentId.generateAppointmentId(doctorId));
         appointmentEntity.setTreated(false);
         appointmentEntity.setAppointmentType(AppointmentType.IN_PERSON);
         appointmentEntity.setIsEmergency(false);
+        appointmentEntity.setNormalizedPatientName(PatientNames.normalize(requestDTO.getPatientName()));
         AppointmentEntity savedAppointment = appointmentRepository.save(appointmentEntity);
+        eventPublisher.publishEvent(new AppointmentChangedEvent(AppointmentChangeType.BOOKED, null, savedAppointment, doctorId));
 
         logger.info("Appointment booked successfully: appointmentId: {}, doctorId: {}, patientName: {}", 
                 savedAppointment.getAppointmentId(), doctorId, requestDTO.getPatientName());
 
         AppointmentDTO appointmentDTO = modelMapper.map(savedAppointment, AppointmentDTO.class);
 
-        if (removeTime(appointmentDate).equals(removeTime(new Date()))) {
-            logger.debug("Sending WebSocket notification for today's appointment: appointmentId: {}, doctorId: {}", 
-                    appointmentDTO.getAppointmentId(), appointmentDTO.getDoctorId());
-            messagingTemplate.convertAndSend("/topic/appointments/" + appointmentDTO.getDoctorId(),
-                    WebsocketResponseDTO.<AppointmentDTO>builderGeneric()
-                            .type(WebSocketResponseType.APPOINTMENT)
-                            .payload(appointmentDTO)
-                            .build());
-        }
+        broadcastIfToday(appointmentDTO);
         return appointmentDTO;
     }
 
@@ -126,45 +141,36 @@ public class AppointmentServiceImpl implements IAppointmentService {
     @Override
     public AppointmentDTO updateEmergencyStatus(String appointmentId, Boolean isEmergency) {
         logger.info("Updating emergency status: appointmentId: {}, isEmergency: {}", appointmentId, isEmergency);
-        AppointmentEntity appointmentEntity = appointmentRepository.findByAppointmentId(appointmentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Appointment", appointmentId));
-        String currentDoctorId = appointmentEntity.getDoctorId();
-        String requestingDoctorId = CurrentUserName.getCurrentDoctorId();
-        if (!currentDoctorId.equals(requestingDoctorId)) {
-            logger.warn("Unauthorized emergency status update attempt: appointmentId: {}, owner: {}, requester: {}", 
-                    appointmentId, currentDoctorId, requestingDoctorId);
-            throw new ForbiddenException("appointment", "update");
-        }
-        AppointmentEntity newAppointmentEntity = appointmentEntity;
-        if (!appointmentEntity.getIsEmergency().equals(isEmergency)) {
-            appointmentEntity.setIsEmergency(isEmergency);
-            newAppointmentEntity = appointmentRepository.save(appointmentEntity);
+        AtomicBoolean changed = new AtomicBoolean(false);
+        AppointmentEntity newAppointmentEntity = updateWithRetry(appointmentId, "update", AppointmentChangeType.EMERGENCY, appointmentEntity -> {
+            changed.set(!appointmentEntity.getIsEmergency().equals(isEmergency));
+            if (changed.get()) {
+                appointmentEntity.setIsEmergency(isEmergency);
+            }
+            return changed.get();
+        });
+        String currentDoctorId = newAppointmentEntity.getDoctorId();
+        if (changed.get()) {
             logger.info("Emergency status updated: appointmentId: {}, isEmergency: {}, doctorId: {}", 
                     appointmentId, isEmergency, currentDoctorId);
             if (newAppointmentEntity.getIsEmergency()) {
                 logger.info("Emergency appointment notification created: appointmentId: {}, doctorId: {}", 
                         appointmentId, currentDoctorId);
                 NotificationEntity notification = NotificationEntity.builder().
-                        doctorId(appointmentEntity.getDoctorId()).
+                        doctorId(currentDoctorId).
                         type(NotificationType.EMERGENCY).
                         title("New Emergency Appointment Alert").
                         message("A new emergency appointment has been registered. Please check and take immediate action.").
                         build();
                 notificationService.createNotificationAsync(notification).exceptionally(ex -> {
                     logger.error("Failed to create emergency notification asynchronously: appointmentId: {}, doctorId: {}, error: {}", 
-                            appointmentId, appointmentEntity.getDoctorId(), ex.getMessage(), ex);
+                            appointmentId, currentDoctorId, ex.getMessage(), ex);
                     return null;
                 });
             }
         }
         AppointmentDTO appointmentDTO = modelMapper.map(newAppointmentEntity, AppointmentDTO.class);
-
-        if (removeTime(appointmentDTO.getAppointmentDateTime()).equals(removeTime(new Date()))) {
-            messagingTemplate.convertAndSend("/topic/appointments/" + appointmentDTO.getDoctorId(), WebsocketResponseDTO.<AppointmentDTO>builderGeneric()
-                    .type(WebSocketResponseType.APPOINTMENT)
-                    .payload(appointmentDTO)
-                    .build());
-        }
+        broadcastIfToday(appointmentDTO);
         return appointmentDTO;
     }
 
@@ -173,6 +179,7 @@ public class AppointmentServiceImpl implements IAppointmentService {
     public AppointmentDTO getAppointmentById(String appointmentId) {
         logger.debug("Fetching appointment: appointmentId: {}", appointmentId);
         AppointmentEntity appointmentEntity = appointmentRepository.findByAppointmentId(appointmentId)
+                .or(() -> appointmentArchiveRepository.findByAppointmentId(appointmentId))
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment", appointmentId));
         String currentDoctorId = appointmentEntity.getDoctorId();
         String requestingDoctorId = CurrentUserName.getCurrentDoctorId();
@@ -188,48 +195,53 @@ public class AppointmentServiceImpl implements IAppointmentService {
     @Override
     public List<AppointmentDTO> getAppointmentsByBookingDate(String date) {
         String currentDoctor = CurrentUserName.getCurrentDoctorId();
-        logger.debug("Fetching appointments by booking date: doctorId: {}, date: {}", currentDoctor, date);
+        logger.debug("Fetching appointments by day: doctorId: {}, date: {}", currentDoctor, date);
 
-        Date[] startAndEnd = DateUtils.getStartAndEndOfDay(date);
-        List<AppointmentEntity> appointments = appointmentRepository.
-                findByDoctorIdAndBookingDateTimeBetween(currentDoctor, startAndEnd[0], startAndEnd[1]);
+        int dayKey = date == null || date.isBlank() ? clinicCalendar.today(currentDoctor) : ClinicCalendar.parseDayKey(date);
+        List<AppointmentEntity> appointments = appointmentRepository.findByDoctorIdAndDayKey(currentDoctor, dayKey);
+        if (appointmentArchiveRepository.mayContain(currentDoctor, dayKey)) {
+            appointments = mergeTiers(appointmentArchiveRepository
+                    .findByDoctorIdAndDayKeyRange(currentDoctor, dayKey, dayKey), appointments);
+        }
 
         logger.debug("Found {} appointments for doctorId: {}, date: {}", appointments.size(), currentDoctor, date);
-        return appointments
+        List<AppointmentDTO> appointmentDTOs = appointments
                 .parallelStream()
                 .map(appointment -> modelMapper.map(appointment, AppointmentDTO.class))
                 .collect(Collectors.toList());
+        appointmentDTOs.addAll(appointmentSeriesService.getVirtualOccurrences(currentDoctor, dayKey, dayKey));
+        return appointmentDTOs;
     }
 
     @Transactional
     @Override
     public AppointmentDTO updateAppointmentStatus(String appointmentId, AppointmentStatus status) {
         logger.info("Updating appointment status: appointmentId: {}, newStatus: {}", appointmentId, status);
-        AppointmentEntity appointmentEntity = appointmentRepository.findByAppointmentId(appointmentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Appointment", appointmentId));
-        String currentDoctorId = appointmentEntity.getDoctorId();
-        String requestingDoctorId = CurrentUserName.getCurrentDoctorId();
-        if (!currentDoctorId.equals(requestingDoctorId)) {
-            logger.warn("Unauthorized status update attempt: appointmentId: {}, owner: {}, requester: {}, status: {}", 
-                    appointmentId, currentDoctorId, requestingDoctorId, status);
-            throw new ForbiddenException("appointment", "update");
+        AtomicReference<String> reclaimedSeat = new AtomicReference<>();
+        AppointmentEntity updatedAppointment;
+        try {
+            updatedAppointment = updateWithRetry(appointmentId, "update", AppointmentChangeType.STATUS, appointmentEntity -> {
+                // A retry works on a fresh read, so a seat taken for the stale copy is given back first.
+                returnSeat(reclaimedSeat);
+                logger.debug("Applying status change: appointmentId: {}, oldStatus: {}, newStatus: {}, version: {}",
+                        appointmentId, appointmentEntity.getStatus(), status, appointmentEntity.getVersion());
+                if (appointmentEntity.getSlotKey() != null
+                        && appointmentEntity.getStatus() == AppointmentStatus.CANCELLED
+                        && status != AppointmentStatus.CANCELLED) {
+                    slotHoldService.reclaimSeat(appointmentEntity);
+                    reclaimedSeat.set(appointmentEntity.getSlotKey());
+                }
+                appointmentEntity.setStatus(status);
+                return true;
+            });
+        } catch (RuntimeException e) {
+            returnSeat(reclaimedSeat);
+            throw e;
         }
-        AppointmentStatus oldStatus = appointmentEntity.getStatus();
-        appointmentEntity.setStatus(status);
-        AppointmentEntity updatedAppointment = appointmentRepository.save(appointmentEntity);
-        logger.info("Appointment status updated: appointmentId: {}, oldStatus: {}, newStatus: {}, doctorId: {}", 
-                appointmentId, oldStatus, status, currentDoctorId);
+        logger.info("Appointment status updated: appointmentId: {}, newStatus: {}, doctorId: {}, version: {}", 
+                appointmentId, status, updatedAppointment.getDoctorId(), updatedAppointment.getVersion());
         AppointmentDTO appointmentDTO = modelMapper.map(updatedAppointment, AppointmentDTO.class);
-
-        if (removeTime(appointmentDTO.getAppointmentDateTime()).equals(removeTime(new Date()))) {
-            logger.debug("Sending WebSocket notification for status update: appointmentId: {}, status: {}", 
-                    appointmentId, status);
-            messagingTemplate.convertAndSend("/topic/appointments/" + appointmentDTO.getDoctorId(), WebsocketResponseDTO.<AppointmentDTO>builderGeneric()
-                    .type(WebSocketResponseType.APPOINTMENT)
-                    .payload(appointmentDTO)
-                    .build());
-        }
-
+        broadcastIfToday(appointmentDTO);
         return appointmentDTO;
     }
 
@@ -237,41 +249,26 @@ public class AppointmentServiceImpl implements IAppointmentService {
     @Override
     public AppointmentDTO updatePaymentStatus(String appointmentId, Boolean paymentStatus) {
         logger.info("Updating payment status: appointmentId: {}, paymentStatus: {}", appointmentId, paymentStatus);
-        AppointmentEntity appointmentEntity = appointmentRepository.findByAppointmentId(appointmentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Appointment", appointmentId));
-        String currentDoctorId = appointmentEntity.getDoctorId();
-        String requestingDoctorId = CurrentUserName.getCurrentDoctorId();
-        if (!currentDoctorId.equals(requestingDoctorId)) {
-            logger.warn("Unauthorized payment status update attempt: appointmentId: {}, owner: {}, requester: {}", 
-                    appointmentId, currentDoctorId, requestingDoctorId);
-            throw new ForbiddenException("appointment", "update");
-        }
-
-        if (
-                (appointmentEntity.getStatus().equals(AppointmentStatus.CANCELLED) || appointmentEntity.getStatus().equals(AppointmentStatus.BOOKED))
-                        && !appointmentEntity.getPaymentStatus()
-                        && paymentStatus
-        ) {
-            logger.warn("Payment status update failed - invalid status: appointmentId: {}, currentStatus: {}, paymentStatus: {}", 
-                    appointmentId, appointmentEntity.getStatus(), paymentStatus);
-            throw new BusinessRuleException("mark as paid", "Appointment must be in ACCEPTED status");
-        }
-        Boolean oldPaymentStatus = appointmentEntity.getPaymentStatus();
-        appointmentEntity.setPaymentStatus(paymentStatus);
-        AppointmentEntity updatedAppointment = appointmentRepository.save(appointmentEntity);
-        logger.info("Payment status updated: appointmentId: {}, oldStatus: {}, newStatus: {}, doctorId: {}", 
-                appointmentId, oldPaymentStatus, paymentStatus, currentDoctorId);
+        AppointmentEntity updatedAppointment = updateWithRetry(appointmentId, "update", AppointmentChangeType.PAYMENT, appointmentEntity -> {
+            if (
+                    (appointmentEntity.getStatus().equals(AppointmentStatus.CANCELLED) || appointmentEntity.getStatus().equals(AppointmentStatus.BOOKED))
+                            && !appointmentEntity.getPaymentStatus()
+                            && paymentStatus
+            ) {
+                logger.warn("Payment status update failed - invalid status: appointmentId: {}, currentStatus: {}, paymentStatus: {}", 
+                        appointmentId, appointmentEntity.getStatus(), paymentStatus);
+                throw new BusinessRuleException("mark as paid", "Appointment must be in ACCEPTED status");
+            }
+            logger.debug("Applying payment change: appointmentId: {}, oldStatus: {}, newStatus: {}, version: {}",
+                    appointmentId, appointmentEntity.getPaymentStatus(), paymentStatus, appointmentEntity.getVersion());
+            appointmentEntity.setPaymentStatus(paymentStatus);
+            return true;
+        });
+        logger.info("Payment status updated: appointmentId: {}, newStatus: {}, doctorId: {}, version: {}", 
+                appointmentId, paymentStatus, updatedAppointment.getDoctorId(), updatedAppointment.getVersion());
 
         AppointmentDTO appointmentDTO = modelMapper.map(updatedAppointment, AppointmentDTO.class);
-
-        if (removeTime(appointmentDTO.getAppointmentDateTime()).equals(removeTime(new Date()))) {
-            logger.debug("Sending WebSocket notification for payment status update: appointmentId: {}", appointmentId);
-            messagingTemplate.convertAndSend("/topic/appointments/" + appointmentDTO.getDoctorId(),
-                    WebsocketResponseDTO.<AppointmentDTO>builderGeneric()
-                            .type(WebSocketResponseType.APPOINTMENT)
-                            .payload(appointmentDTO)
-                            .build());
-        }
+        broadcastIfToday(appointmentDTO);
         return appointmentDTO;
     }
 
@@ -280,53 +277,37 @@ public class AppointmentServiceImpl implements IAppointmentService {
     @Override
     public AppointmentDTO updateTreatedStatus(String appointmentId, Boolean treatedStatus) {
         logger.info("Updating treated status: appointmentId: {}, treatedStatus: {}", appointmentId, treatedStatus);
-        AppointmentEntity appointmentEntity = appointmentRepository.findByAppointmentId(appointmentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Appointment", appointmentId));
-
-        String currentDoctorId = appointmentEntity.getDoctorId();
-        String requestingDoctorId = CurrentUserName.getCurrentDoctorId();
-        if (!currentDoctorId.equals(requestingDoctorId)) {
-            logger.warn("Unauthorized treated status update attempt: appointmentId: {}, owner: {}, requester: {}", 
-                    appointmentId, currentDoctorId, requestingDoctorId);
-            throw new ForbiddenException("appointment", "update");
-        }
-
-        if (!appointmentEntity.getPaymentStatus()) {
-            logger.warn("Treated status update failed - payment pending: appointmentId: {}, doctorId: {}", 
-                    appointmentId, currentDoctorId);
-            throw new BusinessRuleException("mark as treated", "Payment is pending");
-        }
-
-        if (!appointmentEntity.getAvailableAtClinic()) {
-            logger.warn("Treated status update failed - patient not at clinic: appointmentId: {}, doctorId: {}", 
-                    appointmentId, currentDoctorId);
-            throw new BusinessRuleException("mark as treated", "Patient is not available at the clinic");
-        }
+        AppointmentEntity updatedAppointment = updateWithRetry(appointmentId, "update", AppointmentChangeType.TREATED, appointmentEntity -> {
+            String currentDoctorId = appointmentEntity.getDoctorId();
+            if (!appointmentEntity.getPaymentStatus()) {
+                logger.warn("Treated status update failed - payment pending: appointmentId: {}, doctorId: {}", 
+                        appointmentId, currentDoctorId);
+                throw new BusinessRuleException("mark as treated", "Payment is pending");
+            }
 
-        if (appointmentEntity.getStatus().equals(AppointmentStatus.CANCELLED) || appointmentEntity.getStatus().equals(AppointmentStatus.BOOKED)) {
-            logger.warn("Treated status update failed - invalid appointment status: appointmentId: {}, status: {}, doctorId: {}", 
-                    appointmentId, appointmentEntity.getStatus(), currentDoctorId);
-            throw new BusinessRuleException("mark as treated", "Appointment must be in ACCEPTED status");
-        }
+            if (!appointmentEntity.getAvailableAtClinic()) {
+                logger.warn("Treated status update failed - patient not at clinic: appointmentId: {}, doctorId: {}", 
+                        appointmentId, currentDoctorId);
+                throw new BusinessRuleException("mark as treated", "Patient is not available at the clinic");
+            }
 
-        Boolean oldTreatedStatus = appointmentEntity.getTreated();
-        appointmentEntity.setTreatedDateTime(new Date());
-        appointmentEntity.setTreated(treatedStatus);
+            if (appointmentEntity.getStatus().equals(AppointmentStatus.CANCELLED) || appointmentEntity.getStatus().equals(AppointmentStatus.BOOKED)) {
+                logger.warn("Treated status update failed - invalid appointment status: appointmentId: {}, status: {}, doctorId: {}", 
+                        appointmentId, appointmentEntity.getStatus(), currentDoctorId);
+                throw new BusinessRuleException("mark as treated", "Appointment must be in ACCEPTED status");
+            }
 
-        AppointmentEntity updatedAppointment = appointmentRepository.save(appointmentEntity);
-        logger.info("Treated status updated: appointmentId: {}, oldStatus: {}, newStatus: {}, doctorId: {}", 
-                appointmentId, oldTreatedStatus, treatedStatus, currentDoctorId);
+            logger.debug("Applying treated change: appointmentId: {}, oldStatus: {}, newStatus: {}, version: {}",
+                    appointmentId, appointmentEntity.getTreated(), treatedStatus, appointmentEntity.getVersion());
+            appointmentEntity.setTreatedDateTime(new Date());
+            appointmentEntity.setTreated(treatedStatus);
+            return true;
+        });
+        logger.info("Treated status updated: appointmentId: {}, newStatus: {}, doctorId: {}, version: {}", 
+                appointmentId, treatedStatus, updatedAppointment.getDoctorId(), updatedAppointment.getVersion());
 
         AppointmentDTO appointmentDTO = modelMapper.map(updatedAppointment, AppointmentDTO.class);
-        if (removeTime(appointmentDTO.getAppointmentDateTime()).equals(removeTime(new Date()))) {
-            logger.debug("Sending WebSocket notification for treated status update: appointmentId: {}", appointmentId);
-            messagingTemplate.convertAndSend("/topic/appointments/" + appointmentDTO.getDoctorId(),
-                    WebsocketResponseDTO.<AppointmentDTO>builderGeneric()
-                            .type(WebSocketResponseType.APPOINTMENT)
-                            .payload(appointmentDTO)
-                            .build());
-        }
-
+        broadcastIfToday(appointmentDTO);
         return appointmentDTO;
     }
 
@@ -334,46 +315,34 @@ public class AppointmentServiceImpl implements IAppointmentService {
     @Override
     public AppointmentDTO updateAvailableAtClinic(String appointmentId, Boolean availableAtClinicStatus) {
         logger.info("Updating available at clinic status: appointmentId: {}, availableAtClinic: {}", appointmentId, availableAtClinicStatus);
-        AppointmentEntity appointmentEntity = appointmentRepository.findByAppointmentId(appointmentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Appointment", appointmentId));
-
-        String currentDoctorId = appointmentEntity.getDoctorId();
-        String requestingDoctorId = CurrentUserName.getCurrentDoctorId();
-        if (!currentDoctorId.equals(requestingDoctorId)) {
-            logger.warn("Unauthorized availability update attempt: appointmentId: {}, owner: {}, requester: {}", 
-                    appointmentId, currentDoctorId, requestingDoctorId);
-            throw new ForbiddenException("appointment", "update");
-        }
-
-        if (appointmentEntity.getTreated()) {
-            logger.warn("Availability update failed - already treated: appointmentId: {}, doctorId: {}", 
-                    appointmentId, currentDoctorId);
-            throw new BusinessRuleException("update availability", "Patient is already treated");
-        }
-
-        if (appointmentEntity.getStatus().equals(AppointmentStatus.CANCELLED) || appointmentEntity.getStatus().equals(AppointmentStatus.BOOKED)) {
-            logger.warn("Availability update failed - invalid status: appointmentId: {}, status: {}, doctorId: {}", 
-                    appointmentId, appointmentEntity.getStatus(), currentDoctorId);
-            throw new BusinessRuleException("mark as available", "Appointment must be in ACCEPTED status");
-        }
-        Boolean oldAvailableAtClinic = appointmentEntity.getAvailableAtClinic();
-        appointmentEntity.setAvailableAtClinic(availableAtClinicStatus);
+        AppointmentEntity updatedAppointment = updateWithRetry(appointmentId, "update", AppointmentChangeType.AVAILABLE_AT_CLINIC, appointmentEntity -> {
+            String currentDoctorId = appointmentEntity.getDoctorId();
+            if (appointmentEntity.getTreated()) {
+                logger.warn("Availability update failed - already treated: appointmentId: {}, doctorId: {}", 
+                        appointmentId, currentDoctorId);
+                throw new BusinessRuleException("update availability", "Patient is already treated");
+            }
 
-        AppointmentEntity updatedAppointment = appointmentRepository.save(appointmentEntity);
-        logger.info("Availability at clinic updated: appointmentId: {}, oldStatus: {}, newStatus: {}, doctorId: {}", 
-                appointmentId, oldAvailableAtClinic, availableAtClinicStatus, currentDoctorId);
+            if (appointmentEntity.getStatus().equals(AppointmentStatus.CANCELLED) || appointmentEntity.getStatus().equals(AppointmentStatus.BOOKED)) {
+                logger.warn("Availability update failed - invalid status: appointmentId: {}, status: {}, doctorId: {}", 
+                        appointmentId, appointmentEntity.getStatus(), currentDoctorId);
+                throw new BusinessRuleException("mark as available", "Appointment must be in ACCEPTED status");
+            }
+            logger.debug("Applying availability change: appointmentId: {}, oldStatus: {}, newStatus: {}, version: {}",
+                    appointmentId, appointmentEntity.getAvailableAtClinic(), availableAtClinicStatus, appointmentEntity.getVersion());
+            if (Boolean.TRUE.equals(availableAtClinicStatus) && !Boolean.TRUE.equals(appointmentEntity.getAvailableAtClinic())) {
+                appointmentEntity.setArrivedDateTime(new Date());
+            } else if (!Boolean.TRUE.equals(availableAtClinicStatus)) {
+                appointmentEntity.setArrivedDateTime(null);
+            }
+            appointmentEntity.setAvailableAtClinic(availableAtClinicStatus);
+            return true;
+        });
+        logger.info("Availability at clinic updated: appointmentId: {}, newStatus: {}, doctorId: {}, version: {}", 
+                appointmentId, availableAtClinicStatus, updatedAppointment.getDoctorId(), updatedAppointment.getVersion());
 
         AppointmentDTO appointmentDTO = modelMapper.map(updatedAppointment, AppointmentDTO.class);
-
-        if (removeTime(appointmentDTO.getAppointmentDateTime()).equals(removeTime(new Date()))) {
-            logger.debug("Sending WebSocket notification for availability update: appointmentId: {}", appointmentId);
-            messagingTemplate.convertAndSend("/topic/appointments/" + appointmentDTO.getDoctorId(),
-                    WebsocketResponseDTO.<AppointmentDTO>builderGeneric()
-                            .type(WebSocketResponseType.APPOINTMENT)
-                            .payload(appointmentDTO)
-                            .build());
-        }
-
+        broadcastIfToday(appointmentDTO);
         return appointmentDTO;
     }
 
@@ -381,78 +350,185 @@ public class AppointmentServiceImpl implements IAppointmentService {
     @Override
     public AppointmentDTO cancelAppointment(String appointmentId){
         logger.info("Cancelling appointment: appointmentId: {}", appointmentId);
-        AppointmentEntity appointmentEntity = appointmentRepository.findByAppointmentId(appointmentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Appointment", appointmentId));
-        String currentDoctorId = appointmentEntity.getDoctorId();
-        String requestingDoctorId = CurrentUserName.getCurrentDoctorId();
-        if (!currentDoctorId.equals(requestingDoctorId)) {
-            logger.warn("Unauthorized cancellation attempt: appointmentId: {}, owner: {}, requester: {}", 
-                    appointmentId, currentDoctorId, requestingDoctorId);
-            throw new ForbiddenException("appointment", "cancel");
-        }
-        if (appointmentEntity.getTreated()) {
-            logger.warn("Cancellation failed - already treated: appointmentId: {}, doctorId: {}", 
-                    appointmentId, currentDoctorId);
-            throw new BusinessRuleException("cancel appointment", "Patient is already treated");
-        }
-        if (Boolean.TRUE.equals(appointmentEntity.getPaymentStatus())) {
-            logger.warn("Cancellation failed - payment received: appointmentId: {}, doctorId: {}", 
-                    appointmentId, currentDoctorId);
-            throw new BusinessRuleException("cancel appointment", "Payment has already been received");
-        }
-        AppointmentStatus oldStatus = appointmentEntity.getStatus();
-        appointmentEntity.setStatus(AppointmentStatus.CANCELLED);
-
-        AppointmentEntity updatedAppointment = appointmentRepository.save(appointmentEntity);
-        logger.info("Appointment cancelled: appointmentId: {}, oldStatus: {}, doctorId: {}, patientName: {}", 
-                appointmentId, oldStatus, currentDoctorId, appointmentEntity.getPatientName());
+        AppointmentEntity updatedAppointment = updateWithRetry(appointmentId, "cancel", AppointmentChangeType.CANCELLED, appointmentEntity -> {
+            String currentDoctorId = appointmentEntity.getDoctorId();
+            if (appointmentEntity.getTreated()) {
+                logger.warn("Cancellation failed - already treated: appointmentId: {}, doctorId: {}", 
+                        appointmentId, currentDoctorId);
+                throw new BusinessRuleException("cancel appointment", "Patient is already treated");
+            }
+            if (Boolean.TRUE.equals(appointmentEntity.getPaymentStatus())) {
+                logger.warn("Cancellation failed - payment received: appointmentId: {}, doctorId: {}", 
+                        appointmentId, currentDoctorId);
+                throw new BusinessRuleException("cancel appointment", "Payment has already been received");
+            }
+            logger.debug("Applying cancellation: appointmentId: {}, oldStatus: {}, version: {}",
+                    appointmentId, appointmentEntity.getStatus(), appointmentEntity.getVersion());
+            appointmentEntity.setStatus(AppointmentStatus.CANCELLED);
+            return true;
+        });
+        logger.info("Appointment cancelled: appointmentId: {}, doctorId: {}, patientName: {}, version: {}", 
+                appointmentId, updatedAppointment.getDoctorId(), updatedAppointment.getPatientName(), updatedAppointment.getVersion());
 
         AppointmentDTO appointmentDTO = modelMapper.map(updatedAppointment, AppointmentDTO.class);
+        broadcastIfToday(appointmentDTO);
+        return appointmentDTO;
+    }
 
-        if (removeTime(appointmentDTO.getAppointmentDateTime()).equals(removeTime(new Date()))) {
-            logger.debug("Sending WebSocket notification for cancellation: appointmentId: {}", appointmentId);
-            messagingTemplate.convertAndSend("/topic/appointments/" + appointmentDTO.getDoctorId(),
-                    WebsocketResponseDTO.<AppointmentDTO>builderGeneric()
-                            .type(WebSocketResponseType.APPOINTMENT)
-                            .payload(appointmentDTO)
-                            .build());
-        }
+    @Transactional
+    @Override
+    public AppointmentDTO acceptBookingRequest(String appointmentId) {
+        return decideBookingRequest(appointmentId, "accept", AppointmentStatus.ACCEPTED);
+    }
+
+    @Transactional
+    @Override
+    public AppointmentDTO declineBookingRequest(String appointmentId) {
+        return decideBookingRequest(appointmentId, "decline", AppointmentStatus.CANCELLED);
+    }
 
+    private AppointmentDTO decideBookingRequest(String appointmentId, String action, AppointmentStatus decision) {
+        logger.info("Deciding booking request: appointmentId: {}, decision: {}", appointmentId, decision);
+        AppointmentChangeType changeType = decision == AppointmentStatus.CANCELLED
+                ? AppointmentChangeType.CANCELLED
+                : AppointmentChangeType.STATUS;
+        AppointmentEntity updatedAppointment = updateWithRetry(appointmentId, action, changeType, appointmentEntity -> {
+            if (appointmentEntity.getStatus() != AppointmentStatus.BOOKED) {
+                logger.warn("Booking request {} failed - not pending: appointmentId: {}, currentStatus: {}",
+                        action, appointmentId, appointmentEntity.getStatus());
+                throw new BusinessRuleException(action + " booking request", "Appointment is already " + appointmentEntity.getStatus());
+            }
+            appointmentEntity.setStatus(decision);
+            return true;
+        });
+        logger.info("Booking request decided: appointmentId: {}, decision: {}, doctorId: {}, version: {}",
+                appointmentId, decision, updatedAppointment.getDoctorId(), updatedAppointment.getVersion());
+        AppointmentDTO appointmentDTO = modelMapper.map(updatedAppointment, AppointmentDTO.class);
+        broadcastIfToday(appointmentDTO);
         return appointmentDTO;
     }
 
     @Override
     public List<AppointmentDTO> getAppointmentsByDoctorAndDateRange(String doctorId, String fromDate, String toDate) {
         logger.debug("Fetching appointments by date range: doctorId: {}, fromDate: {}, toDate: {}", doctorId, fromDate, toDate);
-        Date[] fromDateRange = DateUtils.getStartAndEndOfDay(fromDate);
-        Date[] toDateRange = DateUtils.getStartAndEndOfDay(toDate);
-
-        Date startDate = fromDateRange[0];
-        Date endDate = toDateRange[1];
-
-        List<AppointmentEntity> appointments = appointmentRepository
-                .findByDoctorIdAndAppointmentDateTimeBetween(
-                        doctorId,
-                        startDate,
-                        endDate
-                );
+        int fromDayKey = ClinicCalendar.parseDayKey(fromDate);
+        int toDayKey = ClinicCalendar.parseDayKey(toDate);
+        List<AppointmentEntity> appointments = appointmentRepository.findByDoctorIdAndDayKeyRange(doctorId, fromDayKey, toDayKey);
+        if (appointmentArchiveRepository.mayContain(doctorId, fromDayKey)) {
+            appointments = mergeTiers(appointmentArchiveRepository.findByDoctorIdAndDayKeyRange(doctorId, fromDayKey, toDayKey),
+                    appointments);
+        }
 
         logger.debug("Found {} appointments for doctorId: {}, dateRange: {} to {}", 
                 appointments.size(), doctorId, fromDate, toDate);
-        return appointments.parallelStream()
+        List<AppointmentDTO> appointmentDTOs = appointments.parallelStream()
                 .map(appointment -> modelMapper.map(appointment, AppointmentDTO.class))
                 .collect(Collectors.toList());
+        appointmentDTOs.addAll(appointmentSeriesService.getVirtualOccurrences(doctorId, fromDayKey, toDayKey));
+        return appointmentDTOs;
+    }
+
+    /**
+     * Cursor-backed variant of {@link #getAppointmentsByDoctorAndDateRange} for reports: rows are
+     * handed to the consumer one at a time, so the range size does not bound heap use. Stored rows
+     * come in day order, archived days first with the same overlap rule as {@link #mergeTiers};
+     * series occurrences that are not materialized yet are appended after them.
+     */
+    @Override
+    public long streamAppointmentsByDoctorAndDateRange(String doctorId, String fromDate, String toDate,
+                                                       Consumer<AppointmentDTO> consumer) {
+        int fromDayKey = ClinicCalendar.parseDayKey(fromDate);
+        int toDayKey = ClinicCalendar.parseDayKey(toDate);
+        long count = 0;
+        if (appointmentArchiveRepository.mayContain(doctorId, fromDayKey)) {
+            int archiveToDayKey = Math.min(toDayKey, appointmentArchiveRepository.horizonDayKey(doctorId) - 1);
+            try (Stream<AppointmentEntity> archived = appointmentArchiveRepository.withoutHotCopies(appointmentArchiveRepository
+                    .streamByDoctorIdAndDayKeyRange(doctorId, fromDayKey, archiveToDayKey))) {
+                for (AppointmentEntity appointment : (Iterable<AppointmentEntity>) archived::iterator) {
+                    consumer.accept(modelMapper.map(appointment, AppointmentDTO.class));
+                    count++;
+                }
+            }
+        }
+        try (Stream<AppointmentEntity> hot = appointmentRepository.streamByDoctorIdAndDayKeyRange(doctorId, fromDayKey, toDayKey)) {
+            for (AppointmentEntity appointment : (Iterable<AppointmentEntity>) hot::iterator) {
+                consumer.accept(modelMapper.map(appointment, AppointmentDTO.class));
+                count++;
+            }
+        }
+        for (AppointmentDTO occurrence : appointmentSeriesService.getVirtualOccurrences(doctorId, fromDayKey, toDayKey)) {
+            consumer.accept(occurrence);
+            count++;
+        }
+        logger.debug("Streamed appointments: doctorId: {}, dateRange: {} to {}, count: {}", doctorId, fromDate, toDate, count);
+        return count;
     }
 
+    /**
+     * A batch being archived is briefly present in both collections, so the hot copy wins on overlap.
+     */
+    private List<AppointmentEntity> mergeTiers(List<AppointmentEntity> archived, List<AppointmentEntity> hot) {
+        Map<String, AppointmentEntity> merged = new LinkedHashMap<>();
+        archived.forEach(appointment -> merged.put(appointment.getId(), appointment));
+        hot.forEach(appointment -> merged.put(appointment.getId(), appointment));
+        return new ArrayList<>(merged.values());
+    }
+
+    private AppointmentEntity updateWithRetry(String appointmentId, String action, AppointmentChangeType changeType,
+                                              AppointmentMutation mutation) {
+        String requestingDoctorId = CurrentUserName.getCurrentDoctorId();
+        for (int attempt = 1; ; attempt++) {
+            AppointmentEntity appointmentEntity = appointmentRepository.findByAppointmentId(appointmentId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Appointment", appointmentId));
+            String currentDoctorId = appointmentEntity.getDoctorId();
+            if (!currentDoctorId.equals(requestingDoctorId)) {
+                logger.warn("Unauthorized appointment {} attempt: appointmentId: {}, owner: {}, requester: {}",
+                        action, appointmentId, currentDoctorId, requestingDoctorId);
+                throw new ForbiddenException("appointment", action);
+            }
+            AppointmentEntity before = appointmentEntity.toBuilder().build();
+            if (!mutation.apply(appointmentEntity)) {
+                return appointmentEntity;
+            }
+            try {
+                AppointmentEntity saved = appointmentRepository.save(appointmentEntity);
+                eventPublisher.publishEvent(new AppointmentChangedEvent(changeType, before, saved, requestingDoctorId));
+                return saved;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                    AppointmentEntity current = appointmentRepository.findByAppointmentId(appointmentId)
+                            .orElseThrow(() -> new ResourceNotFoundException("Appointment", appointmentId));
+                    logger.warn("Appointment update abandoned after {} conflicting attempts: appointmentId: {}, currentVersion: {}",
+                            attempt, appointmentId, current.getVersion());
+                    throw new AppointmentConflictException(modelMapper.map(current, AppointmentDTO.class));
+                }
+                logger.info("Concurrent appointment update detected, re-applying: appointmentId: {}, attempt: {}, staleVersion: {}",
+                        appointmentId, attempt, appointmentEntity.getVersion());
+            }
+        }
+    }
 
+    private void returnSeat(AtomicReference<String> reclaimedSeat) {
+        String slotKey = reclaimedSeat.getAndSet(null);
+        if (slotKey != null) {
+            slotHoldService.returnSeat(slotKey);
+        }
+    }
+
+    private void broadcastIfToday(AppointmentDTO appointmentDTO) {
+        if (clinicCalendar.isToday(appointmentDTO.getDoctorId(), appointmentDTO.getAppointmentDateTime())) {
+            logger.debug("Sending WebSocket notification for appointment update: appointmentId: {}, doctorId: {}",
+                    appointmentDTO.getAppointmentId(), appointmentDTO.getDoctorId());
+            messagingTemplate.convertAndSend("/topic/appointments/" + appointmentDTO.getDoctorId(),
+                    WebsocketResponseDTO.<AppointmentDTO>builderGeneric()
+                            .type(WebSocketResponseType.APPOINTMENT)
+                            .payload(appointmentDTO)
+                            .build());
+        }
+    }
 
-    private Date removeTime(Date date) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(date);
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-        return cal.getTime();
+    @FunctionalInterface
+    private interface AppointmentMutation {
+        boolean apply(AppointmentEntity appointmentEntity);
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,194 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.events.AppointmentChangedEvent;
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.models.DoctorDailyStatsEntity;
+import com.heal.doctor.models.enums.AppointmentStatus;
+import com.heal.doctor.repositories.DoctorDailyStatsRepository;
+import com.heal.doctor.services.IDoctorDailyStatsService;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps {@code doctor_daily_stats} in step with appointment writes. Each change event is turned
+ * into the difference between what the appointment contributed before and after the write, and
+ * only the non-zero counters are $inc'ed, so a payment toggle touches one field on one document.
+ * A periodic reconcile recomputes recent days from {@code appointments} to correct any drift from
+ * writes that bypassed events or failed to apply.
+ * <p>
+ * Reconcile only overwrites days that are over in every time zone. A day still open somewhere can
+ * take $inc deltas between the aggregate and the write, and a $set would wipe them out, so open
+ * days are only seeded when they have no document yet.
+ */
+@Service
+public class DoctorDailyStatsServiceImpl implements IDoctorDailyStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DoctorDailyStatsServiceImpl.class);
+    private static final String[] COUNTERS = {"total", "treated", "arrived", "waiting", "cancelled", "paid", "emergency"};
+
+    private final DoctorDailyStatsRepository dailyStatsRepository;
+    private final MongoTemplate mongoTemplate;
+
+    public DoctorDailyStatsServiceImpl(DoctorDailyStatsRepository dailyStatsRepository, MongoTemplate mongoTemplate) {
+        this.dailyStatsRepository = dailyStatsRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<DoctorDailyStatsEntity> getDays(String doctorId, int fromDayKey, int toDayKey) {
+        return dailyStatsRepository.findByDoctorIdAndDayKeyRange(doctorId, fromDayKey, toDayKey);
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        AppointmentEntity before = event.before();
+        AppointmentEntity after = event.after();
+        try {
+            if (before != null && before.getDayKey() != null && !before.getDayKey().equals(after.getDayKey())) {
+                apply(before.getDoctorId(), before.getDayKey(), negate(contribution(before)));
+                apply(after.getDoctorId(), after.getDayKey(), contribution(after));
+                return;
+            }
+            int[] delta = contribution(after);
+            if (before != null) {
+                int[] previous = contribution(before);
+                for (int i = 0; i < delta.length; i++) {
+                    delta[i] -= previous[i];
+                }
+            }
+            apply(after.getDoctorId(), after.getDayKey(), delta);
+        } catch (DataAccessException e) {
+            logger.error("Failed to apply daily stats delta: appointmentId: {}, changeType: {}, error: {}",
+                    after.getAppointmentId(), event.changeType(), e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int reconcile(int fromDayKey) {
+        // The date at the furthest-behind offset is the earliest "today" anywhere; days before it are closed.
+        int firstOpenDayKey = (int) LocalDate.now(ZoneOffset.MIN).toEpochDay();
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("dayKey").gte(fromDayKey)),
+                Aggregation.group("doctorId", "dayKey")
+                        .count().as("total")
+                        .sum(countWhen(Criteria.where("treated").is(true))).as("treated")
+                        .sum(countWhen(Criteria.where("availableAtClinic").is(true))).as("arrived")
+                        .sum(countWhen(new Criteria().andOperator(
+                                Criteria.where("availableAtClinic").is(true),
+                                Criteria.where("treated").is(false)))).as("waiting")
+                        .sum(countWhen(Criteria.where("status").is(AppointmentStatus.CANCELLED.name()))).as("cancelled")
+                        .sum(countWhen(Criteria.where("paymentStatus").is(true))).as("paid")
+                        .sum(countWhen(Criteria.where("isEmergency").is(true))).as("emergency")
+        );
+        List<Document> actual = mongoTemplate.aggregate(aggregation, AppointmentEntity.class, Document.class).getMappedResults();
+
+        Date now = new Date();
+        Set<String> seen = new HashSet<>();
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DoctorDailyStatsEntity.class);
+        for (Document row : actual) {
+            Document key = row.get("_id", Document.class);
+            String doctorId = key.getString("doctorId");
+            Integer dayKey = key.getInteger("dayKey");
+            String id = DoctorDailyStatsEntity.idFor(doctorId, dayKey);
+            seen.add(id);
+            Update update;
+            if (dayKey < firstOpenDayKey) {
+                update = new Update()
+                        .set("doctorId", doctorId)
+                        .set("dayKey", dayKey)
+                        .set("reconciledAt", now);
+                for (String counter : COUNTERS) {
+                    update.set(counter, ((Number) row.get(counter)).intValue());
+                }
+            } else {
+                update = new Update()
+                        .setOnInsert("doctorId", doctorId)
+                        .setOnInsert("dayKey", dayKey)
+                        .setOnInsert("reconciledAt", now);
+                for (String counter : COUNTERS) {
+                    update.setOnInsert(counter, ((Number) row.get(counter)).intValue());
+                }
+            }
+            bulkOperations.upsert(Query.query(Criteria.where("_id").is(id)), update);
+        }
+
+        Query staleQuery = Query.query(Criteria.where("dayKey").gte(fromDayKey).lt(firstOpenDayKey));
+        staleQuery.fields().include("_id");
+        List<String> stale = mongoTemplate.find(staleQuery, DoctorDailyStatsEntity.class).stream()
+                .map(DoctorDailyStatsEntity::getId)
+                .filter(id -> !seen.contains(id))
+                .toList();
+        if (!stale.isEmpty()) {
+            bulkOperations.remove(Query.query(Criteria.where("_id").in(stale)));
+        }
+        if (!actual.isEmpty() || !stale.isEmpty()) {
+            bulkOperations.execute();
+        }
+        logger.info("Daily stats reconciled: fromDayKey: {}, days: {}, removed: {}", fromDayKey, actual.size(), stale.size());
+        return actual.size();
+    }
+
+    private void apply(String doctorId, Integer dayKey, int[] delta) {
+        if (doctorId == null || dayKey == null) {
+            return;
+        }
+        Update update = new Update();
+        boolean changed = false;
+        for (int i = 0; i < delta.length; i++) {
+            if (delta[i] != 0) {
+                update.inc(COUNTERS[i], delta[i]);
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return;
+        }
+        update.setOnInsert("doctorId", doctorId).setOnInsert("dayKey", dayKey);
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(DoctorDailyStatsEntity.idFor(doctorId, dayKey))),
+                update, DoctorDailyStatsEntity.class);
+    }
+
+    private static int[] contribution(AppointmentEntity appointment) {
+        boolean treated = Boolean.TRUE.equals(appointment.getTreated());
+        boolean arrived = Boolean.TRUE.equals(appointment.getAvailableAtClinic());
+        return new int[]{
+                1,
+                treated ? 1 : 0,
+                arrived ? 1 : 0,
+                arrived && !treated ? 1 : 0,
+                appointment.getStatus() == AppointmentStatus.CANCELLED ? 1 : 0,
+                Boolean.TRUE.equals(appointment.getPaymentStatus()) ? 1 : 0,
+                Boolean.TRUE.equals(appointment.getIsEmergency()) ? 1 : 0
+        };
+    }
+
+    private static int[] negate(int[] values) {
+        int[] negated = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            negated[i] = -values[i];
+        }
+        return negated;
+    }
+
+    private ConditionalOperators.Cond countWhen(Criteria criteria) {
+        return ConditionalOperators.when(criteria).then(1).otherwise(0);
+    }
+}
@@ -1,40 +1,51 @@
 package com.heal.doctor.services.impl;
 
-import com.heal.doctor.dto.AppointmentDTO;
 import com.heal.doctor.dto.DoctorDTO;
+import com.heal.doctor.dto.ReportSummaryDTO;
 import com.heal.doctor.exception.BadRequestException;
 import com.heal.doctor.exception.ReportGenerationException;
 import com.heal.doctor.services.IAppointmentService;
 import com.heal.doctor.services.IDoctorReports;
 import com.heal.doctor.services.IDoctorService;
 import com.heal.doctor.services.IEmailService;
+import com.heal.doctor.services.IReportCacheService;
+import com.heal.doctor.services.IReportSummaryService;
 import com.heal.doctor.utils.CurrentUserName;
+import com.heal.doctor.utils.DoctorReportRenderer;
+import com.heal.doctor.utils.ReportDateRange;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
-import org.xhtmlrenderer.pdf.ITextRenderer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
-import java.util.stream.Collectors;
 
 @Service
 public class DoctorReportsImpl implements IDoctorReports {
 
     private static final Logger logger = LoggerFactory.getLogger(DoctorReportsImpl.class);
 
-    private final TemplateEngine templateEngine;
+    private final DoctorReportRenderer reportRenderer;
+    private final IReportCacheService reportCacheService;
+    private final IReportSummaryService reportSummaryService;
     private final IDoctorService doctorService;
     private final IAppointmentService appointmentService;
     private final IEmailService emailService;
@@ -46,12 +57,16 @@ public class DoctorReportsImpl implements IDoctorReports {
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter DISPLAY_FORMATTER = DateTimeFormatter.ofPattern("dd MMM, yyyy");
 
-    public DoctorReportsImpl(TemplateEngine templateEngine,
+    public DoctorReportsImpl(DoctorReportRenderer reportRenderer,
+                             IReportCacheService reportCacheService,
+                             IReportSummaryService reportSummaryService,
                              IDoctorService doctorService,
                              IAppointmentService appointmentService, 
                              IEmailService emailService,
-                             @Qualifier("emailTaskExecutor") Executor taskExecutor) {
-        this.templateEngine = templateEngine;
+                             @Qualifier("statisticsTaskExecutor") Executor taskExecutor) {
+        this.reportRenderer = reportRenderer;
+        this.reportCacheService = reportCacheService;
+        this.reportSummaryService = reportSummaryService;
         this.doctorService = doctorService;
         this.appointmentService = appointmentService;
         this.emailService = emailService;
@@ -59,109 +74,180 @@ public class DoctorReportsImpl implements IDoctorReports {
     }
 
     @Override
-    public byte[] generateDoctorReport(String fromDate, String toDate) {
+    public byte[] generateDoctorReport(String fromDate, String toDate, boolean summaryOnly) {
         try {
-            String finalFromDate = validateOrDefaultFromDate(fromDate);
-            String finalToDate = validateOrDefaultToDate(toDate);
+            ReportDateRange range = ReportDateRange.resolve(fromDate, toDate);
 
             String currentDoctorId = CurrentUserName.getCurrentDoctorId();
             String currentUsername = CurrentUserName.getCurrentUsername();
-            
-            CompletableFuture<DoctorDTO> doctorFuture = CompletableFuture.supplyAsync(
-                    () -> doctorService.getDoctorById(currentDoctorId), taskExecutor);
-            
-            CompletableFuture<List<AppointmentDTO>> appointmentsFuture = CompletableFuture.supplyAsync(
-                    () -> appointmentService.getAppointmentsByDoctorAndDateRange(
-                            currentDoctorId, finalFromDate, finalToDate),
-                    taskExecutor);
-
-            CompletableFuture.allOf(doctorFuture, appointmentsFuture).join();
-            
-            DoctorDTO doctor = doctorFuture.join();
-            List<AppointmentDTO> appointments = appointmentsFuture.join();
-
-            Map<String, Object> variables = new HashMap<>();
-            variables.put("companyName", companyName);
-            variables.put("doctorName", doctor.getFirstName() + " " + doctor.getLastName());
-            variables.put("doctorId", doctor.getDoctorId());
-            variables.put("specialization", doctor.getSpecialization());
-            variables.put("address", doctor.getClinicAddress());
-            variables.put("reportFromDate", LocalDate.parse(finalFromDate, FORMATTER).format(DISPLAY_FORMATTER));
-            variables.put("reportToDate", LocalDate.parse(finalToDate, FORMATTER).format(DISPLAY_FORMATTER));
-            variables.put("reportGeneratedOn", LocalDate.now().format(DISPLAY_FORMATTER));
-            variables.put("appointments", appointments);
-            variables.put("totalAppointments", appointments.size());
-            
-            Map<String, Long> appointmentStats = appointments.parallelStream()
-                    .collect(Collectors.groupingBy(
-                            a -> {
-                                if (Boolean.TRUE.equals(a.getTreated())) return "treated";
-                                if (a.getStatus() != null && a.getStatus().name().equals("CANCELLED")) return "cancelled";
-                                return "other";
-                            },
-                            Collectors.counting()
-                    ));
-            
-            variables.put("treatedAppointments", appointmentStats.getOrDefault("treated", 0L));
-            variables.put("cancelledAppointments", appointmentStats.getOrDefault("cancelled", 0L));
-
-            Context context = new Context();
-            context.setVariables(variables);
-
-            String htmlContent = templateEngine.process("doctor-report-template", context);
+
+            // Summary-only reports carry no rows and are cheap to render, so only full reports are cached.
+            Optional<String> cacheKey = summaryOnly ? Optional.empty() : reportCacheService.cacheKey(currentDoctorId, range);
+            Optional<Path> cached = cacheKey.flatMap(reportCacheService::find);
+            if (cached.isPresent()) {
+                byte[] pdfBytes = Files.readAllBytes(cached.get());
+                sendReportEmail(currentUsername, pdfBytes);
+                return pdfBytes;
+            }
+
+            DoctorDTO doctor = doctorService.getDoctorById(currentDoctorId);
 
             try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-                ITextRenderer renderer = new ITextRenderer();
-                renderer.setDocumentFromString(htmlContent);
-                renderer.layout();
-                renderer.createPDF(outputStream);
+                writeDoctorReport(doctor, range, summaryOnly, outputStream);
 
                 byte[] pdfBytes = outputStream.toByteArray();
-                
-                emailService.sendSimpleEmailWithAttachment(
-                        currentUsername,
-                        "Doctor Appointment Report - " + LocalDate.now().format(DISPLAY_FORMATTER),
-                        "Please find your appointment report attached.",
-                        pdfBytes,
-                        "appointment-report-" + LocalDate.now() + ".pdf",
-                        "application/pdf"
-                ).exceptionally(ex -> {
-                    logger.error("Failed to send report email asynchronously: error: {}", ex.getMessage(), ex);
-                    return null;
-                });
-                logger.info("Report email sending initiated asynchronously for: {}", currentUsername);
+                sendReportEmail(currentUsername, pdfBytes);
+                cacheKey.ifPresent(key -> cacheRenderedBytes(key, pdfBytes));
 
                 return pdfBytes;
             }
 
-        } catch (BadRequestException | IllegalArgumentException e) {
+        } catch (BadRequestException | IllegalArgumentException | ReportGenerationException e) {
             throw e;
         } catch (Exception e) {
             throw new ReportGenerationException("Failed to generate PDF report: " + e.getMessage(), e);
         }
     }
 
-    private String validateOrDefaultFromDate(String fromDate) {
-        if (fromDate == null || fromDate.isBlank()) {
-            return LocalDate.now().withDayOfMonth(1).format(FORMATTER);
+    @Override
+    public StreamingResponseBody streamDoctorReport(String fromDate, String toDate, boolean summaryOnly) {
+        ReportDateRange range = ReportDateRange.resolve(fromDate, toDate);
+        String currentDoctorId = CurrentUserName.getCurrentDoctorId();
+        // Resolved on the request thread: the body runs later on an async thread without the security context.
+        DoctorDTO doctor = doctorService.getDoctorById(currentDoctorId);
+
+        Optional<String> cacheKey = summaryOnly ? Optional.empty() : reportCacheService.cacheKey(currentDoctorId, range);
+        Optional<Path> cached = cacheKey.flatMap(reportCacheService::find);
+        if (cached.isPresent()) {
+            Path file = cached.get();
+            logger.info("Serving cached report: doctorId: {}, dateRange: {} to {}", currentDoctorId, range.fromDate(), range.toDate());
+            return outputStream -> {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    WritableByteChannel target = Channels.newChannel(outputStream);
+                    long size = channel.size();
+                    for (long position = 0; position < size; ) {
+                        position += channel.transferTo(position, size - position, target);
+                    }
+                }
+                outputStream.flush();
+            };
         }
-        try {
-            LocalDate.parse(fromDate, FORMATTER);
-            return fromDate;
-        } catch (DateTimeParseException e) {
-            throw new BadRequestException("Invalid fromDate format. Expected yyyy-MM-dd, got: " + fromDate);
+        if (cacheKey.isEmpty()) {
+            return outputStream -> {
+                writeDoctorReport(doctor, range, summaryOnly, outputStream);
+                outputStream.flush();
+            };
         }
+        return outputStream -> {
+            // Tee the rendered bytes into a temp file so the next download of this closed range is a file transfer.
+            Path rendered = Files.createTempFile("doctor-report-", ".pdf");
+            try {
+                try (OutputStream copy = new BufferedOutputStream(Files.newOutputStream(rendered))) {
+                    writeDoctorReport(doctor, range, false, new TeeOutputStream(outputStream, copy));
+                }
+                outputStream.flush();
+                reportCacheService.store(cacheKey.get(), rendered);
+            } finally {
+                Files.deleteIfExists(rendered);
+            }
+        };
     }
 
-    private String validateOrDefaultToDate(String toDate) {
-        if (toDate == null || toDate.isBlank()) {
-            return LocalDate.now().minusDays(1).format(FORMATTER);
+    @Override
+    public long writeDoctorReport(String doctorId, ReportDateRange range, OutputStream outputStream) {
+        return writeDoctorReport(doctorService.getDoctorById(doctorId), range, false, outputStream);
+    }
+
+    /**
+     * The summary comes from the daily rollups and is fetched while the rows stream, so neither
+     * waits on the other; a summary-only report never reads the rows at all.
+     */
+    private long writeDoctorReport(DoctorDTO doctor, ReportDateRange range, boolean summaryOnly, OutputStream outputStream) {
+        long startedAt = System.currentTimeMillis();
+        Map<String, Object> variables = headerVariables(doctor, range.fromDate(), range.toDate());
+        CompletableFuture<ReportSummaryDTO> summaryFuture = CompletableFuture.supplyAsync(
+                () -> reportSummaryService.summarize(doctor.getDoctorId(), range), taskExecutor);
+        long rows = 0;
+        try (DoctorReportRenderer.ReportDocument document = reportRenderer.open(variables, outputStream)) {
+            if (!summaryOnly) {
+                rows = appointmentService.streamAppointmentsByDoctorAndDateRange(
+                        doctor.getDoctorId(), range.fromDate(), range.toDate(), document::add);
+            }
+            document.finish(summaryFuture.join());
         }
+        logger.info("Report written: doctorId: {}, dateRange: {} to {}, summaryOnly: {}, rows: {}, durationMs: {}",
+                doctor.getDoctorId(), range.fromDate(), range.toDate(), summaryOnly, rows, System.currentTimeMillis() - startedAt);
+        return rows;
+    }
+
+    private void sendReportEmail(String currentUsername, byte[] pdfBytes) {
+        emailService.sendSimpleEmailWithAttachment(
+                currentUsername,
+                "Doctor Appointment Report - " + LocalDate.now().format(DISPLAY_FORMATTER),
+                "Please find your appointment report attached.",
+                pdfBytes,
+                "appointment-report-" + LocalDate.now() + ".pdf",
+                "application/pdf"
+        ).exceptionally(ex -> {
+            logger.error("Failed to send report email asynchronously: error: {}", ex.getMessage(), ex);
+            return null;
+        });
+        logger.info("Report email sending initiated asynchronously for: {}", currentUsername);
+    }
+
+    private void cacheRenderedBytes(String cacheKey, byte[] pdfBytes) {
         try {
-            LocalDate.parse(toDate, FORMATTER);
-            return toDate;
-        } catch (DateTimeParseException e) {
-            throw new BadRequestException("Invalid toDate format. Expected yyyy-MM-dd, got: " + toDate);
+            Path rendered = Files.createTempFile("doctor-report-", ".pdf");
+            try {
+                Files.write(rendered, pdfBytes);
+                reportCacheService.store(cacheKey, rendered);
+            } finally {
+                Files.deleteIfExists(rendered);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to cache rendered report: error: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, Object> headerVariables(DoctorDTO doctor, String fromDate, String toDate) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("companyName", companyName);
+        variables.put("doctorName", doctor.getFirstName() + " " + doctor.getLastName());
+        variables.put("doctorId", doctor.getDoctorId());
+        variables.put("specialization", doctor.getSpecialization());
+        variables.put("address", doctor.getClinicAddress());
+        variables.put("reportFromDate", LocalDate.parse(fromDate, FORMATTER).format(DISPLAY_FORMATTER));
+        variables.put("reportToDate", LocalDate.parse(toDate, FORMATTER).format(DISPLAY_FORMATTER));
+        variables.put("reportGeneratedOn", LocalDate.now().format(DISPLAY_FORMATTER));
+        return variables;
+    }
+
+    private static final class TeeOutputStream extends OutputStream {
+
+        private final OutputStream primary;
+        private final OutputStream copy;
+
+        private TeeOutputStream(OutputStream primary, OutputStream copy) {
+            this.primary = primary;
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            primary.write(b);
+            copy.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            primary.write(b, off, len);
+            copy.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            primary.flush();
+            copy.flush();
         }
     }
-}
\ No newline at end of file
+}
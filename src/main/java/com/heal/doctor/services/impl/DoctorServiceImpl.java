@@ -7,16 +7,20 @@ import com.heal.doctor.models.DoctorEntity;
 import com.heal.doctor.models.NotificationEntity;
 import com.heal.doctor.models.enums.AvailableDayEnum;
 import com.heal.doctor.models.enums.NotificationType;
+import com.heal.doctor.repositories.AppointmentArchiveRepository;
+import com.heal.doctor.repositories.AppointmentRepository;
 import com.heal.doctor.repositories.DoctorRepository;
 import com.heal.doctor.security.DoctorUserDetails;
 import com.heal.doctor.security.JwtUtil;
 import com.heal.doctor.services.IDoctorService;
 import com.heal.doctor.services.INotificationService;
 import com.heal.doctor.exception.BadRequestException;
+import com.heal.doctor.exception.BusinessRuleException;
 import com.heal.doctor.exception.ConflictException;
 import com.heal.doctor.exception.ResourceNotFoundException;
 import com.heal.doctor.exception.UnauthorizedException;
 import com.heal.doctor.exception.ValidationException;
+import com.heal.doctor.utils.ClinicCalendar;
 import com.heal.doctor.utils.CurrentUserName;
 import com.heal.doctor.utils.EmailValidatorUtil;
 import org.modelmapper.ModelMapper;
@@ -32,6 +36,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.ZoneId;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -61,6 +67,9 @@ public class DoctorServiceImpl implements IDoctorService {
     private final INotificationService notificationService;
     private final IDoctorAccountMailService doctorAccountMailService;
     private final Executor taskExecutor;
+    private final ClinicCalendar clinicCalendar;
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentArchiveRepository appointmentArchiveRepository;
 
     public DoctorServiceImpl(DoctorRepository doctorRepository, ModelMapper modelMapper,
                             PasswordEncoder passwordEncoder, JwtUtil jwtUtil,
@@ -68,7 +77,10 @@ public class DoctorServiceImpl implements IDoctorService {
                             UserDetailsService userDetailsService, OtpServiceImpl otpService,
                             INotificationService notificationService,
                             IDoctorAccountMailService doctorAccountMailService,
-                            @Qualifier("emailTaskExecutor") Executor taskExecutor) {
+                            @Qualifier("emailTaskExecutor") Executor taskExecutor,
+                            ClinicCalendar clinicCalendar,
+                            AppointmentRepository appointmentRepository,
+                            AppointmentArchiveRepository appointmentArchiveRepository) {
         this.doctorRepository = doctorRepository;
         this.modelMapper = modelMapper;
         this.passwordEncoder = passwordEncoder;
@@ -79,6 +91,9 @@ public class DoctorServiceImpl implements IDoctorService {
         this.notificationService = notificationService;
         this.doctorAccountMailService = doctorAccountMailService;
         this.taskExecutor = taskExecutor;
+        this.clinicCalendar = clinicCalendar;
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentArchiveRepository = appointmentArchiveRepository;
     }
 
     @Transactional
@@ -219,6 +234,23 @@ public class DoctorServiceImpl implements IDoctorService {
         if (updateDoctorDetailsDTO.getClinicAddress() != null && !updateDoctorDetailsDTO.getClinicAddress().isEmpty()) {
             existingDoctor.setClinicAddress(updateDoctorDetailsDTO.getClinicAddress());
         }
+        if (updateDoctorDetailsDTO.getTimeZone() != null && !updateDoctorDetailsDTO.getTimeZone().isEmpty()) {
+            ZoneId timeZone;
+            try {
+                timeZone = ZoneId.of(updateDoctorDetailsDTO.getTimeZone());
+            } catch (DateTimeException e) {
+                logger.warn("Time zone update failed - invalid zone: email: {}, timeZone: {}", username, updateDoctorDetailsDTO.getTimeZone());
+                throw new ValidationException("Time zone must be a valid region ID such as Asia/Kolkata.");
+            }
+            // Stored day keys, daily rollups and waitlists are all bucketed in the clinic zone.
+            ZoneId currentZone = clinicCalendar.zoneFor(existingDoctor.getDoctorId());
+            if (!timeZone.equals(currentZone) && hasAppointments(existingDoctor.getDoctorId())) {
+                logger.warn("Time zone update rejected - appointments exist: email: {}, from: {}, to: {}",
+                        username, currentZone, timeZone);
+                throw new BusinessRuleException("change time zone", "appointments are already booked in the current time zone");
+            }
+            existingDoctor.setTimeZone(timeZone.getId());
+        }
         if (updateDoctorDetailsDTO.getAddress() != null) {
             existingDoctor.setAddress(updateDoctorDetailsDTO.getAddress());
         }
@@ -250,6 +282,7 @@ public class DoctorServiceImpl implements IDoctorService {
         existingDoctor.setUpdatedAt(new Date());
 
         DoctorEntity updatedDoctor = doctorRepository.save(existingDoctor);
+        clinicCalendar.evict(updatedDoctor.getDoctorId());
 
         DoctorDTO doctorDTO = new DoctorDTO();
         modelMapper.map(updatedDoctor, doctorDTO);
@@ -261,6 +294,10 @@ public class DoctorServiceImpl implements IDoctorService {
 
 
 
+    private boolean hasAppointments(String doctorId) {
+        return appointmentRepository.existsByDoctorId(doctorId) || appointmentArchiveRepository.existsByDoctorId(doctorId);
+    }
+
     @Override
     public void deleteDoctor(String doctorId) {
         logger.warn("Deleting doctor account: doctorId: {}", doctorId);
@@ -2,18 +2,21 @@ package com.heal.doctor.services.impl;
 
 import com.heal.doctor.dto.DoctorStatisticsDTO;
 import com.heal.doctor.models.DailyTreatedPatients;
+import com.heal.doctor.models.DashboardStatistics;
+import com.heal.doctor.models.DoctorDailyStatsEntity;
 import com.heal.doctor.repositories.DoctorStatisticsRepository;
+import com.heal.doctor.services.IDoctorDailyStatsService;
 import com.heal.doctor.services.IDoctorStatisticsService;
+import com.heal.doctor.services.ILiveStatisticsService;
+import com.heal.doctor.utils.ClinicCalendar;
 import com.heal.doctor.utils.CurrentUserName;
-import com.heal.doctor.utils.DateUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -23,80 +26,82 @@ import java.util.stream.Collectors;
 public class DoctorStatisticsServiceImpl implements IDoctorStatisticsService {
 
     private static final Logger logger = LoggerFactory.getLogger(DoctorStatisticsServiceImpl.class);
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final int DAYS_BACK_WEEK = 7;
+    private static final String ROLLUP_SOURCE = "rollup";
+    private static final int SEED_ATTEMPTS = 2;
 
     private final DoctorStatisticsRepository statisticsRepository;
+    private final IDoctorDailyStatsService dailyStatsService;
+    private final ILiveStatisticsService liveStatisticsService;
     private final Executor taskExecutor;
+    private final ClinicCalendar clinicCalendar;
+    private final boolean readFromRollups;
 
     public DoctorStatisticsServiceImpl(DoctorStatisticsRepository statisticsRepository,
-                                      @Qualifier("emailTaskExecutor") Executor taskExecutor) {
+                                      IDoctorDailyStatsService dailyStatsService,
+                                      ILiveStatisticsService liveStatisticsService,
+                                      @Qualifier("statisticsTaskExecutor") Executor taskExecutor,
+                                      ClinicCalendar clinicCalendar,
+                                      @Value("${statistics.source}") String statisticsSource) {
         this.statisticsRepository = statisticsRepository;
+        this.dailyStatsService = dailyStatsService;
+        this.liveStatisticsService = liveStatisticsService;
         this.taskExecutor = taskExecutor;
+        this.clinicCalendar = clinicCalendar;
+        this.readFromRollups = ROLLUP_SOURCE.equalsIgnoreCase(statisticsSource);
     }
 
     public DoctorStatisticsDTO fetchStatistics() {
         logger.debug("Fetching statistics for doctor");
         
-        Date[] todayDates = DateUtils.getStartAndEndOfDay(new Date());
-        Date startOfDay = todayDates[0];
-        Date endOfDay = todayDates[1];
-        
-        Date[] weekDates = getStartAndEndOfLastWeek();
-        Date startOfWeek = weekDates[0];
-        Date endOfYesterday = weekDates[1];
-
         String doctorId = CurrentUserName.getCurrentDoctorId();
+        DoctorStatisticsDTO doctorStatisticsDTO = null;
+        for (int attempt = 1; attempt <= SEED_ATTEMPTS; attempt++) {
+            int today = clinicCalendar.today(doctorId);
+            long changesBefore = liveStatisticsService.beginSeed(doctorId);
+            doctorStatisticsDTO = readFromRollups
+                    ? fetchFromRollups(doctorId)
+                    : fetchFromAppointments(doctorId);
+            if (liveStatisticsService.seed(doctorId, today, doctorStatisticsDTO, changesBefore)) {
+                break;
+            }
+        }
+        return doctorStatisticsDTO;
+    }
 
-        CompletableFuture<Integer> totalAppointmentsFuture = CompletableFuture.supplyAsync(
-                () -> Objects.requireNonNullElse(statisticsRepository.getTotalAppointmentsToday(startOfDay, endOfDay, doctorId), 0),
-                taskExecutor);
-        
-        CompletableFuture<Integer> untreatedNotAvailableFuture = CompletableFuture.supplyAsync(
-                () -> Objects.requireNonNullElse(statisticsRepository.getTotalUntreatedAppointmentsTodayAndNotAvailable(startOfDay, endOfDay, doctorId), 0),
-                taskExecutor);
-        
-        CompletableFuture<Integer> treatedAppointmentsFuture = CompletableFuture.supplyAsync(
-                () -> Objects.requireNonNullElse(statisticsRepository.getTotalTreatedAppointmentsToday(startOfDay, endOfDay, doctorId), 0),
-                taskExecutor);
-        
-        CompletableFuture<Integer> availableAtClinicFuture = CompletableFuture.supplyAsync(
-                () -> Objects.requireNonNullElse(statisticsRepository.getTotalAvailableAtClinicToday(startOfDay, endOfDay, doctorId), 0),
-                taskExecutor);
-        
-        CompletableFuture<List<DailyTreatedPatients>> dailyTreatedFuture = CompletableFuture.supplyAsync(
-                () -> getProcessedDailyTreatedPatients(startOfWeek, endOfYesterday, doctorId),
-                taskExecutor);
-        
-        CompletableFuture<DoctorStatisticsRepository.LastActiveDayStats> lastActiveDayStatsFuture = CompletableFuture.supplyAsync(
-                () -> statisticsRepository.getLastActiveDayStats(doctorId, startOfWeek, endOfYesterday).orElse(null),
-                taskExecutor);
-
-        CompletableFuture.allOf(totalAppointmentsFuture, untreatedNotAvailableFuture, treatedAppointmentsFuture,
-                availableAtClinicFuture, dailyTreatedFuture, lastActiveDayStatsFuture).join();
-
-        Integer totalAppointmentsToday = totalAppointmentsFuture.join();
-        Integer totalUntreatedAppointmentsTodayAndNotAvailable = untreatedNotAvailableFuture.join();
-        Integer totalTreatedAppointmentsToday = treatedAppointmentsFuture.join();
-        Integer totalAvailableAtClinic = availableAtClinicFuture.join();
-        List<DailyTreatedPatients> dailyTreatedPatientsLastWeek = dailyTreatedFuture.join();
-        DoctorStatisticsRepository.LastActiveDayStats lastActiveDayStats = lastActiveDayStatsFuture.join();
-        Integer lastActiveDayAppointments = lastActiveDayStats != null && lastActiveDayStats.getTotalCount() != null 
+    private DoctorStatisticsDTO fetchFromAppointments(String doctorId) {
+        ZoneId zone = clinicCalendar.zoneFor(doctorId);
+        int today = clinicCalendar.today(zone);
+        int startOfWeekDay = today - DAYS_BACK_WEEK;
+        int yesterday = today - 1;
+        Date startOfWeek = clinicCalendar.startOfDay(zone, startOfWeekDay);
+        Date endOfYesterday = new Date(clinicCalendar.startOfDay(zone, today).getTime() - 1);
+
+        DashboardStatistics statistics = CompletableFuture.supplyAsync(
+                () -> statisticsRepository.getDashboardStatistics(doctorId, startOfWeekDay, today,
+                        startOfWeek, endOfYesterday, zone.getId(), yesterday),
+                taskExecutor).join();
+
+        DashboardStatistics.TodayCounts todayCounts = statistics != null && statistics.getToday() != null
+                ? statistics.getToday() : new DashboardStatistics.TodayCounts();
+        DashboardStatistics.LastActiveDay lastActiveDayStats = statistics != null ? statistics.getLastActiveDay() : null;
+        Integer lastActiveDayAppointments = lastActiveDayStats != null && lastActiveDayStats.getTotalCount() != null
                 ? lastActiveDayStats.getTotalCount() : 0;
-        Integer lastActiveDayTreatedAppointments = lastActiveDayStats != null && lastActiveDayStats.getTreatedCount() != null 
+        Integer lastActiveDayTreatedAppointments = lastActiveDayStats != null && lastActiveDayStats.getTreatedCount() != null
                 ? lastActiveDayStats.getTreatedCount() : 0;
 
         DoctorStatisticsDTO doctorStatisticsDTO = new DoctorStatisticsDTO();
-        doctorStatisticsDTO.setTotalAppointment(totalAppointmentsToday);
-        doctorStatisticsDTO.setTotalUntreatedAppointmentAndNotAvailable(totalUntreatedAppointmentsTodayAndNotAvailable);
-        doctorStatisticsDTO.setTotalTreatedAppointment(totalTreatedAppointmentsToday);
-        doctorStatisticsDTO.setTotalAvailableAtClinic(totalAvailableAtClinic);
-        doctorStatisticsDTO.setLastWeekTreatedData(dailyTreatedPatientsLastWeek);
+        doctorStatisticsDTO.setTotalAppointment(counter(todayCounts.getTotalAppointments()));
+        doctorStatisticsDTO.setTotalUntreatedAppointmentAndNotAvailable(counter(todayCounts.getUntreatedNotAvailable()));
+        doctorStatisticsDTO.setTotalTreatedAppointment(counter(todayCounts.getTreatedAppointments()));
+        doctorStatisticsDTO.setTotalAvailableAtClinic(counter(todayCounts.getAvailableAtClinic()));
+        doctorStatisticsDTO.setLastWeekTreatedData(fillMissingDays(
+                statistics != null ? statistics.getLastWeekTreated() : null, startOfWeekDay, yesterday));
         doctorStatisticsDTO.setLastActiveDayAppointments(lastActiveDayAppointments);
         doctorStatisticsDTO.setLastActiveDayTreatedAppointments(lastActiveDayTreatedAppointments);
         
         double percentage = 0.0;
-        if (lastActiveDayAppointments != null && lastActiveDayAppointments > 0 && lastActiveDayTreatedAppointments != null) {
+        if (lastActiveDayAppointments > 0) {
             percentage = ((double) lastActiveDayTreatedAppointments / lastActiveDayAppointments) * 100.0;
         }
         doctorStatisticsDTO.setLastActiveDayPercentageTreatedAppointments(percentage);
@@ -110,33 +115,59 @@ public class DoctorStatisticsServiceImpl implements IDoctorStatisticsService {
         return doctorStatisticsDTO;
     }
 
-    private Date[] getStartAndEndOfLastWeek() {
-        LocalDate today = LocalDate.now();
-        LocalDate startOfWeek = today.minusDays(DAYS_BACK_WEEK);
-        LocalDate endOfYesterday = today.minusDays(1);
-        
-        Date[] startDates = DateUtils.getStartAndEndOfDay(java.util.Date.from(startOfWeek.atStartOfDay(ZoneId.systemDefault()).toInstant()));
-        Date[] endDates = DateUtils.getStartAndEndOfDay(java.util.Date.from(endOfYesterday.atStartOfDay(ZoneId.systemDefault()).toInstant()));
-        
-        return new Date[]{startDates[0], endDates[1]};
+    /**
+     * Builds the dashboard from at most eight {@code doctor_daily_stats} documents. The weekly
+     * treated series counts treated patients by appointment day rather than by treatment time.
+     */
+    private DoctorStatisticsDTO fetchFromRollups(String doctorId) {
+        int today = clinicCalendar.today(doctorId);
+        int startOfWeekDay = today - DAYS_BACK_WEEK;
+        Map<Integer, DoctorDailyStatsEntity> days = dailyStatsService.getDays(doctorId, startOfWeekDay, today).stream()
+                .collect(Collectors.toMap(DoctorDailyStatsEntity::getDayKey, day -> day, (first, second) -> first));
+
+        DoctorDailyStatsEntity todayStats = days.get(today);
+        DoctorStatisticsDTO doctorStatisticsDTO = new DoctorStatisticsDTO();
+        doctorStatisticsDTO.setTotalAppointment(todayStats == null ? 0 : counter(todayStats.getTotal()));
+        doctorStatisticsDTO.setTotalUntreatedAppointmentAndNotAvailable(todayStats == null ? 0 : todayStats.untreatedNotArrived());
+        doctorStatisticsDTO.setTotalTreatedAppointment(todayStats == null ? 0 : counter(todayStats.getTreated()));
+        doctorStatisticsDTO.setTotalAvailableAtClinic(todayStats == null ? 0 : counter(todayStats.getWaiting()));
+
+        List<DailyTreatedPatients> lastWeek = new ArrayList<>(DAYS_BACK_WEEK);
+        DoctorDailyStatsEntity lastActiveDay = null;
+        for (int day = startOfWeekDay; day < today; day++) {
+            DoctorDailyStatsEntity stats = days.get(day);
+            lastWeek.add(new DailyTreatedPatients(ClinicCalendar.formatDayKey(day), stats == null ? 0 : counter(stats.getTreated())));
+            if (stats != null && counter(stats.getTotal()) > 0) {
+                lastActiveDay = stats;
+            }
+        }
+        doctorStatisticsDTO.setLastWeekTreatedData(lastWeek);
+
+        int lastActiveDayAppointments = lastActiveDay == null ? 0 : counter(lastActiveDay.getTotal());
+        int lastActiveDayTreatedAppointments = lastActiveDay == null ? 0 : counter(lastActiveDay.getTreated());
+        doctorStatisticsDTO.setLastActiveDayAppointments(lastActiveDayAppointments);
+        doctorStatisticsDTO.setLastActiveDayTreatedAppointments(lastActiveDayTreatedAppointments);
+        doctorStatisticsDTO.setLastActiveDayPercentageTreatedAppointments(lastActiveDayAppointments > 0
+                ? ((double) lastActiveDayTreatedAppointments / lastActiveDayAppointments) * 100.0
+                : 0.0);
+
+        logger.debug("Statistics fetched from rollups: doctorId: {}, days: {}", doctorId, days.size());
+        return doctorStatisticsDTO;
     }
 
-    private List<DailyTreatedPatients> getProcessedDailyTreatedPatients(Date startOfWeek, Date endOfYesterday, String doctorId) {
-        List<DailyTreatedPatients> rawData = statisticsRepository.getDailyTreatedPatientsLastWeek(startOfWeek, endOfYesterday, doctorId);
+    private static int counter(Integer value) {
+        return value == null ? 0 : value;
+    }
 
-        Map<String, Integer> treatedDataMap = rawData.parallelStream()
-                .collect(Collectors.toConcurrentMap(DailyTreatedPatients::getDate, DailyTreatedPatients::getCount));
+    private List<DailyTreatedPatients> fillMissingDays(List<DailyTreatedPatients> rawData, int startOfWeekDay, int yesterday) {
+        Map<String, Integer> treatedDataMap = rawData == null ? Map.of() : rawData.stream()
+                .collect(Collectors.toMap(DailyTreatedPatients::getDate, DailyTreatedPatients::getCount));
 
         List<DailyTreatedPatients> finalList = new ArrayList<>();
-        LocalDate startDate = startOfWeek.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        LocalDate endDate = endOfYesterday.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        
-        LocalDate currentDate = startDate;
-        while (!currentDate.isAfter(endDate)) {
-            String dateStr = currentDate.format(DATE_FORMATTER);
+        for (int day = startOfWeekDay; day <= yesterday; day++) {
+            String dateStr = ClinicCalendar.formatDayKey(day);
             int count = treatedDataMap.getOrDefault(dateStr, 0);
             finalList.add(new DailyTreatedPatients(dateStr, count));
-            currentDate = currentDate.plusDays(1);
         }
 
         return finalList;
@@ -0,0 +1,247 @@
+package com.heal.doctor.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.heal.doctor.events.AppointmentChangedEvent;
+import com.heal.doctor.exception.BadRequestException;
+import com.heal.doctor.exception.BaseException;
+import com.heal.doctor.exception.ConflictException;
+import com.heal.doctor.models.IdempotencyRecordEntity;
+import com.heal.doctor.models.enums.IdempotencyStatus;
+import com.heal.doctor.repositories.IdempotencyRecordRepository;
+import com.heal.doctor.services.IIdempotencyService;
+import com.heal.doctor.utils.ApiResponse;
+import com.heal.doctor.utils.CurrentUserName;
+import com.heal.doctor.utils.LruTtlCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response for a repeated Idempotency-Key. A request claims its key with an
+ * IN_PROGRESS record carrying {@code claimedAt}; a claim older than {@code idempotency.lease.seconds}
+ * belongs to a request that died and is taken over by the next retry. Every later write to the
+ * record is conditional on the claim it was made under, so a slow original cannot overwrite the
+ * retry that took its place.
+ * <p>
+ * An update can chain several appointment writes, each of which publishes an
+ * {@link AppointmentChangedEvent} on the request thread; those events are counted while the
+ * action runs. A request rejected with a {@link BaseException} before any write has changed
+ * nothing, so its claim is released for the client to retry. A rejection after a write, or any
+ * other failure, may have left the change partly applied; that key is kept as FAILED and
+ * refused, so a retry cannot apply the earlier writes twice.
+ */
+@Service
+public class IdempotencyServiceImpl implements IIdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String REPLAY_HEADER = "Idempotent-Replayed";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final long ttlMillis;
+    private final long leaseMillis;
+    private final LruTtlCache<String, IdempotencyRecordEntity> completedRecords;
+    private final ThreadLocal<AtomicInteger> writesInAction = new ThreadLocal<>();
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository,
+                                  MongoTemplate mongoTemplate,
+                                  ObjectMapper objectMapper,
+                                  @Value("${idempotency.ttl.hours}") long ttlHours,
+                                  @Value("${idempotency.lease.seconds}") long leaseSeconds,
+                                  @Value("${idempotency.cache.max-entries}") int cacheMaxEntries) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.ttlMillis = TimeUnit.HOURS.toMillis(ttlHours);
+        this.leaseMillis = TimeUnit.SECONDS.toMillis(leaseSeconds);
+        this.completedRecords = new LruTtlCache<>(cacheMaxEntries, ttlMillis);
+    }
+
+    @Override
+    public <T> ResponseEntity<ApiResponse<T>> execute(String idempotencyKey, String operation, Object request,
+                                                      Class<T> dataType, Supplier<ResponseEntity<ApiResponse<T>>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must not exceed " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String recordId = CurrentUserName.getCurrentDoctorId() + ":" + operation + ":" + idempotencyKey;
+        String requestHash = hashRequest(request);
+        JavaType responseType = objectMapper.getTypeFactory().constructParametricType(ApiResponse.class, dataType);
+
+        IdempotencyRecordEntity cached = completedRecords.get(recordId);
+        if (cached != null) {
+            logger.debug("Idempotent replay from cache: operation: {}, key: {}", operation, idempotencyKey);
+            return replay(cached, requestHash, responseType);
+        }
+
+        Date now = new Date();
+        IdempotencyRecordEntity claim = IdempotencyRecordEntity.builder()
+                .id(recordId)
+                .requestHash(requestHash)
+                .status(IdempotencyStatus.IN_PROGRESS)
+                .createdAt(now)
+                .claimedAt(now)
+                .expireAt(new Date(now.getTime() + ttlMillis))
+                .build();
+        try {
+            idempotencyRecordRepository.insert(claim);
+        } catch (DuplicateKeyException e) {
+            IdempotencyRecordEntity existing = idempotencyRecordRepository.findById(recordId).orElse(null);
+            if (existing == null) {
+                logger.warn("Idempotency record vanished during claim: operation: {}, key: {}", operation, idempotencyKey);
+                throw new ConflictException("The request with this Idempotency-Key is being processed. Please retry shortly.");
+            }
+            if (existing.getStatus() == IdempotencyStatus.COMPLETED) {
+                completedRecords.put(recordId, existing);
+                logger.debug("Idempotent replay from store: operation: {}, key: {}", operation, idempotencyKey);
+                return replay(existing, requestHash, responseType);
+            }
+            if (!existing.getRequestHash().equals(requestHash)) {
+                logger.warn("Idempotency key reused with a different payload: recordId: {}", recordId);
+                throw new ConflictException("This Idempotency-Key was already used with a different request payload.");
+            }
+            if (existing.getStatus() == IdempotencyStatus.FAILED) {
+                logger.warn("Idempotent request previously failed part-way: operation: {}, key: {}", operation, idempotencyKey);
+                throw new ConflictException("The earlier request with this Idempotency-Key failed and may have been partly applied. "
+                        + "Please check its result and retry with a new Idempotency-Key.");
+            }
+            claim = takeOver(existing, now);
+            if (claim == null) {
+                logger.warn("Idempotent request still in progress: operation: {}, key: {}", operation, idempotencyKey);
+                throw new ConflictException("The request with this Idempotency-Key is being processed. Please retry shortly.");
+            }
+            logger.warn("Stale idempotency claim taken over: operation: {}, key: {}, claimedAt: {}",
+                    operation, idempotencyKey, existing.getClaimedAt());
+        }
+
+        ResponseEntity<ApiResponse<T>> response;
+        AtomicInteger writes = new AtomicInteger();
+        writesInAction.set(writes);
+        try {
+            response = action.get();
+        } catch (BaseException e) {
+            if (writes.get() == 0) {
+                mongoTemplate.remove(claimedBy(claim), IdempotencyRecordEntity.class);
+            } else {
+                retire(claim, operation, idempotencyKey, e);
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            retire(claim, operation, idempotencyKey, e);
+            throw e;
+        } finally {
+            writesInAction.remove();
+        }
+
+        claim.setStatus(IdempotencyStatus.COMPLETED);
+        claim.setResponseStatus(response.getStatusCode().value());
+        claim.setResponseBody(serialize(response.getBody()));
+        Update completion = new Update()
+                .set("status", claim.getStatus())
+                .set("responseStatus", claim.getResponseStatus())
+                .set("responseBody", claim.getResponseBody());
+        if (mongoTemplate.updateFirst(claimedBy(claim), completion, IdempotencyRecordEntity.class).getMatchedCount() == 0) {
+            logger.warn("Idempotency claim lost before completion, response not stored: operation: {}, key: {}",
+                    operation, idempotencyKey);
+            return response;
+        }
+        completedRecords.put(recordId, claim);
+        logger.info("Idempotent response stored: operation: {}, key: {}, status: {}",
+                operation, idempotencyKey, claim.getResponseStatus());
+        return response;
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        AtomicInteger writes = writesInAction.get();
+        if (writes != null) {
+            writes.incrementAndGet();
+        }
+    }
+
+    private void retire(IdempotencyRecordEntity claim, String operation, String idempotencyKey, RuntimeException e) {
+        mongoTemplate.updateFirst(claimedBy(claim), Update.update("status", IdempotencyStatus.FAILED), IdempotencyRecordEntity.class);
+        logger.error("Idempotent request failed, key retired: operation: {}, key: {}, error: {}",
+                operation, idempotencyKey, e.getMessage());
+    }
+
+    /**
+     * Re-claims an IN_PROGRESS record whose lease has run out. Matching on the old claimedAt
+     * lets only one of several concurrent retries win. Records written before claimedAt existed
+     * are aged by createdAt.
+     */
+    private IdempotencyRecordEntity takeOver(IdempotencyRecordEntity existing, Date now) {
+        Date claimedAt = existing.getClaimedAt() != null ? existing.getClaimedAt() : existing.getCreatedAt();
+        if (existing.getStatus() != IdempotencyStatus.IN_PROGRESS || claimedAt == null
+                || now.getTime() - claimedAt.getTime() < leaseMillis) {
+            return null;
+        }
+        return mongoTemplate.findAndModify(
+                claimedBy(existing),
+                Update.update("claimedAt", now),
+                FindAndModifyOptions.options().returnNew(true),
+                IdempotencyRecordEntity.class);
+    }
+
+    private static Query claimedBy(IdempotencyRecordEntity claim) {
+        return Query.query(Criteria.where("_id").is(claim.getId())
+                .and("status").is(IdempotencyStatus.IN_PROGRESS)
+                .and("claimedAt").is(claim.getClaimedAt()));
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> replay(IdempotencyRecordEntity record, String requestHash, JavaType responseType) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            logger.warn("Idempotency key reused with a different payload: recordId: {}", record.getId());
+            throw new ConflictException("This Idempotency-Key was already used with a different request payload.");
+        }
+        try {
+            ApiResponse<T> body = objectMapper.readValue(record.getResponseBody(), responseType);
+            return ResponseEntity.status(record.getResponseStatus())
+                    .header(REPLAY_HEADER, "true")
+                    .body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response could not be read", e);
+        }
+    }
+
+    private String hashRequest(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Request could not be fingerprinted", e);
+        }
+    }
+
+    private String serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response could not be stored for idempotent replay", e);
+        }
+    }
+}
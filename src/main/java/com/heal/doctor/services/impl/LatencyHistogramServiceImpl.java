@@ -0,0 +1,231 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.dto.LatencySummaryDTO;
+import com.heal.doctor.events.AppointmentChangedEvent;
+import com.heal.doctor.exception.ValidationException;
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.models.LatencyHistogramEntity;
+import com.heal.doctor.models.enums.AppointmentChangeType;
+import com.heal.doctor.models.enums.LatencyMetric;
+import com.heal.doctor.services.ILatencyHistogramService;
+import com.heal.doctor.utils.ClinicCalendar;
+import com.heal.doctor.utils.CurrentUserName;
+import com.heal.doctor.utils.LogHistogram;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-doctor, per-day latency histograms. Arrival delay (appointment time to check-in) is
+ * recorded when a patient is marked available at the clinic, and wait to treatment (check-in to
+ * treated) when they are marked treated. Recording only touches an in-memory histogram; a
+ * scheduled flush merges each pending histogram into its stored day blob. The same samples feed
+ * platform-wide Micrometer timers, which carry no doctor tag to keep metric cardinality flat.
+ * <p>
+ * A summary reads the stored blobs and the pending histograms under a read lock, and the flush
+ * moves each histogram from memory to its blob under the write lock, so a summary sees every
+ * sample exactly once rather than missing those caught between the two.
+ */
+@Service
+public class LatencyHistogramServiceImpl implements ILatencyHistogramService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencyHistogramServiceImpl.class);
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+    private static final int MAX_RANGE_DAYS = 366;
+    private static final int DEFAULT_RANGE_DAYS = 30;
+
+    private final MongoTemplate mongoTemplate;
+    private final ClinicCalendar clinicCalendar;
+    private final Map<LatencyMetric, Timer> timers = new EnumMap<>(LatencyMetric.class);
+    private final Map<PendingKey, LogHistogram> pending = new ConcurrentHashMap<>();
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    public LatencyHistogramServiceImpl(MongoTemplate mongoTemplate, ClinicCalendar clinicCalendar, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.clinicCalendar = clinicCalendar;
+        timers.put(LatencyMetric.ARRIVAL_DELAY, Timer.builder("appointments.arrival.delay")
+                .description("Time from the scheduled appointment to the patient checking in")
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(meterRegistry));
+        timers.put(LatencyMetric.WAIT_TO_TREATMENT, Timer.builder("appointments.wait.to.treatment")
+                .description("Time from the patient checking in to being marked treated")
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(meterRegistry));
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        AppointmentEntity after = event.after();
+        if (after.getDayKey() == null || event.isNew()) {
+            return;
+        }
+        if (event.changeType() == AppointmentChangeType.AVAILABLE_AT_CLINIC
+                && after.getArrivedDateTime() != null && event.before().getArrivedDateTime() == null
+                && after.getAppointmentDateTime() != null) {
+            record(after, LatencyMetric.ARRIVAL_DELAY, after.getAppointmentDateTime(), after.getArrivedDateTime());
+        } else if (event.changeType() == AppointmentChangeType.TREATED
+                && Boolean.TRUE.equals(after.getTreated()) && !Boolean.TRUE.equals(event.before().getTreated())
+                && after.getArrivedDateTime() != null && after.getTreatedDateTime() != null) {
+            record(after, LatencyMetric.WAIT_TO_TREATMENT, after.getArrivedDateTime(), after.getTreatedDateTime());
+        }
+    }
+
+    @Override
+    public List<LatencySummaryDTO> getLatencySummary(String fromDate, String toDate) {
+        String doctorId = CurrentUserName.getCurrentDoctorId();
+        int today = clinicCalendar.today(doctorId);
+        int toDayKey = toDate == null || toDate.isBlank() ? today : parseDay(toDate);
+        int fromDayKey = fromDate == null || fromDate.isBlank() ? toDayKey - DEFAULT_RANGE_DAYS + 1 : parseDay(fromDate);
+        if (fromDayKey > toDayKey) {
+            throw new ValidationException("From date must not be after to date.");
+        }
+        if (toDayKey - fromDayKey > MAX_RANGE_DAYS) {
+            throw new ValidationException("Date range must not exceed one year.");
+        }
+
+        Map<LatencyMetric, LogHistogram> merged = new EnumMap<>(LatencyMetric.class);
+        for (LatencyMetric metric : LatencyMetric.values()) {
+            merged.put(metric, new LogHistogram());
+        }
+        Query query = Query.query(Criteria.where("doctorId").is(doctorId).and("dayKey").gte(fromDayKey).lte(toDayKey));
+        query.fields().include("metric", "histogram");
+        Lock readLock = flushLock.readLock();
+        readLock.lock();
+        try {
+            for (LatencyHistogramEntity day : mongoTemplate.find(query, LatencyHistogramEntity.class)) {
+                merged.get(day.getMetric()).add(LogHistogram.decode(day.getHistogram()));
+            }
+            pending.forEach((key, histogram) -> {
+                if (key.doctorId().equals(doctorId) && key.dayKey() >= fromDayKey && key.dayKey() <= toDayKey) {
+                    merged.get(key.metric()).add(histogram);
+                }
+            });
+        } finally {
+            readLock.unlock();
+        }
+
+        List<LatencySummaryDTO> summaries = new ArrayList<>();
+        merged.forEach((metric, histogram) -> {
+            LatencySummaryDTO summary = new LatencySummaryDTO();
+            summary.setMetric(metric);
+            summary.setFromDate(ClinicCalendar.formatDayKey(fromDayKey));
+            summary.setToDate(ClinicCalendar.formatDayKey(toDayKey));
+            summary.setCount(histogram.count());
+            summary.setMeanSeconds(histogram.mean());
+            summary.setP50Seconds(histogram.percentile(50));
+            summary.setP90Seconds(histogram.percentile(90));
+            summary.setP99Seconds(histogram.percentile(99));
+            summary.setMaxSeconds(histogram.max());
+            summaries.add(summary);
+        });
+        return summaries;
+    }
+
+    @Override
+    public int flush() {
+        int flushed = 0;
+        Lock writeLock = flushLock.writeLock();
+        for (PendingKey key : new ArrayList<>(pending.keySet())) {
+            // Taken per histogram so a large flush does not hold summaries off for its whole run.
+            writeLock.lock();
+            try {
+                LogHistogram histogram = pending.remove(key);
+                if (histogram == null) {
+                    continue;
+                }
+                try {
+                    persist(key, histogram);
+                    flushed++;
+                } catch (DataAccessException e) {
+                    // Put the samples back so the next flush retries them.
+                    pending.merge(key, histogram, (current, returned) -> {
+                        current.add(returned);
+                        return current;
+                    });
+                    logger.error("Failed to flush latency histogram: doctorId: {}, dayKey: {}, metric: {}, error: {}",
+                            key.doctorId(), key.dayKey(), key.metric(), e.getMessage(), e);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return flushed;
+    }
+
+    private void record(AppointmentEntity appointment, LatencyMetric metric, Date from, Date to) {
+        long millis = Math.max(0, to.getTime() - from.getTime());
+        timers.get(metric).record(Duration.ofMillis(millis));
+        PendingKey key = new PendingKey(appointment.getDoctorId(), appointment.getDayKey(), metric);
+        // compute() serializes with the flush's remove() for this key, so no sample is recorded into a detached histogram.
+        pending.compute(key, (ignored, histogram) -> {
+            LogHistogram target = histogram != null ? histogram : new LogHistogram();
+            target.record(millis / 1000);
+            return target;
+        });
+    }
+
+    private void persist(PendingKey key, LogHistogram histogram) {
+        String id = LatencyHistogramEntity.idFor(key.doctorId(), key.dayKey(), key.metric());
+        for (int attempt = 1; ; attempt++) {
+            LatencyHistogramEntity stored = mongoTemplate.findById(id, LatencyHistogramEntity.class);
+            LogHistogram combined = new LogHistogram();
+            combined.add(histogram);
+            if (stored != null) {
+                combined.add(LogHistogram.decode(stored.getHistogram()));
+            }
+            LatencyHistogramEntity updated = stored != null ? stored : LatencyHistogramEntity.builder()
+                    .id(id)
+                    .doctorId(key.doctorId())
+                    .dayKey(key.dayKey())
+                    .metric(key.metric())
+                    .build();
+            updated.setHistogram(combined.encode());
+            updated.setCount(combined.count());
+            updated.setUpdatedAt(new Date());
+            try {
+                if (stored == null) {
+                    mongoTemplate.insert(updated);
+                } else {
+                    mongoTemplate.save(updated);
+                }
+                return;
+            } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+                if (attempt >= MAX_FLUSH_ATTEMPTS) {
+                    throw e;
+                }
+                logger.debug("Concurrent latency histogram flush, retrying: id: {}, attempt: {}", id, attempt);
+            }
+        }
+    }
+
+    private int parseDay(String date) {
+        try {
+            return ClinicCalendar.parseDayKey(date);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+    }
+
+    private record PendingKey(String doctorId, int dayKey, LatencyMetric metric) {
+    }
+}
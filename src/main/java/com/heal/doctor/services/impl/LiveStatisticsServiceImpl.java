@@ -0,0 +1,130 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.dto.DoctorStatisticsDTO;
+import com.heal.doctor.dto.LiveStatisticsDTO;
+import com.heal.doctor.dto.WebSocketResponseType;
+import com.heal.doctor.dto.WebsocketResponseDTO;
+import com.heal.doctor.events.AppointmentChangedEvent;
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.services.ILiveStatisticsService;
+import com.heal.doctor.utils.ClinicCalendar;
+import com.heal.doctor.utils.LiveStatisticsSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps today's four headline counters per doctor in memory and pushes them on
+ * {@code /topic/appointments/{doctorId}} after every appointment change, so an open dashboard
+ * never has to poll. A snapshot is seeded by each full dashboard load and dropped when the
+ * clinic day rolls over; until a doctor loads the dashboard there is nothing to keep current.
+ * <p>
+ * The dashboard read is not a point-in-time view, so a change landing while it runs may or may
+ * not be in its figures. Every change bumps a per-doctor counter; a seed is only kept if the
+ * counter has not moved since {@link #beginSeed} was taken before the read, otherwise the caller
+ * reads again rather than install counters that are off by that change for the rest of the day.
+ */
+@Service
+public class LiveStatisticsServiceImpl implements ILiveStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveStatisticsServiceImpl.class);
+
+    private final ClinicCalendar clinicCalendar;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Map<String, LiveStatisticsSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> changeCounts = new ConcurrentHashMap<>();
+
+    public LiveStatisticsServiceImpl(ClinicCalendar clinicCalendar, SimpMessagingTemplate messagingTemplate) {
+        this.clinicCalendar = clinicCalendar;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @Override
+    public long beginSeed(String doctorId) {
+        return changeCounter(doctorId).get();
+    }
+
+    /**
+     * Installs the snapshot first and checks the counter second: a change that slips in between
+     * either bumps the counter before the check, and the snapshot is withdrawn, or finds the
+     * snapshot already in place and is applied to it.
+     */
+    @Override
+    public boolean seed(String doctorId, int dayKey, DoctorStatisticsDTO statistics, long changesBefore) {
+        LiveStatisticsSnapshot snapshot = new LiveStatisticsSnapshot(dayKey,
+                valueOf(statistics.getTotalAppointment()),
+                valueOf(statistics.getTotalUntreatedAppointmentAndNotAvailable()),
+                valueOf(statistics.getTotalTreatedAppointment()),
+                valueOf(statistics.getTotalAvailableAtClinic()));
+        snapshots.put(doctorId, snapshot);
+        if (changeCounter(doctorId).get() != changesBefore) {
+            snapshots.remove(doctorId, snapshot);
+            logger.debug("Live statistics seed discarded, appointments changed during read: doctorId: {}", doctorId);
+            return false;
+        }
+        return true;
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        String doctorId = event.doctorId();
+        int today = clinicCalendar.today(doctorId);
+        int[] delta = contribution(event.after(), today);
+        if (!event.isNew()) {
+            int[] previous = contribution(event.before(), today);
+            for (int i = 0; i < delta.length; i++) {
+                delta[i] -= previous[i];
+            }
+        }
+        if (delta[0] == 0 && delta[1] == 0 && delta[2] == 0 && delta[3] == 0) {
+            return;
+        }
+        changeCounter(doctorId).incrementAndGet();
+        LiveStatisticsSnapshot snapshot = snapshots.get(doctorId);
+        if (snapshot == null) {
+            return;
+        }
+        if (snapshot.dayKey() != today) {
+            snapshots.remove(doctorId, snapshot);
+            return;
+        }
+        snapshot.add(delta[0], delta[1], delta[2], delta[3]);
+        LiveStatisticsDTO payload = new LiveStatisticsDTO(ClinicCalendar.formatDayKey(today),
+                snapshot.total(), snapshot.untreatedNotAvailable(), snapshot.treated(), snapshot.availableAtClinic());
+        messagingTemplate.convertAndSend("/topic/appointments/" + doctorId,
+                WebsocketResponseDTO.<LiveStatisticsDTO>builderGeneric()
+                        .type(WebSocketResponseType.STATISTICS)
+                        .payload(payload)
+                        .build());
+        logger.debug("Live statistics pushed: doctorId: {}, total: {}, treated: {}",
+                doctorId, payload.getTotalAppointment(), payload.getTotalTreatedAppointment());
+    }
+
+    private AtomicLong changeCounter(String doctorId) {
+        return changeCounts.computeIfAbsent(doctorId, key -> new AtomicLong());
+    }
+
+    private static int[] contribution(AppointmentEntity appointment, int today) {
+        if (appointment == null || appointment.getDayKey() == null || appointment.getDayKey() != today) {
+            return new int[4];
+        }
+        boolean treated = Boolean.TRUE.equals(appointment.getTreated());
+        boolean atClinic = Boolean.TRUE.equals(appointment.getAvailableAtClinic());
+        return new int[]{
+                1,
+                !treated && !atClinic ? 1 : 0,
+                treated ? 1 : 0,
+                !treated && atClinic ? 1 : 0
+        };
+    }
+
+    private static int valueOf(Integer counter) {
+        return counter == null ? 0 : counter;
+    }
+}
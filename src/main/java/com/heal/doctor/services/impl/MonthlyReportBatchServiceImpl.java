@@ -0,0 +1,331 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.models.DoctorDailyStatsEntity;
+import com.heal.doctor.models.DoctorEntity;
+import com.heal.doctor.models.JobWatermarkEntity;
+import com.heal.doctor.models.MonthlyReportDeliveryEntity;
+import com.heal.doctor.repositories.AppointmentArchiveRepository;
+import com.heal.doctor.repositories.DoctorRepository;
+import com.heal.doctor.services.IDoctorReports;
+import com.heal.doctor.services.IEmailService;
+import com.heal.doctor.services.IMonthlyReportBatchService;
+import com.heal.doctor.services.IReportCacheService;
+import com.heal.doctor.utils.ClinicCalendar;
+import com.heal.doctor.utils.ReportDateRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pre-renders last month's report for every doctor who had appointments in it, so the reports
+ * are already in the report cache when doctors ask for them on the 1st, and emails each one.
+ * At most {@code reports.monthly.parallelism} doctors are in flight, new doctors are started
+ * {@code reports.monthly.doctor-pause-ms} apart to spread the Mongo load, and emails leave at
+ * most one per {@code reports.monthly.email-interval-ms} to stay under the SMTP relay's limits.
+ * <p>
+ * Each delivered doctor leaves a marker in {@code monthly_report_deliveries}, so a run that is
+ * cut short, or a doctor whose clinic day has not yet rolled into the new month, is picked up
+ * by the next trigger without emailing anyone twice. The job watermark holds the last month
+ * every doctor was delivered for; each trigger works forward from the month after it, so a
+ * month left unfinished is completed before a newer one is marked done.
+ * <p>
+ * A doctor whose report fails is retried with a doubling backoff starting at an hour, counted on
+ * the same marker; after {@code reports.monthly.max-attempts} failures the batch gives up on the
+ * doctor, so one broken report cannot hold the month open and be re-sent every trigger.
+ */
+@Service
+public class MonthlyReportBatchServiceImpl implements IMonthlyReportBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonthlyReportBatchServiceImpl.class);
+    private static final String JOB_NAME = "monthly-report-batch";
+    private static final String APPOINTMENTS_COLLECTION = "appointments";
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final DateTimeFormatter DISPLAY_FORMATTER = DateTimeFormatter.ofPattern("MMMM yyyy");
+    private static final long DELIVERY_RETENTION_DAYS = 90;
+    // Older months are not worth mailing out; also keeps every month inside the marker retention.
+    private static final int MAX_CATCH_UP_MONTHS = 2;
+    private static final long RETRY_BACKOFF_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final DoctorRepository doctorRepository;
+    private final ClinicCalendar clinicCalendar;
+    private final IDoctorReports doctorReports;
+    private final IReportCacheService reportCacheService;
+    private final IEmailService emailService;
+    private final TaskExecutor reportBatchTaskExecutor;
+    private final int parallelism;
+    private final long doctorPauseMillis;
+    private final long emailIntervalMillis;
+    private final int maxAttempts;
+    private long nextEmailAt;
+
+    public MonthlyReportBatchServiceImpl(MongoTemplate mongoTemplate,
+                                         DoctorRepository doctorRepository,
+                                         ClinicCalendar clinicCalendar,
+                                         IDoctorReports doctorReports,
+                                         IReportCacheService reportCacheService,
+                                         IEmailService emailService,
+                                         @Qualifier("reportBatchTaskExecutor") TaskExecutor reportBatchTaskExecutor,
+                                         @Value("${reports.monthly.parallelism}") int parallelism,
+                                         @Value("${reports.monthly.doctor-pause-ms}") long doctorPauseMillis,
+                                         @Value("${reports.monthly.email-interval-ms}") long emailIntervalMillis,
+                                         @Value("${reports.monthly.max-attempts}") int maxAttempts) {
+        this.mongoTemplate = mongoTemplate;
+        this.doctorRepository = doctorRepository;
+        this.clinicCalendar = clinicCalendar;
+        this.doctorReports = doctorReports;
+        this.reportCacheService = reportCacheService;
+        this.emailService = emailService;
+        this.reportBatchTaskExecutor = reportBatchTaskExecutor;
+        this.parallelism = parallelism;
+        this.doctorPauseMillis = doctorPauseMillis;
+        this.emailIntervalMillis = emailIntervalMillis;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public int runMonthlyBatch() {
+        ZoneId zone = clinicCalendar.defaultZone();
+        YearMonth lastMonth = YearMonth.now(zone).minusMonths(1);
+        YearMonth month = lastMonth.minusMonths(MAX_CATCH_UP_MONTHS - 1);
+        JobWatermarkEntity watermark = mongoTemplate.findById(JOB_NAME, JobWatermarkEntity.class);
+        if (watermark != null) {
+            YearMonth next = YearMonth.from(watermark.getWatermark().toInstant().atZone(zone)).plusMonths(1);
+            if (next.isAfter(month)) {
+                month = next;
+            }
+        }
+
+        int delivered = 0;
+        for (; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            MonthResult result = runMonth(month, zone);
+            delivered += result.delivered();
+            if (!result.complete()) {
+                break;
+            }
+            mongoTemplate.save(JobWatermarkEntity.builder()
+                    .id(JOB_NAME)
+                    .watermark(Date.from(month.atDay(1).atStartOfDay(zone).toInstant()))
+                    .updatedAt(new Date())
+                    .build());
+        }
+        return delivered;
+    }
+
+    private MonthResult runMonth(YearMonth month, ZoneId zone) {
+        String monthKey = month.format(MONTH_FORMATTER);
+        Map<String, MonthlyReportDeliveryEntity> markers = mongoTemplate.find(
+                        Query.query(Criteria.where("month").is(monthKey)), MonthlyReportDeliveryEntity.class).stream()
+                .collect(Collectors.toMap(MonthlyReportDeliveryEntity::getDoctorId, Function.identity(), (first, second) -> first));
+        List<String> pending = pendingDoctors(month, markers);
+        logger.info("Monthly report batch started: month: {}, pendingDoctors: {}", monthKey, pending.size());
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicInteger delivered = new AtomicInteger();
+        AtomicInteger deferred = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger abandoned = new AtomicInteger();
+        try {
+            for (String doctorId : pending) {
+                MonthlyReportDeliveryEntity marker = markers.get(doctorId);
+                if (marker != null && marker.getNextAttemptAt() != null
+                        && marker.getNextAttemptAt().getTime() > System.currentTimeMillis()) {
+                    deferred.incrementAndGet();
+                    continue;
+                }
+                permits.acquire();
+                try {
+                    reportBatchTaskExecutor.execute(() -> {
+                        try {
+                            switch (deliver(doctorId, month, monthKey, marker)) {
+                                case DELIVERED -> delivered.incrementAndGet();
+                                case DEFERRED -> deferred.incrementAndGet();
+                                case FAILED -> failed.incrementAndGet();
+                                case ABANDONED -> abandoned.incrementAndGet();
+                            }
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (TaskRejectedException e) {
+                    permits.release();
+                    failed.incrementAndGet();
+                    logger.warn("Monthly report rejected by executor: doctorId: {}, month: {}", doctorId, monthKey);
+                }
+                Thread.sleep(doctorPauseMillis);
+            }
+            permits.acquire(parallelism);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Monthly report batch interrupted: month: {}, delivered: {}", monthKey, delivered.get());
+            return new MonthResult(delivered.get(), false);
+        }
+
+        logger.info("Monthly report batch finished: month: {}, delivered: {}, deferred: {}, failed: {}, abandoned: {}",
+                monthKey, delivered.get(), deferred.get(), failed.get(), abandoned.get());
+        return new MonthResult(delivered.get(), deferred.get() == 0 && failed.get() == 0);
+    }
+
+    /**
+     * Doctors with appointments in the month, taken from the appointments themselves, archive
+     * included, as well as from the rollups, so a day whose rollup is missing still counts. Day
+     * keys are already in each doctor's clinic zone, so the month's range is exact for everyone.
+     * Doctors already delivered or given up on are left out.
+     */
+    private List<String> pendingDoctors(YearMonth month, Map<String, MonthlyReportDeliveryEntity> markers) {
+        int fromDayKey = (int) month.atDay(1).toEpochDay();
+        int toDayKey = (int) month.atEndOfMonth().toEpochDay();
+        Query inMonth = Query.query(Criteria.where("dayKey").gte(fromDayKey).lte(toDayKey));
+        Set<String> doctorIds = new TreeSet<>(mongoTemplate.findDistinct(
+                Query.query(Criteria.where("dayKey").gte(fromDayKey).lte(toDayKey).and("total").gt(0)),
+                "doctorId", DoctorDailyStatsEntity.class, String.class));
+        doctorIds.addAll(mongoTemplate.findDistinct(inMonth, "doctorId", APPOINTMENTS_COLLECTION, String.class));
+        doctorIds.addAll(mongoTemplate.findDistinct(inMonth, "doctorId", AppointmentArchiveRepository.ARCHIVE_COLLECTION, String.class));
+        return doctorIds.stream().filter(doctorId -> {
+            MonthlyReportDeliveryEntity marker = markers.get(doctorId);
+            return marker == null || (marker.getDeliveredAt() == null && marker.getFailedAt() == null);
+        }).toList();
+    }
+
+    private Outcome deliver(String doctorId, YearMonth month, String monthKey, MonthlyReportDeliveryEntity marker) {
+        if (clinicCalendar.today(doctorId) <= month.atEndOfMonth().toEpochDay()) {
+            return Outcome.DEFERRED;
+        }
+        try {
+            Optional<DoctorEntity> doctor = doctorRepository.findByDoctorId(doctorId);
+            if (doctor.isEmpty() || doctor.get().getEmail() == null) {
+                logger.warn("Monthly report skipped, no doctor email: doctorId: {}, month: {}", doctorId, monthKey);
+                markDelivered(doctorId, monthKey, null, false);
+                return Outcome.DELIVERED;
+            }
+
+            ReportDateRange range = new ReportDateRange(month.atDay(1).toString(), month.atEndOfMonth().toString());
+            Optional<String> cacheKey = reportCacheService.cacheKey(doctorId, range);
+            Optional<Path> cached = cacheKey.flatMap(reportCacheService::find);
+            Long rows = null;
+            byte[] pdfBytes;
+            if (cached.isPresent()) {
+                pdfBytes = Files.readAllBytes(cached.get());
+            } else {
+                Path rendered = Files.createTempFile("monthly-report-", ".pdf");
+                try {
+                    try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(rendered))) {
+                        rows = doctorReports.writeDoctorReport(doctorId, range, outputStream);
+                    }
+                    cacheKey.ifPresent(key -> reportCacheService.store(key, rendered));
+                    pdfBytes = Files.readAllBytes(rendered);
+                } finally {
+                    Files.deleteIfExists(rendered);
+                }
+            }
+
+            awaitEmailSlot();
+            emailService.sendSimpleEmailWithAttachment(
+                    doctor.get().getEmail(),
+                    "Monthly Appointment Report - " + month.format(DISPLAY_FORMATTER),
+                    "Please find your appointment report for " + month.format(DISPLAY_FORMATTER) + " attached.",
+                    pdfBytes,
+                    "appointment-report-" + monthKey + ".pdf",
+                    "application/pdf"
+            ).join();
+            markDelivered(doctorId, monthKey, rows, cached.isPresent());
+            return Outcome.DELIVERED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.FAILED;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Monthly report failed: doctorId: {}, month: {}, error: {}", doctorId, monthKey, e.getMessage(), e);
+            return recordFailure(doctorId, monthKey, marker, e);
+        }
+    }
+
+    /**
+     * Counts the failure on the doctor's marker and either schedules the next attempt or, once
+     * {@code maxAttempts} is reached, gives up on the doctor for the month.
+     */
+    private Outcome recordFailure(String doctorId, String monthKey, MonthlyReportDeliveryEntity marker, Exception error) {
+        int attempts = (marker == null || marker.getAttempts() == null ? 0 : marker.getAttempts()) + 1;
+        Date now = new Date();
+        boolean abandon = attempts >= maxAttempts;
+        try {
+            mongoTemplate.save(MonthlyReportDeliveryEntity.builder()
+                    .id(MonthlyReportDeliveryEntity.idFor(monthKey, doctorId))
+                    .month(monthKey)
+                    .doctorId(doctorId)
+                    .attempts(attempts)
+                    .nextAttemptAt(abandon ? null : new Date(now.getTime() + (RETRY_BACKOFF_MILLIS << Math.min(attempts - 1, 16))))
+                    .failedAt(abandon ? now : null)
+                    .lastError(error.getMessage())
+                    .expireAt(new Date(now.getTime() + TimeUnit.DAYS.toMillis(DELIVERY_RETENTION_DAYS)))
+                    .build());
+        } catch (RuntimeException e) {
+            logger.warn("Monthly report failure not recorded: doctorId: {}, month: {}, error: {}", doctorId, monthKey, e.getMessage());
+            return Outcome.FAILED;
+        }
+        if (abandon) {
+            logger.error("Monthly report abandoned: doctorId: {}, month: {}, attempts: {}", doctorId, monthKey, attempts);
+            return Outcome.ABANDONED;
+        }
+        return Outcome.FAILED;
+    }
+
+    private void markDelivered(String doctorId, String monthKey, Long rows, boolean cached) {
+        Date now = new Date();
+        mongoTemplate.save(MonthlyReportDeliveryEntity.builder()
+                .id(MonthlyReportDeliveryEntity.idFor(monthKey, doctorId))
+                .month(monthKey)
+                .doctorId(doctorId)
+                .rows(rows)
+                .cached(cached)
+                .deliveredAt(now)
+                .expireAt(new Date(now.getTime() + TimeUnit.DAYS.toMillis(DELIVERY_RETENTION_DAYS)))
+                .build());
+    }
+
+    /**
+     * Spaces emails out across all workers; the lock is held while waiting on purpose.
+     */
+    private synchronized void awaitEmailSlot() throws InterruptedException {
+        long wait = nextEmailAt - System.currentTimeMillis();
+        if (wait > 0) {
+            Thread.sleep(wait);
+        }
+        nextEmailAt = System.currentTimeMillis() + emailIntervalMillis;
+    }
+
+    private record MonthResult(int delivered, boolean complete) {
+    }
+
+    private enum Outcome {
+        DELIVERED,
+        DEFERRED,
+        FAILED,
+        ABANDONED
+    }
+}
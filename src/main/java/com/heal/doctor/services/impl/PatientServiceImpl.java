@@ -0,0 +1,174 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.dto.AppointmentDTO;
+import com.heal.doctor.dto.PatientSummaryDTO;
+import com.heal.doctor.events.AppointmentChangedEvent;
+import com.heal.doctor.exception.ValidationException;
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.models.enums.AppointmentChangeType;
+import com.heal.doctor.repositories.AppointmentArchiveRepository;
+import com.heal.doctor.repositories.AppointmentRepository;
+import com.heal.doctor.services.IPatientService;
+import com.heal.doctor.utils.CurrentUserName;
+import com.heal.doctor.utils.LruTtlCache;
+import com.heal.doctor.utils.PatientNames;
+import com.heal.doctor.utils.PatientPrefixIndex;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Service
+public class PatientServiceImpl implements IPatientService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientServiceImpl.class);
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final int MAX_HISTORY_RESULTS = 200;
+    private static final int FALLBACK_SCAN_FACTOR = 5;
+    private static final String DIGITS_PATTERN = "^\\d+$";
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentArchiveRepository appointmentArchiveRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ModelMapper modelMapper;
+    private final long recentWindowMillis;
+    private final LruTtlCache<String, PatientPrefixIndex> doctorIndexes;
+
+    public PatientServiceImpl(AppointmentRepository appointmentRepository,
+                              AppointmentArchiveRepository appointmentArchiveRepository,
+                              MongoTemplate mongoTemplate,
+                              ModelMapper modelMapper,
+                              @Value("${patients.index.recent-days}") int recentDays,
+                              @Value("${patients.index.max-doctors}") int maxDoctors,
+                              @Value("${patients.index.refresh-minutes}") int refreshMinutes) {
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentArchiveRepository = appointmentArchiveRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.modelMapper = modelMapper;
+        this.recentWindowMillis = TimeUnit.DAYS.toMillis(recentDays);
+        this.doctorIndexes = new LruTtlCache<>(maxDoctors, TimeUnit.MINUTES.toMillis(refreshMinutes));
+    }
+
+    @Override
+    public List<PatientSummaryDTO> searchPatients(String query, int limit) {
+        String doctorId = CurrentUserName.getCurrentDoctorId();
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Search query is required.");
+        }
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        String trimmed = query.trim();
+        boolean contactSearch = trimmed.matches(DIGITS_PATTERN);
+        String prefix = contactSearch ? trimmed : PatientNames.normalize(trimmed);
+        if (prefix.isEmpty()) {
+            throw new ValidationException("Search query must contain letters or digits.");
+        }
+        logger.debug("Searching patients: doctorId: {}, prefix: {}, byContact: {}", doctorId, prefix, contactSearch);
+
+        PatientPrefixIndex index = getOrLoadIndex(doctorId);
+        List<PatientSummaryDTO> matches = contactSearch
+                ? index.searchByContact(prefix, boundedLimit)
+                : index.searchByName(prefix, boundedLimit);
+
+        if (matches.size() < boundedLimit) {
+            matches = mergeWithOlderPatients(doctorId, prefix, contactSearch, matches, boundedLimit);
+        }
+        logger.debug("Patient search completed: doctorId: {}, prefix: {}, results: {}", doctorId, prefix, matches.size());
+        return matches;
+    }
+
+    @Override
+    public List<AppointmentDTO> getVisitHistory(String contact, int limit) {
+        String doctorId = CurrentUserName.getCurrentDoctorId();
+        if (contact == null || !contact.trim().matches(DIGITS_PATTERN)) {
+            throw new ValidationException("Contact number must contain only digits.");
+        }
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_HISTORY_RESULTS));
+        logger.debug("Fetching visit history: doctorId: {}, contact: {}, limit: {}", doctorId, contact, boundedLimit);
+        List<AppointmentEntity> visits = new ArrayList<>(appointmentRepository.findByDoctorIdAndContactOrderByAppointmentDateTimeDesc(
+                doctorId, contact.trim(), PageRequest.of(0, boundedLimit)));
+        if (visits.size() < boundedLimit) {
+            Set<String> seen = visits.stream().map(AppointmentEntity::getId).collect(Collectors.toSet());
+            appointmentArchiveRepository.findByDoctorIdAndContact(doctorId, contact.trim(), boundedLimit).stream()
+                    .filter(appointment -> seen.add(appointment.getId()))
+                    .limit(boundedLimit - visits.size())
+                    .forEach(visits::add);
+        }
+        return visits.stream()
+                .map(appointment -> modelMapper.map(appointment, AppointmentDTO.class))
+                .collect(Collectors.toList());
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (event.changeType() == AppointmentChangeType.BOOKED) {
+            recordVisit(event.after());
+        }
+    }
+
+    @Override
+    public void recordVisit(AppointmentEntity appointment) {
+        PatientPrefixIndex index = doctorIndexes.get(appointment.getDoctorId());
+        if (index != null) {
+            index.record(appointment.getPatientName(), appointment.getContact(), appointment.getAppointmentDateTime());
+        }
+    }
+
+    private PatientPrefixIndex getOrLoadIndex(String doctorId) {
+        PatientPrefixIndex index = doctorIndexes.get(doctorId);
+        if (index != null) {
+            return index;
+        }
+        Query query = Query.query(Criteria.where("doctorId").is(doctorId)
+                .and("appointmentDateTime").gte(new Date(System.currentTimeMillis() - recentWindowMillis)));
+        query.fields().include("patientName", "contact", "appointmentDateTime");
+
+        PatientPrefixIndex loaded = new PatientPrefixIndex();
+        mongoTemplate.find(query, AppointmentEntity.class)
+                .forEach(appointment -> loaded.record(
+                        appointment.getPatientName(), appointment.getContact(), appointment.getAppointmentDateTime()));
+        doctorIndexes.put(doctorId, loaded);
+        logger.info("Patient prefix index loaded: doctorId: {}, patients: {}", doctorId, loaded.size());
+        return loaded;
+    }
+
+    private List<PatientSummaryDTO> mergeWithOlderPatients(String doctorId, String prefix, boolean contactSearch,
+                                                           List<PatientSummaryDTO> recentMatches, int limit) {
+        String field = contactSearch ? "contact" : "normalizedPatientName";
+        Query query = Query.query(Criteria.where("doctorId").is(doctorId).and(field).regex("^" + prefix))
+                .with(Sort.by(Sort.Direction.DESC, "appointmentDateTime"))
+                .limit(limit * FALLBACK_SCAN_FACTOR);
+        query.fields().include("patientName", "contact", "appointmentDateTime");
+
+        Map<String, PatientSummaryDTO> merged = new LinkedHashMap<>();
+        recentMatches.forEach(summary -> merged.put(patientKey(summary.getPatientName(), summary.getContact()), summary));
+        for (AppointmentEntity appointment : mongoTemplate.find(query, AppointmentEntity.class)) {
+            if (merged.size() >= limit) {
+                break;
+            }
+            merged.computeIfAbsent(patientKey(appointment.getPatientName(), appointment.getContact()),
+                    key -> new PatientSummaryDTO(appointment.getPatientName(), appointment.getContact(),
+                            appointment.getAppointmentDateTime(), null));
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    private String patientKey(String patientName, String contact) {
+        return contact + ":" + PatientNames.normalize(patientName);
+    }
+}
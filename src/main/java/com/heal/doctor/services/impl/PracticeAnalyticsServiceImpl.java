@@ -0,0 +1,417 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.dto.AnalyticsBucketDTO;
+import com.heal.doctor.exception.ValidationException;
+import com.heal.doctor.models.AnalyticsBucketEntity;
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.models.JobWatermarkEntity;
+import com.heal.doctor.models.enums.AnalyticsGranularity;
+import com.heal.doctor.models.enums.AppointmentStatus;
+import com.heal.doctor.repositories.AnalyticsBucketRepository;
+import com.heal.doctor.repositories.AppointmentArchiveRepository;
+import com.heal.doctor.services.IPracticeAnalyticsService;
+import com.heal.doctor.utils.ClinicCalendar;
+import com.heal.doctor.utils.CurrentUserName;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Weekly and monthly practice analytics kept in {@code analytics_buckets}. Each run reads only the
+ * appointments whose {@code lastModifiedAt} moved past the persisted watermark, works out which
+ * buckets they fall in, and recomputes just those buckets from per-day counts. Recomputing is
+ * idempotent, so the watermark is read back with a small overlap to cover writes that committed
+ * late. The first run has no watermark and rebuilds every doctor's history.
+ */
+@Service
+public class PracticeAnalyticsServiceImpl implements IPracticeAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PracticeAnalyticsServiceImpl.class);
+    private static final String JOB_NAME = "practice-analytics-rollup";
+    private static final int MAX_RANGE_DAYS = 366 * 5;
+    private static final int DEFAULT_RANGE_MONTHS = 12;
+    // Epoch day 4 (1970-01-05) is a Monday.
+    private static final int EPOCH_MONDAY = 4;
+
+    private final MongoTemplate mongoTemplate;
+    private final AnalyticsBucketRepository bucketRepository;
+    private final AppointmentArchiveRepository appointmentArchiveRepository;
+    private final ClinicCalendar clinicCalendar;
+    private final long overlapMillis;
+    private final long doctorPauseMillis;
+
+    public PracticeAnalyticsServiceImpl(MongoTemplate mongoTemplate,
+                                        AnalyticsBucketRepository bucketRepository,
+                                        AppointmentArchiveRepository appointmentArchiveRepository,
+                                        ClinicCalendar clinicCalendar,
+                                        @Value("${analytics.rollup.overlap-seconds}") long overlapSeconds,
+                                        @Value("${analytics.rollup.doctor-pause-ms}") long doctorPauseMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.bucketRepository = bucketRepository;
+        this.appointmentArchiveRepository = appointmentArchiveRepository;
+        this.clinicCalendar = clinicCalendar;
+        this.overlapMillis = TimeUnit.SECONDS.toMillis(overlapSeconds);
+        this.doctorPauseMillis = doctorPauseMillis;
+    }
+
+    @Override
+    public List<AnalyticsBucketDTO> getBuckets(String granularity, String fromDate, String toDate) {
+        String doctorId = CurrentUserName.getCurrentDoctorId();
+        AnalyticsGranularity resolved = parseGranularity(granularity);
+        int today = clinicCalendar.today(doctorId);
+        int toDayKey = toDate == null || toDate.isBlank() ? today : parseDay(toDate);
+        int fromDayKey = fromDate == null || fromDate.isBlank()
+                ? (int) LocalDate.ofEpochDay(toDayKey).minusMonths(DEFAULT_RANGE_MONTHS).withDayOfMonth(1).toEpochDay()
+                : parseDay(fromDate);
+        if (fromDayKey > toDayKey) {
+            throw new ValidationException("From date must not be after to date.");
+        }
+        if (toDayKey - fromDayKey > MAX_RANGE_DAYS) {
+            throw new ValidationException("Analytics range must not exceed five years.");
+        }
+        logger.debug("Fetching practice analytics: doctorId: {}, granularity: {}, fromDayKey: {}, toDayKey: {}",
+                doctorId, resolved, fromDayKey, toDayKey);
+        return bucketRepository.findOverlapping(doctorId, resolved, fromDayKey, toDayKey).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int rollup() {
+        Date runStartedAt = new Date();
+        JobWatermarkEntity watermark = mongoTemplate.findById(JOB_NAME, JobWatermarkEntity.class);
+        int written = 0;
+        try {
+            if (watermark == null) {
+                // Doctors whose appointments have all been archived still need their history.
+                Set<String> doctorIds = new TreeSet<>(mongoTemplate.findDistinct(new Query(), "doctorId", AppointmentEntity.class, String.class));
+                doctorIds.addAll(mongoTemplate.findDistinct(new Query(), "doctorId",
+                        AppointmentArchiveRepository.ARCHIVE_COLLECTION, String.class));
+                logger.info("No analytics watermark found, rebuilding all doctors: doctors: {}", doctorIds.size());
+                for (String doctorId : doctorIds) {
+                    written += rebuildDoctor(doctorId);
+                    Thread.sleep(doctorPauseMillis);
+                }
+            } else {
+                Map<String, Set<Integer>> changedDays = findChangedDays(
+                        new Date(watermark.getWatermark().getTime() - overlapMillis), runStartedAt);
+                for (Map.Entry<String, Set<Integer>> entry : changedDays.entrySet()) {
+                    written += recomputeBuckets(entry.getKey(), entry.getValue());
+                    Thread.sleep(doctorPauseMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Analytics rollup interrupted before advancing the watermark: bucketsWritten: {}", written);
+            return written;
+        }
+        mongoTemplate.save(JobWatermarkEntity.builder()
+                .id(JOB_NAME)
+                .watermark(runStartedAt)
+                .updatedAt(new Date())
+                .build());
+        return written;
+    }
+
+    private Map<String, Set<Integer>> findChangedDays(Date since, Date until) {
+        Query query = Query.query(Criteria.where("lastModifiedAt").gt(since).lte(until));
+        query.fields().include("doctorId", "dayKey", "appointmentDateTime", "bookingDateTime");
+        Map<String, Set<Integer>> changedDays = new HashMap<>();
+        try (Stream<AppointmentEntity> changed = mongoTemplate.stream(query, AppointmentEntity.class)) {
+            changed.filter(appointment -> appointment.getDoctorId() != null).forEach(appointment -> {
+                Integer dayKey = dayKeyOf(appointment.getDoctorId(), appointment);
+                if (dayKey != null) {
+                    changedDays.computeIfAbsent(appointment.getDoctorId(), id -> new HashSet<>()).add(dayKey);
+                }
+            });
+        }
+        return changedDays;
+    }
+
+    private int rebuildDoctor(String doctorId) {
+        Map<Integer, DayCounts> days = new TreeMap<>();
+        mergeDayCounts(days, countByDay(doctorId, null, null, true));
+        mergeUnkeyed(days, doctorId, null, null, true);
+        Set<BucketKey> buckets = new HashSet<>();
+        for (Integer dayKey : days.keySet()) {
+            buckets.add(weekOf(dayKey));
+            buckets.add(monthOf(dayKey));
+        }
+        return writeBuckets(doctorId, buckets, days);
+    }
+
+    private int recomputeBuckets(String doctorId, Collection<Integer> changedDays) {
+        Set<BucketKey> buckets = new HashSet<>();
+        for (Integer dayKey : changedDays) {
+            buckets.add(weekOf(dayKey));
+            buckets.add(monthOf(dayKey));
+        }
+        int from = buckets.stream().mapToInt(BucketKey::startDayKey).min().orElseThrow();
+        int to = buckets.stream().mapToInt(BucketKey::endDayKey).max().orElseThrow();
+        Map<Integer, DayCounts> days = new TreeMap<>();
+        boolean includeArchive = appointmentArchiveRepository.mayContain(doctorId, from);
+        mergeDayCounts(days, countByDay(doctorId, from, to, includeArchive));
+        mergeUnkeyed(days, doctorId, from, to, includeArchive);
+        return writeBuckets(doctorId, buckets, days);
+    }
+
+    private int writeBuckets(String doctorId, Set<BucketKey> buckets, Map<Integer, DayCounts> days) {
+        if (buckets.isEmpty()) {
+            return 0;
+        }
+        Date now = new Date();
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AnalyticsBucketEntity.class);
+        for (BucketKey bucket : buckets) {
+            DayCounts sum = new DayCounts();
+            int[] weekdayVisits = new int[7];
+            for (int dayKey = bucket.startDayKey(); dayKey <= bucket.endDayKey(); dayKey++) {
+                DayCounts day = days.get(dayKey);
+                if (day != null) {
+                    sum.add(day);
+                    weekdayVisits[weekdayIndex(dayKey)] += day.total - day.cancelled;
+                }
+            }
+            Update update = new Update()
+                    .set("doctorId", doctorId)
+                    .set("granularity", bucket.granularity())
+                    .set("startDayKey", bucket.startDayKey())
+                    .set("endDayKey", bucket.endDayKey())
+                    .set("label", bucket.label())
+                    .set("total", sum.total)
+                    .set("cancelled", sum.cancelled)
+                    .set("treated", sum.treated)
+                    .set("emergency", sum.emergency)
+                    .set("paid", sum.paid)
+                    .set("weekdayVisits", Arrays.stream(weekdayVisits).boxed().toList())
+                    .set("updatedAt", now);
+            bulkOperations.upsert(Query.query(Criteria.where("_id")
+                    .is(AnalyticsBucketEntity.idFor(doctorId, bucket.granularity(), bucket.startDayKey()))), update);
+        }
+        bulkOperations.execute();
+        logger.debug("Analytics buckets written: doctorId: {}, buckets: {}", doctorId, buckets.size());
+        return buckets.size();
+    }
+
+    /**
+     * With the archive included it is unioned in and rows are collapsed by _id first, so a batch
+     * caught mid-archival, present in both collections, is counted once; the hot copy comes first
+     * in the union and wins.
+     */
+    private List<Document> countByDay(String doctorId, Integer fromDayKey, Integer toDayKey, boolean includeArchive) {
+        Criteria criteria = Criteria.where("doctorId").is(doctorId);
+        if (fromDayKey != null) {
+            criteria = criteria.and("dayKey").gte(fromDayKey).lte(toDayKey);
+        } else {
+            criteria = criteria.and("dayKey").ne(null);
+        }
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(criteria));
+        if (includeArchive) {
+            stages.add(UnionWithOperation.unionWith(AppointmentArchiveRepository.ARCHIVE_COLLECTION)
+                    .pipeline(Aggregation.match(criteria)));
+            stages.add(Aggregation.group("_id")
+                    .first("dayKey").as("dayKey")
+                    .first("status").as("status")
+                    .first("treated").as("treated")
+                    .first("isEmergency").as("isEmergency")
+                    .first("paymentStatus").as("paymentStatus"));
+        }
+        stages.add(Aggregation.group("dayKey")
+                        .count().as("total")
+                        .sum(countWhen(Criteria.where("status").is(AppointmentStatus.CANCELLED.name()))).as("cancelled")
+                        .sum(countWhen(Criteria.where("treated").is(true))).as("treated")
+                        .sum(countWhen(Criteria.where("isEmergency").is(true))).as("emergency")
+                        .sum(countWhen(Criteria.where("paymentStatus").is(true))).as("paid"));
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages),
+                mongoTemplate.getCollectionName(AppointmentEntity.class), Document.class).getMappedResults();
+    }
+
+    private void mergeDayCounts(Map<Integer, DayCounts> days, List<Document> rows) {
+        for (Document row : rows) {
+            DayCounts counts = days.computeIfAbsent(((Number) row.get("_id")).intValue(), dayKey -> new DayCounts());
+            counts.total += ((Number) row.get("total")).intValue();
+            counts.cancelled += ((Number) row.get("cancelled")).intValue();
+            counts.treated += ((Number) row.get("treated")).intValue();
+            counts.emergency += ((Number) row.get("emergency")).intValue();
+            counts.paid += ((Number) row.get("paid")).intValue();
+        }
+    }
+
+    /**
+     * Appointments still without a dayKey, which the archive can hold from before the field
+     * existed, are bucketed from their appointment time instead of being left out. Archived rows
+     * that still have a hot copy are skipped, as the hot copy is already counted.
+     */
+    private void mergeUnkeyed(Map<Integer, DayCounts> days, String doctorId, Integer fromDayKey, Integer toDayKey,
+                              boolean includeArchive) {
+        Query query = Query.query(Criteria.where("doctorId").is(doctorId).and("dayKey").is(null));
+        query.fields().include("appointmentDateTime", "bookingDateTime", "status", "treated", "isEmergency", "paymentStatus");
+        mergeUnkeyed(days, doctorId, fromDayKey, toDayKey, mongoTemplate.stream(query, AppointmentEntity.class));
+        if (includeArchive) {
+            mergeUnkeyed(days, doctorId, fromDayKey, toDayKey, appointmentArchiveRepository.withoutHotCopies(
+                    mongoTemplate.stream(query, AppointmentEntity.class, AppointmentArchiveRepository.ARCHIVE_COLLECTION)));
+        }
+    }
+
+    private void mergeUnkeyed(Map<Integer, DayCounts> days, String doctorId, Integer fromDayKey, Integer toDayKey,
+                              Stream<AppointmentEntity> appointments) {
+        try (Stream<AppointmentEntity> unkeyed = appointments) {
+            unkeyed.forEach(appointment -> {
+                Integer dayKey = dayKeyOf(doctorId, appointment);
+                if (dayKey == null || (fromDayKey != null && (dayKey < fromDayKey || dayKey > toDayKey))) {
+                    return;
+                }
+                DayCounts counts = days.computeIfAbsent(dayKey, key -> new DayCounts());
+                counts.total++;
+                counts.cancelled += appointment.getStatus() == AppointmentStatus.CANCELLED ? 1 : 0;
+                counts.treated += Boolean.TRUE.equals(appointment.getTreated()) ? 1 : 0;
+                counts.emergency += Boolean.TRUE.equals(appointment.getIsEmergency()) ? 1 : 0;
+                counts.paid += Boolean.TRUE.equals(appointment.getPaymentStatus()) ? 1 : 0;
+            });
+        }
+    }
+
+    private Integer dayKeyOf(String doctorId, AppointmentEntity appointment) {
+        if (appointment.getDayKey() != null) {
+            return appointment.getDayKey();
+        }
+        Date reference = appointment.getAppointmentDateTime() != null
+                ? appointment.getAppointmentDateTime()
+                : appointment.getBookingDateTime();
+        return reference == null ? null : clinicCalendar.dayKey(doctorId, reference);
+    }
+
+    private ConditionalOperators.Cond countWhen(Criteria criteria) {
+        return ConditionalOperators.when(criteria).then(1).otherwise(0);
+    }
+
+    private AnalyticsBucketDTO toDTO(AnalyticsBucketEntity bucket) {
+        int total = valueOf(bucket.getTotal());
+        int cancelled = valueOf(bucket.getCancelled());
+        int visits = total - cancelled;
+        AnalyticsBucketDTO dto = new AnalyticsBucketDTO();
+        dto.setGranularity(bucket.getGranularity());
+        dto.setLabel(bucket.getLabel());
+        dto.setStartDate(ClinicCalendar.formatDayKey(bucket.getStartDayKey()));
+        dto.setEndDate(ClinicCalendar.formatDayKey(bucket.getEndDayKey()));
+        dto.setTotal(total);
+        dto.setVisits(visits);
+        dto.setCancelled(cancelled);
+        dto.setTreated(valueOf(bucket.getTreated()));
+        dto.setEmergency(valueOf(bucket.getEmergency()));
+        dto.setPaid(valueOf(bucket.getPaid()));
+        dto.setUnpaid(Math.max(0, visits - valueOf(bucket.getPaid())));
+        dto.setCancellationRate(total > 0 ? (double) cancelled / total * 100.0 : 0.0);
+        dto.setEmergencyShare(total > 0 ? (double) valueOf(bucket.getEmergency()) / total * 100.0 : 0.0);
+        dto.setWeekdayVisits(bucket.getWeekdayVisits());
+        dto.setBusiestWeekday(busiestWeekday(bucket.getWeekdayVisits()));
+        return dto;
+    }
+
+    private String busiestWeekday(List<Integer> weekdayVisits) {
+        if (weekdayVisits == null || weekdayVisits.isEmpty()) {
+            return null;
+        }
+        int busiest = 0;
+        for (int i = 1; i < weekdayVisits.size(); i++) {
+            if (weekdayVisits.get(i) > weekdayVisits.get(busiest)) {
+                busiest = i;
+            }
+        }
+        return weekdayVisits.get(busiest) > 0
+                ? DayOfWeek.of(busiest + 1).getDisplayName(TextStyle.FULL, Locale.ENGLISH)
+                : null;
+    }
+
+    private static BucketKey weekOf(int dayKey) {
+        int start = dayKey - weekdayIndex(dayKey);
+        LocalDate monday = LocalDate.ofEpochDay(start);
+        String label = String.format("%d-W%02d", monday.get(IsoFields.WEEK_BASED_YEAR), monday.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+        return new BucketKey(AnalyticsGranularity.WEEK, start, start + 6, label);
+    }
+
+    private static BucketKey monthOf(int dayKey) {
+        LocalDate date = LocalDate.ofEpochDay(dayKey);
+        LocalDate first = date.withDayOfMonth(1);
+        LocalDate last = date.withDayOfMonth(date.lengthOfMonth());
+        return new BucketKey(AnalyticsGranularity.MONTH, (int) first.toEpochDay(), (int) last.toEpochDay(),
+                String.format("%d-%02d", date.getYear(), date.getMonthValue()));
+    }
+
+    private static int weekdayIndex(int dayKey) {
+        return Math.floorMod(dayKey - EPOCH_MONDAY, 7);
+    }
+
+    private AnalyticsGranularity parseGranularity(String granularity) {
+        if (granularity == null || granularity.isBlank()) {
+            return AnalyticsGranularity.MONTH;
+        }
+        try {
+            return AnalyticsGranularity.valueOf(granularity.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Granularity must be WEEK or MONTH.");
+        }
+    }
+
+    private int parseDay(String date) {
+        try {
+            return ClinicCalendar.parseDayKey(date);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+    }
+
+    private static int valueOf(Integer counter) {
+        return counter == null ? 0 : counter;
+    }
+
+    private record BucketKey(AnalyticsGranularity granularity, int startDayKey, int endDayKey, String label) {
+    }
+
+    private static final class DayCounts {
+        private int total;
+        private int cancelled;
+        private int treated;
+        private int emergency;
+        private int paid;
+
+        private void add(DayCounts other) {
+            total += other.total;
+            cancelled += other.cancelled;
+            treated += other.treated;
+            emergency += other.emergency;
+            paid += other.paid;
+        }
+    }
+}
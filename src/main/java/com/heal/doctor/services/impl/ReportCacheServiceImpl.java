@@ -0,0 +1,228 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.events.AppointmentChangedEvent;
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.models.DoctorDataVersionEntity;
+import com.heal.doctor.models.DoctorEntity;
+import com.heal.doctor.services.IReportCacheService;
+import com.heal.doctor.utils.ClinicCalendar;
+import com.heal.doctor.utils.ReportDateRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Disk cache of rendered reports for closed date ranges. Entries are named by
+ * sha256(doctorId|from|to|profileVersion|dataVersion), where the data version is the doctor's
+ * change counters for the months the range covers and the profile version is the doctor's
+ * {@code updatedAt}, which the report header is drawn from. Any appointment write in those
+ * months or profile edit makes the old entry unreachable instead of having to find and delete
+ * it. Entries are evicted least recently used first once the directory passes
+ * {@code reports.cache.max-size-mb}; the index is rebuilt from file modification times on first
+ * use after a restart.
+ */
+@Service
+public class ReportCacheServiceImpl implements IReportCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportCacheServiceImpl.class);
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final String SUFFIX = ".pdf";
+
+    private final MongoTemplate mongoTemplate;
+    private final ClinicCalendar clinicCalendar;
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+    private boolean loaded;
+
+    public ReportCacheServiceImpl(MongoTemplate mongoTemplate,
+                                  ClinicCalendar clinicCalendar,
+                                  @Value("${reports.cache.directory}") String directory,
+                                  @Value("${reports.cache.max-size-mb}") long maxSizeMb) {
+        this.mongoTemplate = mongoTemplate;
+        this.clinicCalendar = clinicCalendar;
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        Set<String> months = new TreeSet<>();
+        addMonth(months, event.before());
+        addMonth(months, event.after());
+        if (months.isEmpty()) {
+            return;
+        }
+        Update update = new Update().set("updatedAt", new Date());
+        months.forEach(month -> update.inc("months." + month, 1));
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(event.doctorId())), update, DoctorDataVersionEntity.class);
+        } catch (DataAccessException e) {
+            logger.error("Failed to bump report data version: doctorId: {}, error: {}", event.doctorId(), e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Optional<String> cacheKey(String doctorId, ReportDateRange range) {
+        LocalDate from = LocalDate.parse(range.fromDate());
+        LocalDate to = LocalDate.parse(range.toDate());
+        if (to.toEpochDay() >= clinicCalendar.today(doctorId) || from.isAfter(to)) {
+            return Optional.empty();
+        }
+        DoctorDataVersionEntity versions = mongoTemplate.findById(doctorId, DoctorDataVersionEntity.class);
+        StringBuilder key = new StringBuilder(doctorId).append('|').append(range.fromDate()).append('|').append(range.toDate())
+                .append('|').append(profileVersion(doctorId));
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            String monthKey = month.format(MONTH_FORMATTER);
+            Long version = versions == null || versions.getMonths() == null ? null : versions.getMonths().get(monthKey);
+            key.append('|').append(monthKey).append('=').append(version == null ? 0 : version);
+        }
+        return Optional.of(sha256(key.toString()));
+    }
+
+    private long profileVersion(String doctorId) {
+        Query query = Query.query(Criteria.where("doctorId").is(doctorId));
+        query.fields().include("updatedAt");
+        DoctorEntity doctor = mongoTemplate.findOne(query, DoctorEntity.class);
+        return doctor == null || doctor.getUpdatedAt() == null ? 0 : doctor.getUpdatedAt().getTime();
+    }
+
+    @Override
+    public synchronized Optional<Path> find(String cacheKey) {
+        ensureLoaded();
+        if (entries.get(cacheKey) == null) {
+            return Optional.empty();
+        }
+        Path file = directory.resolve(cacheKey + SUFFIX);
+        if (!Files.isReadable(file)) {
+            totalBytes -= entries.remove(cacheKey);
+            return Optional.empty();
+        }
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.debug("Failed to touch cached report: key: {}, error: {}", cacheKey, e.getMessage());
+        }
+        return Optional.of(file);
+    }
+
+    @Override
+    public synchronized void store(String cacheKey, Path renderedReport) {
+        ensureLoaded();
+        if (entries.containsKey(cacheKey)) {
+            return;
+        }
+        Path file = directory.resolve(cacheKey + SUFFIX);
+        try {
+            Files.createDirectories(directory);
+            try {
+                Files.createLink(file, renderedReport);
+            } catch (IOException | UnsupportedOperationException e) {
+                Path part = directory.resolve(cacheKey + SUFFIX + ".part");
+                Files.copy(renderedReport, part, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            long size = Files.size(file);
+            entries.put(cacheKey, size);
+            totalBytes += size;
+            evictOverflow();
+        } catch (IOException e) {
+            logger.warn("Failed to cache rendered report: key: {}, error: {}", cacheKey, e.getMessage());
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            try {
+                Files.deleteIfExists(directory.resolve(entry.getKey() + SUFFIX));
+            } catch (IOException e) {
+                logger.warn("Failed to evict cached report: key: {}, error: {}", entry.getKey(), e.getMessage());
+            }
+            totalBytes -= entry.getValue();
+            eldest.remove();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            stream.forEach(files::add);
+            files.sort(Comparator.comparing(ReportCacheServiceImpl::lastModified));
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long size = Files.size(file);
+                entries.put(name.substring(0, name.length() - SUFFIX.length()), size);
+                totalBytes += size;
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to load report cache index: directory: {}, error: {}", directory, e.getMessage());
+        }
+        evictOverflow();
+        logger.info("Report cache loaded: entries: {}, bytes: {}", entries.size(), totalBytes);
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void addMonth(Set<String> months, AppointmentEntity appointment) {
+        if (appointment != null && appointment.getDayKey() != null) {
+            months.add(LocalDate.ofEpochDay(appointment.getDayKey()).format(MONTH_FORMATTER));
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.dto.ReportJobDTO;
+import com.heal.doctor.exception.BusinessRuleException;
+import com.heal.doctor.exception.ConflictException;
+import com.heal.doctor.exception.ForbiddenException;
+import com.heal.doctor.exception.ResourceNotFoundException;
+import com.heal.doctor.models.ReportJobEntity;
+import com.heal.doctor.models.enums.ReportJobStatus;
+import com.heal.doctor.services.IDoctorReports;
+import com.heal.doctor.services.IReportCacheService;
+import com.heal.doctor.services.IReportJobService;
+import com.heal.doctor.utils.CurrentUserName;
+import com.heal.doctor.utils.ReportDateRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders reports off the request thread. Submissions are stored in {@code report_jobs} and run
+ * on a small fixed pool; the PDF is written to a part file and moved into place once complete,
+ * so a download never sees a half-written report. While a job is queued or running its
+ * (doctorId, from, to) key holds a unique index slot, so a repeated or concurrent submission of
+ * the same report returns the existing job instead of rendering it twice.
+ */
+@Service
+public class ReportJobServiceImpl implements IReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobServiceImpl.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final int MAX_SUBMIT_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final IDoctorReports doctorReports;
+    private final IReportCacheService reportCacheService;
+    private final TaskExecutor reportJobTaskExecutor;
+    private final Path directory;
+    private final long retentionMillis;
+    private final long staleMillis;
+
+    public ReportJobServiceImpl(MongoTemplate mongoTemplate,
+                                IDoctorReports doctorReports,
+                                IReportCacheService reportCacheService,
+                                @Qualifier("reportJobTaskExecutor") TaskExecutor reportJobTaskExecutor,
+                                @Value("${reports.jobs.directory}") String directory,
+                                @Value("${reports.jobs.retention-hours}") long retentionHours,
+                                @Value("${reports.jobs.stale-minutes}") long staleMinutes) {
+        this.mongoTemplate = mongoTemplate;
+        this.doctorReports = doctorReports;
+        this.reportCacheService = reportCacheService;
+        this.reportJobTaskExecutor = reportJobTaskExecutor;
+        this.directory = Paths.get(directory);
+        this.retentionMillis = TimeUnit.HOURS.toMillis(retentionHours);
+        this.staleMillis = TimeUnit.MINUTES.toMillis(staleMinutes);
+    }
+
+    @Override
+    public ReportJobDTO submit(String fromDate, String toDate) {
+        ReportDateRange range = ReportDateRange.resolve(fromDate, toDate);
+        String doctorId = CurrentUserName.getCurrentDoctorId();
+        String activeKey = doctorId + "|" + range.fromDate() + "|" + range.toDate();
+
+        ReportJobEntity job = ReportJobEntity.builder()
+                .id(UUID.randomUUID().toString())
+                .doctorId(doctorId)
+                .fromDate(range.fromDate())
+                .toDate(range.toDate())
+                .status(ReportJobStatus.QUEUED)
+                .activeKey(activeKey)
+                .createdAt(new Date())
+                .build();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                mongoTemplate.insert(job);
+                break;
+            } catch (DuplicateKeyException e) {
+                ReportJobEntity existing = mongoTemplate.findOne(
+                        Query.query(Criteria.where("activeKey").is(activeKey)), ReportJobEntity.class);
+                if (existing != null) {
+                    logger.info("Report job deduplicated: doctorId: {}, jobId: {}", doctorId, existing.getId());
+                    return toDTO(existing);
+                }
+                // The matching job finished between the insert and the lookup; try to queue a fresh one.
+                if (attempt >= MAX_SUBMIT_ATTEMPTS) {
+                    logger.warn("Report job not queued, active key kept changing: doctorId: {}, attempts: {}", doctorId, attempt);
+                    throw new ConflictException("A report for this date range is being submitted concurrently. Please retry shortly.");
+                }
+            }
+        }
+
+        try {
+            reportJobTaskExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            markFailed(job.getId(), ReportJobStatus.QUEUED, "Report queue is full");
+            throw new BusinessRuleException("queue report", "too many reports are being generated, please retry shortly");
+        }
+        logger.info("Report job queued: doctorId: {}, jobId: {}, dateRange: {} to {}",
+                doctorId, job.getId(), range.fromDate(), range.toDate());
+        return toDTO(job);
+    }
+
+    @Override
+    public ReportJobDTO getJob(String jobId) {
+        return toDTO(findOwnedJob(jobId, "view"));
+    }
+
+    @Override
+    public Path getReportFile(String jobId) {
+        ReportJobEntity job = findOwnedJob(jobId, "download");
+        if (job.getStatus() != ReportJobStatus.COMPLETED) {
+            throw new BusinessRuleException("download report", "report job is " + job.getStatus());
+        }
+        Path file = Paths.get(job.getFilePath());
+        if (!Files.isReadable(file)) {
+            throw new ResourceNotFoundException("Report file", jobId);
+        }
+        return file;
+    }
+
+    /**
+     * Fails jobs that waited in the queue, or have been rendering, for longer than
+     * {@code reports.jobs.stale-minutes}. A running job is aged from when a worker picked it up,
+     * not from submission, so time spent queued behind other reports does not count against it.
+     */
+    @Override
+    public int sweep() {
+        Date staleBefore = new Date(System.currentTimeMillis() - staleMillis);
+        List<ReportJobEntity> stale = mongoTemplate.find(Query.query(new Criteria().orOperator(
+                Criteria.where("status").is(ReportJobStatus.QUEUED).and("createdAt").lt(staleBefore),
+                Criteria.where("status").is(ReportJobStatus.RUNNING).and("startedAt").lt(staleBefore))), ReportJobEntity.class);
+        int failed = 0;
+        for (ReportJobEntity job : stale) {
+            if (markFailed(job.getId(), job.getStatus(), "Report job did not finish in time")) {
+                failed++;
+            }
+        }
+
+        Date expiredBefore = new Date(System.currentTimeMillis() - retentionMillis);
+        List<ReportJobEntity> expired = mongoTemplate.find(Query.query(Criteria.where("status")
+                .in(ReportJobStatus.COMPLETED, ReportJobStatus.FAILED).and("createdAt").lt(expiredBefore)), ReportJobEntity.class);
+        for (ReportJobEntity job : expired) {
+            if (job.getFilePath() != null) {
+                deleteQuietly(Paths.get(job.getFilePath()));
+            }
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(job.getId())), ReportJobEntity.class);
+        }
+        if (failed > 0 || !expired.isEmpty()) {
+            logger.info("Report jobs swept: stale: {}, expired: {}", failed, expired.size());
+        }
+        return failed + expired.size();
+    }
+
+    private void run(ReportJobEntity job) {
+        ReportJobEntity claimed = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(job.getId()).and("status").is(ReportJobStatus.QUEUED)),
+                new Update().set("status", ReportJobStatus.RUNNING).set("startedAt", new Date()),
+                FindAndModifyOptions.options().returnNew(true),
+                ReportJobEntity.class);
+        if (claimed == null) {
+            return;
+        }
+        Path target = directory.resolve(job.getId() + ".pdf");
+        Path part = directory.resolve(job.getId() + ".pdf.part");
+        ReportDateRange range = new ReportDateRange(job.getFromDate(), job.getToDate());
+        try {
+            Files.createDirectories(directory);
+            Optional<String> cacheKey = reportCacheService.cacheKey(job.getDoctorId(), range);
+            Optional<Path> cached = cacheKey.flatMap(reportCacheService::find);
+            Long rows = null;
+            if (cached.isPresent()) {
+                linkOrCopy(cached.get(), part);
+            } else {
+                try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(part))) {
+                    rows = doctorReports.writeDoctorReport(job.getDoctorId(), range, outputStream);
+                }
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (cached.isEmpty()) {
+                cacheKey.ifPresent(key -> reportCacheService.store(key, target));
+            }
+            long completed = mongoTemplate.updateFirst(inStatus(job.getId(), ReportJobStatus.RUNNING),
+                    new Update().set("status", ReportJobStatus.COMPLETED)
+                            .set("filePath", target.toString())
+                            .set("sizeBytes", Files.size(target))
+                            .set("rows", rows)
+                            .set("completedAt", new Date())
+                            .unset("activeKey"),
+                    ReportJobEntity.class).getModifiedCount();
+            if (completed == 0) {
+                // The sweep failed the job while it rendered; nothing will ever point at the file.
+                deleteQuietly(target);
+                logger.warn("Report job finished after it was failed: jobId: {}, doctorId: {}", job.getId(), job.getDoctorId());
+                return;
+            }
+            logger.info("Report job completed: jobId: {}, doctorId: {}, rows: {}, cached: {}",
+                    job.getId(), job.getDoctorId(), rows, cached.isPresent());
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(part);
+            markFailed(job.getId(), ReportJobStatus.RUNNING, e.getMessage());
+            logger.error("Report job failed: jobId: {}, doctorId: {}, error: {}", job.getId(), job.getDoctorId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * A hard link shares the cached file's blocks and outlives its eviction from the cache.
+     */
+    private void linkOrCopy(Path source, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, source);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Fails the job only if it is still in {@code expected}, so a sweep racing a worker cannot
+     * overwrite a completed job or release the active key of one that is still rendering.
+     */
+    private boolean markFailed(String jobId, ReportJobStatus expected, String error) {
+        String message = error == null ? "Report generation failed" : error;
+        return mongoTemplate.updateFirst(inStatus(jobId, expected),
+                new Update().set("status", ReportJobStatus.FAILED)
+                        .set("error", message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message)
+                        .set("completedAt", new Date())
+                        .unset("activeKey"),
+                ReportJobEntity.class).getModifiedCount() > 0;
+    }
+
+    private static Query inStatus(String jobId, ReportJobStatus status) {
+        return Query.query(Criteria.where("_id").is(jobId).and("status").is(status));
+    }
+
+    private ReportJobEntity findOwnedJob(String jobId, String action) {
+        ReportJobEntity job = mongoTemplate.findById(jobId, ReportJobEntity.class);
+        if (job == null) {
+            throw new ResourceNotFoundException("Report job", jobId);
+        }
+        if (!job.getDoctorId().equals(CurrentUserName.getCurrentDoctorId())) {
+            throw new ForbiddenException("report job", action);
+        }
+        return job;
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete report file: path: {}, error: {}", file, e.getMessage());
+        }
+    }
+
+    private ReportJobDTO toDTO(ReportJobEntity job) {
+        ReportJobDTO dto = new ReportJobDTO();
+        dto.setJobId(job.getId());
+        dto.setStatus(job.getStatus());
+        dto.setFromDate(job.getFromDate());
+        dto.setToDate(job.getToDate());
+        dto.setSizeBytes(job.getSizeBytes());
+        dto.setRows(job.getRows());
+        dto.setError(job.getError());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setCompletedAt(job.getCompletedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,159 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.dto.AppointmentDTO;
+import com.heal.doctor.dto.ReportDaySummaryDTO;
+import com.heal.doctor.dto.ReportSummaryDTO;
+import com.heal.doctor.models.DoctorDailyStatsEntity;
+import com.heal.doctor.models.enums.AppointmentStatus;
+import com.heal.doctor.repositories.AppointmentArchiveRepository;
+import com.heal.doctor.services.IAppointmentSeriesService;
+import com.heal.doctor.services.IDoctorDailyStatsService;
+import com.heal.doctor.services.IReportSummaryService;
+import com.heal.doctor.utils.ClinicCalendar;
+import com.heal.doctor.utils.ReportDateRange;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Report summary figures read from {@code doctor_daily_stats} instead of counted from the
+ * report rows, so the summary costs one document per day in the range and can be fetched while
+ * the rows stream. Series occurrences that are not materialized yet have no rollup, so they are
+ * added on top from the series projection, the same way the report rows include them.
+ * <p>
+ * Days before the rollups existed, or whose rollup was lost, have no document; those days alone
+ * are counted from the appointments themselves, archive included, so the summary never comes
+ * out lower than the rows it sits under.
+ */
+@Service
+public class ReportSummaryServiceImpl implements IReportSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportSummaryServiceImpl.class);
+    private static final int TOTAL = 0;
+    private static final int TREATED = 1;
+    private static final int CANCELLED = 2;
+    private static final int PAID = 3;
+    private static final int EMERGENCY = 4;
+    private static final String APPOINTMENTS_COLLECTION = "appointments";
+
+    private final IDoctorDailyStatsService dailyStatsService;
+    private final IAppointmentSeriesService appointmentSeriesService;
+    private final AppointmentArchiveRepository appointmentArchiveRepository;
+    private final MongoTemplate mongoTemplate;
+
+    public ReportSummaryServiceImpl(IDoctorDailyStatsService dailyStatsService,
+                                    IAppointmentSeriesService appointmentSeriesService,
+                                    AppointmentArchiveRepository appointmentArchiveRepository,
+                                    MongoTemplate mongoTemplate) {
+        this.dailyStatsService = dailyStatsService;
+        this.appointmentSeriesService = appointmentSeriesService;
+        this.appointmentArchiveRepository = appointmentArchiveRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public ReportSummaryDTO summarize(String doctorId, ReportDateRange range) {
+        int fromDayKey = ClinicCalendar.parseDayKey(range.fromDate());
+        int toDayKey = ClinicCalendar.parseDayKey(range.toDate());
+        Map<Integer, long[]> days = new TreeMap<>();
+        for (DoctorDailyStatsEntity day : dailyStatsService.getDays(doctorId, fromDayKey, toDayKey)) {
+            long[] counters = days.computeIfAbsent(day.getDayKey(), key -> new long[5]);
+            counters[TOTAL] += valueOf(day.getTotal());
+            counters[TREATED] += valueOf(day.getTreated());
+            counters[CANCELLED] += valueOf(day.getCancelled());
+            counters[PAID] += valueOf(day.getPaid());
+            counters[EMERGENCY] += valueOf(day.getEmergency());
+        }
+        List<Integer> missing = new ArrayList<>();
+        for (int dayKey = fromDayKey; dayKey <= toDayKey; dayKey++) {
+            if (!days.containsKey(dayKey)) {
+                missing.add(dayKey);
+            }
+        }
+        if (!missing.isEmpty()) {
+            mergeCounts(days, countByDay(doctorId, missing, APPOINTMENTS_COLLECTION));
+            if (appointmentArchiveRepository.mayContain(doctorId, missing.get(0))) {
+                mergeCounts(days, countByDay(doctorId, missing, AppointmentArchiveRepository.ARCHIVE_COLLECTION));
+            }
+        }
+        for (AppointmentDTO occurrence : appointmentSeriesService.getVirtualOccurrences(doctorId, fromDayKey, toDayKey)) {
+            long[] counters = days.computeIfAbsent(occurrence.getDayKey(), key -> new long[5]);
+            counters[TOTAL]++;
+            if (Boolean.TRUE.equals(occurrence.getPaymentStatus())) {
+                counters[PAID]++;
+            }
+            if (Boolean.TRUE.equals(occurrence.getIsEmergency())) {
+                counters[EMERGENCY]++;
+            }
+        }
+
+        long[] totals = new long[5];
+        List<ReportDaySummaryDTO> breakdown = new ArrayList<>(days.size());
+        for (Map.Entry<Integer, long[]> entry : days.entrySet()) {
+            long[] counters = entry.getValue();
+            if (counters[TOTAL] == 0) {
+                continue;
+            }
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += counters[i];
+            }
+            breakdown.add(new ReportDaySummaryDTO(ClinicCalendar.formatDayKey(entry.getKey()),
+                    counters[TOTAL], counters[TREATED], counters[CANCELLED], counters[PAID], counters[EMERGENCY]));
+        }
+
+        ReportSummaryDTO summary = new ReportSummaryDTO();
+        summary.setFromDate(range.fromDate());
+        summary.setToDate(range.toDate());
+        summary.setTotalAppointments(totals[TOTAL]);
+        summary.setTreatedAppointments(totals[TREATED]);
+        summary.setCancelledAppointments(totals[CANCELLED]);
+        summary.setPaidAppointments(totals[PAID]);
+        summary.setEmergencyAppointments(totals[EMERGENCY]);
+        summary.setDays(breakdown);
+        logger.debug("Report summary computed: doctorId: {}, dateRange: {} to {}, days: {}, daysWithoutRollup: {}, total: {}",
+                doctorId, range.fromDate(), range.toDate(), breakdown.size(), missing.size(), totals[TOTAL]);
+        return summary;
+    }
+
+    private List<Document> countByDay(String doctorId, List<Integer> dayKeys, String collection) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("doctorId").is(doctorId).and("dayKey").in(dayKeys)),
+                Aggregation.group("dayKey")
+                        .count().as("total")
+                        .sum(countWhen(Criteria.where("treated").is(true))).as("treated")
+                        .sum(countWhen(Criteria.where("status").is(AppointmentStatus.CANCELLED.name()))).as("cancelled")
+                        .sum(countWhen(Criteria.where("paymentStatus").is(true))).as("paid")
+                        .sum(countWhen(Criteria.where("isEmergency").is(true))).as("emergency")
+        );
+        return mongoTemplate.aggregate(aggregation, collection, Document.class).getMappedResults();
+    }
+
+    private static void mergeCounts(Map<Integer, long[]> days, List<Document> counts) {
+        for (Document count : counts) {
+            long[] counters = days.computeIfAbsent(count.getInteger("_id"), key -> new long[5]);
+            counters[TOTAL] += ((Number) count.get("total")).longValue();
+            counters[TREATED] += ((Number) count.get("treated")).longValue();
+            counters[CANCELLED] += ((Number) count.get("cancelled")).longValue();
+            counters[PAID] += ((Number) count.get("paid")).longValue();
+            counters[EMERGENCY] += ((Number) count.get("emergency")).longValue();
+        }
+    }
+
+    private ConditionalOperators.Cond countWhen(Criteria criteria) {
+        return ConditionalOperators.when(criteria).then(1).otherwise(0);
+    }
+
+    private static long valueOf(Integer counter) {
+        return counter == null ? 0 : counter;
+    }
+}
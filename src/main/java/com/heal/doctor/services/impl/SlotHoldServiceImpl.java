@@ -0,0 +1,487 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.dto.AppointmentDTO;
+import com.heal.doctor.dto.SlotAvailabilityDTO;
+import com.heal.doctor.dto.SlotHoldDTO;
+import com.heal.doctor.dto.SlotHoldRequestDTO;
+import com.heal.doctor.dto.WebSocketResponseType;
+import com.heal.doctor.dto.WebsocketResponseDTO;
+import com.heal.doctor.events.AppointmentChangedEvent;
+import com.heal.doctor.exception.BusinessRuleException;
+import com.heal.doctor.exception.ResourceNotFoundException;
+import com.heal.doctor.exception.ValidationException;
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.models.DoctorEntity;
+import com.heal.doctor.models.NotificationEntity;
+import com.heal.doctor.models.SlotCounterEntity;
+import com.heal.doctor.models.SlotHoldEntity;
+import com.heal.doctor.models.TimeSlot;
+import com.heal.doctor.models.enums.AppointmentChangeType;
+import com.heal.doctor.models.enums.AppointmentStatus;
+import com.heal.doctor.models.enums.AppointmentType;
+import com.heal.doctor.models.enums.AvailableDayEnum;
+import com.heal.doctor.models.enums.HoldStatus;
+import com.heal.doctor.models.enums.NotificationType;
+import com.heal.doctor.repositories.DoctorRepository;
+import com.heal.doctor.services.INotificationService;
+import com.heal.doctor.services.ISlotHoldService;
+import com.heal.doctor.utils.AppointmentId;
+import com.heal.doctor.utils.ClinicCalendar;
+import com.heal.doctor.utils.LruTtlCache;
+import com.heal.doctor.utils.PatientNames;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Public booking against the doctor's published time slots. Every live hold and every booked
+ * appointment occupies one seat in a per-slot counter document, and seats are only taken with a
+ * conditional $inc that matches while {@code taken < capacity}, so concurrent holds can never
+ * oversell a slot. Slots that were seen full are remembered in memory for a few seconds so a
+ * burst of requests for a sold-out slot is turned away without reaching Mongo.
+ */
+@Service
+public class SlotHoldServiceImpl implements ISlotHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotHoldServiceImpl.class);
+    private static final String PUBLIC_ACTOR = "public";
+    private static final DateTimeFormatter SLOT_TIME_FORMATTER = DateTimeFormatter.ofPattern("h:mm a", Locale.ENGLISH);
+    private static final long SCHEDULE_CACHE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int SCHEDULE_CACHE_MAX_ENTRIES = 5000;
+    private static final long COUNTER_RETENTION_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final DoctorRepository doctorRepository;
+    private final ModelMapper modelMapper;
+    private final ClinicCalendar clinicCalendar;
+    private final INotificationService notificationService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int slotCapacity;
+    private final long holdTtlMillis;
+    private final long fullCacheMillis;
+    private final LruTtlCache<String, DoctorEntity> doctorSchedules;
+    private final Map<String, Long> fullSlotsUntil = new ConcurrentHashMap<>();
+
+    public SlotHoldServiceImpl(MongoTemplate mongoTemplate,
+                               DoctorRepository doctorRepository,
+                               ModelMapper modelMapper,
+                               ClinicCalendar clinicCalendar,
+                               INotificationService notificationService,
+                               SimpMessagingTemplate messagingTemplate,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${public-booking.slot-capacity}") int slotCapacity,
+                               @Value("${public-booking.hold-ttl-seconds}") long holdTtlSeconds,
+                               @Value("${public-booking.full-cache-seconds}") long fullCacheSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.doctorRepository = doctorRepository;
+        this.modelMapper = modelMapper;
+        this.clinicCalendar = clinicCalendar;
+        this.notificationService = notificationService;
+        this.messagingTemplate = messagingTemplate;
+        this.eventPublisher = eventPublisher;
+        this.slotCapacity = slotCapacity;
+        this.holdTtlMillis = TimeUnit.SECONDS.toMillis(holdTtlSeconds);
+        this.fullCacheMillis = TimeUnit.SECONDS.toMillis(fullCacheSeconds);
+        this.doctorSchedules = new LruTtlCache<>(SCHEDULE_CACHE_MAX_ENTRIES, SCHEDULE_CACHE_TTL_MILLIS);
+    }
+
+    @Override
+    public List<SlotAvailabilityDTO> getAvailability(String doctorId, String date) {
+        int dayKey = parseDay(date);
+        DoctorEntity doctor = loadSchedule(doctorId);
+        List<TimeSlot> slots = slotsOn(doctor, dayKey);
+        if (slots.isEmpty()) {
+            return List.of();
+        }
+        List<String> slotKeys = new ArrayList<>(slots.size());
+        for (int index = 0; index < slots.size(); index++) {
+            slotKeys.add(slotKey(doctorId, dayKey, index));
+        }
+        Map<String, SlotCounterEntity> counters = mongoTemplate.find(
+                        Query.query(Criteria.where("_id").in(slotKeys)), SlotCounterEntity.class)
+                .stream()
+                .collect(Collectors.toMap(SlotCounterEntity::getId, Function.identity()));
+
+        ZoneId zone = clinicCalendar.zoneFor(doctorId);
+        long now = System.currentTimeMillis();
+        List<SlotAvailabilityDTO> availability = new ArrayList<>(slots.size());
+        for (int index = 0; index < slots.size(); index++) {
+            TimeSlot slot = slots.get(index);
+            if (slotStart(slot, dayKey, zone).getTime() <= now) {
+                continue;
+            }
+            SlotCounterEntity counter = counters.get(slotKeys.get(index));
+            int capacity = counter == null ? slotCapacity : counter.getCapacity();
+            int taken = counter == null ? 0 : counter.getTaken();
+            availability.add(new SlotAvailabilityDTO(index, slot.getStartTime(), slot.getEndTime(),
+                    capacity, Math.max(0, capacity - taken)));
+        }
+        return availability;
+    }
+
+    @Override
+    public SlotHoldDTO createHold(SlotHoldRequestDTO requestDTO) {
+        String doctorId = requestDTO.getDoctorId();
+        int dayKey = parseDay(requestDTO.getDate());
+        int slotIndex = requestDTO.getSlotIndex();
+        logger.info("Creating slot hold: doctorId: {}, dayKey: {}, slotIndex: {}", doctorId, dayKey, slotIndex);
+
+        DoctorEntity doctor = loadSchedule(doctorId);
+        List<TimeSlot> slots = slotsOn(doctor, dayKey);
+        if (slotIndex < 0 || slotIndex >= slots.size()) {
+            throw new ValidationException("The selected slot is not available on " + requestDTO.getDate() + ".");
+        }
+        ZoneId zone = clinicCalendar.zoneFor(doctorId);
+        Date slotStart = slotStart(slots.get(slotIndex), dayKey, zone);
+        if (slotStart.getTime() <= System.currentTimeMillis()) {
+            throw new ValidationException("The selected slot has already started.");
+        }
+
+        String slotKey = slotKey(doctorId, dayKey, slotIndex);
+        Date counterExpiry = new Date(clinicCalendar.startOfDay(zone, dayKey + 1).getTime() + COUNTER_RETENTION_MILLIS);
+        if (!takeSeat(slotKey, counterExpiry)) {
+            logger.info("Slot hold rejected - slot full: slotKey: {}", slotKey);
+            throw new BusinessRuleException("hold slot", "The selected slot is fully booked");
+        }
+
+        Date now = new Date();
+        Date expireAt = new Date(now.getTime() + holdTtlMillis);
+        SlotHoldEntity hold = SlotHoldEntity.builder()
+                .id(UUID.randomUUID().toString())
+                .doctorId(doctorId)
+                .dayKey(dayKey)
+                .slotIndex(slotIndex)
+                .slotKey(slotKey)
+                .patientName(requestDTO.getPatientName().trim())
+                .contact(requestDTO.getContact())
+                .email(requestDTO.getEmail())
+                .description(requestDTO.getDescription())
+                .status(HoldStatus.HELD)
+                .createdAt(now)
+                .expireAt(expireAt)
+                .purgeAt(counterExpiry)
+                .build();
+        try {
+            mongoTemplate.insert(hold);
+        } catch (DataAccessException e) {
+            releaseSeat(slotKey);
+            throw e;
+        }
+        logger.info("Slot hold created: holdId: {}, slotKey: {}, expireAt: {}", hold.getId(), slotKey, expireAt);
+        return toDTO(hold);
+    }
+
+    @Override
+    public SlotHoldDTO confirmHold(String holdId) {
+        logger.info("Confirming slot hold: holdId: {}", holdId);
+        Date now = new Date();
+        SlotHoldEntity hold = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(holdId)
+                        .and("status").is(HoldStatus.HELD)
+                        .and("expireAt").gt(now)),
+                Update.update("status", HoldStatus.CONFIRMED),
+                FindAndModifyOptions.options().returnNew(true),
+                SlotHoldEntity.class);
+        if (hold == null) {
+            SlotHoldEntity existing = findHold(holdId);
+            if (existing.getStatus() == HoldStatus.CONFIRMED) {
+                return toDTO(existing);
+            }
+            throw new BusinessRuleException("confirm hold", "The hold has expired or was released");
+        }
+
+        String doctorId = hold.getDoctorId();
+        DoctorEntity doctor = loadSchedule(doctorId);
+        List<TimeSlot> slots = slotsOn(doctor, hold.getDayKey());
+        Date appointmentDateTime = hold.getSlotIndex() < slots.size()
+                ? slotStart(slots.get(hold.getSlotIndex()), hold.getDayKey(), clinicCalendar.zoneFor(doctorId))
+                : clinicCalendar.startOfDay(doctorId, hold.getDayKey());
+
+        AppointmentEntity appointment;
+        try {
+            appointment = mongoTemplate.insert(AppointmentEntity.builder()
+                    .appointmentId(AppointmentId.generateAppointmentId(doctorId, appointmentDateTime))
+                    .doctorId(doctorId)
+                    .patientName(hold.getPatientName())
+                    .normalizedPatientName(PatientNames.normalize(hold.getPatientName()))
+                    .contact(hold.getContact())
+                    .email(hold.getEmail())
+                    .description(hold.getDescription())
+                    .appointmentDateTime(appointmentDateTime)
+                    .dayKey(hold.getDayKey())
+                    .bookingDateTime(now)
+                    .availableAtClinic(false)
+                    .treated(false)
+                    .status(AppointmentStatus.BOOKED)
+                    .appointmentType(AppointmentType.IN_PERSON)
+                    .paymentStatus(false)
+                    .isEmergency(false)
+                    .slotKey(hold.getSlotKey())
+                    .build());
+        } catch (DataAccessException e) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(holdId).and("status").is(HoldStatus.CONFIRMED)),
+                    Update.update("status", HoldStatus.HELD), SlotHoldEntity.class);
+            throw e;
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(holdId)),
+                Update.update("appointmentId", appointment.getAppointmentId()), SlotHoldEntity.class);
+        hold.setAppointmentId(appointment.getAppointmentId());
+        eventPublisher.publishEvent(new AppointmentChangedEvent(AppointmentChangeType.BOOKED, null, appointment, PUBLIC_ACTOR));
+        logger.info("Slot hold confirmed: holdId: {}, appointmentId: {}, doctorId: {}",
+                holdId, appointment.getAppointmentId(), doctorId);
+
+        announce(appointment);
+        return toDTO(hold);
+    }
+
+    @Override
+    public SlotHoldDTO releaseHold(String holdId) {
+        SlotHoldEntity released = release(Query.query(Criteria.where("_id").is(holdId).and("status").is(HoldStatus.HELD)));
+        if (released == null) {
+            SlotHoldEntity existing = findHold(holdId);
+            if (existing.getStatus() == HoldStatus.RELEASED) {
+                return toDTO(existing);
+            }
+            throw new BusinessRuleException("release hold", "The hold is already confirmed");
+        }
+        logger.info("Slot hold released: holdId: {}, slotKey: {}", holdId, released.getSlotKey());
+        return toDTO(released);
+    }
+
+    /**
+     * Also drops lapsed full-slot marks, which are otherwise only cleared when the same slot is
+     * asked for again, so slots nobody retries do not pile up in memory.
+     */
+    @Override
+    public int releaseExpiredHolds() {
+        long now = System.currentTimeMillis();
+        fullSlotsUntil.values().removeIf(fullUntil -> fullUntil <= now);
+        Query expired = Query.query(Criteria.where("status").is(HoldStatus.HELD).and("expireAt").lte(new Date(now)));
+        int released = 0;
+        while (release(expired) != null) {
+            released++;
+        }
+        return released;
+    }
+
+    /**
+     * Takes a seat again for a cancelled public booking that is being reinstated, or refuses if
+     * the slot has filled up since.
+     */
+    @Override
+    public void reclaimSeat(AppointmentEntity appointment) {
+        ZoneId zone = clinicCalendar.zoneFor(appointment.getDoctorId());
+        Date counterExpiry = new Date(clinicCalendar.startOfDay(zone, appointment.getDayKey() + 1).getTime() + COUNTER_RETENTION_MILLIS);
+        if (!takeSeat(appointment.getSlotKey(), counterExpiry)) {
+            logger.info("Seat reclaim rejected - slot full: appointmentId: {}, slotKey: {}",
+                    appointment.getAppointmentId(), appointment.getSlotKey());
+            throw new BusinessRuleException("reinstate appointment", "The booked slot has been filled since the cancellation");
+        }
+        logger.info("Slot seat reclaimed: appointmentId: {}, slotKey: {}", appointment.getAppointmentId(), appointment.getSlotKey());
+    }
+
+    @Override
+    public void returnSeat(String slotKey) {
+        releaseSeat(slotKey);
+    }
+
+    /**
+     * A declined or cancelled public booking gives its seat back, which may also reopen a slot
+     * this node had cached as full.
+     */
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        AppointmentEntity after = event.after();
+        if (event.isNew()
+                || after.getSlotKey() == null
+                || event.before().getStatus() == AppointmentStatus.CANCELLED
+                || after.getStatus() != AppointmentStatus.CANCELLED) {
+            return;
+        }
+        try {
+            releaseSeat(after.getSlotKey());
+            logger.info("Slot seat returned after cancellation: appointmentId: {}, slotKey: {}",
+                    after.getAppointmentId(), after.getSlotKey());
+        } catch (DataAccessException e) {
+            logger.error("Failed to return slot seat: appointmentId: {}, slotKey: {}, error: {}",
+                    after.getAppointmentId(), after.getSlotKey(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Takes one seat if any is left. The filter only matches a counter with spare capacity, so
+     * against a full slot the upsert tries to insert a second document with the same id and
+     * fails on the duplicate key. Two first-ever holds racing on a missing counter fail the same
+     * way, so a duplicate key is re-checked without the upsert before reporting the slot full.
+     */
+    private boolean takeSeat(String slotKey, Date counterExpiry) {
+        Long fullUntil = fullSlotsUntil.get(slotKey);
+        if (fullUntil != null) {
+            if (fullUntil > System.currentTimeMillis()) {
+                return false;
+            }
+            fullSlotsUntil.remove(slotKey, fullUntil);
+        }
+        Query withSpareSeat = Query.query(Criteria.where("_id").is(slotKey).and("taken").lt(slotCapacity));
+        Update takeOne = new Update().inc("taken", 1)
+                .setOnInsert("capacity", slotCapacity)
+                .setOnInsert("expireAt", counterExpiry);
+        SlotCounterEntity counter;
+        try {
+            counter = mongoTemplate.findAndModify(withSpareSeat, takeOne,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), SlotCounterEntity.class);
+        } catch (DuplicateKeyException e) {
+            counter = mongoTemplate.findAndModify(withSpareSeat, takeOne,
+                    FindAndModifyOptions.options().returnNew(true), SlotCounterEntity.class);
+        }
+        if (counter == null) {
+            markFull(slotKey);
+            return false;
+        }
+        if (counter.getTaken() >= counter.getCapacity()) {
+            markFull(slotKey);
+        }
+        return true;
+    }
+
+    private void releaseSeat(String slotKey) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(slotKey).and("taken").gt(0)),
+                new Update().inc("taken", -1), SlotCounterEntity.class);
+        fullSlotsUntil.remove(slotKey);
+    }
+
+    private SlotHoldEntity release(Query heldQuery) {
+        SlotHoldEntity released = mongoTemplate.findAndModify(heldQuery,
+                Update.update("status", HoldStatus.RELEASED),
+                FindAndModifyOptions.options().returnNew(true),
+                SlotHoldEntity.class);
+        if (released != null) {
+            releaseSeat(released.getSlotKey());
+        }
+        return released;
+    }
+
+    private void markFull(String slotKey) {
+        fullSlotsUntil.put(slotKey, System.currentTimeMillis() + fullCacheMillis);
+    }
+
+    private void announce(AppointmentEntity appointment) {
+        String doctorId = appointment.getDoctorId();
+        if (clinicCalendar.isToday(doctorId, appointment.getAppointmentDateTime())) {
+            messagingTemplate.convertAndSend("/topic/appointments/" + doctorId,
+                    WebsocketResponseDTO.<AppointmentDTO>builderGeneric()
+                            .type(WebSocketResponseType.APPOINTMENT)
+                            .payload(modelMapper.map(appointment, AppointmentDTO.class))
+                            .build());
+        }
+        NotificationEntity notification = NotificationEntity.builder()
+                .doctorId(doctorId)
+                .type(NotificationType.UPDATE)
+                .title("New booking request")
+                .message(appointment.getPatientName() + " requested an appointment on "
+                        + ClinicCalendar.formatDayKey(appointment.getDayKey()) + ".")
+                .build();
+        notificationService.createNotificationAsync(notification).exceptionally(ex -> {
+            logger.error("Failed to create booking request notification: appointmentId: {}, error: {}",
+                    appointment.getAppointmentId(), ex.getMessage(), ex);
+            return null;
+        });
+    }
+
+    private DoctorEntity loadSchedule(String doctorId) {
+        DoctorEntity doctor = doctorSchedules.get(doctorId);
+        if (doctor == null) {
+            doctor = doctorRepository.findByDoctorId(doctorId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Doctor", doctorId));
+            doctorSchedules.put(doctorId, doctor);
+        }
+        return doctor;
+    }
+
+    private List<TimeSlot> slotsOn(DoctorEntity doctor, int dayKey) {
+        if (dayKey < clinicCalendar.today(doctor.getDoctorId())) {
+            throw new ValidationException("Cannot book a slot on a past date.");
+        }
+        List<TimeSlot> slots = doctor.getAvailableTimeSlots();
+        if (slots == null || slots.isEmpty()) {
+            return List.of();
+        }
+        List<AvailableDayEnum> days = doctor.getAvailableDays();
+        AvailableDayEnum dayOfWeek = AvailableDayEnum.valueOf(LocalDate.ofEpochDay(dayKey).getDayOfWeek().name());
+        if (days != null && !days.isEmpty() && !days.contains(dayOfWeek)) {
+            return List.of();
+        }
+        return slots;
+    }
+
+    private Date slotStart(TimeSlot slot, int dayKey, ZoneId zone) {
+        String normalized = slot.getStartTime().trim().toUpperCase(Locale.ENGLISH).replaceAll("\\s*(AM|PM)$", " $1");
+        try {
+            LocalTime time = LocalTime.parse(normalized, SLOT_TIME_FORMATTER);
+            return Date.from(LocalDate.ofEpochDay(dayKey).atTime(time).atZone(zone).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new IllegalStateException("Doctor time slot has an unreadable start time: " + slot.getStartTime(), e);
+        }
+    }
+
+    private SlotHoldEntity findHold(String holdId) {
+        SlotHoldEntity hold = mongoTemplate.findById(holdId, SlotHoldEntity.class);
+        if (hold == null) {
+            throw new ResourceNotFoundException("Slot hold", holdId);
+        }
+        return hold;
+    }
+
+    private SlotHoldDTO toDTO(SlotHoldEntity hold) {
+        SlotHoldDTO dto = new SlotHoldDTO();
+        dto.setHoldId(hold.getId());
+        dto.setDoctorId(hold.getDoctorId());
+        dto.setDate(ClinicCalendar.formatDayKey(hold.getDayKey()));
+        dto.setSlotIndex(hold.getSlotIndex());
+        dto.setStatus(hold.getStatus());
+        dto.setExpireAt(hold.getExpireAt());
+        dto.setAppointmentId(hold.getAppointmentId());
+        return dto;
+    }
+
+    private static String slotKey(String doctorId, int dayKey, int slotIndex) {
+        return doctorId + ":" + dayKey + ":" + slotIndex;
+    }
+
+    private int parseDay(String date) {
+        try {
+            return ClinicCalendar.parseDayKey(date);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+    }
+}
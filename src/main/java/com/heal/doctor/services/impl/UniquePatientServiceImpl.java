@@ -0,0 +1,182 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.dto.UniquePatientsDTO;
+import com.heal.doctor.events.AppointmentChangedEvent;
+import com.heal.doctor.exception.ValidationException;
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.models.JobWatermarkEntity;
+import com.heal.doctor.models.PatientSketchEntity;
+import com.heal.doctor.models.enums.AppointmentChangeType;
+import com.heal.doctor.repositories.AppointmentArchiveRepository;
+import com.heal.doctor.services.IUniquePatientService;
+import com.heal.doctor.utils.ClinicCalendar;
+import com.heal.doctor.utils.CurrentUserName;
+import com.heal.doctor.utils.HyperLogLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Distinct-patient counts from per-day HyperLogLog sketches. A booking hashes the patient's
+ * contact number and raises one register of that day's sketch with $max, which is idempotent
+ * and order-independent, so concurrent bookings, retries and the one-off backfill can all write
+ * the same day safely. A range query merges the stored registers of each day in the range.
+ */
+@Service
+public class UniquePatientServiceImpl implements IUniquePatientService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UniquePatientServiceImpl.class);
+    private static final String BACKFILL_JOB_NAME = "patient-sketch-backfill";
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+    private static final int MAX_RANGE_DAYS = 366 * 5;
+
+    private final MongoTemplate mongoTemplate;
+    private final ClinicCalendar clinicCalendar;
+
+    public UniquePatientServiceImpl(MongoTemplate mongoTemplate, ClinicCalendar clinicCalendar) {
+        this.mongoTemplate = mongoTemplate;
+        this.clinicCalendar = clinicCalendar;
+    }
+
+    @Override
+    public UniquePatientsDTO countUniquePatients(String fromDate, String toDate) {
+        String doctorId = CurrentUserName.getCurrentDoctorId();
+        int today = clinicCalendar.today(doctorId);
+        int toDayKey = toDate == null || toDate.isBlank() ? today : parseDay(toDate);
+        int fromDayKey = fromDate == null || fromDate.isBlank()
+                ? (int) LocalDate.ofEpochDay(toDayKey).withDayOfMonth(1).toEpochDay()
+                : parseDay(fromDate);
+        if (fromDayKey > toDayKey) {
+            throw new ValidationException("From date must not be after to date.");
+        }
+        if (toDayKey - fromDayKey > MAX_RANGE_DAYS) {
+            throw new ValidationException("Date range must not exceed five years.");
+        }
+
+        Query query = Query.query(Criteria.where("doctorId").is(doctorId).and("dayKey").gte(fromDayKey).lte(toDayKey));
+        query.fields().include("registers");
+        HyperLogLog merged = new HyperLogLog();
+        int days = 0;
+        try (Stream<PatientSketchEntity> sketches = mongoTemplate.stream(query, PatientSketchEntity.class)) {
+            for (PatientSketchEntity sketch : (Iterable<PatientSketchEntity>) sketches::iterator) {
+                days++;
+                if (sketch.getRegisters() == null) {
+                    continue;
+                }
+                for (Map.Entry<String, Integer> register : sketch.getRegisters().entrySet()) {
+                    merged.set(Integer.parseInt(register.getKey()), register.getValue());
+                }
+            }
+        }
+        long estimate = merged.estimate();
+        logger.debug("Unique patients estimated: doctorId: {}, fromDayKey: {}, toDayKey: {}, days: {}, estimate: {}",
+                doctorId, fromDayKey, toDayKey, days, estimate);
+        return new UniquePatientsDTO(ClinicCalendar.formatDayKey(fromDayKey), ClinicCalendar.formatDayKey(toDayKey),
+                estimate, HyperLogLog.standardError() * 100.0);
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (event.changeType() != AppointmentChangeType.BOOKED) {
+            return;
+        }
+        AppointmentEntity appointment = event.after();
+        if (appointment.getDayKey() == null || appointment.getContact() == null) {
+            return;
+        }
+        try {
+            mongoTemplate.upsert(sketchQuery(appointment.getDoctorId(), appointment.getDayKey()),
+                    registerUpdate(appointment), PatientSketchEntity.class);
+        } catch (DataAccessException e) {
+            logger.error("Failed to record patient in sketch: appointmentId: {}, error: {}",
+                    appointment.getAppointmentId(), e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public long backfill() {
+        if (mongoTemplate.exists(Query.query(Criteria.where("_id").is(BACKFILL_JOB_NAME)), JobWatermarkEntity.class)) {
+            return 0;
+        }
+        Date startedAt = new Date();
+        long recorded = backfillCollection(mongoTemplate.getCollectionName(AppointmentEntity.class))
+                + backfillCollection(AppointmentArchiveRepository.ARCHIVE_COLLECTION);
+        mongoTemplate.save(JobWatermarkEntity.builder()
+                .id(BACKFILL_JOB_NAME)
+                .watermark(startedAt)
+                .updatedAt(new Date())
+                .build());
+        return recorded;
+    }
+
+    /**
+     * Appointments written before dayKey existed, which the archive still holds, are bucketed
+     * from their appointment time the same way the field backfill would, rather than skipped.
+     */
+    private long backfillCollection(String collection) {
+        Query query = Query.query(Criteria.where("contact").ne(null));
+        query.fields().include("doctorId", "dayKey", "contact", "appointmentDateTime", "bookingDateTime");
+        long recorded = 0;
+        BulkOperations bulkOperations = null;
+        int pending = 0;
+        try (Stream<AppointmentEntity> appointments = mongoTemplate.stream(query, AppointmentEntity.class, collection)) {
+            for (AppointmentEntity appointment : (Iterable<AppointmentEntity>) appointments::iterator) {
+                if (appointment.getDayKey() == null) {
+                    Date reference = appointment.getAppointmentDateTime() != null
+                            ? appointment.getAppointmentDateTime()
+                            : appointment.getBookingDateTime();
+                    if (reference == null || appointment.getDoctorId() == null) {
+                        continue;
+                    }
+                    appointment.setDayKey(clinicCalendar.dayKey(appointment.getDoctorId(), reference));
+                }
+                if (bulkOperations == null) {
+                    bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PatientSketchEntity.class);
+                }
+                bulkOperations.upsert(sketchQuery(appointment.getDoctorId(), appointment.getDayKey()), registerUpdate(appointment));
+                recorded++;
+                if (++pending == BACKFILL_BATCH_SIZE) {
+                    bulkOperations.execute();
+                    bulkOperations = null;
+                    pending = 0;
+                }
+            }
+        }
+        if (bulkOperations != null) {
+            bulkOperations.execute();
+        }
+        return recorded;
+    }
+
+    private Query sketchQuery(String doctorId, int dayKey) {
+        return Query.query(Criteria.where("_id").is(PatientSketchEntity.idFor(doctorId, dayKey)));
+    }
+
+    private Update registerUpdate(AppointmentEntity appointment) {
+        long hash = HyperLogLog.hash(appointment.getContact().trim());
+        return new Update()
+                .max("registers." + HyperLogLog.index(hash), HyperLogLog.rank(hash))
+                .setOnInsert("doctorId", appointment.getDoctorId())
+                .setOnInsert("dayKey", appointment.getDayKey());
+    }
+
+    private int parseDay(String date) {
+        try {
+            return ClinicCalendar.parseDayKey(date);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.dto.AppointmentDTO;
+import com.heal.doctor.dto.WaitlistEntryDTO;
+import com.heal.doctor.dto.WaitlistRequestDTO;
+import com.heal.doctor.dto.WebSocketResponseType;
+import com.heal.doctor.dto.WebsocketResponseDTO;
+import com.heal.doctor.events.AppointmentChangedEvent;
+import com.heal.doctor.exception.BusinessRuleException;
+import com.heal.doctor.exception.ConflictException;
+import com.heal.doctor.exception.ForbiddenException;
+import com.heal.doctor.exception.ResourceNotFoundException;
+import com.heal.doctor.exception.ValidationException;
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.models.NotificationEntity;
+import com.heal.doctor.models.WaitlistEntryEntity;
+import com.heal.doctor.models.enums.AppointmentChangeType;
+import com.heal.doctor.models.enums.AppointmentStatus;
+import com.heal.doctor.models.enums.AppointmentType;
+import com.heal.doctor.models.enums.NotificationType;
+import com.heal.doctor.models.enums.WaitlistStatus;
+import com.heal.doctor.repositories.AppointmentRepository;
+import com.heal.doctor.repositories.WaitlistRepository;
+import com.heal.doctor.services.INotificationService;
+import com.heal.doctor.services.IWaitlistService;
+import com.heal.doctor.utils.AppointmentId;
+import com.heal.doctor.utils.ClinicCalendar;
+import com.heal.doctor.utils.CurrentUserName;
+import com.heal.doctor.utils.PatientNames;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Per-doctor, per-day waitlist ordered by priority and then arrival. When an appointment is
+ * cancelled, the head of that day's list is claimed with a single findAndModify, so concurrent
+ * cancellations always promote different patients, and the claimed patient is booked into the
+ * freed slot.
+ */
+@Service
+public class WaitlistServiceImpl implements IWaitlistService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistServiceImpl.class);
+    private static final String WAITLIST_ACTOR = "waitlist";
+    private static final Sort PROMOTION_ORDER = Sort.by(Sort.Direction.DESC, "priority")
+            .and(Sort.by(Sort.Direction.ASC, "createdAt"));
+
+    private final WaitlistRepository waitlistRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ModelMapper modelMapper;
+    private final ClinicCalendar clinicCalendar;
+    private final INotificationService notificationService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public WaitlistServiceImpl(WaitlistRepository waitlistRepository,
+                               AppointmentRepository appointmentRepository,
+                               MongoTemplate mongoTemplate,
+                               ModelMapper modelMapper,
+                               ClinicCalendar clinicCalendar,
+                               INotificationService notificationService,
+                               SimpMessagingTemplate messagingTemplate,
+                               ApplicationEventPublisher eventPublisher) {
+        this.waitlistRepository = waitlistRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.modelMapper = modelMapper;
+        this.clinicCalendar = clinicCalendar;
+        this.notificationService = notificationService;
+        this.messagingTemplate = messagingTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public WaitlistEntryDTO addToWaitlist(WaitlistRequestDTO requestDTO) {
+        String doctorId = CurrentUserName.getCurrentDoctorId();
+        int dayKey = parseDay(requestDTO.getDate());
+        logger.info("Adding patient to waitlist: doctorId: {}, dayKey: {}, patientName: {}",
+                doctorId, dayKey, requestDTO.getPatientName());
+        if (dayKey < clinicCalendar.today(doctorId)) {
+            throw new ValidationException("Cannot join the waitlist for a past date.");
+        }
+        if (appointmentRepository.existsByDoctorIdAndPatientNameAndContactAndDayKeyAndStatus(
+                doctorId, requestDTO.getPatientName(), requestDTO.getContact(), dayKey, AppointmentStatus.ACCEPTED)) {
+            throw new ConflictException("Waitlist", "The patient already has an appointment on the selected date.");
+        }
+        boolean alreadyWaiting = mongoTemplate.exists(Query.query(Criteria.where("doctorId").is(doctorId)
+                .and("dayKey").is(dayKey)
+                .and("status").is(WaitlistStatus.WAITING)
+                .and("contact").is(requestDTO.getContact())
+                .and("patientName").is(requestDTO.getPatientName())), WaitlistEntryEntity.class);
+        if (alreadyWaiting) {
+            throw new ConflictException("Waitlist", "The patient is already on the waitlist for the selected date.");
+        }
+
+        WaitlistEntryEntity entry = WaitlistEntryEntity.builder()
+                .doctorId(doctorId)
+                .dayKey(dayKey)
+                .patientName(requestDTO.getPatientName().trim())
+                .contact(requestDTO.getContact())
+                .email(requestDTO.getEmail())
+                .description(requestDTO.getDescription())
+                .priority(requestDTO.getPriority() == null ? 0 : requestDTO.getPriority())
+                .status(WaitlistStatus.WAITING)
+                .createdAt(new Date())
+                .build();
+        WaitlistEntryEntity saved = waitlistRepository.save(entry);
+        logger.info("Patient added to waitlist: entryId: {}, doctorId: {}, dayKey: {}", saved.getId(), doctorId, dayKey);
+        return modelMapper.map(saved, WaitlistEntryDTO.class);
+    }
+
+    @Override
+    public List<WaitlistEntryDTO> getWaitlist(String date) {
+        String doctorId = CurrentUserName.getCurrentDoctorId();
+        int dayKey = date == null || date.isBlank() ? clinicCalendar.today(doctorId) : parseDay(date);
+        return waitlistRepository.findByDoctorIdAndDayKeyAndStatus(doctorId, dayKey, WaitlistStatus.WAITING, PROMOTION_ORDER)
+                .stream()
+                .map(entry -> modelMapper.map(entry, WaitlistEntryDTO.class))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public WaitlistEntryDTO updatePriority(String entryId, Integer priority) {
+        if (priority == null || priority < 0) {
+            throw new ValidationException("Priority must be zero or greater.");
+        }
+        WaitlistEntryEntity entry = updateWaitingEntry(entryId, "update", Update.update("priority", priority));
+        logger.info("Waitlist priority updated: entryId: {}, priority: {}", entryId, priority);
+        return modelMapper.map(entry, WaitlistEntryDTO.class);
+    }
+
+    @Override
+    public WaitlistEntryDTO removeFromWaitlist(String entryId) {
+        WaitlistEntryEntity entry = updateWaitingEntry(entryId, "remove", Update.update("status", WaitlistStatus.REMOVED));
+        logger.info("Patient removed from waitlist: entryId: {}, doctorId: {}", entryId, entry.getDoctorId());
+        return modelMapper.map(entry, WaitlistEntryDTO.class);
+    }
+
+    @Override
+    public void promoteNext(AppointmentEntity freed) {
+        if (freed.getDayKey() == null || freed.getDayKey() < clinicCalendar.today(freed.getDoctorId())) {
+            return;
+        }
+        try {
+            promoteInto(freed);
+        } catch (DataAccessException e) {
+            logger.error("Waitlist promotion failed: doctorId: {}, dayKey: {}, cancelledAppointmentId: {}, error: {}",
+                    freed.getDoctorId(), freed.getDayKey(), freed.getAppointmentId(), e.getMessage(), e);
+        }
+    }
+
+    private void promoteInto(AppointmentEntity freed) {
+        String doctorId = freed.getDoctorId();
+        Date now = new Date();
+        Query head = Query.query(Criteria.where("doctorId").is(doctorId)
+                        .and("dayKey").is(freed.getDayKey())
+                        .and("status").is(WaitlistStatus.WAITING))
+                .with(PROMOTION_ORDER);
+        WaitlistEntryEntity claimed = mongoTemplate.findAndModify(head,
+                new Update().set("status", WaitlistStatus.PROMOTED).set("promotedAt", now),
+                FindAndModifyOptions.options().returnNew(true),
+                WaitlistEntryEntity.class);
+        if (claimed == null) {
+            logger.debug("No waitlisted patient to promote: doctorId: {}, dayKey: {}", doctorId, freed.getDayKey());
+            return;
+        }
+
+        AppointmentEntity appointment;
+        try {
+            appointment = mongoTemplate.insert(AppointmentEntity.builder()
+                    .appointmentId(AppointmentId.generateAppointmentId(doctorId))
+                    .doctorId(doctorId)
+                    .patientName(claimed.getPatientName())
+                    .normalizedPatientName(PatientNames.normalize(claimed.getPatientName()))
+                    .contact(claimed.getContact())
+                    .email(claimed.getEmail())
+                    .description(claimed.getDescription())
+                    .appointmentDateTime(freed.getAppointmentDateTime())
+                    .dayKey(freed.getDayKey())
+                    .bookingDateTime(now)
+                    .availableAtClinic(false)
+                    .treated(false)
+                    .status(AppointmentStatus.ACCEPTED)
+                    .appointmentType(AppointmentType.IN_PERSON)
+                    .paymentStatus(false)
+                    .isEmergency(false)
+                    .build());
+        } catch (DataAccessException e) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(claimed.getId()).and("status").is(WaitlistStatus.PROMOTED)),
+                    new Update().set("status", WaitlistStatus.WAITING).unset("promotedAt"), WaitlistEntryEntity.class);
+            throw e;
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(claimed.getId())),
+                Update.update("promotedAppointmentId", appointment.getAppointmentId()), WaitlistEntryEntity.class);
+        claimed.setPromotedAppointmentId(appointment.getAppointmentId());
+        eventPublisher.publishEvent(new AppointmentChangedEvent(AppointmentChangeType.BOOKED, null, appointment, WAITLIST_ACTOR));
+        logger.info("Waitlisted patient promoted: entryId: {}, appointmentId: {}, doctorId: {}, cancelledAppointmentId: {}",
+                claimed.getId(), appointment.getAppointmentId(), doctorId, freed.getAppointmentId());
+
+        announce(claimed, appointment);
+    }
+
+    private void announce(WaitlistEntryEntity promoted, AppointmentEntity appointment) {
+        String doctorId = appointment.getDoctorId();
+        messagingTemplate.convertAndSend("/topic/appointments/" + doctorId,
+                WebsocketResponseDTO.<WaitlistEntryDTO>builderGeneric()
+                        .type(WebSocketResponseType.WAITLIST)
+                        .payload(modelMapper.map(promoted, WaitlistEntryDTO.class))
+                        .build());
+        if (clinicCalendar.isToday(doctorId, appointment.getAppointmentDateTime())) {
+            messagingTemplate.convertAndSend("/topic/appointments/" + doctorId,
+                    WebsocketResponseDTO.<AppointmentDTO>builderGeneric()
+                            .type(WebSocketResponseType.APPOINTMENT)
+                            .payload(modelMapper.map(appointment, AppointmentDTO.class))
+                            .build());
+        }
+        NotificationEntity notification = NotificationEntity.builder()
+                .doctorId(doctorId)
+                .type(NotificationType.UPDATE)
+                .title("Waitlisted patient booked")
+                .message(promoted.getPatientName() + " was moved from the waitlist into a cancelled slot on "
+                        + ClinicCalendar.formatDayKey(promoted.getDayKey()) + ".")
+                .build();
+        notificationService.createNotificationAsync(notification).exceptionally(ex -> {
+            logger.error("Failed to create waitlist promotion notification: entryId: {}, error: {}",
+                    promoted.getId(), ex.getMessage(), ex);
+            return null;
+        });
+    }
+
+    /**
+     * Applies the change only while the entry is still waiting, in the same findAndModify as the
+     * check, so an edit racing a promotion cannot put a promoted entry back on the list.
+     */
+    private WaitlistEntryEntity updateWaitingEntry(String entryId, String action, Update update) {
+        WaitlistEntryEntity entry = waitlistRepository.findById(entryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Waitlist entry", entryId));
+        String requestingDoctorId = CurrentUserName.getCurrentDoctorId();
+        if (!entry.getDoctorId().equals(requestingDoctorId)) {
+            logger.warn("Unauthorized waitlist {} attempt: entryId: {}, owner: {}, requester: {}",
+                    action, entryId, entry.getDoctorId(), requestingDoctorId);
+            throw new ForbiddenException("waitlist entry", action);
+        }
+        WaitlistEntryEntity updated = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(entryId).and("status").is(WaitlistStatus.WAITING)),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                WaitlistEntryEntity.class);
+        if (updated == null) {
+            throw new BusinessRuleException(action + " waitlist entry", "Entry is no longer waiting");
+        }
+        return updated;
+    }
+
+    private int parseDay(String date) {
+        try {
+            return ClinicCalendar.parseDayKey(date);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+    }
+}
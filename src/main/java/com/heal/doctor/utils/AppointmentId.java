@@ -17,10 +17,11 @@ public class AppointmentId {
     private static final int APPOINTMENT_ID_PARTS_COUNT = 5;
 
     public static String generateAppointmentId(String doctorId) {
-        String doctorIdWithoutPrefix = doctorId.replace(DOCTOR_ID_PREFIX, "");
+        return generateAppointmentId(doctorId, new Date(System.currentTimeMillis()));
+    }
 
-        long timestamp = System.currentTimeMillis();
-        Date date = new Date(timestamp);
+    public static String generateAppointmentId(String doctorId, Date date) {
+        String doctorIdWithoutPrefix = doctorId.replace(DOCTOR_ID_PREFIX, "");
 
         SimpleDateFormat sdf = new SimpleDateFormat(APPOINTMENT_DATE_FORMAT);
         String formattedDate = sdf.format(date);
@@ -0,0 +1,60 @@
+package com.heal.doctor.utils;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multi-producer queue with a capacity bound that never blocks the producer. When the queue is
+ * full the element is dropped and counted, so a stalled consumer cannot back-pressure callers.
+ */
+public class BoundedLockFreeQueue<T> {
+
+    private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final int capacity;
+
+    public BoundedLockFreeQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public boolean offer(T element) {
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        queue.offer(element);
+        return true;
+    }
+
+    /**
+     * Moves up to {@code maxElements} into {@code target} and returns how many were moved.
+     */
+    public int drainTo(List<T> target, int maxElements) {
+        int drained = 0;
+        T element;
+        while (drained < maxElements && (element = queue.poll()) != null) {
+            target.add(element);
+            drained++;
+        }
+        size.addAndGet(-drained);
+        return drained;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,133 @@
+package com.heal.doctor.utils;
+
+import com.heal.doctor.models.DoctorEntity;
+import com.heal.doctor.repositories.DoctorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Day arithmetic in each doctor's clinic time zone. Appointments are bucketed by epoch day
+ * ({@code dayKey}) in that zone, so day queries become equality matches on (doctorId, dayKey).
+ * Zones are cached per doctor and the current day window is cached per zone, so the hot
+ * "is this appointment today?" check does no calendar allocation.
+ */
+@Component
+public class ClinicCalendar {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClinicCalendar.class);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final DoctorRepository doctorRepository;
+    private final ZoneId defaultZone;
+    private final Map<String, ZoneId> doctorZones = new ConcurrentHashMap<>();
+    private final Map<ZoneId, DayWindow> currentDays = new ConcurrentHashMap<>();
+
+    public ClinicCalendar(DoctorRepository doctorRepository,
+                          @Value("${clinic.default-time-zone}") String defaultTimeZone) {
+        this.doctorRepository = doctorRepository;
+        this.defaultZone = ZoneId.of(defaultTimeZone);
+    }
+
+    public ZoneId zoneFor(String doctorId) {
+        return doctorZones.computeIfAbsent(doctorId, id -> doctorRepository.findByDoctorId(id)
+                .map(DoctorEntity::getTimeZone)
+                .map(this::toZoneOrDefault)
+                .orElse(defaultZone));
+    }
+
+    public ZoneId defaultZone() {
+        return defaultZone;
+    }
+
+    public void evict(String doctorId) {
+        doctorZones.remove(doctorId);
+    }
+
+    public int dayKey(String doctorId, Date instant) {
+        return dayKey(zoneFor(doctorId), instant);
+    }
+
+    public int dayKey(ZoneId zone, Date instant) {
+        DayWindow window = currentWindow(zone);
+        long millis = instant.getTime();
+        if (millis >= window.startMillis() && millis < window.endMillis()) {
+            return window.dayKey();
+        }
+        return (int) LocalDate.ofInstant(instant.toInstant(), zone).toEpochDay();
+    }
+
+    public int today(String doctorId) {
+        return currentWindow(zoneFor(doctorId)).dayKey();
+    }
+
+    public int today(ZoneId zone) {
+        return currentWindow(zone).dayKey();
+    }
+
+    public boolean isToday(String doctorId, Date instant) {
+        if (instant == null) {
+            return false;
+        }
+        DayWindow window = currentWindow(zoneFor(doctorId));
+        long millis = instant.getTime();
+        return millis >= window.startMillis() && millis < window.endMillis();
+    }
+
+    public Date startOfDay(String doctorId, int dayKey) {
+        return startOfDay(zoneFor(doctorId), dayKey);
+    }
+
+    public Date startOfDay(ZoneId zone, int dayKey) {
+        return Date.from(LocalDate.ofEpochDay(dayKey).atStartOfDay(zone).toInstant());
+    }
+
+    public static int parseDayKey(String dateString) {
+        try {
+            return (int) LocalDate.parse(dateString, DATE_FORMATTER).toEpochDay();
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid date format. Please use 'yyyy-MM-dd'.", e);
+        }
+    }
+
+    public static String formatDayKey(int dayKey) {
+        return LocalDate.ofEpochDay(dayKey).format(DATE_FORMATTER);
+    }
+
+    private DayWindow currentWindow(ZoneId zone) {
+        long now = System.currentTimeMillis();
+        DayWindow window = currentDays.get(zone);
+        if (window == null || now < window.startMillis() || now >= window.endMillis()) {
+            LocalDate today = LocalDate.ofInstant(Instant.ofEpochMilli(now), zone);
+            window = new DayWindow(
+                    (int) today.toEpochDay(),
+                    today.atStartOfDay(zone).toInstant().toEpochMilli(),
+                    today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+            currentDays.put(zone, window);
+        }
+        return window;
+    }
+
+    private ZoneId toZoneOrDefault(String timeZone) {
+        try {
+            return ZoneId.of(timeZone);
+        } catch (DateTimeException e) {
+            logger.warn("Invalid clinic time zone, falling back to default: timeZone: {}, default: {}", timeZone, defaultZone);
+            return defaultZone;
+        }
+    }
+
+    private record DayWindow(int dayKey, long startMillis, long endMillis) {
+    }
+}
@@ -0,0 +1,236 @@
+package com.heal.doctor.utils;
+
+import com.heal.doctor.dto.AppointmentDTO;
+import com.heal.doctor.dto.ReportSummaryDTO;
+import com.heal.doctor.exception.ReportGenerationException;
+import com.heal.doctor.models.enums.AppointmentStatus;
+import com.heal.doctor.models.enums.AppointmentType;
+import com.lowagie.text.DocumentException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the doctor report as a sequence of small HTML documents written into one PDF. Rows are
+ * pushed in and every {@code reports.rows-per-chunk} rows are laid out and flushed as their own
+ * pages, so only one chunk's DOM and layout are ever held in memory, whatever the date range.
+ * The header goes with the first chunk and the summary footer, whose figures the caller supplies,
+ * with the last.
+ * <p>
+ * {@link ITextRenderer}s are pooled: each keeps its resolved fonts and the parsed report
+ * stylesheet (loaded from the classpath by URL, so Flying Saucer caches it) across reports.
+ * The pool is bounded; a report waits up to {@code reports.renderer.acquire-timeout-ms} for a
+ * free renderer. A renderer that fails mid-document is dropped rather than returned.
+ */
+@Component
+public class DoctorReportRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DoctorReportRenderer.class);
+    private static final String TEMPLATE = "doctor-report-template";
+    private static final String TEMPLATE_BASE = "templates/";
+    private static final int WARM_UP_ROWS = 20;
+
+    private final TemplateEngine templateEngine;
+    private final int rowsPerChunk;
+    private final int poolSize;
+    private final long acquireTimeoutMillis;
+    private final String baseUrl;
+    private final BlockingQueue<ITextRenderer> idleRenderers;
+    private final Semaphore permits;
+
+    public DoctorReportRenderer(TemplateEngine templateEngine,
+                                @Value("${reports.rows-per-chunk}") int rowsPerChunk,
+                                @Value("${reports.renderer.pool-size}") int poolSize,
+                                @Value("${reports.renderer.acquire-timeout-ms}") long acquireTimeoutMillis) {
+        this.templateEngine = templateEngine;
+        this.rowsPerChunk = rowsPerChunk;
+        this.poolSize = poolSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.baseUrl = resolveBaseUrl();
+        this.idleRenderers = new ArrayBlockingQueue<>(poolSize);
+        this.permits = new Semaphore(poolSize, true);
+    }
+
+    public ReportDocument open(Map<String, Object> headerVariables, OutputStream outputStream) {
+        return new ReportDocument(headerVariables, outputStream);
+    }
+
+    /**
+     * Fills the pool and pushes a small report through every renderer so fonts, the stylesheet
+     * and the layout code paths are loaded before the first real request.
+     */
+    @Async("maintenanceTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long startedAt = System.currentTimeMillis();
+        List<ReportDocument> documents = new ArrayList<>(poolSize);
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                ReportDocument document = open(Map.of("companyName", "Warm up"), OutputStream.nullOutputStream());
+                documents.add(document);
+                for (int row = 0; row < WARM_UP_ROWS; row++) {
+                    document.add(sampleRow(row));
+                }
+                document.writeChunk(false);
+            }
+            for (ReportDocument document : documents) {
+                document.finish(sampleSummary());
+            }
+            logger.info("Report renderers warmed up: renderers: {}, durationMs: {}", poolSize, System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            logger.warn("Report renderer warm-up failed: error: {}", e.getMessage(), e);
+        } finally {
+            documents.forEach(ReportDocument::close);
+        }
+    }
+
+    private ITextRenderer acquire() {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ReportGenerationException("All report renderers are busy, please retry shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReportGenerationException("Interrupted while waiting for a report renderer", e);
+        }
+        ITextRenderer renderer = idleRenderers.poll();
+        return renderer != null ? renderer : new ITextRenderer();
+    }
+
+    private void release(ITextRenderer renderer, boolean reusable) {
+        if (reusable) {
+            idleRenderers.offer(renderer);
+        }
+        permits.release();
+    }
+
+    private static String resolveBaseUrl() {
+        try {
+            return new ClassPathResource(TEMPLATE_BASE).getURL().toExternalForm();
+        } catch (IOException e) {
+            throw new IllegalStateException("Report template directory is not on the classpath", e);
+        }
+    }
+
+    private static AppointmentDTO sampleRow(int row) {
+        AppointmentDTO appointment = new AppointmentDTO();
+        appointment.setAppointmentId("WARMUP" + row);
+        appointment.setPatientName("Patient " + row);
+        appointment.setContact("9000000000");
+        appointment.setAppointmentDateTime(new Date());
+        appointment.setStatus(AppointmentStatus.BOOKED);
+        appointment.setAppointmentType(AppointmentType.IN_PERSON);
+        return appointment;
+    }
+
+    private static ReportSummaryDTO sampleSummary() {
+        ReportSummaryDTO summary = new ReportSummaryDTO();
+        summary.setTotalAppointments((long) WARM_UP_ROWS);
+        summary.setTreatedAppointments(0L);
+        summary.setCancelledAppointments(0L);
+        summary.setPaidAppointments(0L);
+        summary.setEmergencyAppointments(0L);
+        summary.setDays(List.of());
+        return summary;
+    }
+
+    public final class ReportDocument implements AutoCloseable {
+
+        private final Map<String, Object> headerVariables;
+        private final OutputStream outputStream;
+        private final List<AppointmentDTO> chunk = new ArrayList<>(rowsPerChunk);
+        private ITextRenderer renderer;
+        private boolean started;
+        private ReportSummaryDTO summary;
+        private long total;
+
+        private ReportDocument(Map<String, Object> headerVariables, OutputStream outputStream) {
+            this.headerVariables = headerVariables;
+            this.outputStream = outputStream;
+        }
+
+        public void add(AppointmentDTO appointment) {
+            total++;
+            chunk.add(appointment);
+            if (chunk.size() >= rowsPerChunk) {
+                writeChunk(false);
+            }
+        }
+
+        /**
+         * Writes the remaining rows and the summary footer and closes the PDF. The output stream
+         * itself is left open for the caller. Returns the number of rows written.
+         */
+        public long finish(ReportSummaryDTO summary) {
+            this.summary = summary;
+            writeChunk(true);
+            renderer.finishPDF();
+            release(renderer, true);
+            renderer = null;
+            return total;
+        }
+
+        /**
+         * Gives back the renderer of a document abandoned before {@link #finish()}. Its state is
+         * unknown, so it is discarded and the pool creates a fresh one when needed.
+         */
+        @Override
+        public void close() {
+            if (renderer != null) {
+                release(renderer, false);
+                renderer = null;
+            }
+        }
+
+        private void writeChunk(boolean last) {
+            // Taken on the first chunk so a report does not hold a renderer while its first rows are fetched.
+            if (renderer == null) {
+                renderer = acquire();
+            }
+            Context context = new Context();
+            context.setVariables(headerVariables);
+            context.setVariable("appointments", chunk);
+            context.setVariable("includeHeader", !started);
+            context.setVariable("includeFooter", last);
+            if (last) {
+                context.setVariable("summary", summary);
+            }
+            renderer.setDocumentFromString(templateEngine.process(TEMPLATE, context), baseUrl);
+            renderer.layout();
+            try {
+                if (started) {
+                    renderer.writeNextDocument();
+                } else {
+                    // Only writeNextDocument() moves the page offset, so a reused renderer would
+                    // otherwise resolve links against the previous report's page count.
+                    renderer.getOutputDevice().setStartPageNo(0);
+                    renderer.createPDF(outputStream, false);
+                    renderer.getWriter().setCloseStream(false);
+                    started = true;
+                }
+            } catch (DocumentException e) {
+                throw new ReportGenerationException("Failed to write PDF report: " + e.getMessage(), e);
+            }
+            chunk.clear();
+        }
+    }
+}
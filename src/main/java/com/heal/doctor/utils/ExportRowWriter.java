@@ -0,0 +1,15 @@
+package com.heal.doctor.utils;
+
+import java.io.IOException;
+
+/**
+ * Writes tabular rows straight to an output stream. Nothing is buffered beyond the current row,
+ * so an export of any size runs in constant memory. {@link #finish()} completes the file but
+ * leaves the underlying stream open for the caller.
+ */
+public interface ExportRowWriter {
+
+    void writeRow(String... cells) throws IOException;
+
+    void finish() throws IOException;
+}
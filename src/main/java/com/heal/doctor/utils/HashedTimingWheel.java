@@ -0,0 +1,99 @@
+package com.heal.doctor.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel keyed by a caller-supplied id. Scheduling and cancelling are O(1);
+ * {@link #advance(long)} only visits the buckets for the ticks that elapsed since the last call.
+ * Entries further out than one revolution share a bucket and are skipped until their tick comes
+ * round. The wheel is passive: the owner drives it by calling {@code advance} periodically.
+ */
+public class HashedTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<Map<String, Slot<T>>> buckets;
+    private final Map<String, Slot<T>> slots = new HashMap<>();
+    private long currentTick;
+
+    public HashedTimingWheel(int wheelSize, long tickMillis) {
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a positive power of two");
+        }
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.mask = wheelSize - 1;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new HashMap<>());
+        }
+        this.currentTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    /**
+     * Schedules {@code payload} to expire at {@code deadlineMillis}, replacing any entry with the same key.
+     * Deadlines in the past expire on the next {@link #advance(long)}.
+     */
+    public synchronized void schedule(String key, long deadlineMillis, T payload) {
+        cancel(key);
+        long tick = Math.max(deadlineMillis / tickMillis, currentTick);
+        Slot<T> slot = new Slot<>(tick, payload);
+        buckets.get(bucketIndex(tick)).put(key, slot);
+        slots.put(key, slot);
+    }
+
+    public synchronized boolean cancel(String key) {
+        Slot<T> slot = slots.remove(key);
+        if (slot == null) {
+            return false;
+        }
+        buckets.get(bucketIndex(slot.tick())).remove(key);
+        return true;
+    }
+
+    public synchronized boolean contains(String key) {
+        return slots.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    /**
+     * Removes and returns every entry whose deadline is at or before {@code nowMillis}.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        if (targetTick < currentTick) {
+            return List.of();
+        }
+        List<T> expired = new ArrayList<>();
+        long ticksToVisit = Math.min(targetTick - currentTick + 1, buckets.size());
+        for (long i = 0; i < ticksToVisit; i++) {
+            Iterator<Map.Entry<String, Slot<T>>> iterator = buckets.get(bucketIndex(currentTick + i)).entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Slot<T>> entry = iterator.next();
+                if (entry.getValue().tick() <= targetTick) {
+                    iterator.remove();
+                    slots.remove(entry.getKey());
+                    expired.add(entry.getValue().payload());
+                }
+            }
+        }
+        currentTick = targetTick + 1;
+        return expired;
+    }
+
+    private int bucketIndex(long tick) {
+        return (int) (tick & mask);
+    }
+
+    private record Slot<T>(long tick, T payload) {
+    }
+}
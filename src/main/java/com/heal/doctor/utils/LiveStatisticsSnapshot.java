@@ -0,0 +1,52 @@
+package com.heal.doctor.utils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Today's headline dashboard counters for one doctor. Writers on different request threads add
+ * deltas without contending on a lock; a reader sums each adder, so a snapshot taken during a
+ * concurrent update may be one step behind but is never lost.
+ */
+public class LiveStatisticsSnapshot {
+
+    private final int dayKey;
+    private final LongAdder total = new LongAdder();
+    private final LongAdder untreatedNotAvailable = new LongAdder();
+    private final LongAdder treated = new LongAdder();
+    private final LongAdder availableAtClinic = new LongAdder();
+
+    public LiveStatisticsSnapshot(int dayKey, int total, int untreatedNotAvailable, int treated, int availableAtClinic) {
+        this.dayKey = dayKey;
+        this.total.add(total);
+        this.untreatedNotAvailable.add(untreatedNotAvailable);
+        this.treated.add(treated);
+        this.availableAtClinic.add(availableAtClinic);
+    }
+
+    public int dayKey() {
+        return dayKey;
+    }
+
+    public void add(int totalDelta, int untreatedNotAvailableDelta, int treatedDelta, int availableAtClinicDelta) {
+        total.add(totalDelta);
+        untreatedNotAvailable.add(untreatedNotAvailableDelta);
+        treated.add(treatedDelta);
+        availableAtClinic.add(availableAtClinicDelta);
+    }
+
+    public int total() {
+        return total.intValue();
+    }
+
+    public int untreatedNotAvailable() {
+        return untreatedNotAvailable.intValue();
+    }
+
+    public int treated() {
+        return treated.intValue();
+    }
+
+    public int availableAtClinic() {
+        return availableAtClinic.intValue();
+    }
+}
@@ -0,0 +1,163 @@
+package com.heal.doctor.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory log-linear histogram of non-negative whole seconds, in the style of HdrHistogram.
+ * Values below 64 get a bucket each; every power of two above that is split into 32 equal
+ * sub-buckets, so any recorded value is reported within about 3%. Values past roughly twelve
+ * days land in the last bucket. Recording is lock-free and histograms merge by adding counts,
+ * which is what lets per-day histograms be combined into any range.
+ */
+public class LogHistogram {
+
+    private static final int LINEAR_BITS = 6;
+    private static final int LINEAR_BUCKETS = 1 << LINEAR_BITS;
+    private static final int SUB_BUCKETS = LINEAR_BUCKETS / 2;
+    private static final int MAX_EXPONENT = 20;
+    public static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_EXPONENT - LINEAR_BITS + 1) * SUB_BUCKETS;
+    public static final long MAX_TRACKABLE_SECONDS = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private static final byte ENCODING_VERSION = 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalSeconds = new AtomicLong();
+
+    public void record(long seconds) {
+        long value = Math.max(0, Math.min(seconds, MAX_TRACKABLE_SECONDS));
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.incrementAndGet();
+        totalSeconds.addAndGet(value);
+    }
+
+    public void add(LogHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        totalSeconds.addAndGet(other.totalSeconds.get());
+    }
+
+    public long count() {
+        return totalCount.get();
+    }
+
+    public double mean() {
+        long count = totalCount.get();
+        return count == 0 ? 0.0 : (double) totalSeconds.get() / count;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (0-100), in seconds.
+     */
+    public long percentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return bucketUpperBound(i);
+            }
+        }
+        return MAX_TRACKABLE_SECONDS;
+    }
+
+    public long max() {
+        for (int i = BUCKET_COUNT - 1; i >= 0; i--) {
+            if (counts.get(i) != 0) {
+                return bucketUpperBound(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Encodes the non-empty buckets as varint (index gap, count) pairs after a version byte and
+     * the varint total of recorded seconds. A day with a few dozen distinct waits fits in well
+     * under a hundred bytes.
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(ENCODING_VERSION);
+        writeVarLong(out, totalSeconds.get());
+        int previous = -1;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts.get(i);
+            if (count != 0) {
+                writeVarLong(out, i - previous);
+                writeVarLong(out, count);
+                previous = i;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static LogHistogram decode(byte[] encoded) {
+        LogHistogram histogram = new LogHistogram();
+        if (encoded == null || encoded.length == 0) {
+            return histogram;
+        }
+        if (encoded[0] != ENCODING_VERSION) {
+            throw new IllegalArgumentException("Unsupported histogram encoding version: " + encoded[0]);
+        }
+        int[] position = {1};
+        histogram.totalSeconds.set(readVarLong(encoded, position));
+        int index = -1;
+        while (position[0] < encoded.length) {
+            index += (int) readVarLong(encoded, position);
+            long count = readVarLong(encoded, position);
+            histogram.counts.set(index, count);
+            histogram.totalCount.addAndGet(count);
+        }
+        return histogram;
+    }
+
+    static int bucketIndex(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - LINEAR_BITS + 1;
+        return LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + (int) ((value >> shift) - SUB_BUCKETS);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_BITS;
+        int shift = exponent - LINEAR_BITS + 1;
+        long subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] in, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,19 @@
+package com.heal.doctor.utils;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public class PatientNames {
+
+    private static final Pattern DISALLOWED_CHARACTERS = Pattern.compile("[^a-z0-9\\s'\\-]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public static String normalize(String patientName) {
+        if (patientName == null) {
+            return "";
+        }
+        String lowerCased = patientName.toLowerCase(Locale.ROOT);
+        String stripped = DISALLOWED_CHARACTERS.matcher(lowerCased).replaceAll("");
+        return WHITESPACE.matcher(stripped).replaceAll(" ").trim();
+    }
+}
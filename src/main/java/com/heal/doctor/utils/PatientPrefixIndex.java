@@ -0,0 +1,68 @@
+package com.heal.doctor.utils;
+
+import com.heal.doctor.dto.PatientSummaryDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted in-memory index of a doctor's recent patients. Lookups are lock-free range scans
+ * over skip lists keyed by contact and by normalized name; writers are serialized because
+ * each patient is held under both keys.
+ */
+public class PatientPrefixIndex {
+
+    private static final char KEY_SEPARATOR = '\u0000';
+    private static final char PREFIX_UPPER_BOUND = Character.MAX_VALUE;
+
+    private final ConcurrentSkipListMap<String, PatientSummaryDTO> byContact = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, PatientSummaryDTO> byName = new ConcurrentSkipListMap<>();
+
+    public synchronized void record(String patientName, String contact, Date visit) {
+        String normalizedName = PatientNames.normalize(patientName);
+        String contactKey = contact + KEY_SEPARATOR + normalizedName;
+        PatientSummaryDTO existing = byContact.get(contactKey);
+        PatientSummaryDTO updated;
+        if (existing == null) {
+            updated = new PatientSummaryDTO(patientName, contact, visit, 1);
+        } else {
+            boolean newer = visit != null && (existing.getLastVisit() == null || visit.after(existing.getLastVisit()));
+            updated = new PatientSummaryDTO(
+                    newer ? patientName : existing.getPatientName(),
+                    contact,
+                    newer ? visit : existing.getLastVisit(),
+                    existing.getVisitCount() + 1);
+        }
+        byContact.put(contactKey, updated);
+        byName.put(normalizedName + KEY_SEPARATOR + contact, updated);
+    }
+
+    public List<PatientSummaryDTO> searchByContact(String contactPrefix, int limit) {
+        return scan(byContact, contactPrefix, limit);
+    }
+
+    public List<PatientSummaryDTO> searchByName(String normalizedNamePrefix, int limit) {
+        return scan(byName, normalizedNamePrefix, limit);
+    }
+
+    public int size() {
+        return byContact.size();
+    }
+
+    private List<PatientSummaryDTO> scan(ConcurrentSkipListMap<String, PatientSummaryDTO> index, String prefix, int limit) {
+        NavigableMap<String, PatientSummaryDTO> range = index.subMap(prefix, true, prefix + PREFIX_UPPER_BOUND, true);
+        List<PatientSummaryDTO> matches = new ArrayList<>();
+        for (PatientSummaryDTO summary : range.values()) {
+            if (matches.size() >= limit) {
+                break;
+            }
+            matches.add(summary);
+        }
+        matches.sort(Comparator.comparing(PatientSummaryDTO::getLastVisit, Comparator.nullsLast(Comparator.reverseOrder())));
+        return matches;
+    }
+}
@@ -0,0 +1,45 @@
+package com.heal.doctor.utils;
+
+import com.heal.doctor.exception.BadRequestException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Report period as {@code yyyy-MM-dd} strings. A missing start defaults to the first of the
+ * current month and a missing end to yesterday, so the resolved pair is also a stable key for
+ * deduplicating and caching identical report requests.
+ */
+public record ReportDateRange(String fromDate, String toDate) {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    public static ReportDateRange resolve(String fromDate, String toDate) {
+        return new ReportDateRange(validateOrDefaultFromDate(fromDate), validateOrDefaultToDate(toDate));
+    }
+
+    private static String validateOrDefaultFromDate(String fromDate) {
+        if (fromDate == null || fromDate.isBlank()) {
+            return LocalDate.now().withDayOfMonth(1).format(FORMATTER);
+        }
+        try {
+            LocalDate.parse(fromDate, FORMATTER);
+            return fromDate;
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid fromDate format. Expected yyyy-MM-dd, got: " + fromDate);
+        }
+    }
+
+    private static String validateOrDefaultToDate(String toDate) {
+        if (toDate == null || toDate.isBlank()) {
+            return LocalDate.now().minusDays(1).format(FORMATTER);
+        }
+        try {
+            LocalDate.parse(toDate, FORMATTER);
+            return toDate;
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid toDate format. Expected yyyy-MM-dd, got: " + toDate);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.heal.doctor.utils;
+
+import com.heal.doctor.models.AppointmentSeriesEntity;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Expands a series' recurrence rule into occurrence day keys. Daily and weekly rules jump straight
+ * to the first occurrence in range, so expanding a window far into a long series stays cheap.
+ */
+public final class SeriesOccurrences {
+
+    private SeriesOccurrences() {
+    }
+
+    public static List<Integer> dayKeysBetween(AppointmentSeriesEntity series, int fromDayKey, int toDayKey) {
+        List<Integer> dayKeys = new ArrayList<>();
+        LocalDate first = LocalDate.ofEpochDay(series.getFirstDayKey());
+        for (int index = firstCandidateIndex(series, fromDayKey); ; index++) {
+            if (series.getOccurrenceCount() != null && index >= series.getOccurrenceCount()) {
+                break;
+            }
+            int dayKey = (int) occurrenceDate(series, first, index).toEpochDay();
+            if (dayKey > toDayKey || (series.getUntilDayKey() != null && dayKey > series.getUntilDayKey())) {
+                break;
+            }
+            if (dayKey >= fromDayKey) {
+                dayKeys.add(dayKey);
+            }
+        }
+        return dayKeys;
+    }
+
+    public static boolean hasOccurrenceAfter(AppointmentSeriesEntity series, int dayKey) {
+        List<Integer> next = dayKeysBetween(series, dayKey + 1, dayKey + 1 + maxGapDays(series));
+        return !next.isEmpty();
+    }
+
+    public static Date occurrenceTime(AppointmentSeriesEntity series, int dayKey, ZoneId zone) {
+        return Date.from(LocalDate.ofEpochDay(dayKey)
+                .atTime(LocalTime.ofSecondOfDay(series.getMinuteOfDay() * 60L))
+                .atZone(zone)
+                .toInstant());
+    }
+
+    private static LocalDate occurrenceDate(AppointmentSeriesEntity series, LocalDate first, long index) {
+        long steps = index * series.getInterval();
+        return switch (series.getFrequency()) {
+            case DAILY -> first.plusDays(steps);
+            case WEEKLY -> first.plusWeeks(steps);
+            case MONTHLY -> first.plusMonths(steps);
+        };
+    }
+
+    private static int firstCandidateIndex(AppointmentSeriesEntity series, int fromDayKey) {
+        int first = series.getFirstDayKey();
+        if (fromDayKey <= first) {
+            return 0;
+        }
+        long index = switch (series.getFrequency()) {
+            case DAILY -> (fromDayKey - first) / series.getInterval();
+            case WEEKLY -> (fromDayKey - first) / (7L * series.getInterval());
+            case MONTHLY -> ChronoUnit.MONTHS.between(LocalDate.ofEpochDay(first), LocalDate.ofEpochDay(fromDayKey))
+                    / series.getInterval() - 1;
+        };
+        return (int) Math.max(0, index);
+    }
+
+    private static int maxGapDays(AppointmentSeriesEntity series) {
+        return switch (series.getFrequency()) {
+            case DAILY -> series.getInterval();
+            case WEEKLY -> 7 * series.getInterval();
+            case MONTHLY -> 31 * series.getInterval();
+        };
+    }
+}
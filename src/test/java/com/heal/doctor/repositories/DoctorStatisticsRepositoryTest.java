@@ -0,0 +1,92 @@
+package com.heal.doctor.repositories;
+
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.models.DashboardStatistics;
+import com.mongodb.MongoClientSettings;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.DbCallback;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the {@code @Aggregation} queries through Spring Data's own query parsing against a mocked
+ * {@link MongoOperations}, so a pipeline that does not parse, or parses into the wrong stages,
+ * fails here instead of on the first request.
+ */
+class DoctorStatisticsRepositoryTest {
+
+    private MongoOperations mongoOperations;
+    private DoctorStatisticsRepository repository;
+    private AggregationOperationContext context;
+
+    @BeforeEach
+    void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        mongoOperations = mock(MongoOperations.class);
+        when(mongoOperations.getConverter()).thenReturn(converter);
+        when(mongoOperations.execute(any(DbCallback.class))).thenReturn(MongoClientSettings.getDefaultCodecRegistry());
+        context = new TypeBasedAggregationOperationContext(AppointmentEntity.class, mappingContext, new QueryMapper(converter));
+        repository = new MongoRepositoryFactory(mongoOperations).getRepository(DoctorStatisticsRepository.class);
+    }
+
+    @Test
+    void dashboardStatisticsPipelineParsesIntoThreeStages() {
+        DashboardStatistics result = new DashboardStatistics();
+        when(mongoOperations.aggregate(any(TypedAggregation.class), any(Class.class)))
+                .thenReturn(new AggregationResults<>(List.of(result), new Document()));
+
+        DashboardStatistics statistics = repository.getDashboardStatistics("doctor-1", 20373, 20380,
+                new Date(0), new Date(), "Asia/Kolkata", 20379);
+
+        ArgumentCaptor<TypedAggregation<?>> aggregation = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoOperations).aggregate(aggregation.capture(), any(Class.class));
+        List<Document> pipeline = aggregation.getValue().toPipeline(context);
+        assertEquals(3, pipeline.size());
+        assertTrue(pipeline.get(0).containsKey("$match"));
+        Document facet = pipeline.get(1).get("$facet", Document.class);
+        assertNotNull(facet);
+        assertEquals(List.of("today", "lastWeekTreated", "lastActiveDay"), List.copyOf(facet.keySet()));
+        assertTrue(pipeline.get(2).containsKey("$project"));
+
+        assertSame(result, statistics);
+    }
+
+    @Test
+    void todayStatisticsPipelineParsesIntoThreeStages() {
+        when(mongoOperations.aggregate(any(TypedAggregation.class), any(Class.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        repository.getTodayStatisticsOptimized("doctor-1", 20380);
+
+        ArgumentCaptor<TypedAggregation<?>> aggregation = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoOperations).aggregate(aggregation.capture(), any(Class.class));
+        List<Document> pipeline = aggregation.getValue().toPipeline(context);
+        assertEquals(3, pipeline.size());
+        assertEquals(4, pipeline.get(1).get("$facet", Document.class).size());
+    }
+}
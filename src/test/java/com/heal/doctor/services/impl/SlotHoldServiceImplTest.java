@@ -0,0 +1,158 @@
+package com.heal.doctor.services.impl;
+
+import com.heal.doctor.dto.SlotHoldRequestDTO;
+import com.heal.doctor.events.AppointmentChangedEvent;
+import com.heal.doctor.events.WaitlistPromotionListener;
+import com.heal.doctor.exception.BusinessRuleException;
+import com.heal.doctor.models.AppointmentEntity;
+import com.heal.doctor.models.DoctorEntity;
+import com.heal.doctor.models.SlotCounterEntity;
+import com.heal.doctor.models.SlotHoldEntity;
+import com.heal.doctor.models.TimeSlot;
+import com.heal.doctor.models.enums.AppointmentChangeType;
+import com.heal.doctor.models.enums.AppointmentStatus;
+import com.heal.doctor.repositories.DoctorRepository;
+import com.heal.doctor.services.INotificationService;
+import com.heal.doctor.services.IWaitlistService;
+import com.heal.doctor.utils.ClinicCalendar;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives public holds against an in-memory stand-in for the slot counter, so seat accounting
+ * across holds, cancellations and waitlist promotion is checked without a database.
+ */
+class SlotHoldServiceImplTest {
+
+    private static final String DOCTOR_ID = "DOC1";
+    private static final ZoneId ZONE = ZoneOffset.UTC;
+    private static final int CAPACITY = 1;
+
+    private final AtomicInteger taken = new AtomicInteger();
+    private SlotHoldServiceImpl slotHoldService;
+    private IWaitlistService waitlistService;
+    private WaitlistPromotionListener promotionListener;
+    private int dayKey;
+
+    @BeforeEach
+    void setUp() {
+        int today = (int) LocalDate.now(ZONE).toEpochDay();
+        dayKey = today + 1;
+
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(SlotCounterEntity.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            if (taken.get() >= CAPACITY) {
+                return null;
+            }
+            return SlotCounterEntity.builder()
+                    .id(query.getQueryObject().getString("_id"))
+                    .taken(taken.incrementAndGet())
+                    .capacity(CAPACITY)
+                    .build();
+        });
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(SlotCounterEntity.class))).thenAnswer(invocation -> {
+            taken.updateAndGet(current -> Math.max(0, current - 1));
+            return UpdateResult.acknowledged(1, 1L, null);
+        });
+        when(mongoTemplate.insert(any(SlotHoldEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        DoctorEntity doctor = new DoctorEntity();
+        doctor.setDoctorId(DOCTOR_ID);
+        doctor.setAvailableTimeSlots(List.of(new TimeSlot("10:00 AM", "11:00 AM")));
+        DoctorRepository doctorRepository = mock(DoctorRepository.class);
+        when(doctorRepository.findByDoctorId(DOCTOR_ID)).thenReturn(Optional.of(doctor));
+
+        ClinicCalendar clinicCalendar = mock(ClinicCalendar.class);
+        when(clinicCalendar.today(anyString())).thenReturn(today);
+        when(clinicCalendar.zoneFor(anyString())).thenReturn(ZONE);
+        when(clinicCalendar.startOfDay(any(ZoneId.class), anyInt())).thenAnswer(invocation ->
+                Date.from(LocalDate.ofEpochDay(invocation.<Integer>getArgument(1)).atStartOfDay(ZONE).toInstant()));
+
+        slotHoldService = new SlotHoldServiceImpl(mongoTemplate, doctorRepository, new ModelMapper(), clinicCalendar,
+                mock(INotificationService.class), mock(SimpMessagingTemplate.class), mock(ApplicationEventPublisher.class),
+                CAPACITY, 300, 5);
+        waitlistService = mock(IWaitlistService.class);
+        promotionListener = new WaitlistPromotionListener(waitlistService);
+    }
+
+    @Test
+    void declinedPublicBookingFreesItsSeatForPublicBookingOnly() {
+        slotHoldService.createHold(request("First Patient"));
+        assertThrows(BusinessRuleException.class, () -> slotHoldService.createHold(request("Second Patient")));
+
+        AppointmentEntity booked = AppointmentEntity.builder()
+                .appointmentId("APPT1")
+                .doctorId(DOCTOR_ID)
+                .dayKey(dayKey)
+                .status(AppointmentStatus.BOOKED)
+                .slotKey(DOCTOR_ID + ":" + dayKey + ":0")
+                .build();
+        AppointmentEntity declined = booked.toBuilder().status(AppointmentStatus.CANCELLED).build();
+        AppointmentChangedEvent event = new AppointmentChangedEvent(AppointmentChangeType.CANCELLED, booked, declined, DOCTOR_ID);
+        slotHoldService.onAppointmentChanged(event);
+        promotionListener.onAppointmentChanged(event);
+
+        verify(waitlistService, never()).promoteNext(any());
+        assertEquals(0, taken.get());
+        slotHoldService.createHold(request("Second Patient"));
+        assertThrows(BusinessRuleException.class, () -> slotHoldService.createHold(request("Third Patient")));
+        assertEquals(CAPACITY, taken.get());
+    }
+
+    @Test
+    void cancelledDoctorBookingIsStillOfferedToTheWaitlist() {
+        AppointmentEntity accepted = AppointmentEntity.builder()
+                .appointmentId("APPT2")
+                .doctorId(DOCTOR_ID)
+                .dayKey(dayKey)
+                .status(AppointmentStatus.ACCEPTED)
+                .build();
+        AppointmentEntity cancelled = accepted.toBuilder().status(AppointmentStatus.CANCELLED).build();
+        AppointmentChangedEvent event = new AppointmentChangedEvent(AppointmentChangeType.CANCELLED, accepted, cancelled, DOCTOR_ID);
+        slotHoldService.onAppointmentChanged(event);
+        promotionListener.onAppointmentChanged(event);
+
+        verify(waitlistService).promoteNext(cancelled);
+        assertEquals(0, taken.get());
+    }
+
+    private SlotHoldRequestDTO request(String patientName) {
+        SlotHoldRequestDTO request = new SlotHoldRequestDTO();
+        request.setDoctorId(DOCTOR_ID);
+        request.setDate(ClinicCalendar.formatDayKey(dayKey));
+        request.setSlotIndex(0);
+        request.setPatientName(patientName);
+        request.setContact("9000000000");
+        return request;
+    }
+}
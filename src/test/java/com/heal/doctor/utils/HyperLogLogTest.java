@@ -0,0 +1,89 @@
+package com.heal.doctor.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    @Test
+    void emptySketchEstimatesZero() {
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void smallCardinalitiesAreCountedExactly() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 10; i++) {
+            sketch.offer(HyperLogLog.hash(phone(i)));
+        }
+        assertEquals(10, sketch.estimate());
+    }
+
+    @Test
+    void repeatedValuesAreCountedOnce() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 1000; i++) {
+                sketch.offer(HyperLogLog.hash(phone(i)));
+            }
+        }
+        assertWithinError(1000, sketch.estimate());
+    }
+
+    @Test
+    void largeCardinalityIsWithinStandardError() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100_000; i++) {
+            sketch.offer(HyperLogLog.hash(phone(i)));
+        }
+        assertWithinError(100_000, sketch.estimate());
+    }
+
+    @Test
+    void mergeMatchesSketchOfUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (int i = 0; i < 20_000; i++) {
+            long hash = HyperLogLog.hash(phone(i));
+            (i < 12_000 ? first : second).offer(hash);
+            if (i >= 8_000 && i < 12_000) {
+                second.offer(hash);
+            }
+            union.offer(hash);
+        }
+        first.merge(second);
+        assertEquals(union.estimate(), first.estimate());
+    }
+
+    @Test
+    void registersRebuiltFromIndexAndRankMatchOffer() {
+        HyperLogLog offered = new HyperLogLog();
+        HyperLogLog rebuilt = new HyperLogLog();
+        for (int i = 0; i < 5_000; i++) {
+            long hash = HyperLogLog.hash(phone(i));
+            offered.offer(hash);
+            rebuilt.set(HyperLogLog.index(hash), HyperLogLog.rank(hash));
+        }
+        assertEquals(offered.estimate(), rebuilt.estimate());
+    }
+
+    @Test
+    void rankIsCappedByGuardBit() {
+        assertEquals(Long.SIZE - HyperLogLog.PRECISION + 1, HyperLogLog.rank(0L));
+        assertEquals(1, HyperLogLog.rank(1L << (Long.SIZE - HyperLogLog.PRECISION - 1)));
+        assertEquals(HyperLogLog.REGISTER_COUNT - 1, HyperLogLog.index(-1L));
+    }
+
+    private static void assertWithinError(long expected, long estimate) {
+        double tolerance = expected * HyperLogLog.standardError() * 3;
+        assertTrue(Math.abs(estimate - expected) <= tolerance,
+                () -> "estimate " + estimate + " not within " + tolerance + " of " + expected);
+    }
+
+    private static String phone(int i) {
+        return String.format("98%08d", i);
+    }
+}
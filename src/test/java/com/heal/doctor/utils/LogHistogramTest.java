@@ -0,0 +1,124 @@
+package com.heal.doctor.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogHistogramTest {
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LogHistogram histogram = new LogHistogram();
+        assertEquals(0, histogram.count());
+        assertEquals(0.0, histogram.mean());
+        assertEquals(0, histogram.percentile(50));
+        assertEquals(0, histogram.max());
+    }
+
+    @Test
+    void valuesBelowSixtyFourAreExact() {
+        LogHistogram histogram = new LogHistogram();
+        for (int seconds = 1; seconds <= 10; seconds++) {
+            histogram.record(seconds);
+        }
+        assertEquals(5, histogram.percentile(50));
+        assertEquals(9, histogram.percentile(90));
+        assertEquals(10, histogram.max());
+        assertEquals(5.5, histogram.mean());
+    }
+
+    @Test
+    void largerValuesAreReportedWithinThreePercent() {
+        for (long value = 64; value <= LogHistogram.MAX_TRACKABLE_SECONDS; value = value * 3 / 2 + 1) {
+            LogHistogram histogram = new LogHistogram();
+            histogram.record(value);
+            long reported = histogram.max();
+            assertTrue(reported >= value, "bucket upper bound below value " + value);
+            assertTrue(reported - value <= value * 0.0325, "value " + value + " reported as " + reported);
+        }
+    }
+
+    @Test
+    void bucketsAreContiguous() {
+        assertEquals(0, LogHistogram.bucketIndex(0));
+        for (int index = 0; index < LogHistogram.BUCKET_COUNT - 1; index++) {
+            long upper = LogHistogram.bucketUpperBound(index);
+            assertEquals(index, LogHistogram.bucketIndex(upper));
+            assertEquals(index + 1, LogHistogram.bucketIndex(upper + 1));
+        }
+        assertEquals(LogHistogram.MAX_TRACKABLE_SECONDS, LogHistogram.bucketUpperBound(LogHistogram.BUCKET_COUNT - 1));
+    }
+
+    @Test
+    void outOfRangeValuesAreClamped() {
+        LogHistogram histogram = new LogHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.percentile(50));
+        assertEquals(LogHistogram.MAX_TRACKABLE_SECONDS, histogram.max());
+    }
+
+    @Test
+    void addCombinesCounts() {
+        LogHistogram morning = new LogHistogram();
+        LogHistogram evening = new LogHistogram();
+        for (int i = 0; i < 90; i++) {
+            morning.record(30);
+        }
+        for (int i = 0; i < 10; i++) {
+            evening.record(600);
+        }
+        morning.add(evening);
+        assertEquals(100, morning.count());
+        assertEquals(30, morning.percentile(90));
+        assertTrue(morning.percentile(95) >= 600);
+        assertEquals(87.0, morning.mean());
+    }
+
+    @Test
+    void encodeRoundTrips() {
+        LogHistogram histogram = new LogHistogram();
+        long[] values = {0, 3, 3, 63, 64, 900, 3600, 86_400, LogHistogram.MAX_TRACKABLE_SECONDS};
+        for (long value : values) {
+            histogram.record(value);
+        }
+        LogHistogram decoded = LogHistogram.decode(histogram.encode());
+        assertEquals(histogram.count(), decoded.count());
+        assertEquals(histogram.mean(), decoded.mean());
+        for (double percentile : new double[]{10, 50, 75, 90, 99, 100}) {
+            assertEquals(histogram.percentile(percentile), decoded.percentile(percentile));
+        }
+        assertArrayEquals(histogram.encode(), decoded.encode());
+    }
+
+    @Test
+    void storedDaysMergeLikeOneHistogram() {
+        LogHistogram combined = new LogHistogram();
+        LogHistogram merged = new LogHistogram();
+        for (int day = 0; day < 3; day++) {
+            LogHistogram daily = new LogHistogram();
+            for (long seconds = 60; seconds <= 7_200; seconds += 37 * (day + 1)) {
+                daily.record(seconds);
+                combined.record(seconds);
+            }
+            merged.add(LogHistogram.decode(daily.encode()));
+        }
+        assertEquals(combined.count(), merged.count());
+        assertEquals(combined.mean(), merged.mean());
+        assertArrayEquals(combined.encode(), merged.encode());
+    }
+
+    @Test
+    void decodeOfEmptyInputIsEmpty() {
+        assertEquals(0, LogHistogram.decode(null).count());
+        assertEquals(0, LogHistogram.decode(new byte[0]).count());
+    }
+
+    @Test
+    void decodeRejectsUnknownVersion() {
+        assertThrows(IllegalArgumentException.class, () -> LogHistogram.decode(new byte[]{9, 0}));
+    }
+}